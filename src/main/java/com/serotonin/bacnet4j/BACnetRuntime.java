@@ -0,0 +1,169 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2025 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+package com.serotonin.bacnet4j;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.serotonin.bacnet4j.exception.BACnetException;
+import com.serotonin.bacnet4j.npdu.IoEngine;
+import com.serotonin.bacnet4j.transport.TransportGroup;
+
+import lohbihler.warp.WarpScheduledExecutorService;
+
+/**
+ * The threads of any number of local devices, so that their number follows the number of processors rather than the
+ * number of devices. A runtime holds the executor that the devices schedule their tasks on, a transport group that
+ * processes their transports and handles their requests, and optionally an I/O engine that receives for their IP
+ * networks. Each device still has its own queues, state and counters.
+ * <pre>
+ * BACnetRuntime runtime = new BACnetRuntime().withIoEngine(true).initialize();
+ * LocalDevice localDevice = new LocalDevice(1, new DefaultTransport(network)).withRuntime(runtime).initialize();
+ * ...
+ * localDevice.terminate();
+ * runtime.terminate();
+ * </pre>
+ */
+public class BACnetRuntime {
+    static final Logger LOG = LoggerFactory.getLogger(BACnetRuntime.class);
+
+    private Clock clock = Clock.systemUTC();
+    private int handlerThreads = Runtime.getRuntime().availableProcessors();
+    private boolean ioEngineEnabled;
+
+    private ScheduledExecutorService executor;
+    private TransportGroup transportGroup;
+    private IoEngine ioEngine;
+    private volatile boolean initialized;
+
+    /**
+     * Sets the clock of the executor, which the devices that use the runtime also take as theirs.
+     */
+    public BACnetRuntime withClock(Clock clock) {
+        checkNotInitialized();
+        this.clock = clock;
+        return this;
+    }
+
+    /**
+     * Sets the number of threads that process the transports. The default is the number of available processors.
+     */
+    public BACnetRuntime withHandlerThreads(int handlerThreads) {
+        checkNotInitialized();
+        if (handlerThreads < 1)
+            throw new IllegalArgumentException("handlerThreads must be positive");
+        this.handlerThreads = handlerThreads;
+        return this;
+    }
+
+    /**
+     * Sets whether the IP networks of the devices are received by one I/O engine, rather than by a thread for each
+     * socket. Off by default.
+     */
+    public BACnetRuntime withIoEngine(boolean ioEngineEnabled) {
+        checkNotInitialized();
+        this.ioEngineEnabled = ioEngineEnabled;
+        return this;
+    }
+
+    private void checkNotInitialized() {
+        if (initialized)
+            throw new IllegalStateException("The runtime must be configured before it is initialized");
+    }
+
+    public synchronized BACnetRuntime initialize() throws BACnetException {
+        if (initialized)
+            return this;
+        if (ioEngineEnabled) {
+            try {
+                ioEngine = new IoEngine();
+            } catch (IOException e) {
+                throw new BACnetException(e);
+            }
+        }
+        executor = createScheduledExecutorService();
+        transportGroup = new TransportGroup(handlerThreads);
+        initialized = true;
+        return this;
+    }
+
+    /**
+     * Create the ScheduledExecutorService that the devices share.
+     */
+    protected ScheduledExecutorService createScheduledExecutorService() {
+        return new WarpScheduledExecutorService(clock);
+    }
+
+    /**
+     * Stops the threads. Terminate the devices that use the runtime first.
+     */
+    public synchronized void terminate() {
+        if (!initialized)
+            return;
+        initialized = false;
+        if (ioEngine != null)
+            ioEngine.stop();
+        transportGroup.shutdown();
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS))
+                LOG.warn("BACnet runtime executor did not shut down within the timeout");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOG.warn("Interrupted while waiting for the shutdown of the executor", e);
+        }
+    }
+
+    public boolean isInitialized() {
+        return initialized;
+    }
+
+    public Clock getClock() {
+        return clock;
+    }
+
+    public ScheduledExecutorService getExecutor() {
+        return executor;
+    }
+
+    public TransportGroup getTransportGroup() {
+        return transportGroup;
+    }
+
+    /**
+     * @return the I/O engine, or null if it is not enabled.
+     */
+    public IoEngine getIoEngine() {
+        return ioEngine;
+    }
+}
@@ -29,20 +29,21 @@ package com.serotonin.bacnet4j;
 
 import java.security.SecureRandom;
 import java.time.Clock;
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
@@ -66,7 +67,9 @@ import com.serotonin.bacnet4j.npdu.Network;
 import com.serotonin.bacnet4j.npdu.NetworkIdentifier;
 import com.serotonin.bacnet4j.obj.BACnetObject;
 import com.serotonin.bacnet4j.obj.DeviceObject;
+import com.serotonin.bacnet4j.obj.PropertyUpdate;
 import com.serotonin.bacnet4j.obj.mixin.CovContext;
+import com.serotonin.bacnet4j.obj.mixin.CovNotificationDispatcher;
 import com.serotonin.bacnet4j.persistence.IPersistence;
 import com.serotonin.bacnet4j.persistence.NullPersistence;
 import com.serotonin.bacnet4j.service.Service;
@@ -77,9 +80,11 @@ import com.serotonin.bacnet4j.service.unconfirmed.IAmRequest;
 import com.serotonin.bacnet4j.service.unconfirmed.UnconfirmedCovNotificationRequest;
 import com.serotonin.bacnet4j.service.unconfirmed.UnconfirmedRequestService;
 import com.serotonin.bacnet4j.service.unconfirmed.WhoAmIRequest;
+import com.serotonin.bacnet4j.transport.DefaultTransport;
 import com.serotonin.bacnet4j.transport.Transport;
 import com.serotonin.bacnet4j.type.Encodable;
 import com.serotonin.bacnet4j.type.constructed.Address;
+import com.serotonin.bacnet4j.type.constructed.BACnetArray;
 import com.serotonin.bacnet4j.type.constructed.NetworkSourceAddress;
 import com.serotonin.bacnet4j.type.constructed.PropertyValue;
 import com.serotonin.bacnet4j.type.constructed.Recipient;
@@ -92,9 +97,12 @@ import com.serotonin.bacnet4j.type.enumerated.PropertyIdentifier;
 import com.serotonin.bacnet4j.type.enumerated.RestartReason;
 import com.serotonin.bacnet4j.type.enumerated.Segmentation;
 import com.serotonin.bacnet4j.type.error.ErrorClassAndCode;
+import com.serotonin.bacnet4j.type.primitive.CharacterString;
 import com.serotonin.bacnet4j.type.primitive.ObjectIdentifier;
 import com.serotonin.bacnet4j.type.primitive.UnsignedInteger;
 import com.serotonin.bacnet4j.util.DiscoveryUtils;
+import com.serotonin.bacnet4j.util.IAmIngester;
+import com.serotonin.bacnet4j.util.IAmResponder;
 import com.serotonin.bacnet4j.util.RemoteDeviceDiscoverer;
 import com.serotonin.bacnet4j.util.RemoteDeviceFinder;
 import com.serotonin.bacnet4j.util.RemoteDeviceFinder.RemoteDeviceFuture;
@@ -116,7 +124,7 @@ public class LocalDevice implements AutoCloseable {
     /**
      * The other objects contained by this device.
      */
-    private final List<BACnetObject> localObjects = new CopyOnWriteArrayList<>();
+    private final LocalObjectRegistry localObjects = new LocalObjectRegistry();
 
     /**
      * The policies used for caching of devices, objects, and properties.
@@ -163,6 +171,16 @@ public class LocalDevice implements AutoCloseable {
      */
     private final Map<ObjectIdentifier, List<CovContext>> covContexts = new ConcurrentHashMap<>();
 
+    /**
+     * Sends the COV notifications of the local objects.
+     */
+    private final CovNotificationDispatcher covNotificationDispatcher = new CovNotificationDispatcher(this);
+
+    // Held for writing while a batch of updates is applied, and for reading by readers that must not see part of one.
+    private final ReentrantReadWriteLock updateBatchLock = new ReentrantReadWriteLock();
+    // The COV notifications raised by the batch that the current thread is applying, by subscription.
+    private final ThreadLocal<Map<CovContext, Runnable>> batchCovNotifications = new ThreadLocal<>();
+
     // Event listeners
     private final DeviceEventHandler eventHandler = new DeviceEventHandler();
     private final ExceptionDispatcher exceptionDispatcher = new ExceptionDispatcher();
@@ -174,10 +192,26 @@ public class LocalDevice implements AutoCloseable {
     private ReinitializeDeviceHandler reinitializeDeviceHandler = new DefaultReinitializeDeviceHandler();
 
     private ScheduledExecutorService timer;
+    // The device whose timer this device uses, if it does not have its own.
+    private LocalDevice executorHost;
+    // The runtime whose threads this device uses, if it does not have its own.
+    private BACnetRuntime runtime;
+    // Whether objects created for this device use a CompactPropertyMap.
+    private volatile boolean compactPropertyStorage;
 
     // Callback if other devices have the same id like us
     private Consumer<Address> sameDeviceIdCallback;
 
+    /**
+     * Coalesces the responses to Who-Is requests. When null, every matching Who-Is is answered immediately.
+     */
+    private IAmResponder iAmResponder;
+
+    /**
+     * Ingests received I-Ams in batches. When null, each I-Am is processed in the transport thread as it arrives.
+     */
+    private IAmIngester iAmIngester;
+
     /**
      * Useful when objects want to make COV subscriptions, in that it will provide a device-unique id.
      */
@@ -217,6 +251,88 @@ public class LocalDevice implements AutoCloseable {
         this.clock = clock;
     }
 
+    /**
+     * Sets a responder that coalesces and jitters the I-Am responses to Who-Is requests.
+     *
+     * @param iAmResponder the responder, or null to answer every matching Who-Is immediately.
+     * @return this
+     */
+    public LocalDevice withIAmResponder(IAmResponder iAmResponder) {
+        this.iAmResponder = iAmResponder;
+        return this;
+    }
+
+    public IAmResponder getIAmResponder() {
+        return iAmResponder;
+    }
+
+    /**
+     * Sets an ingester that processes received I-Ams in batches, and caches the remote devices that sent them.
+     *
+     * @param iAmIngester the ingester, or null to process every I-Am as it is received.
+     * @return this
+     */
+    public LocalDevice withIAmIngester(IAmIngester iAmIngester) {
+        this.iAmIngester = iAmIngester;
+        return this;
+    }
+
+    public IAmIngester getIAmIngester() {
+        return iAmIngester;
+    }
+
+    /**
+     * Has this device use the executor of another device rather than create its own, so that many devices, such as
+     * the virtual devices of a gateway, can share one. The other device must be initialized before this one and
+     * terminated after it: this device does not shut the executor down.
+     *
+     * @param executorHost the device whose executor to use
+     * @return this
+     */
+    public LocalDevice withSharedExecutor(LocalDevice executorHost) {
+        if (initialized)
+            throw new IllegalStateException("The executor needs to be set before LocalDevice is initialized");
+        this.executorHost = executorHost;
+        return this;
+    }
+
+    /**
+     * Has this device use the threads of a runtime that other devices share: the runtime's executor, and its
+     * transport group for a DefaultTransport. The device also takes the runtime's clock. The runtime must be
+     * initialized before this device and terminated after it.
+     *
+     * @param runtime the runtime
+     * @return this
+     */
+    public LocalDevice withRuntime(BACnetRuntime runtime) {
+        if (initialized)
+            throw new IllegalStateException("The runtime needs to be set before LocalDevice is initialized");
+        this.runtime = runtime;
+        setClock(runtime.getClock());
+        return this;
+    }
+
+    public BACnetRuntime getRuntime() {
+        return runtime;
+    }
+
+    /**
+     * Has the objects created for this device after this call store their properties in a compact form, rather than
+     * in a hash map each. This saves most of the memory of the objects' properties, at the cost of creating the
+     * present value and status flags on each read. Meant for devices with very many objects.
+     *
+     * @param compactPropertyStorage whether to use compact property storage
+     * @return this
+     */
+    public LocalDevice withCompactPropertyStorage(boolean compactPropertyStorage) {
+        this.compactPropertyStorage = compactPropertyStorage;
+        return this;
+    }
+
+    public boolean isCompactPropertyStorage() {
+        return compactPropertyStorage;
+    }
+
     public DeviceObject getDeviceObject() {
         return deviceObject;
     }
@@ -237,6 +353,10 @@ public class LocalDevice implements AutoCloseable {
         return covContexts;
     }
 
+    public CovNotificationDispatcher getCovNotificationDispatcher() {
+        return covNotificationDispatcher;
+    }
+
     public ObjectIdentifier getId() {
         return deviceObject.getId();
     }
@@ -315,12 +435,23 @@ public class LocalDevice implements AutoCloseable {
     public synchronized LocalDevice initialize(RestartReason lastRestartReason) throws BACnetException {
         deviceObject.writePropertyInternal(PropertyIdentifier.lastRestartReason, lastRestartReason);
 
-        timer = createScheduledExecutorService();
+        if (runtime != null) {
+            if (!runtime.isInitialized())
+                throw new IllegalStateException("The runtime must be initialized before the device");
+            timer = runtime.getExecutor();
+            useTransportGroup(transport);
+        } else if (executorHost != null) {
+            if (!executorHost.isInitialized())
+                throw new IllegalStateException("The device that shares its executor must be initialized first");
+            timer = executorHost.timer;
+        } else {
+            timer = createScheduledExecutorService();
+        }
         transport.initialize();
         initialized = true;
 
         // Notify objects.
-        for (BACnetObject bo : localObjects) {
+        for (BACnetObject bo : localObjects.getAll()) {
             bo.initialize();
         }
 
@@ -362,9 +493,16 @@ public class LocalDevice implements AutoCloseable {
         transport.terminate();
         transport = newTransport;
         transport.setLocalDevice(this);
+        useTransportGroup(transport);
         transport.initialize();
     }
 
+    private void useTransportGroup(Transport transport) {
+        if (runtime != null && transport instanceof DefaultTransport defaultTransport
+                && defaultTransport.getTransportGroup() == null)
+            defaultTransport.setTransportGroup(runtime.getTransportGroup());
+    }
+
     /**
      * Create a ScheduledExecutorService for use by the local device
      *
@@ -386,6 +524,11 @@ public class LocalDevice implements AutoCloseable {
     public synchronized void terminate(long timeout, TimeUnit timeoutUnit) {
         long deadline = System.nanoTime() + timeoutUnit.toNanos(timeout);
 
+        if (iAmResponder != null)
+            iAmResponder.cancel();
+        if (iAmIngester != null)
+            iAmIngester.cancel();
+
         // Terminate the transport before shutting down the timer: network shutdown - in particular
         // the SC state machines - dispatches events and timeouts through the timer, so it must
         // still be operational while the transport closes its connections.
@@ -402,7 +545,8 @@ public class LocalDevice implements AutoCloseable {
             transport.getNetwork().hardTerminate();
             LOG.warn("Interrupted while waiting for network termination", e);
         }
-        if (timer != null) {
+        covNotificationDispatcher.clear();
+        if (timer != null && executorHost == null && runtime == null) {
             timer.shutdown();
             try {
                 long remaining = Math.max(deadline - System.nanoTime(), 1_000_000); // At least one millisecond
@@ -525,8 +669,19 @@ public class LocalDevice implements AutoCloseable {
         return o;
     }
 
+    /**
+     * @return a snapshot of the objects of this device, in the order in which they were added.
+     */
     public List<BACnetObject> getLocalObjects() {
-        return localObjects;
+        return localObjects.getAll();
+    }
+
+    /**
+     * @return the identifiers of the objects of this device, in the order in which they were added. The array is
+     * shared by the readers of the Object_List property, and must not be modified.
+     */
+    public BACnetArray<ObjectIdentifier> getObjectList() {
+        return localObjects.getObjectList();
     }
 
     public <T extends BACnetObject> T getObject(ObjectIdentifier id) {
@@ -543,45 +698,41 @@ public class LocalDevice implements AutoCloseable {
             } else if (id.getObjectType().equals(ObjectType.networkPort)) {
                 // BACnet4J has only one transport and one network, and so returning the first network port object found
                 // is sufficient.
-                obj = localObjects.stream()
-                        .filter(o -> o.getId().getObjectType().equals(ObjectType.networkPort))
-                        .findFirst().orElse(null);
+                obj = localObjects.getFirst(ObjectType.networkPort);
             }
         } else {
-            obj = localObjects.stream()
-                    .filter(o -> o.getId().equals(id))
-                    .findFirst().orElse(null);
+            obj = localObjects.get(id);
         }
 
         return (T) obj;
     }
 
     public BACnetObject getObject(String name) {
-        for (BACnetObject obj : localObjects) {
-            if (name.equals(obj.getObjectName()))
-                return obj;
-        }
-        return null;
+        return localObjects.get(name);
     }
 
     public <T extends BACnetObject> T addObject(T obj) throws BACnetServiceException {
-        if (obj.getId().getObjectType().equals(ObjectType.device)) {
-            if (deviceObject == null) {
-                deviceObject = (DeviceObject) obj;
-            } else {
+        if (obj.getLocalDevice() != this) {
+            throw new IllegalArgumentException("Cannot add an object not created with this local device");
+        }
+
+        boolean device = obj.getId().getObjectType().equals(ObjectType.device);
+        synchronized (localObjects) {
+            if (device && deviceObject != null) {
                 // Don't allow the addition of devices.
                 throw new BACnetServiceException(ErrorClass.object, ErrorCode.dynamicCreationNotSupported);
             }
-        }
-        if (getObject(obj.getId()) != null)
-            throw new BACnetServiceException(ErrorClass.object, ErrorCode.objectIdentifierAlreadyExists);
-        if (getObject(obj.getObjectName()) != null)
-            throw new BACnetServiceException(ErrorClass.object, ErrorCode.duplicateName);
 
-        if (obj.getLocalDevice() != this) {
-            throw new IllegalArgumentException("Cannot add an object not created with this local device");
+            BACnetObject existing = localObjects.add(obj);
+            if (existing != null) {
+                if (existing.getId().equals(obj.getId()))
+                    throw new BACnetServiceException(ErrorClass.object, ErrorCode.objectIdentifierAlreadyExists);
+                throw new BACnetServiceException(ErrorClass.object, ErrorCode.duplicateName);
+            }
+
+            if (device)
+                deviceObject = (DeviceObject) obj;
         }
-        localObjects.add(obj);
 
         if (initialized) {
             // If the local device is already initialized, initialize the object.
@@ -596,34 +747,12 @@ public class LocalDevice implements AutoCloseable {
     }
 
     public int getNextInstanceObjectNumber(ObjectType objectType) {
-        // Make a list of existing ids.
-        List<Integer> ids = new ArrayList<>();
-        int type = objectType.intValue();
-        ObjectIdentifier id;
-        for (BACnetObject obj : localObjects) {
-            id = obj.getId();
-            if (id.getObjectType().intValue() == type)
-                ids.add(id.getInstanceNumber());
-        }
-
-        // Sort the list.
-        Collections.sort(ids);
-
-        // Find the first hole in the list.
-        int i = 0;
-        for (; i < ids.size(); i++) {
-            if (ids.get(i) != i)
-                break;
-        }
-
-        return i;
+        return localObjects.nextFreeInstance(objectType);
     }
 
     public BACnetObject removeObject(ObjectIdentifier id) throws BACnetServiceException {
         BACnetObject obj = getObject(id);
-        if (obj != null) {
-            localObjects.remove(obj);
-
+        if (obj != null && localObjects.remove(obj)) {
             // Notify the object that it was removed.
             obj.terminate();
         } else
@@ -632,6 +761,100 @@ public class LocalDevice implements AutoCloseable {
         return obj;
     }
 
+    /**
+     * Updates the object indexes of this device after the identifier or the name of one of its objects was written.
+     * Called by the object itself.
+     *
+     * @param obj      the object
+     * @param pid      objectIdentifier or objectName
+     * @param oldValue the value before the write
+     */
+    public void objectIdentityChanged(BACnetObject obj, PropertyIdentifier pid, Encodable oldValue) {
+        if (pid.equals(PropertyIdentifier.objectIdentifier)) {
+            if (oldValue instanceof ObjectIdentifier oldId && !oldId.equals(obj.getId()))
+                localObjects.changeId(obj, oldId);
+        } else if (pid.equals(PropertyIdentifier.objectName)) {
+            String oldName = oldValue instanceof CharacterString cs ? cs.getValue() : null;
+            if (!Objects.equals(oldName, obj.getObjectName()))
+                localObjects.changeName(obj, oldName);
+        }
+    }
+
+    /**
+     * Applies the given property values to the local objects of this device as one batch. The values for each object
+     * are written together as with {@link BACnetObject#writePropertiesInternal(Map)}, the last of the values given for
+     * any property, so that the mixins see each object with all its changes applied. The COV notifications that the
+     * batch raises are sent once it is complete, only the latest one for each subscription. Other reporting is not
+     * coalesced: intrinsic reporting still runs once per trigger property written, as for separate writes.
+     * <p>
+     * The values are set under the write lock of the {@link #getUpdateBatchReadLock() update batch lock}, so readers
+     * that hold the read lock see either all of them or none. The mixins and listeners of the objects are notified
+     * after the lock is released, so that they are free to take locks of their own; the properties that they derive
+     * from the values, such as status flags, may therefore be seen to change later. Nothing is written if any of the
+     * objects does not exist.
+     *
+     * @param updates the property values to write
+     * @throws BACnetServiceException if one of the objects does not exist
+     */
+    public void applyUpdates(Collection<PropertyUpdate> updates) throws BACnetServiceException {
+        Map<BACnetObject, Map<PropertyIdentifier, Encodable>> byObject = new LinkedHashMap<>();
+        for (PropertyUpdate update : updates) {
+            BACnetObject obj = getObjectRequired(update.objectId());
+            byObject.computeIfAbsent(obj, o -> new LinkedHashMap<>()).put(update.propertyIdentifier(),
+                    update.value());
+        }
+
+        Map<BACnetObject, Map<PropertyIdentifier, Encodable>> oldValues = new HashMap<>();
+        updateBatchLock.writeLock().lock();
+        try {
+            byObject.forEach((obj, values) -> oldValues.put(obj, obj.setPropertiesInternal(values)));
+        } finally {
+            updateBatchLock.writeLock().unlock();
+        }
+
+        // A batch applied by a listener of another is part of the outer one.
+        boolean outer = batchCovNotifications.get() == null;
+        Map<CovContext, Runnable> notifications = null;
+        if (outer) {
+            notifications = new LinkedHashMap<>();
+            batchCovNotifications.set(notifications);
+        }
+        try {
+            byObject.forEach((obj, values) -> obj.propertiesWritten(values, oldValues.get(obj)));
+        } finally {
+            if (outer)
+                batchCovNotifications.remove();
+        }
+
+        if (outer)
+            notifications.values().forEach(Runnable::run);
+    }
+
+    /**
+     * @return the lock to hold for reading several local object properties without seeing part of a batch of
+     * {@link #applyUpdates(Collection)}. ReadPropertyMultiple holds it. A single property needs no lock, since its
+     * value is replaced whole.
+     */
+    public Lock getUpdateBatchReadLock() {
+        return updateBatchLock.readLock();
+    }
+
+    /**
+     * Holds back a COV notification if the current thread is applying a batch of updates, replacing any notification
+     * held back for the same subscription. Called by COV reporting.
+     *
+     * @param ctx  the subscription, which is to a single object
+     * @param send sends the notification
+     * @return true if the notification was held back, false if it should be sent now
+     */
+    public boolean deferCovNotification(CovContext ctx, Runnable send) {
+        Map<CovContext, Runnable> notifications = batchCovNotifications.get();
+        if (notifications == null)
+            return false;
+        notifications.put(ctx, send);
+        return true;
+    }
+
     public ServicesSupported getServicesSupported() {
         return deviceObject.get(PropertyIdentifier.protocolServicesSupported);
     }
@@ -0,0 +1,259 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2025 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+package com.serotonin.bacnet4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.serotonin.bacnet4j.obj.BACnetObject;
+import com.serotonin.bacnet4j.type.constructed.BACnetArray;
+import com.serotonin.bacnet4j.type.enumerated.ObjectType;
+import com.serotonin.bacnet4j.type.primitive.ObjectIdentifier;
+
+/**
+ * The objects of a local device, indexed by identifier, by name and by type.
+ * <p>
+ * Lookups do not lock. Changes are serialized on the registry, and keep the indexes consistent with each other.
+ * The list of all objects and the Object_List are snapshots in insertion order, built when first asked for after a
+ * change, so that adding many objects in a row does not copy the list once per object.
+ */
+final class LocalObjectRegistry {
+    private final Map<ObjectIdentifier, BACnetObject> byId = new ConcurrentHashMap<>();
+    private final Map<String, BACnetObject> byName = new ConcurrentHashMap<>();
+
+    // The following are guarded by this. An object keeps its slot, and so its place in the insertion order, when its
+    // identifier changes.
+    private final Map<ObjectIdentifier, Slot> slots = new HashMap<>();
+    private final Set<Slot> ordered = new LinkedHashSet<>();
+    private final Map<Integer, TypeIndex> types = new HashMap<>();
+    private volatile List<BACnetObject> snapshot = Collections.emptyList();
+    private volatile BACnetArray<ObjectIdentifier> objectList = new BACnetArray<>();
+
+    BACnetObject get(ObjectIdentifier id) {
+        return byId.get(id);
+    }
+
+    BACnetObject get(String name) {
+        return byName.get(name);
+    }
+
+    /**
+     * @return the first object of the given type that was added, or null if there is none.
+     */
+    synchronized BACnetObject getFirst(ObjectType type) {
+        TypeIndex index = types.get(type.intValue());
+        if (index == null || index.ordered.isEmpty())
+            return null;
+        return index.ordered.iterator().next().obj;
+    }
+
+    /**
+     * @return the lowest instance number of the given type that is not in use.
+     */
+    synchronized int nextFreeInstance(ObjectType type) {
+        TypeIndex index = types.get(type.intValue());
+        if (index == null)
+            return 0;
+        return index.lowestFree;
+    }
+
+    List<BACnetObject> getAll() {
+        List<BACnetObject> list = snapshot;
+        if (list == null) {
+            synchronized (this) {
+                list = snapshot;
+                if (list == null) {
+                    List<BACnetObject> objects = new ArrayList<>(ordered.size());
+                    for (Slot slot : ordered)
+                        objects.add(slot.obj);
+                    list = Collections.unmodifiableList(objects);
+                    snapshot = list;
+                }
+            }
+        }
+        return list;
+    }
+
+    /**
+     * @return the identifiers of the objects in insertion order, as the device's Object_List. The array is shared
+     * until the next change and must not be modified.
+     */
+    BACnetArray<ObjectIdentifier> getObjectList() {
+        BACnetArray<ObjectIdentifier> list = objectList;
+        if (list == null) {
+            synchronized (this) {
+                list = objectList;
+                if (list == null) {
+                    List<ObjectIdentifier> ids = new ArrayList<>(ordered.size());
+                    for (Slot slot : ordered)
+                        ids.add(slot.obj.getId());
+                    list = new BACnetArray<>(ids);
+                    objectList = list;
+                }
+            }
+        }
+        return list;
+    }
+
+    int size() {
+        return byId.size();
+    }
+
+    /**
+     * Adds the object unless its identifier or name is already in use.
+     *
+     * @return null if the object was added, or the object that already has its identifier or name.
+     */
+    synchronized BACnetObject add(BACnetObject obj) {
+        ObjectIdentifier id = obj.getId();
+        String name = obj.getObjectName();
+        BACnetObject existing = byId.get(id);
+        if (existing == null)
+            existing = byName.get(name);
+        if (existing != null)
+            return existing;
+
+        byId.put(id, obj);
+        byName.put(name, obj);
+        Slot slot = new Slot(obj);
+        slots.put(id, slot);
+        ordered.add(slot);
+        typeIndex(id).add(id.getInstanceNumber(), slot);
+        changed();
+        return null;
+    }
+
+    synchronized boolean remove(BACnetObject obj) {
+        ObjectIdentifier id = obj.getId();
+        if (!byId.remove(id, obj))
+            return false;
+
+        byName.remove(obj.getObjectName(), obj);
+        Slot slot = slots.remove(id);
+        ordered.remove(slot);
+        typeIndex(id).remove(id.getInstanceNumber(), slot);
+        changed();
+        return true;
+    }
+
+    /**
+     * Moves a registered object from its old identifier to its current one, keeping its place in the list.
+     */
+    synchronized void changeId(BACnetObject obj, ObjectIdentifier oldId) {
+        if (!byId.remove(oldId, obj))
+            return;
+
+        ObjectIdentifier id = obj.getId();
+        byId.put(id, obj);
+        Slot slot = slots.remove(oldId);
+        slots.put(id, slot);
+        if (oldId.getObjectType().equals(id.getObjectType())) {
+            typeIndex(id).renumber(oldId.getInstanceNumber(), id.getInstanceNumber());
+        } else {
+            typeIndex(oldId).remove(oldId.getInstanceNumber(), slot);
+            typeIndex(id).add(id.getInstanceNumber(), slot);
+        }
+        changed();
+    }
+
+    /**
+     * Moves a registered object from its old name to its current one.
+     */
+    synchronized void changeName(BACnetObject obj, String oldName) {
+        if (byId.get(obj.getId()) != obj)
+            return;
+        if (oldName != null)
+            byName.remove(oldName, obj);
+        byName.put(obj.getObjectName(), obj);
+    }
+
+    private void changed() {
+        snapshot = null;
+        objectList = null;
+    }
+
+    private TypeIndex typeIndex(ObjectIdentifier id) {
+        return types.computeIfAbsent(id.getObjectType().intValue(), k -> new TypeIndex());
+    }
+
+    /**
+     * A registered object. Compared by identity, so that it can stay in the ordered set while the object's identifier
+     * changes.
+     */
+    private static final class Slot {
+        final BACnetObject obj;
+
+        Slot(BACnetObject obj) {
+            this.obj = obj;
+        }
+    }
+
+    /**
+     * The objects of one type, in insertion order, and the instance numbers they use.
+     */
+    private static final class TypeIndex {
+        final Set<Slot> ordered = new LinkedHashSet<>();
+        final Set<Integer> instances = new HashSet<>();
+        // The lowest instance number not in use.
+        int lowestFree;
+
+        void add(int instance, Slot slot) {
+            ordered.add(slot);
+            use(instance);
+        }
+
+        void remove(int instance, Slot slot) {
+            ordered.remove(slot);
+            free(instance);
+        }
+
+        void renumber(int oldInstance, int instance) {
+            free(oldInstance);
+            use(instance);
+        }
+
+        private void use(int instance) {
+            instances.add(instance);
+            while (instances.contains(lowestFree))
+                lowestFree++;
+        }
+
+        private void free(int instance) {
+            instances.remove(instance);
+            if (instance < lowestFree)
+                lowestFree = instance;
+        }
+    }
+}
@@ -31,6 +31,7 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -95,6 +96,30 @@ public class RemoteEntityCache<K, T> {
         }
     }
 
+    /**
+     * Puts the given entities into the cache while holding the cache lock only once. Keys that already have an
+     * unexpired entity keep it, so that concurrent writers agree on a single instance.
+     *
+     * @param values the entities to cache, by key.
+     * @param policy provides the cache policy for each key.
+     * @return the entity that is cached for each of the given keys after the call.
+     */
+    public Map<K, T> putEntitiesIfAbsent(final Map<K, T> values, final Function<K, RemoteEntityCachePolicy> policy) {
+        final Map<K, T> result = new HashMap<>();
+        synchronized (cache) {
+            values.forEach((key, value) -> {
+                final CachedRemoteEntity<T> cre = cache.get(key);
+                if (cre != null && !cre.hasExpired(localDevice)) {
+                    result.put(key, cre.getEntity());
+                } else {
+                    cache.put(key, new CachedRemoteEntity<>(localDevice, value, policy.apply(key)));
+                    result.put(key, value);
+                }
+            });
+        }
+        return result;
+    }
+
     public T removeEntity(final K key) {
         synchronized (cache) {
             final CachedRemoteEntity<T> cp = cache.remove(key);
@@ -27,6 +27,7 @@
 
 package com.serotonin.bacnet4j.event;
 
+import java.util.List;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
 import com.serotonin.bacnet4j.RemoteDevice;
@@ -102,6 +103,16 @@ public class DeviceEventHandler {
         }
     }
 
+    public void fireIAmsReceived(List<RemoteDevice> devices) {
+        for (DeviceEventListener l : listeners) {
+            try {
+                l.iAmsReceived(devices);
+            } catch (Exception e) {
+                handleException(l, e);
+            }
+        }
+    }
+
     public void propertyWritten(Address from, BACnetObject obj, PropertyValue pv) {
         for (DeviceEventListener l : listeners) {
             try {
@@ -27,6 +27,8 @@
 
 package com.serotonin.bacnet4j.event;
 
+import java.util.List;
+
 import com.serotonin.bacnet4j.RemoteDevice;
 import com.serotonin.bacnet4j.RemoteObject;
 import com.serotonin.bacnet4j.obj.BACnetObject;
@@ -68,6 +70,18 @@ public interface DeviceEventListener {
      */
     void iAmReceived(RemoteDevice d);
 
+    /**
+     * Notification of receipt of a batch of IAm messages. This is only used when the local device ingests IAms in
+     * batches (see {@link com.serotonin.bacnet4j.util.IAmIngester}). The default calls {@link #iAmReceived} for each
+     * device, so listeners only need to override this if they can make use of the whole batch at once.
+     *
+     * @param devices the remote devices that sent the IAms
+     */
+    default void iAmsReceived(List<RemoteDevice> devices) {
+        for (RemoteDevice d : devices)
+            iAmReceived(d);
+    }
+
     /**
      * Allow a listener to veto an attempt by another device to write a property in a local object.
      *
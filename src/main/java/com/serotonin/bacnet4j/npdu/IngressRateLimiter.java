@@ -0,0 +1,188 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2025 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+
+package com.serotonin.bacnet4j.npdu;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.serotonin.bacnet4j.type.primitive.OctetString;
+
+/**
+ * Limits the rate at which a network accepts incoming datagrams, before any NPDU parsing is done. Two kinds of token
+ * bucket are applied:
+ * <ul>
+ * <li>one per source link address, so that a single misbehaving peer cannot starve the others, and</li>
+ * <li>one per link layer function (e.g. BVLC Original-Broadcast-NPDU), shared by all sources, which protects against
+ * broadcast storms that arrive from many addresses at once.</li>
+ * </ul>
+ * A datagram is accepted only if every bucket that applies to it has a token. Dropped datagrams are counted per
+ * source.
+ * <p>
+ * The number of per-source buckets is bounded. When the bound is reached, the least recently used bucket is discarded if
+ * it has refilled completely. Otherwise, new sources share a single overflow bucket.
+ */
+public class IngressRateLimiter {
+    public static final int DEFAULT_MAX_TRACKED_SOURCES = 4096;
+
+    private final double perSourceRate;
+    private final int perSourceBurst;
+    private final Map<Integer, FunctionLimit> functionLimits = new HashMap<>();
+    private int maxTrackedSources = DEFAULT_MAX_TRACKED_SOURCES;
+
+    // Access ordered, so the eldest entry is always the best candidate for eviction. Guarded by itself.
+    private final LinkedHashMap<OctetString, TokenBucket> sourceBuckets = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Integer, TokenBucket> functionBuckets = new ConcurrentHashMap<>();
+    private TokenBucket overflowBucket;
+
+    private final Map<OctetString, LongAdder> dropCounts = new ConcurrentHashMap<>();
+    private final LongAdder droppedTotal = new LongAdder();
+
+    /**
+     * @param perSourceRate  the sustained number of datagrams per second accepted from a single source. Zero or less
+     *                       disables the per-source limit.
+     * @param perSourceBurst the number of datagrams a single source may send in a burst.
+     */
+    public IngressRateLimiter(double perSourceRate, int perSourceBurst) {
+        this.perSourceRate = perSourceRate;
+        this.perSourceBurst = perSourceBurst;
+    }
+
+    /**
+     * Adds a limit on the aggregate rate of datagrams with the given link layer function, from all sources.
+     *
+     * @param function      the link layer function code, e.g. 0x0B for a BVLC Original-Broadcast-NPDU.
+     * @param ratePerSecond the sustained number of datagrams per second accepted.
+     * @param burst         the number of datagrams accepted in a burst.
+     * @return this
+     */
+    public IngressRateLimiter withFunctionLimit(int function, double ratePerSecond, int burst) {
+        // Validate now rather than when the first datagram arrives.
+        new TokenBucket(ratePerSecond, burst, 0);
+        functionLimits.put(function, new FunctionLimit(ratePerSecond, burst));
+        return this;
+    }
+
+    public IngressRateLimiter withMaxTrackedSources(int maxTrackedSources) {
+        if (maxTrackedSources < 1)
+            throw new IllegalArgumentException("maxTrackedSources must be at least 1");
+        this.maxTrackedSources = maxTrackedSources;
+        return this;
+    }
+
+    /**
+     * @param source   the link address from which the datagram was received.
+     * @param function the link layer function of the datagram.
+     * @param now      the current time in milliseconds.
+     * @return true if the datagram should be processed, false if it should be dropped.
+     */
+    public boolean tryAcquire(OctetString source, int function, long now) {
+        boolean allowed = true;
+
+        if (perSourceRate > 0)
+            allowed = getSourceBucket(source, now).tryAcquire(now);
+
+        if (allowed) {
+            FunctionLimit limit = functionLimits.get(function);
+            if (limit != null) {
+                allowed = functionBuckets.computeIfAbsent(function,
+                        k -> new TokenBucket(limit.ratePerSecond, limit.burst, now)).tryAcquire(now);
+            }
+        }
+
+        if (!allowed)
+            countDrop(source);
+        return allowed;
+    }
+
+    private TokenBucket getSourceBucket(OctetString source, long now) {
+        synchronized (sourceBuckets) {
+            TokenBucket bucket = sourceBuckets.get(source);
+            if (bucket != null)
+                return bucket;
+
+            if (sourceBuckets.size() >= maxTrackedSources) {
+                Map.Entry<OctetString, TokenBucket> eldest = sourceBuckets.entrySet().iterator().next();
+                if (!eldest.getValue().isFull(now)) {
+                    if (overflowBucket == null)
+                        overflowBucket = new TokenBucket(perSourceRate, perSourceBurst, now);
+                    return overflowBucket;
+                }
+                sourceBuckets.remove(eldest.getKey());
+            }
+
+            bucket = new TokenBucket(perSourceRate, perSourceBurst, now);
+            sourceBuckets.put(source, bucket);
+            return bucket;
+        }
+    }
+
+    private void countDrop(OctetString source) {
+        droppedTotal.increment();
+        LongAdder count = dropCounts.get(source);
+        if (count == null && dropCounts.size() < maxTrackedSources)
+            count = dropCounts.computeIfAbsent(source, k -> new LongAdder());
+        if (count != null)
+            count.increment();
+    }
+
+    /**
+     * @return the total number of datagrams dropped, including those from sources that could not be tracked
+     * individually.
+     */
+    public long getDroppedCount() {
+        return droppedTotal.sum();
+    }
+
+    /**
+     * @return a snapshot of the number of datagrams dropped per source link address.
+     */
+    public Map<OctetString, Long> getDropCounts() {
+        Map<OctetString, Long> result = new HashMap<>();
+        dropCounts.forEach((k, v) -> result.put(k, v.sum()));
+        return result;
+    }
+
+    public void resetDropCounts() {
+        dropCounts.clear();
+        droppedTotal.reset();
+    }
+
+    static class FunctionLimit {
+        final double ratePerSecond;
+        final int burst;
+
+        FunctionLimit(double ratePerSecond, int burst) {
+            this.ratePerSecond = ratePerSecond;
+            this.burst = burst;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2025 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+package com.serotonin.bacnet4j.npdu;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A single thread that receives from any number of datagram channels, in place of a listener thread per socket.
+ * Networks register their channels in non-blocking mode, and are handed each datagram on the engine's thread; they
+ * must not block there.
+ */
+public class IoEngine {
+    static final Logger LOG = LoggerFactory.getLogger(IoEngine.class);
+
+    static final int MESSAGE_LENGTH = 2048;
+    // The datagrams read from one channel before the others get a turn.
+    static final int BATCH_SIZE = 64;
+
+    public interface DatagramReceiver {
+        /**
+         * @param data the datagram. Only valid for the duration of the call.
+         * @param from the sender
+         */
+        void received(ByteBuffer data, InetSocketAddress from);
+    }
+
+    private final Selector selector;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    public IoEngine() throws IOException {
+        selector = Selector.open();
+        thread = new Thread(this::run, "BACnet4J I/O engine");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Has the engine receive from the channel until it is closed. The channel is made non-blocking.
+     */
+    public void register(DatagramChannel channel, DatagramReceiver receiver) throws IOException {
+        channel.configureBlocking(false);
+        channel.register(selector, SelectionKey.OP_READ, receiver);
+        selector.wakeup();
+    }
+
+    /**
+     * @return the number of channels registered.
+     */
+    public int getChannelCount() {
+        try {
+            return selector.keys().size();
+        } catch (ClosedSelectorException e) {
+            return 0;
+        }
+    }
+
+    public void stop() {
+        running = false;
+        selector.wakeup();
+        try {
+            thread.join(10000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        ByteBuffer buffer = ByteBuffer.allocate(MESSAGE_LENGTH);
+        try {
+            while (running) {
+                selector.select();
+                Iterator<SelectionKey> iter = selector.selectedKeys().iterator();
+                while (iter.hasNext()) {
+                    SelectionKey key = iter.next();
+                    iter.remove();
+                    if (key.isValid() && key.isReadable())
+                        read(key, buffer);
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            LOG.error("I/O engine failed", e);
+        } finally {
+            try {
+                selector.close();
+            } catch (IOException e) {
+                LOG.debug("Failed to close the selector", e);
+            }
+        }
+    }
+
+    private static void read(SelectionKey key, ByteBuffer buffer) {
+        DatagramChannel channel = (DatagramChannel) key.channel();
+        DatagramReceiver receiver = (DatagramReceiver) key.attachment();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            InetSocketAddress from;
+            buffer.clear();
+            try {
+                from = (InetSocketAddress) channel.receive(buffer);
+            } catch (IOException e) {
+                // The channel was closed.
+                key.cancel();
+                return;
+            }
+            if (from == null)
+                return;
+            buffer.flip();
+            try {
+                receiver.received(buffer, from);
+            } catch (RuntimeException e) {
+                LOG.error("Error handling datagram from {}", from, e);
+            }
+        }
+    }
+}
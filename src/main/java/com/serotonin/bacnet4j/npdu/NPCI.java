@@ -131,6 +131,36 @@ public class NPCI {
         return this;
     }
 
+    /**
+     * Sets the source network and address, as a router does when it forwards a message received from a directly
+     * connected network (clause 6.5.4).
+     */
+    public NPCI source(int network, byte[] address) {
+        control = control.setBit(3);
+        sourceNetwork = network;
+        sourceAddress = address;
+        sourceLength = address.length;
+        return this;
+    }
+
+    /**
+     * Removes the destination network and address, as a router does when it delivers a message to its destination
+     * network.
+     */
+    public NPCI clearDestination() {
+        control = control.clearBit(5);
+        destinationNetwork = 0;
+        destinationLength = 0;
+        destinationAddress = null;
+        hopCount = 0;
+        return this;
+    }
+
+    public NPCI hopCount(int hopCount) {
+        this.hopCount = hopCount;
+        return this;
+    }
+
     private void setSourceAddress(Address source) {
         if (source != null) {
             control = control.setBit(3);
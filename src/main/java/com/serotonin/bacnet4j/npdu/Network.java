@@ -36,6 +36,7 @@ import com.serotonin.bacnet4j.apdu.APDU;
 import com.serotonin.bacnet4j.enums.MaxApduLength;
 import com.serotonin.bacnet4j.exception.BACnetException;
 import com.serotonin.bacnet4j.exception.BACnetRuntimeException;
+import com.serotonin.bacnet4j.npdu.router.RouterPort;
 import com.serotonin.bacnet4j.transport.Transport;
 import com.serotonin.bacnet4j.type.constructed.Address;
 import com.serotonin.bacnet4j.type.constructed.NetworkSourceAddress;
@@ -47,6 +48,7 @@ public abstract class Network {
 
     private final int localNetworkNumber;
     private Transport transport;
+    private volatile RouterPort routerPort;
 
     protected Network() {
         this(0);
@@ -68,6 +70,18 @@ public abstract class Network {
         return transport;
     }
 
+    /**
+     * Attaches this network to a router as one of its ports, or detaches it with null. The port sees every message
+     * received and takes those that are to be routed. See {@link com.serotonin.bacnet4j.npdu.router.BACnetRouter}.
+     */
+    public void setRouterPort(RouterPort routerPort) {
+        this.routerPort = routerPort;
+    }
+
+    public RouterPort getRouterPort() {
+        return routerPort;
+    }
+
     public abstract long getBytesOut();
 
     public abstract long getBytesIn();
@@ -154,7 +168,7 @@ public abstract class Network {
 
         apdu.write(npdu);
 
-        sendNPDU(recipient, router, npdu, broadcast, apdu.expectsReply());
+        sendOrRoute(recipient, router, npdu, broadcast, apdu.expectsReply());
     }
 
     public final void sendNetworkMessage(Address recipient, OctetString router, int messageType, byte[] msg,
@@ -180,6 +194,16 @@ public abstract class Network {
         if (msg != null)
             npdu.push(msg);
 
+        sendOrRoute(recipient, router, npdu, broadcast, expectsReply);
+    }
+
+    private void sendOrRoute(Address recipient, OctetString router, ByteQueue npdu, boolean broadcast,
+            boolean expectsReply) throws BACnetException {
+        // When this network is a router port, messages to networks on the router's other ports are handed to the
+        // router rather than sent to the router's own address.
+        RouterPort port = routerPort;
+        if (port != null && port.routeOutgoing(recipient, npdu))
+            return;
         sendNPDU(recipient, router, npdu, broadcast, expectsReply);
     }
 
@@ -229,6 +253,10 @@ public abstract class Network {
         if (npci.getVersion() != 1)
             throw new MessageValidationException("Invalid protocol version: " + npci.getVersion());
 
+        RouterPort port = routerPort;
+        if (port != null && !port.routeIncoming(npci, queue, linkService))
+            return null;
+
         // Check the destination network number and ignore foreign networks requests
         if (npci.hasDestinationInfo()) {
             int destNet = npci.getDestinationNetwork();
@@ -252,12 +280,7 @@ public abstract class Network {
         } else {
             // Remember the network router in case we haven't heard from it before. This may happen if the router did
             // not respond to a WhoIsRouterToNetwork request.
-            int nn = from.getNetworkNumber().intValue();
-            if (!transport.getNetworkRouters().containsKey(nn)) {
-                LOG.debug("Network router {} to {} is not currently known. Adding to transport's list", linkService,
-                        nn);
-                transport.addNetworkRouter(nn, linkService);
-            }
+            transport.networkRouterSeen(from.getNetworkNumber().intValue(), linkService);
             LOG.debug("Received NPDU from remote network. From={}, local={}", from, localNetworkNumber);
         }
 
@@ -0,0 +1,86 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2025 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+
+package com.serotonin.bacnet4j.npdu;
+
+/**
+ * A token bucket that refills continuously at a fixed rate up to its capacity. Times are given by the caller in
+ * milliseconds so that the bucket follows whatever clock the local device is using.
+ */
+public class TokenBucket {
+    private final double ratePerMilli;
+    private final double capacity;
+
+    private double tokens;
+    private long lastRefill;
+
+    /**
+     * @param ratePerSecond the number of tokens added per second.
+     * @param burst         the maximum number of tokens the bucket holds, i.e. the largest burst that is allowed
+     *                      through after a quiet period.
+     * @param now           the current time in milliseconds.
+     */
+    public TokenBucket(double ratePerSecond, int burst, long now) {
+        if (ratePerSecond <= 0)
+            throw new IllegalArgumentException("ratePerSecond must be greater than 0");
+        if (burst < 1)
+            throw new IllegalArgumentException("burst must be at least 1");
+        this.ratePerMilli = ratePerSecond / 1000;
+        this.capacity = burst;
+        this.tokens = burst;
+        this.lastRefill = now;
+    }
+
+    /**
+     * @return true if a token was available and has been taken, false if the caller should be rate limited.
+     */
+    public synchronized boolean tryAcquire(long now) {
+        refill(now);
+        if (tokens < 1)
+            return false;
+        tokens -= 1;
+        return true;
+    }
+
+    /**
+     * @return true if the bucket has refilled to capacity, meaning it is no longer limiting anything and could be
+     * discarded without changing behaviour.
+     */
+    public synchronized boolean isFull(long now) {
+        refill(now);
+        return tokens >= capacity;
+    }
+
+    private void refill(long now) {
+        long elapsed = now - lastRefill;
+        if (elapsed > 0) {
+            tokens = Math.min(capacity, tokens + elapsed * ratePerMilli);
+            lastRefill = now;
+        }
+    }
+}
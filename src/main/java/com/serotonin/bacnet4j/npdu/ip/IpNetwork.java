@@ -35,7 +35,10 @@ import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.NetworkInterface;
 import java.net.SocketException;
+import java.net.StandardSocketOptions;
 import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -45,14 +48,18 @@ import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.lang3.SystemUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.serotonin.bacnet4j.BACnetRuntime;
 import com.serotonin.bacnet4j.enums.MaxApduLength;
 import com.serotonin.bacnet4j.exception.BACnetException;
 import com.serotonin.bacnet4j.exception.BACnetRuntimeException;
+import com.serotonin.bacnet4j.npdu.IngressRateLimiter;
+import com.serotonin.bacnet4j.npdu.IoEngine;
 import com.serotonin.bacnet4j.npdu.MessageValidationException;
 import com.serotonin.bacnet4j.npdu.NPDU;
 import com.serotonin.bacnet4j.npdu.Network;
@@ -85,6 +92,7 @@ public class IpNetwork extends Network {
     private final String broadcastAddressStr;
     private final String subnetMaskStr;
     private final boolean reuseAddress;
+    private final IngressRateLimiter ingressRateLimiter;
 
     // BBMD support
     private List<Address> localAddresses;
@@ -106,23 +114,31 @@ public class IpNetwork extends Network {
     // Runtime
     private DatagramSocket unicastSocket;
     private DatagramSocket broadcastSocket;
+    // The channels of the sockets, when they are received by an I/O engine.
+    private DatagramChannel unicastChannel;
+    private DatagramChannel broadcastChannel;
     private OctetString broadcastMAC;
     private InetSocketAddress localBindAddress;
     private byte[] subnetMask;
     private long bytesOut;
     private long bytesIn;
+    private final AtomicLong sendDropCount = new AtomicLong();
+    // Whether the last datagram could not be sent because the send buffer was full. Only the first of a run of drops
+    // is logged as a warning.
+    private volatile boolean sendBufferFull;
 
     /**
      * Use an IpNetworkBuilder to create instances.
      */
     IpNetwork(int port, String localBindAddress, String broadcastAddress, String subnetMask, int localNetworkNumber,
-            boolean reuseAddress) {
+            boolean reuseAddress, IngressRateLimiter ingressRateLimiter) {
         super(localNetworkNumber);
         this.port = port;
         this.localBindAddressStr = localBindAddress;
         this.broadcastAddressStr = broadcastAddress;
         this.subnetMaskStr = subnetMask;
         this.reuseAddress = reuseAddress;
+        this.ingressRateLimiter = ingressRateLimiter;
     }
 
     @Override
@@ -157,9 +173,29 @@ public class IpNetwork extends Network {
         return bytesIn;
     }
 
+    /**
+     * @return the number of datagrams that were dropped because the send buffer of the I/O engine's channel was full.
+     */
+    public long getSendDropCount() {
+        return sendDropCount.get();
+    }
+
+    /**
+     * @return the limiter applied to incoming datagrams, or null if incoming datagrams are not rate limited. Use it to
+     * read the drop counters per source.
+     */
+    public IngressRateLimiter getIngressRateLimiter() {
+        return ingressRateLimiter;
+    }
+
     /**
      * Get the network socket, useful for routing purposes
+     *
+     * @deprecated when the network is received by the I/O engine of a {@link BACnetRuntime}, this is the socket of a
+     * non-blocking channel, and sending on it throws an IllegalBlockingModeException. Send through the network
+     * instead.
      */
+    @Deprecated
     public DatagramSocket getSocket() {
         return unicastSocket;
     }
@@ -231,9 +267,16 @@ public class IpNetwork extends Network {
         super.initialize(transport);
 
         localBindAddress = InetAddrCache.get(localBindAddressStr, port);
+        BACnetRuntime runtime = transport.getLocalDevice().getRuntime();
+        IoEngine ioEngine = runtime == null ? null : runtime.getIoEngine();
         try {
-            unicastSocket = createSocket(localBindAddress);
-        } catch (SocketException e) {
+            if (ioEngine == null) {
+                unicastSocket = createSocket(localBindAddress);
+            } else {
+                unicastChannel = createChannel(localBindAddress);
+                unicastSocket = unicastChannel.socket();
+            }
+        } catch (IOException e) {
             throw new BACnetException(e);
         }
 
@@ -246,22 +289,39 @@ public class IpNetwork extends Network {
             // Linux we need to open a socket on the broadcast address and get the broadcasts that way.
             try {
                 InetSocketAddress broadcastAddress = InetAddrCache.get(broadcastAddressStr, port);
-                broadcastSocket = createSocket(broadcastAddress);
-            } catch (SocketException e) {
+                if (ioEngine == null) {
+                    broadcastSocket = createSocket(broadcastAddress);
+                } else {
+                    broadcastChannel = createChannel(broadcastAddress);
+                    broadcastSocket = broadcastChannel.socket();
+                }
+            } catch (IOException e) {
                 unicastSocket.close();
                 throw new BACnetException(e);
             }
         }
 
-        // If the bindings were successful, start the listener threads.
-        Thread unicastThread = new Thread(() -> listen(unicastSocket),
-                "BACnet4J IP socket listener for " + transport.getLocalDevice().getId());
-        unicastThread.start();
-
-        if (broadcastSocket != null) {
-            Thread broadcastThread = new Thread(() -> listen(broadcastSocket),
-                    "BACnet4J IP broadcast socket listener for " + transport.getLocalDevice().getId());
-            broadcastThread.start();
+        if (ioEngine != null) {
+            // The engine receives for the sockets instead of listener threads.
+            try {
+                ioEngine.register(unicastChannel, this::receive);
+                if (broadcastChannel != null)
+                    ioEngine.register(broadcastChannel, this::receive);
+            } catch (IOException e) {
+                terminate();
+                throw new BACnetException(e);
+            }
+        } else {
+            // If the bindings were successful, start the listener threads.
+            Thread unicastThread = new Thread(() -> listen(unicastSocket),
+                    "BACnet4J IP socket listener for " + transport.getLocalDevice().getId());
+            unicastThread.start();
+
+            if (broadcastSocket != null) {
+                Thread broadcastThread = new Thread(() -> listen(broadcastSocket),
+                        "BACnet4J IP broadcast socket listener for " + transport.getLocalDevice().getId());
+                broadcastThread.start();
+            }
         }
 
         localAddresses = getLocalAddressList();
@@ -286,6 +346,24 @@ public class IpNetwork extends Network {
         return socket;
     }
 
+    /**
+     * Creates the channel of a socket that an I/O engine receives for.
+     */
+    protected DatagramChannel createChannel(InetSocketAddress bindAddress) throws IOException {
+        LOG.info("Binding to address {}", bindAddress);
+        DatagramChannel channel = DatagramChannel.open();
+        try {
+            if (reuseAddress)
+                channel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+            channel.setOption(StandardSocketOptions.SO_BROADCAST, true);
+            channel.bind(bindAddress);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return channel;
+    }
+
     @Override
     public void terminate() {
         unregisterAsForeignDevice();
@@ -480,8 +558,24 @@ public class IpNetwork extends Network {
 
     protected void sendPacket(InetSocketAddress addr, byte[] data) throws BACnetException {
         try {
-            DatagramPacket packet = new DatagramPacket(data, data.length, addr);
-            unicastSocket.send(packet);
+            if (unicastChannel != null) {
+                // A non-blocking channel: the datagram is dropped if the send buffer is full, as it may be anywhere
+                // on the way.
+                if (unicastChannel.send(ByteBuffer.wrap(data), addr) == 0) {
+                    sendDropCount.incrementAndGet();
+                    if (!sendBufferFull) {
+                        sendBufferFull = true;
+                        LOG.warn("Send buffer full; dropping datagrams, starting with one to {}", addr);
+                    } else {
+                        LOG.debug("Send buffer full; dropped datagram to {}", addr);
+                    }
+                    return;
+                }
+                sendBufferFull = false;
+            } else {
+                DatagramPacket packet = new DatagramPacket(data, data.length, addr);
+                unicastSocket.send(packet);
+            }
             bytesOut += data.length;
         } catch (Exception e) {
             throw new BACnetException(e);
@@ -490,6 +584,17 @@ public class IpNetwork extends Network {
 
     //
     // For receiving
+    /**
+     * Receives a datagram from the I/O engine.
+     */
+    private void receive(ByteBuffer data, InetSocketAddress from) {
+        bytesIn += data.remaining();
+        byte[] b = new byte[data.remaining()];
+        data.get(b);
+        handleIncomingData(new ByteQueue(b), IpNetworkUtils.toOctetString(from.getAddress().getAddress(),
+                from.getPort()));
+    }
+
     protected void listen(DatagramSocket socket) {
         byte[] buffer = new byte[MESSAGE_LENGTH];
         DatagramPacket p = new DatagramPacket(buffer, buffer.length);
@@ -538,6 +643,15 @@ public class IpNetwork extends Network {
             throw new MessageValidationException(
                     "Length field does not match data: given=" + length + ", expected=" + (queue.size() + 4));
 
+        // Apply the rate limits before doing any further work on the message. Dropped datagrams are not reported as
+        // exceptions, because during a flood that would only move the cost from here to the exception listeners.
+        if (ingressRateLimiter != null && !ingressRateLimiter.tryAcquire(linkService, function & 0xff,
+                getTransport().getLocalDevice().getClock().millis())) {
+            LOG.trace("Dropped rate limited BVLC function 0x{} from {}", Integer.toHexString(function & 0xff),
+                    linkService);
+            return null;
+        }
+
         NPDU npdu = null;
         if (function == 0x0) {
             int result = BACnetUtils.popShort(queue);
@@ -29,6 +29,7 @@ package com.serotonin.bacnet4j.npdu.ip;
 
 import static com.serotonin.bacnet4j.npdu.ip.IpNetworkUtils.toIpAddrString;
 
+import com.serotonin.bacnet4j.npdu.IngressRateLimiter;
 import com.serotonin.bacnet4j.type.constructed.Address;
 import com.serotonin.bacnet4j.util.BACnetUtils;
 
@@ -39,6 +40,7 @@ public class IpNetworkBuilder {
     private int port = IpNetwork.DEFAULT_PORT;
     private int localNetworkNumber = Address.LOCAL_NETWORK;
     private boolean reuseAddress = false;
+    private IngressRateLimiter ingressRateLimiter;
 
     public IpNetworkBuilder withLocalBindAddress(final String localBindAddress) {
         this.localBindAddress = localBindAddress;
@@ -95,6 +97,17 @@ public class IpNetworkBuilder {
         return this;
     }
 
+    /**
+     * Rate limits incoming datagrams per source address and per BVLC function. By default, nothing is limited.
+     *
+     * @param ingressRateLimiter the limiter, or null to disable rate limiting.
+     * @return this
+     */
+    public IpNetworkBuilder withIngressRateLimiter(final IngressRateLimiter ingressRateLimiter) {
+        this.ingressRateLimiter = ingressRateLimiter;
+        return this;
+    }
+
     public String getLocalBindAddress() {
         return localBindAddress;
     }
@@ -119,10 +132,15 @@ public class IpNetworkBuilder {
         return reuseAddress;
     }
 
+    public IngressRateLimiter getIngressRateLimiter() {
+        return ingressRateLimiter;
+    }
+
     public IpNetwork build() {
         if (broadcastAddress == null || subnetMask == null) {
             throw new IllegalArgumentException("Either withBroadcast or withSubnet must be called.");
         }
-        return new IpNetwork(port, localBindAddress, broadcastAddress, subnetMask, localNetworkNumber, reuseAddress);
+        return new IpNetwork(port, localBindAddress, broadcastAddress, subnetMask, localNetworkNumber, reuseAddress,
+                ingressRateLimiter);
     }
 }
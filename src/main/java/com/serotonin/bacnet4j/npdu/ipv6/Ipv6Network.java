@@ -33,11 +33,12 @@ import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.MulticastSocket;
 import java.net.UnknownHostException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -65,14 +66,17 @@ public class Ipv6Network extends Network implements Runnable {
     public static final String DEFAULT_BIND_ADDRESS = "::";
 
     private static final int MESSAGE_LENGTH = 2048;
-
-    // Map of VMAC to IPv6 addresses.
-    private static final Map<OctetString, OctetString> vmacTable = new HashMap<>();
+    private static final long ADDRESS_RESOLUTION_TIMEOUT = 1000 * 10;
+    public static final int DEFAULT_MAX_PENDING_PER_DESTINATION = 16;
 
     private final String multicastAddress;
     private final int port;
     private final String localBindAddress;
 
+    // Map of VMAC to IPv6 addresses.
+    private final VmacTable vmacTable;
+    private final int maxPendingPerDestination;
+
     // Runtime
     private MulticastSocket socket;
     private OctetString broadcastMAC;
@@ -80,7 +84,8 @@ public class Ipv6Network extends Network implements Runnable {
     private long bytesOut;
     private long bytesIn;
 
-    private final List<PendingAddressResolution> pendingAddressResolutions = new CopyOnWriteArrayList<>();
+    // Messages waiting for an address resolution, keyed by destination VMAC.
+    private final Map<OctetString, PendingAddressResolution> pendingAddressResolutions = new ConcurrentHashMap<>();
 
     public Ipv6Network(String multicastAddress) {
         this(multicastAddress, DEFAULT_PORT);
@@ -95,10 +100,18 @@ public class Ipv6Network extends Network implements Runnable {
     }
 
     public Ipv6Network(String multicastAddress, int port, String localBindAddress, int localNetworkNumber) {
+        this(multicastAddress, port, localBindAddress, localNetworkNumber, new VmacTable(),
+                DEFAULT_MAX_PENDING_PER_DESTINATION);
+    }
+
+    public Ipv6Network(String multicastAddress, int port, String localBindAddress, int localNetworkNumber,
+            VmacTable vmacTable, int maxPendingPerDestination) {
         super(localNetworkNumber);
         this.multicastAddress = multicastAddress;
         this.port = port;
         this.localBindAddress = localBindAddress;
+        this.vmacTable = vmacTable;
+        this.maxPendingPerDestination = maxPendingPerDestination;
     }
 
     @Override
@@ -143,7 +156,24 @@ public class Ipv6Network extends Network implements Runnable {
     }
 
     public List<VmacEntry> getVirtualMacAddressTable() {
-        return vmacTable.entrySet().stream().map(e -> new VmacEntry(e.getKey(), e.getValue())).toList();
+        return vmacTable.getEntries().stream().map(e -> new VmacEntry(e.getKey(), e.getValue())).toList();
+    }
+
+    public VmacTable getVmacTable() {
+        return vmacTable;
+    }
+
+    /**
+     * @return the number of outgoing messages waiting for an address resolution.
+     */
+    public int getPendingMessageCount() {
+        int count = 0;
+        for (PendingAddressResolution par : pendingAddressResolutions.values()) {
+            synchronized (par) {
+                count += par.data.size();
+            }
+        }
+        return count;
     }
 
     public OctetString getMulticastMAC() {
@@ -171,7 +201,7 @@ public class Ipv6Network extends Network implements Runnable {
         thisVMAC = BACnetUtils.toVirtualAddressBytes(transport.getLocalDevice().getInstanceNumber());
 
         try {
-            vmacTable.put(thisVMAC, Ipv6NetworkUtils.toOctetString(InetAddress.getByName("::1").getAddress(), port));
+            vmacTable.pin(thisVMAC, Ipv6NetworkUtils.toOctetString(InetAddress.getByName("::1").getAddress(), port));
         } catch (UnknownHostException e) {
             // Should never happen
             throw new BACnetRuntimeException(e);
@@ -241,24 +271,41 @@ public class Ipv6Network extends Network implements Runnable {
         if (broadcast)
             sendPacket(Ipv6NetworkUtils.getInetSocketAddress(dest), queue.popAll());
         else {
-            OctetString ipAddr = vmacTable.get(dest);
+            long now = getTransport().getLocalDevice().getClock().millis();
+            OctetString ipAddr = vmacTable.get(dest, now);
             if (ipAddr == null) {
-                purgePendingAddressResolutions();
-
-                // The IP address for this destination is not known. Queue the message and send an address
-                // resolution request.
-                PendingAddressResolution par = new PendingAddressResolution();
-                par.destination = dest;
-                par.data = queue.popAll();
-                pendingAddressResolutions.add(par);
-
-                ByteQueue req = new ByteQueue();
-                req.push(BVLC_TYPE);
-                req.push(0x3); // Function
-                req.pushU2B(0xa); // Length
-                req.push(thisVMAC.getBytes()); // Source
-                req.push(dest.getBytes()); // Destination
-                sendPacket(Ipv6NetworkUtils.getInetSocketAddress(broadcastMAC), req.popAll());
+                purgePendingAddressResolutions(now);
+
+                // The IP address for this destination is not known. Queue the message, and send an address
+                // resolution request if one is not already outstanding.
+                // The message is added within compute so that it cannot be added to an entry that
+                // flushPendingAddressResolution has already removed.
+                byte[] data = queue.popAll();
+                boolean[] created = new boolean[1];
+                pendingAddressResolutions.compute(dest, (k, par) -> {
+                    if (par == null) {
+                        created[0] = true;
+                        par = new PendingAddressResolution(now + ADDRESS_RESOLUTION_TIMEOUT);
+                    }
+                    synchronized (par) {
+                        if (par.data.size() >= maxPendingPerDestination) {
+                            LOG.debug("Pending queue for {} is full, dropping oldest message", dest);
+                            par.data.removeFirst();
+                        }
+                        par.data.addLast(data);
+                    }
+                    return par;
+                });
+
+                if (created[0]) {
+                    ByteQueue req = new ByteQueue();
+                    req.push(BVLC_TYPE);
+                    req.push(0x3); // Function
+                    req.pushU2B(0xa); // Length
+                    req.push(thisVMAC.getBytes()); // Source
+                    req.push(dest.getBytes()); // Destination
+                    sendPacket(Ipv6NetworkUtils.getInetSocketAddress(broadcastMAC), req.popAll());
+                }
             } else
                 // The IP address is known. Send the message now.
                 sendPacket(Ipv6NetworkUtils.getInetSocketAddress(ipAddr), queue.popAll());
@@ -325,7 +372,8 @@ public class Ipv6Network extends Network implements Runnable {
         OctetString sourceVMAC = BACnetUtils.popDeviceId(queue);
 
         // Add the resolution to the table
-        vmacTable.put(sourceVMAC, fromIpv6);
+        long now = getTransport().getLocalDevice().getClock().millis();
+        vmacTable.put(sourceVMAC, fromIpv6, now);
 
         NPDU npdu = null;
 
@@ -364,20 +412,9 @@ public class Ipv6Network extends Network implements Runnable {
                 sendPacket(Ipv6NetworkUtils.getInetSocketAddress(fromIpv6), ack.popAll());
             }
         } else if (function == 0x5) {
-            // Address-Resolution-Ack. Check the pending list for matching requests.
+            // Address-Resolution-Ack. Send any messages that were waiting for this resolution.
             BACnetUtils.popDeviceId(queue);
-
-            List<PendingAddressResolution> matched = null;
-            for (PendingAddressResolution par : pendingAddressResolutions) {
-                if (par.destination.equals(sourceVMAC)) {
-                    if (matched == null)
-                        matched = new ArrayList<>();
-                    matched.add(par);
-                    sendPacket(Ipv6NetworkUtils.getInetSocketAddress(fromIpv6), par.data);
-                }
-            }
-            if (matched != null)
-                pendingAddressResolutions.removeAll(matched);
+            flushPendingAddressResolution(sourceVMAC, fromIpv6);
         } else if (function == 0x6) {
             // Virtual-Address-Resolution. Reply with a Virtual-Address-Resolution-Ack
             ByteQueue ack = new ByteQueue();
@@ -394,7 +431,7 @@ public class Ipv6Network extends Network implements Runnable {
             // Forwarded-NPDU. Use the address/port as the link service address.
             byte[] addr = new byte[18];
             queue.pop(addr);
-            vmacTable.put(sourceVMAC, new OctetString(addr));
+            vmacTable.put(sourceVMAC, new OctetString(addr), now);
             npdu = parseNpduData(queue, sourceVMAC);
             if (npdu != null)
                 // A Forwarded-NPDU conveys a message that was originally broadcast.
@@ -420,23 +457,38 @@ public class Ipv6Network extends Network implements Runnable {
         return new Address(getLocalNetworkNumber(), thisVMAC);
     }
 
-    private void purgePendingAddressResolutions() {
-        long now = getTransport().getLocalDevice().getClock().millis();
-        List<PendingAddressResolution> toRemove = null;
-        for (PendingAddressResolution par : pendingAddressResolutions) {
-            if (par.deadline < now) {
-                if (toRemove == null)
-                    toRemove = new ArrayList<>();
-                toRemove.add(par);
-            }
+    private void flushPendingAddressResolution(OctetString vmac, OctetString ipAddr) throws BACnetException {
+        PendingAddressResolution par = pendingAddressResolutions.remove(vmac);
+        if (par == null)
+            return;
+
+        List<byte[]> toSend;
+        synchronized (par) {
+            toSend = new ArrayList<>(par.data);
+            par.data.clear();
         }
-        if (toRemove != null)
-            pendingAddressResolutions.removeAll(toRemove);
+        InetSocketAddress addr = Ipv6NetworkUtils.getInetSocketAddress(ipAddr);
+        for (byte[] data : toSend)
+            sendPacket(addr, data);
+    }
+
+    private void purgePendingAddressResolutions(long now) {
+        pendingAddressResolutions.entrySet().removeIf(e -> {
+            if (e.getValue().deadline < now) {
+                LOG.debug("Address resolution for {} timed out", e.getKey());
+                return true;
+            }
+            return false;
+        });
+        vmacTable.purge(now);
     }
 
-    class PendingAddressResolution {
-        OctetString destination;
-        byte[] data;
-        final long deadline = getTransport().getLocalDevice().getClock().millis() + 1000 * 10;
+    static class PendingAddressResolution {
+        final Deque<byte[]> data = new ArrayDeque<>();
+        final long deadline;
+
+        PendingAddressResolution(long deadline) {
+            this.deadline = deadline;
+        }
     }
 }
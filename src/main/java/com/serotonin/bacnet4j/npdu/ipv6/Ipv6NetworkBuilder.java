@@ -32,6 +32,9 @@ public class Ipv6NetworkBuilder {
     private int port = Ipv6Network.DEFAULT_PORT;
     private String localBindAddress = Ipv6Network.DEFAULT_BIND_ADDRESS;
     private int localNetworkNumber = 0;
+    private long vmacMaxAge = VmacTable.DEFAULT_MAX_AGE;
+    private int vmacMaxSize = VmacTable.DEFAULT_MAX_SIZE;
+    private int maxPendingPerDestination = Ipv6Network.DEFAULT_MAX_PENDING_PER_DESTINATION;
 
     public Ipv6NetworkBuilder(String multicastAddress) {
         this.multicastAddress = multicastAddress;
@@ -52,7 +55,30 @@ public class Ipv6NetworkBuilder {
         return this;
     }
 
+    /**
+     * @param vmacMaxAge the time in milliseconds after which a VMAC table entry that has not been refreshed expires.
+     */
+    public Ipv6NetworkBuilder vmacMaxAge(long vmacMaxAge) {
+        this.vmacMaxAge = vmacMaxAge;
+        return this;
+    }
+
+    public Ipv6NetworkBuilder vmacMaxSize(int vmacMaxSize) {
+        this.vmacMaxSize = vmacMaxSize;
+        return this;
+    }
+
+    /**
+     * @param maxPendingPerDestination the number of outgoing messages held per destination while its address is
+     *                                 being resolved.
+     */
+    public Ipv6NetworkBuilder maxPendingPerDestination(int maxPendingPerDestination) {
+        this.maxPendingPerDestination = maxPendingPerDestination;
+        return this;
+    }
+
     public Ipv6Network build() {
-        return new Ipv6Network(multicastAddress, port, localBindAddress, localNetworkNumber);
+        return new Ipv6Network(multicastAddress, port, localBindAddress, localNetworkNumber,
+                new VmacTable(vmacMaxAge, vmacMaxSize), maxPendingPerDestination);
     }
 }
@@ -0,0 +1,183 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2025 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+package com.serotonin.bacnet4j.npdu.ipv6;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.serotonin.bacnet4j.type.primitive.OctetString;
+
+/**
+ * A thread-safe map of virtual MAC addresses to B/IPv6 addresses. Entries that have not been refreshed within the
+ * maximum age are treated as absent and purged lazily, and the table never holds more than its maximum size; when
+ * full, the least recently seen entry is evicted. Pinned entries (e.g. the local device's own VMAC) never age and are
+ * never evicted. Times are given by the caller in milliseconds so that the table follows the local device clock.
+ */
+public class VmacTable {
+    public static final long DEFAULT_MAX_AGE = 1000L * 60 * 30; // 30 minutes
+    public static final int DEFAULT_MAX_SIZE = 10_000;
+
+    private final long maxAge;
+    private final int maxSize;
+    private final Map<OctetString, OctetString> pinned = new ConcurrentHashMap<>();
+    // The learned entries in the order in which they were last seen, so that the eldest is the one to evict. Guarded
+    // by itself.
+    private final LinkedHashMap<OctetString, Entry> entries = new LinkedHashMap<>();
+
+    public VmacTable() {
+        this(DEFAULT_MAX_AGE, DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @param maxAge  the time in milliseconds after which an entry that has not been seen again expires. A value
+     *                &lt;= 0 disables aging.
+     * @param maxSize the maximum number of entries held.
+     */
+    public VmacTable(long maxAge, int maxSize) {
+        if (maxSize < 1)
+            throw new IllegalArgumentException("maxSize must be at least 1");
+        this.maxAge = maxAge;
+        this.maxSize = maxSize;
+    }
+
+    public long getMaxAge() {
+        return maxAge;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Adds an entry that never expires and is never evicted.
+     */
+    public void pin(OctetString vmac, OctetString address) {
+        synchronized (entries) {
+            pinned.put(vmac, address);
+            entries.remove(vmac);
+        }
+    }
+
+    /**
+     * Adds or refreshes the entry for the given VMAC.
+     */
+    public void put(OctetString vmac, OctetString address, long now) {
+        if (pinned.containsKey(vmac))
+            return;
+        synchronized (entries) {
+            // Removed and put back, so that the entry moves to the end of the order.
+            Entry existing = entries.remove(vmac);
+            if (existing != null && existing.address.equals(address)) {
+                // Common case: a message from a known peer. Just refresh the last seen time.
+                existing.lastSeen = now;
+                entries.put(vmac, existing);
+                return;
+            }
+
+            entries.put(vmac, new Entry(address, now));
+            if (existing == null) {
+                Iterator<Entry> eldest = entries.values().iterator();
+                while (pinned.size() + entries.size() > maxSize && eldest.hasNext()) {
+                    eldest.next();
+                    eldest.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the address for the given VMAC, or null if it is not known or has expired.
+     */
+    public OctetString get(OctetString vmac, long now) {
+        OctetString address = pinned.get(vmac);
+        if (address != null)
+            return address;
+        synchronized (entries) {
+            Entry e = entries.get(vmac);
+            if (e == null)
+                return null;
+            if (isExpired(e, now)) {
+                entries.remove(vmac);
+                return null;
+            }
+            return e.address;
+        }
+    }
+
+    public void remove(OctetString vmac) {
+        synchronized (entries) {
+            pinned.remove(vmac);
+            entries.remove(vmac);
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return pinned.size() + entries.size();
+        }
+    }
+
+    /**
+     * Removes all expired entries.
+     */
+    public void purge(long now) {
+        synchronized (entries) {
+            entries.values().removeIf(e -> isExpired(e, now));
+        }
+    }
+
+    /**
+     * @return the current entries as a list of (VMAC, address) pairs.
+     */
+    public List<Map.Entry<OctetString, OctetString>> getEntries() {
+        List<Map.Entry<OctetString, OctetString>> result = new ArrayList<>();
+        synchronized (entries) {
+            pinned.forEach((vmac, address) -> result.add(Map.entry(vmac, address)));
+            entries.forEach((vmac, e) -> result.add(Map.entry(vmac, e.address)));
+        }
+        return result;
+    }
+
+    private boolean isExpired(Entry e, long now) {
+        return maxAge > 0 && now - e.lastSeen > maxAge;
+    }
+
+    static class Entry {
+        final OctetString address;
+        long lastSeen;
+
+        Entry(OctetString address, long lastSeen) {
+            this.address = address;
+            this.lastSeen = lastSeen;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2025 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+package com.serotonin.bacnet4j.npdu.mstp;
+
+/**
+ * Consistent Overhead Byte Stuffing, as used for the data of MS/TP extended data frames. The encoded data and the
+ * encoded CRC-32K are each XORed with 0x55, so that the encoded frame contains no preamble-like runs of zeros.
+ */
+public class Cobs {
+    public static final byte MASK = 0x55;
+
+    /**
+     * The CRC-32K is 4 octets, which always encode to 5.
+     */
+    public static final int ENCODED_CRC_SIZE = 5;
+
+    private Cobs() {
+    }
+
+    /**
+     * @return the largest possible encoded size of the given number of octets.
+     */
+    public static int maxEncodedSize(int length) {
+        return length + length / 254 + 1;
+    }
+
+    /**
+     * @return the largest possible size of the encoded data and CRC of an extended frame carrying the given number of
+     * octets.
+     */
+    public static int maxFrameDataSize(int length) {
+        return maxEncodedSize(length) + ENCODED_CRC_SIZE;
+    }
+
+    /**
+     * Encodes the data and appends its encoded CRC-32K.
+     *
+     * @return the number of octets written to the buffer.
+     */
+    public static int encodeFrameData(byte[] data, int offset, int length, byte[] buf, int bufOffset) {
+        int dataLength = encode(data, offset, length, buf, bufOffset, MASK);
+        int crc = ~ExtendedDataCRC.accumulate(ExtendedDataCRC.INITIAL_VALUE, buf, bufOffset, dataLength);
+        byte[] crcBytes = {(byte) crc, (byte) (crc >> 8), (byte) (crc >> 16), (byte) (crc >> 24)};
+        return dataLength + encode(crcBytes, 0, 4, buf, bufOffset + dataLength, MASK);
+    }
+
+    /**
+     * Checks the CRC-32K of and decodes the data of an extended frame.
+     *
+     * @return the decoded data, or null if the data is not validly encoded or the CRC does not match.
+     */
+    public static byte[] decodeFrameData(byte[] buf, int offset, int length) {
+        if (length <= ENCODED_CRC_SIZE)
+            return null;
+        int dataLength = length - ENCODED_CRC_SIZE;
+
+        byte[] crcBytes = new byte[4];
+        if (decode(buf, offset + dataLength, ENCODED_CRC_SIZE, crcBytes, MASK) != 4)
+            return null;
+        int crc = ExtendedDataCRC.accumulate(ExtendedDataCRC.INITIAL_VALUE, buf, offset, dataLength);
+        crc = ExtendedDataCRC.accumulate(crc, crcBytes, 0, 4);
+        if (crc != ExtendedDataCRC.RESIDUE)
+            return null;
+
+        byte[] decoded = new byte[dataLength];
+        int decodedLength = decode(buf, offset, dataLength, decoded, MASK);
+        if (decodedLength < 0)
+            return null;
+        if (decodedLength == decoded.length)
+            return decoded;
+        byte[] result = new byte[decodedLength];
+        System.arraycopy(decoded, 0, result, 0, decodedLength);
+        return result;
+    }
+
+    /**
+     * @return the number of octets written, at most maxEncodedSize(length).
+     */
+    public static int encode(byte[] from, int offset, int length, byte[] buf, int bufOffset, byte mask) {
+        int codeIndex = bufOffset;
+        int writeIndex = bufOffset + 1;
+        int code = 1;
+        int lastCode = 0;
+
+        for (int i = offset; i < offset + length; i++) {
+            byte b = from[i];
+            if (b != 0) {
+                // Copy non-zero octets and count them.
+                buf[writeIndex++] = (byte) (b ^ mask);
+                code++;
+                if (code != 255)
+                    continue;
+            }
+            // A zero, or a full block of 254 non-zero octets. Store the code and start a new block.
+            lastCode = code;
+            buf[codeIndex] = (byte) (code ^ mask);
+            codeIndex = writeIndex++;
+            code = 1;
+        }
+
+        if (lastCode == 255 && code == 1)
+            // The data ended with a full block, which has no implicit zero. Drop the empty block.
+            writeIndex--;
+        else
+            buf[codeIndex] = (byte) (code ^ mask);
+        return writeIndex - bufOffset;
+    }
+
+    /**
+     * @return the number of octets written, or -1 if the data is not validly encoded.
+     */
+    public static int decode(byte[] from, int offset, int length, byte[] buf, byte mask) {
+        int readIndex = offset;
+        int end = offset + length;
+        int writeIndex = 0;
+
+        while (readIndex < end) {
+            int code = (from[readIndex] ^ mask) & 0xff;
+            if (code == 0 || readIndex + code > end)
+                return -1;
+            readIndex++;
+            for (int i = 1; i < code; i++) {
+                if (writeIndex >= buf.length)
+                    return -1;
+                buf[writeIndex++] = (byte) (from[readIndex++] ^ mask);
+            }
+            // Restore the implicit zero at the end of each block, except after a full block or at the end of data.
+            if (code != 255 && readIndex < end) {
+                if (writeIndex >= buf.length)
+                    return -1;
+                buf[writeIndex++] = 0;
+            }
+        }
+        return writeIndex;
+    }
+}
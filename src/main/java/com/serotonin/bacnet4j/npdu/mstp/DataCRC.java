@@ -29,6 +29,16 @@ package com.serotonin.bacnet4j.npdu.mstp;
 
 public class DataCRC {
     public static final int CHECK_VALUE = 0xF0B8;
+
+    // The contribution of each possible value of (crc ^ data) in the low octet, so that a byte can be accumulated
+    // with a single lookup.
+    private static final int[] TABLE = new int[256];
+
+    static {
+        for (int i = 0; i < 256; i++)
+            TABLE[i] = calcDataCRC(i, 0);
+    }
+
     private int value = 0xffff;
 
     public void reset() {
@@ -36,7 +46,7 @@ public class DataCRC {
     }
 
     public void accumulate(int data) {
-        value = calcDataCRC(data, value);
+        value = (value >> 8) ^ TABLE[(value ^ data) & 0xff];
     }
 
     public void accumulate(byte data) {
@@ -54,7 +64,20 @@ public class DataCRC {
         return onesComplement(value);
     }
 
-    private static int calcDataCRC(int dataValue, int crcValue) {
+    /**
+     * @return the CRC to send for the given data octets. The low octet is sent first.
+     */
+    public static int crc(byte[] data, int offset, int length) {
+        int crc = 0xffff;
+        for (int i = offset; i < offset + length; i++)
+            crc = (crc >> 8) ^ TABLE[(crc ^ data[i]) & 0xff];
+        return onesComplement(crc);
+    }
+
+    /**
+     * The bitwise calculation from Annex G. Used to build the lookup table.
+     */
+    static int calcDataCRC(int dataValue, int crcValue) {
         int crcLow = (crcValue & 0xff) ^ dataValue; /* XOR C7..C0 with D7..D0 */
         /* Exclusive OR the terms in the table (top down) */
         int crc = (crcValue >> 8) ^ (crcLow << 8) ^ (crcLow << 3) ^ (crcLow << 12) ^ (crcLow >> 4) ^ (crcLow & 0x0f)
@@ -0,0 +1,74 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2025 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+package com.serotonin.bacnet4j.npdu.mstp;
+
+/**
+ * The CRC-32K (Koopman) used by extended data frames, computed over the COBS encoded data.
+ */
+public class ExtendedDataCRC {
+    public static final int INITIAL_VALUE = 0xFFFFFFFF;
+    public static final int RESIDUE = 0x0843323B;
+    private static final int POLYNOMIAL = 0xEB31D82E;
+
+    private static final int[] TABLE = new int[256];
+
+    static {
+        for (int i = 0; i < 256; i++)
+            TABLE[i] = calcCrc32K(i, 0);
+    }
+
+    private ExtendedDataCRC() {
+    }
+
+    public static int accumulate(int crc, int data) {
+        return (crc >>> 8) ^ TABLE[(crc ^ data) & 0xff];
+    }
+
+    public static int accumulate(int crc, byte[] data, int offset, int length) {
+        int c = crc;
+        for (int i = offset; i < offset + length; i++)
+            c = (c >>> 8) ^ TABLE[(c ^ data[i]) & 0xff];
+        return c;
+    }
+
+    /**
+     * The bitwise calculation. Used to build the lookup table.
+     */
+    public static int calcCrc32K(int dataValue, int crcValue) {
+        int data = dataValue;
+        int crc = crcValue;
+        for (int b = 0; b < 8; b++) {
+            if (((data ^ crc) & 1) != 0)
+                crc = (crc >>> 1) ^ POLYNOMIAL;
+            else
+                crc >>>= 1;
+            data >>= 1;
+        }
+        return crc;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2025 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+
+package com.serotonin.bacnet4j.npdu.mstp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The queue of frames waiting for the token. Frames are taken in order of the network priority of the NPDU they carry,
+ * highest first, and in order of arrival within a priority. Producers and the node thread never block each other.
+ */
+class FrameQueue {
+    private static final int PRIORITIES = 4;
+
+    private final List<Queue<Frame>> queues = new ArrayList<>(PRIORITIES);
+    private final AtomicInteger size = new AtomicInteger();
+
+    FrameQueue() {
+        for (int i = 0; i < PRIORITIES; i++)
+            queues.add(new ConcurrentLinkedQueue<>());
+    }
+
+    void add(Frame frame) {
+        queues.get(priority(frame)).add(frame);
+        size.incrementAndGet();
+    }
+
+    /**
+     * @return the next frame to send, or null if there is none.
+     */
+    Frame poll() {
+        for (int i = PRIORITIES - 1; i >= 0; i--) {
+            Frame frame = queues.get(i).poll();
+            if (frame != null) {
+                size.decrementAndGet();
+                return frame;
+            }
+        }
+        return null;
+    }
+
+    int size() {
+        return size.get();
+    }
+
+    /**
+     * @return the network priority in the NPCI control octet of the frame's NPDU, or normal (0) for frames that do not
+     * carry an NPDU.
+     */
+    static int priority(Frame frame) {
+        byte[] data = frame.getData();
+        if (data == null || data.length < 2 || frame.getFrameType() == FrameType.testRequest
+                || frame.getFrameType() == FrameType.testResponse)
+            return 0;
+        return data[1] & 0x03;
+    }
+}
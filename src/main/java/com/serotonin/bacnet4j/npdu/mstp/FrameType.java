@@ -41,6 +41,8 @@ public enum FrameType {
     bacnetDataExpectingReply(5), //
     bacnetDataNotExpectingReply(6), //
     replyPostponed(7), //
+    bacnetExtendedDataExpectingReply(32), //
+    bacnetExtendedDataNotExpectingReply(33), //
     ;
 
     public final byte id;
@@ -60,4 +62,11 @@ public enum FrameType {
     public boolean oneOf(FrameType... types) {
         return ArrayUtils.contains(types, this);
     }
+
+    /**
+     * @return true if this is a COBS encoded extended data frame type.
+     */
+    public boolean isExtended() {
+        return this == bacnetExtendedDataExpectingReply || this == bacnetExtendedDataNotExpectingReply;
+    }
 }
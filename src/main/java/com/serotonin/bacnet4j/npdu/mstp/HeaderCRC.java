@@ -29,6 +29,15 @@ package com.serotonin.bacnet4j.npdu.mstp;
 
 public class HeaderCRC {
     public static final byte CHECK_VALUE = 0x55;
+
+    // The CRC of each possible value of (crc ^ data), so that a byte can be accumulated with a single lookup.
+    private static final int[] TABLE = new int[256];
+
+    static {
+        for (int i = 0; i < 256; i++)
+            TABLE[i] = calcHeaderCRC(i, 0);
+    }
+
     private int value = 0xff;
 
     public void reset() {
@@ -36,7 +45,7 @@ public class HeaderCRC {
     }
 
     public void accumulate(int data) {
-        value = calcHeaderCRC(data, value);
+        value = TABLE[(value ^ data) & 0xff];
     }
 
     public void accumulate(byte data) {
@@ -57,6 +66,19 @@ public class HeaderCRC {
         return onesComplement(value);
     }
 
+    /**
+     * @return the CRC to send for the given header octets, i.e. frame type through length.
+     */
+    public static int crc(byte[] header, int offset, int length) {
+        int crc = 0xff;
+        for (int i = offset; i < offset + length; i++)
+            crc = TABLE[(crc ^ header[i]) & 0xff];
+        return onesComplement(crc);
+    }
+
+    /**
+     * The bitwise calculation from Annex G. Used to build the lookup table.
+     */
     public static int calcHeaderCRC(int dataValue, int crcValue) {
         int crc = crcValue ^ dataValue;
         /* Exclusive OR the terms in the table (top down) */
@@ -29,8 +29,6 @@ package com.serotonin.bacnet4j.npdu.mstp;
 
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.ArrayList;
-import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -51,7 +49,7 @@ public class ManagerNode extends MstpNode {
     }
 
 
-    private final List<Frame> framesToSend = new ArrayList<>();
+    private final FrameQueue framesToSend = new FrameQueue();
 
     /**
      * The MAC address of the node to which This Station passes the token. If the Next
@@ -86,6 +84,21 @@ public class ManagerNode extends MstpNode {
 
     protected int maxInfoFrames = Constants.MAX_INFO_FRAMES;
 
+    /**
+     * The lower bound of the adaptive frame limit. Equal to maxInfoFrames unless adaptive Max_Info_Frames is enabled.
+     */
+    protected int minInfoFrames = Constants.MAX_INFO_FRAMES;
+
+    /**
+     * The token rotation time in milliseconds above which the adaptive frame limit is reduced, or 0 for none.
+     */
+    protected int targetTokenRotation;
+
+    /**
+     * The number of frames that may be sent during the current token hold.
+     */
+    protected int tokenFrameLimit = Constants.MAX_INFO_FRAMES;
+
     protected int usageTimeout = Constants.USAGE_TIMEOUT;
 
     protected ManagerNodeState state;
@@ -93,11 +106,31 @@ public class ManagerNode extends MstpNode {
     protected long replyDeadline;
     protected Frame replyFrame;
 
+    /**
+     * The destination of the last frame sent that expects a reply.
+     */
+    private byte replyDestination;
+
     /**
      * Set to true the first time this node has received a token, indicating that it has joined the network.
      */
     private boolean receivedToken;
 
+    // Token hold statistics. Written by the node thread only, under statisticsLock so that other threads can take a
+    // consistent snapshot.
+    private final Object statisticsLock = new Object();
+    private long tokenAcquiredTime = -1;
+    private long lastTokenAcquiredTime = -1;
+    private double averageTokenRotation;
+    private long tokensHeld;
+    // The frames sent during the current hold. Unlike frameCount, which is forced to the limit to end the hold, it
+    // counts only the frames actually sent.
+    private int holdFramesSent;
+    private long tokenFramesSent;
+    private int maxFramesPerHold;
+    private long totalHoldTime;
+    private long maxHoldTime;
+
     public ManagerNode(SerialPortWrapper wrapper, byte thisStation, int retryCount) throws IllegalArgumentException {
         super(wrapper, thisStation);
         validate(retryCount);
@@ -136,6 +169,53 @@ public class ManagerNode extends MstpNode {
         if (maxInfoFrames < 1)
             throw new IllegalArgumentException("Cannot be less than 1");
         this.maxInfoFrames = maxInfoFrames;
+        minInfoFrames = maxInfoFrames;
+        tokenFrameLimit = maxInfoFrames;
+        targetTokenRotation = 0;
+    }
+
+    /**
+     * Lets the number of frames sent per token vary between the given bounds. On each receipt of the token, the limit
+     * is set to the number of queued frames within the bounds, so that bursts are sent in fewer token rotations. If
+     * the average token rotation time exceeds the target, the limit is reduced in proportion, down to the lower
+     * bound, so that a busy node does not starve the others. The upper bound is the node's Max_Info_Frames.
+     *
+     * @param targetTokenRotation the token rotation time in milliseconds to aim for, or 0 to only consider the queue
+     *                            depth.
+     */
+    public void setAdaptiveMaxInfoFrames(int minInfoFrames, int maxInfoFrames, int targetTokenRotation) {
+        if (minInfoFrames < 1)
+            throw new IllegalArgumentException("Cannot be less than 1");
+        if (maxInfoFrames < minInfoFrames)
+            throw new IllegalArgumentException("Max info frames cannot be less than min info frames");
+        if (targetTokenRotation < 0)
+            throw new IllegalArgumentException("Target token rotation cannot be negative");
+        this.maxInfoFrames = maxInfoFrames;
+        this.minInfoFrames = minInfoFrames;
+        this.targetTokenRotation = targetTokenRotation;
+        tokenFrameLimit = minInfoFrames;
+    }
+
+    public int getMaxInfoFrames() {
+        return maxInfoFrames;
+    }
+
+    public int getMinInfoFrames() {
+        return minInfoFrames;
+    }
+
+    /**
+     * @return the number of frames waiting for the token.
+     */
+    public int getQueuedFrameCount() {
+        return framesToSend.size();
+    }
+
+    public TokenHoldStatistics getTokenHoldStatistics() {
+        synchronized (statisticsLock) {
+            return new TokenHoldStatistics(tokensHeld, tokenFramesSent, maxFramesPerHold, totalHoldTime, maxHoldTime,
+                    averageTokenRotation, tokenFrameLimit, framesToSend.size());
+        }
     }
 
     public void setUsageTimeout(int usageTimeout) {
@@ -163,14 +243,12 @@ public class ManagerNode extends MstpNode {
     }
 
     public void queueFrame(FrameType type, byte destination, byte[] data) {
-        if (!type.oneOf(FrameType.bacnetDataExpectingReply, FrameType.bacnetDataNotExpectingReply,
+        if (!type.oneOf(FrameType.bacnetDataExpectingReply, FrameType.bacnetExtendedDataExpectingReply,
+                FrameType.bacnetDataNotExpectingReply, FrameType.bacnetExtendedDataNotExpectingReply,
                 FrameType.testRequest))
             throw new BACnetRuntimeException("Cannot send frame of type: " + type);
 
-        Frame frame = new Frame(type, destination, thisStation, data);
-        synchronized (framesToSend) {
-            framesToSend.add(frame);
-        }
+        framesToSend.add(new Frame(type, destination, thisStation, data));
     }
 
     @Override
@@ -183,6 +261,25 @@ public class ManagerNode extends MstpNode {
                 // The response has already exceeded the timeout, so just queue it.
                 queueFrame(type, destination, data);
         }
+        wakeUp();
+    }
+
+    @Override
+    protected long nextTimerDeadline() {
+        long deadline = switch (state) {
+            case idle -> lastNonSilence + Constants.NO_TOKEN;
+            case waitForReply -> lastNonSilence + Constants.REPLY_TIMEOUT + 1;
+            case passToken, pollForManager -> lastNonSilence + usageTimeout;
+            case noToken -> {
+                long slot = Constants.NO_TOKEN + Constants.SLOT * (thisStation & 0xffL);
+                if (clock.millis() - lastNonSilence < slot)
+                    yield lastNonSilence + slot;
+                yield lastNonSilence + Constants.NO_TOKEN + Constants.SLOT * (maxManager + 1L) + 1;
+            }
+            case answerDataRequest -> replyDeadline + 1;
+            default -> clock.millis();
+        };
+        return Math.min(deadline, super.nextTimerDeadline());
     }
 
     @Override
@@ -218,6 +315,7 @@ public class ManagerNode extends MstpNode {
         if (silence() >= Constants.NO_TOKEN) {
             // LostToken
             LOG.debug("idle:LostToken");
+            statistics.lostToken();
             state = ManagerNodeState.noToken;
             activity = true;
         } else if (receivedInvalidFrame != null) {
@@ -236,11 +334,12 @@ public class ManagerNode extends MstpNode {
     protected void frame() {
         FrameType type = frame.getFrameType();
 
-        if (type == null) {
+        if (!isKnown(type)) {
             // ReceivedUnwantedFrame (c): FrameType has a value that is not known to this node.
             LOG.debug("{} idle:ReceivedUnwantedFrame Unknown frame type", thisStation);
         } else if (frame.broadcast()
-                && type.oneOf(FrameType.token, FrameType.testRequest, FrameType.bacnetDataExpectingReply)) {
+                && type.oneOf(FrameType.token, FrameType.testRequest, FrameType.bacnetDataExpectingReply,
+                        FrameType.bacnetExtendedDataExpectingReply)) {
             // ReceivedUnwantedFrame (b): DestinationAddress is broadcast and FrameType is Token,
             // Test_Request, or a proprietary type that expects a reply.
             LOG.debug("{} idle:ReceivedUnwantedFrame Frame type should not be broadcast: {}", thisStation, type);
@@ -254,6 +353,7 @@ public class ManagerNode extends MstpNode {
             receivedToken = true;
             LOG.debug("idle:ReceivedToken ({})", frame.getSourceAddress());
             frameCount = 0;
+            tokenAcquired();
             soleManager = false;
             state = ManagerNodeState.useToken;
         } else if (frame.forStation(thisStation) && type == FrameType.pollForManager) {
@@ -261,12 +361,14 @@ public class ManagerNode extends MstpNode {
             LOG.debug("idle:ReceivedPFM ({})", frame.getSourceAddress());
             sendFrame(FrameType.replyToPollForManager, frame.getSourceAddress());
         } else if (frame.forStationOrBroadcast(thisStation)
-                && type.oneOf(FrameType.bacnetDataNotExpectingReply, FrameType.testResponse)) {
+                && type.oneOf(FrameType.bacnetDataNotExpectingReply, FrameType.bacnetExtendedDataNotExpectingReply,
+                        FrameType.testResponse)) {
             // ReceivedDataNoReply
             LOG.debug("idle:ReceivedDataNoReply ({})", frame.getSourceAddress());
             receivedDataNoReply(frame);
         } else if (frame.forStation(thisStation)
-                && type.oneOf(FrameType.bacnetDataExpectingReply, FrameType.testRequest)) {
+                && type.oneOf(FrameType.bacnetDataExpectingReply, FrameType.bacnetExtendedDataExpectingReply,
+                        FrameType.testRequest)) {
             // ReceivedDataNeedingReply
             LOG.debug("idle:ReceivedDataNeedingReply ({})", frame.getSourceAddress());
             receivedDataNeedingReply(frame);
@@ -280,26 +382,24 @@ public class ManagerNode extends MstpNode {
     }
 
     protected void useToken() {
-        Frame frameToSend = null;
-        synchronized (framesToSend) {
-            if (!framesToSend.isEmpty()) {
-                frameToSend = framesToSend.remove(0);
-            }
-        }
+        Frame frameToSend = framesToSend.poll();
 
         if (frameToSend == null) {
             // NothingToSend
-            frameCount = maxInfoFrames;
+            frameCount = tokenFrameLimit;
             state = ManagerNodeState.doneWithToken;
         } else {
             activity = true;
-            if (frameToSend.getFrameType().oneOf(FrameType.testResponse, FrameType.bacnetDataNotExpectingReply)) {
+            if (frameToSend.getFrameType().oneOf(FrameType.testResponse, FrameType.bacnetDataNotExpectingReply,
+                    FrameType.bacnetExtendedDataNotExpectingReply)) {
                 // SendNoWait
                 LOG.debug("useToken:SendNoWait ({})", frameToSend.getDestinationAddress());
                 state = ManagerNodeState.doneWithToken;
-            } else if (frameToSend.getFrameType().oneOf(FrameType.testRequest, FrameType.bacnetDataExpectingReply)) {
+            } else if (frameToSend.getFrameType().oneOf(FrameType.testRequest, FrameType.bacnetDataExpectingReply,
+                    FrameType.bacnetExtendedDataExpectingReply)) {
                 // SendAndWait
                 LOG.debug("useToken:SendAndWait ({})", frameToSend.getDestinationAddress());
+                replyDestination = frameToSend.getDestinationAddress();
                 state = ManagerNodeState.waitForReply;
             } else {
                 throw new BACnetRuntimeException("Unhandled frame type: " + frameToSend.getFrameType());
@@ -307,6 +407,7 @@ public class ManagerNode extends MstpNode {
 
             sendFrame(frameToSend);
             frameCount++;
+            holdFramesSent++;
         }
     }
 
@@ -314,7 +415,8 @@ public class ManagerNode extends MstpNode {
         if (silence() > Constants.REPLY_TIMEOUT) {
             // ReplyTimeout - assume that the request has failed
             LOG.debug("waitForReply:ReplyTimeout");
-            frameCount = maxInfoFrames;
+            statistics.replyTimeout(replyDestination);
+            frameCount = tokenFrameLimit;
             state = ManagerNodeState.doneWithToken;
         } else if (receivedInvalidFrame != null) {
             // InvalidFrame
@@ -327,7 +429,8 @@ public class ManagerNode extends MstpNode {
             FrameType type = frame.getFrameType();
 
             if (frame.forStation(thisStation)) {
-                if (type.oneOf(FrameType.testResponse, FrameType.bacnetDataNotExpectingReply)) {
+                if (type.oneOf(FrameType.testResponse, FrameType.bacnetDataNotExpectingReply,
+                        FrameType.bacnetExtendedDataNotExpectingReply)) {
                     // ReceivedReply
                     LOG.debug("{} waitForReply:ReceivedReply ({})", thisStation, frame.getSourceAddress());
                     receivedDataNoReply(frame);
@@ -338,7 +441,8 @@ public class ManagerNode extends MstpNode {
                 }
 
                 state = ManagerNodeState.doneWithToken;
-            } else if (!type.oneOf(FrameType.testResponse, FrameType.bacnetDataNotExpectingReply)) {
+            } else if (!type.oneOf(FrameType.testResponse, FrameType.bacnetDataNotExpectingReply,
+                    FrameType.bacnetExtendedDataNotExpectingReply)) {
                 // ReceivedUnexpectedFrame
                 LOG.debug("{} waitForReply:ReceivedUnexpectedFrame ({})", thisStation, frame.getSourceAddress());
 
@@ -356,7 +460,10 @@ public class ManagerNode extends MstpNode {
      */
     private void doneWithToken() {
         activity = true;
-        if (frameCount < maxInfoFrames) {
+        if (frameCount >= tokenFrameLimit)
+            tokenReleased();
+
+        if (frameCount < tokenFrameLimit) {
             // SendAnotherFrame
             LOG.debug("{} doneWithToken:SendAnotherFrame", thisStation);
             state = ManagerNodeState.useToken;
@@ -371,6 +478,7 @@ public class ManagerNode extends MstpNode {
             // SoleManager
             LOG.debug("{} doneWithToken:SoleManager", thisStation);
             frameCount = 0;
+            tokenAcquired();
             tokenCount++;
             state = ManagerNodeState.useToken;
         } else if (tokenCount < Constants.POLL - 1 && !soleManager || nextStation == adjacentStation(thisStation)) {
@@ -422,6 +530,7 @@ public class ManagerNode extends MstpNode {
         } else if (silence() >= usageTimeout && retryCount < Constants.RETRY_TOKEN) {
             // RetrySendToken
             LOG.debug("{} passToken:RetrySendToken [{}]", thisStation, nextStation);
+            statistics.tokenRetry();
             retryCount++;
             sendFrame(FrameType.token, nextStation);
             eventCount = 0;
@@ -496,6 +605,7 @@ public class ManagerNode extends MstpNode {
             // SoleManager
             LOG.debug("{} pollForManager:SoleManager", thisStation);
             frameCount = 0;
+            tokenAcquired();
             receivedInvalidFrame = null;
             state = ManagerNodeState.useToken;
             activity = true;
@@ -525,6 +635,7 @@ public class ManagerNode extends MstpNode {
                     LOG.debug("{} pollForManager:DeclareSoleManager", thisStation);
                     soleManager = true;
                     frameCount = 0;
+                    tokenAcquired();
                     receivedInvalidFrame = null;
                     state = ManagerNodeState.useToken;
                     activity = true;
@@ -567,6 +678,43 @@ public class ManagerNode extends MstpNode {
         }
     }
 
+    /**
+     * Starts a token hold, and sets the number of frames that may be sent during it.
+     */
+    private void tokenAcquired() {
+        long now = clock.millis();
+        if (lastTokenAcquiredTime != -1)
+            statistics.tokenRotation(now - lastTokenAcquiredTime);
+        synchronized (statisticsLock) {
+            if (lastTokenAcquiredTime != -1) {
+                long rotation = now - lastTokenAcquiredTime;
+                averageTokenRotation = tokensHeld == 1 ? rotation : averageTokenRotation * 0.875 + rotation * 0.125;
+            }
+            lastTokenAcquiredTime = now;
+            tokenAcquiredTime = now;
+            tokensHeld++;
+            holdFramesSent = 0;
+
+            int limit = Math.max(minInfoFrames, Math.min(maxInfoFrames, framesToSend.size()));
+            if (targetTokenRotation > 0 && averageTokenRotation > targetTokenRotation)
+                limit = Math.max(minInfoFrames, (int) (limit * targetTokenRotation / averageTokenRotation));
+            tokenFrameLimit = limit;
+        }
+    }
+
+    private void tokenReleased() {
+        if (tokenAcquiredTime == -1)
+            return;
+        long holdTime = clock.millis() - tokenAcquiredTime;
+        synchronized (statisticsLock) {
+            tokenAcquiredTime = -1;
+            tokenFramesSent += holdFramesSent;
+            maxFramesPerHold = Math.max(maxFramesPerHold, holdFramesSent);
+            totalHoldTime += holdTime;
+            maxHoldTime = Math.max(maxHoldTime, holdTime);
+        }
+    }
+
     private byte adjacentStation(byte station) {
         int i = station & 0xff;
         i = (i + 1) % (maxManager + 1);
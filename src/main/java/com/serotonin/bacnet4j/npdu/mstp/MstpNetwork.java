@@ -58,7 +58,7 @@ public class MstpNetwork extends Network {
 
     @Override
     public MaxApduLength getMaxApduLength() {
-        return MaxApduLength.UP_TO_480;
+        return node.isExtendedFrames() ? MaxApduLength.UP_TO_1476 : MaxApduLength.UP_TO_480;
     }
 
     @Override
@@ -102,6 +102,13 @@ public class MstpNetwork extends Network {
         return node.getBytesIn();
     }
 
+    /**
+     * @return the link statistics of the node.
+     */
+    public MstpStatistics getStatistics() {
+        return node.getStatistics();
+    }
+
     @Override
     public void sendNPDU(Address recipient, OctetString router, ByteQueue npdu, boolean broadcast,
             boolean expectsReply) {
@@ -109,14 +116,22 @@ public class MstpNetwork extends Network {
 
         OctetString dest = getDestination(recipient, router);
         byte mstpAddress = MstpNetworkUtils.getMstpAddress(dest);
+        if (data.length > node.getMaxDataLength())
+            throw new BACnetRuntimeException("NPDU of " + data.length + " bytes is too large for an MS/TP frame");
+        // Extended frames are only used when the NPDU does not fit into a classic frame.
+        boolean extended = data.length > MstpNode.MAX_DATA_LENGTH;
 
         if (expectsReply) {
             if (node instanceof SubordinateNode)
                 throw new BACnetRuntimeException("Cannot originate a request from a subordinate node");
 
-            ((ManagerNode) node).queueFrame(FrameType.bacnetDataExpectingReply, mstpAddress, data);
+            ((ManagerNode) node).queueFrame(
+                    extended ? FrameType.bacnetExtendedDataExpectingReply : FrameType.bacnetDataExpectingReply,
+                    mstpAddress, data);
         } else
-            node.setReplyFrame(FrameType.bacnetDataNotExpectingReply, mstpAddress, data);
+            node.setReplyFrame(
+                    extended ? FrameType.bacnetExtendedDataNotExpectingReply : FrameType.bacnetDataNotExpectingReply,
+                    mstpAddress, data);
     }
 
     public void sendTestRequest(byte destination) {
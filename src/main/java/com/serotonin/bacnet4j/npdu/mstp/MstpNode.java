@@ -31,6 +31,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.time.Clock;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.commons.lang3.Strings;
 import org.slf4j.Logger;
@@ -49,6 +52,18 @@ public abstract class MstpNode implements Runnable {
     private static final byte PREAMBLE1 = 0x55;
     private static final byte PREAMBLE2 = (byte) 0xFF;
     private static final int MAX_FRAME_LENGTH = 501;
+    /**
+     * The largest NPDU that a classic data frame can carry.
+     */
+    public static final int MAX_DATA_LENGTH = MAX_FRAME_LENGTH;
+    /**
+     * The largest NPDU that an extended data frame can carry.
+     */
+    public static final int MAX_EXTENDED_DATA_LENGTH = 1497;
+    // The largest length field of an extended frame, which is the encoded size less two.
+    private static final int MAX_EXTENDED_FRAME_LENGTH = Cobs.maxFrameDataSize(MAX_EXTENDED_DATA_LENGTH) - 2;
+    // Preamble, frame type, destination, source, length and header CRC.
+    static final int HEADER_LENGTH = 8;
 
 
     protected enum ReadFrameState {
@@ -56,12 +71,37 @@ public abstract class MstpNode implements Runnable {
     }
 
 
+    /**
+     * How the node waits for incoming octets.
+     */
+    public enum ReceiveMode {
+        /**
+         * Check the input stream's available() on every cycle, and sleep for the inactivity delay when nothing
+         * happened. Works with any input stream.
+         */
+        POLL,
+        /**
+         * Read the input stream in a dedicated thread with blocking reads. The node thread waits until octets
+         * arrive or the nearest MS/TP timer is due, so frames are processed without added latency and timeouts fire
+         * on time. Requires an input stream whose read() blocks until data is available.
+         */
+        BLOCKING
+    }
+
+
     protected final String portId;
 
     //
     // Configuration
     protected int inactivityDelay = 1;
 
+    protected ReceiveMode receiveMode = ReceiveMode.POLL;
+
+    /**
+     * Whether this node sends and accepts COBS encoded extended data frames.
+     */
+    protected boolean extendedFrames;
+
     /**
      * The MAC address of this node. TS is generally read from a hardware DIP switch, or from nonvolatile memory. Valid
      * values for TS are 0 to 254. The value 255 is used to denote broadcast when used as a destination address but is
@@ -81,10 +121,19 @@ public abstract class MstpNode implements Runnable {
     protected final byte[] readArray = new byte[512];
     protected int readCount;
     private final Frame sendFrame = new Frame();
-    protected final HeaderCRC sendHeaderCRC = new HeaderCRC();
-    protected final DataCRC sendDataCRC = new DataCRC();
+    // Reused to assemble each outgoing frame so that it can be written in one call. Guarded by sendLock.
+    private final Object sendLock = new Object();
+    private byte[] sendBuffer = new byte[HEADER_LENGTH + MAX_FRAME_LENGTH + 2];
 
     Thread thread;
+    private Thread readerThread;
+
+    // Octets read by the reader thread in BLOCKING mode, and the means of waking the node thread.
+    private final ReentrantLock receiveLock = new ReentrantLock();
+    private final Condition receiveCondition = receiveLock.newCondition();
+    private final ByteQueue received = new ByteQueue();
+    private boolean readFailed;
+    private boolean wakeRequested;
 
     private volatile boolean running;
 
@@ -93,6 +142,7 @@ public abstract class MstpNode implements Runnable {
     protected String lastWriteError;
     protected long bytesOut;
     protected long bytesIn;
+    protected final MstpStatistics statistics = new MstpStatistics();
 
     protected MstpNode(SerialPortWrapper wrapper, byte thisStation) {
         this(wrapper.getCommPortId(), wrapper, thisStation);
@@ -128,6 +178,45 @@ public abstract class MstpNode implements Runnable {
         return bytesIn;
     }
 
+    public MstpStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Sets how the node waits for incoming octets. Must be called before the node is initialized.
+     */
+    public void setReceiveMode(ReceiveMode receiveMode) {
+        if (running)
+            throw new IllegalStateException("Cannot change the receive mode of a running node");
+        this.receiveMode = receiveMode;
+    }
+
+    public ReceiveMode getReceiveMode() {
+        return receiveMode;
+    }
+
+    /**
+     * Enables BACnet Extended Data frames (types 32 and 33), which carry NPDUs of up to 1497 octets. When enabled, the
+     * network advertises a max APDU of 1476, and NPDUs too large for a classic frame are sent as extended frames.
+     * Every node that may receive such frames must support them. Must be called before the node is initialized.
+     */
+    public void setExtendedFrames(boolean extendedFrames) {
+        if (running)
+            throw new IllegalStateException("Cannot change extended frame support of a running node");
+        this.extendedFrames = extendedFrames;
+    }
+
+    public boolean isExtendedFrames() {
+        return extendedFrames;
+    }
+
+    /**
+     * @return the largest NPDU that this node can send in one frame.
+     */
+    public int getMaxDataLength() {
+        return extendedFrames ? MAX_EXTENDED_DATA_LENGTH : MAX_FRAME_LENGTH;
+    }
+
     public void initialize(boolean runInThread) throws BACnetException {
         if (!running) {
             if (wrapper != null) {
@@ -143,6 +232,11 @@ public abstract class MstpNode implements Runnable {
             running = true;
             lastNonSilence = clock.millis();
             state = ReadFrameState.idle;
+            if (receiveMode == ReceiveMode.BLOCKING) {
+                readerThread = new Thread(this::readLoop, "BACnet4J MS/TP reader");
+                readerThread.setDaemon(true);
+                readerThread.start();
+            }
             if (runInThread) {
                 thread = new Thread(this, "BACnet4J MS/TP node");
                 thread.start();
@@ -152,6 +246,7 @@ public abstract class MstpNode implements Runnable {
 
     public void terminate() {
         running = false;
+        wakeUp();
         if (thread != null) {
             try {
                 thread.join();
@@ -166,6 +261,18 @@ public abstract class MstpNode implements Runnable {
         } catch (Exception e) {
             LOG.warn("", e);
         }
+
+        if (readerThread != null) {
+            // Closing the port normally unblocks the reader. If it doesn't, the reader is a daemon and will not
+            // prevent shutdown.
+            readerThread.interrupt();
+            try {
+                readerThread.join(100);
+            } catch (InterruptedException e) {
+                throw new BACnetRuntimeException(e);
+            }
+            readerThread = null;
+        }
     }
 
     public void setNetwork(MstpNetwork network) {
@@ -257,12 +364,101 @@ public abstract class MstpNode implements Runnable {
 
             doCycle();
 
-            if (!activity && inactivityDelay > 0) {
+            if (!activity) {
+                if (receiveMode == ReceiveMode.BLOCKING)
+                    awaitEvent();
+                else if (inactivityDelay > 0) {
+                    try {
+                        Thread.sleep(inactivityDelay);
+                    } catch (InterruptedException e) {
+                        throw new BACnetRuntimeException(e);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Wakes the node thread if it is waiting for an event, e.g. because a reply frame has been provided.
+     */
+    protected void wakeUp() {
+        receiveLock.lock();
+        try {
+            wakeRequested = true;
+            receiveCondition.signalAll();
+        } finally {
+            receiveLock.unlock();
+        }
+    }
+
+    /**
+     * Waits until octets are received, a read fails, the node is woken, or the next timer deadline is reached.
+     */
+    private void awaitEvent() {
+        long wait = nextTimerDeadline() - clock.millis();
+        if (wait <= 0)
+            return;
+
+        receiveLock.lock();
+        try {
+            long nanos = TimeUnit.MILLISECONDS.toNanos(wait);
+            while (running && received.size() == 0 && !readFailed && !wakeRequested && nanos > 0)
+                nanos = receiveCondition.awaitNanos(nanos);
+            wakeRequested = false;
+        } catch (InterruptedException e) {
+            throw new BACnetRuntimeException(e);
+        } finally {
+            receiveLock.unlock();
+        }
+    }
+
+    /**
+     * @return the clock time at which the earliest timer-driven transition of the current state could occur. In
+     * BLOCKING mode the node thread does not wait past this time.
+     */
+    protected long nextTimerDeadline() {
+        if (state != ReadFrameState.idle)
+            return lastNonSilence + Constants.FRAME_ABORT + 1;
+        return Long.MAX_VALUE;
+    }
+
+    private void readLoop() {
+        byte[] buf = new byte[MAX_FRAME_LENGTH];
+        while (running) {
+            try {
+                int count = in.read(buf);
+                if (count < 0) {
+                    LOG.debug("{} End of input stream", thisStation);
+                    break;
+                }
+                if (count == 0) {
+                    // The stream did not block. Don't spin.
+                    Thread.sleep(1);
+                    continue;
+                }
+
+                receiveLock.lock();
+                try {
+                    received.push(buf, 0, count);
+                    receiveCondition.signalAll();
+                } finally {
+                    receiveLock.unlock();
+                }
+            } catch (IOException e) {
+                if (!running)
+                    break;
+                LOG.debug("{} Input stream reader exception", thisStation, e);
+                receiveLock.lock();
                 try {
-                    Thread.sleep(inactivityDelay);
-                } catch (InterruptedException e) {
-                    throw new BACnetRuntimeException(e);
+                    readFailed = true;
+                    receiveCondition.signalAll();
+                } finally {
+                    receiveLock.unlock();
                 }
+                if (Strings.CS.equals(e.getMessage(), "Stream closed."))
+                    break;
+            } catch (@SuppressWarnings("unused") InterruptedException e) {
+                break;
             }
         }
     }
@@ -278,6 +474,7 @@ public abstract class MstpNode implements Runnable {
             // EatAnError
             receiveError = false;
             eventCount++;
+            statistics.receiveError();
             state = ReadFrameState.idle;
             activity = true;
         }
@@ -308,6 +505,11 @@ public abstract class MstpNode implements Runnable {
     }
 
     protected void readInputStream() {
+        if (receiveMode == ReceiveMode.BLOCKING) {
+            takeReceived();
+            return;
+        }
+
         try {
             if (in.available() > 0) {
                 readCount = in.read(readArray);
@@ -317,6 +519,7 @@ public abstract class MstpNode implements Runnable {
                 }
                 inputBuffer.push(readArray, 0, readCount);
                 eventCount += readCount;
+                statistics.octetsReceived(readCount);
             }
         } catch (IOException e) {
             if (Strings.CS.equals(e.getMessage(), "Stream closed.")) {
@@ -327,6 +530,29 @@ public abstract class MstpNode implements Runnable {
         }
     }
 
+    private void takeReceived() {
+        receiveLock.lock();
+        try {
+            if (readFailed) {
+                readFailed = false;
+                receiveError = true;
+            }
+            readCount = received.size() == 0 ? 0 : received.pop(readArray);
+        } finally {
+            receiveLock.unlock();
+        }
+
+        if (readCount > 0) {
+            bytesIn += readCount;
+            if (LOG.isTraceEnabled()) {
+                LOG.trace("{} in: {}", tracePrefix(), StreamUtils.dumpArrayHex(readArray, 0, readCount));
+            }
+            inputBuffer.push(readArray, 0, readCount);
+            eventCount += readCount;
+            statistics.octetsReceived(readCount);
+        }
+    }
+
     private void idle() {
         byte b;
         while (inputBuffer.size() > 0) {
@@ -381,6 +607,7 @@ public abstract class MstpNode implements Runnable {
         if (silence() > Constants.FRAME_ABORT) {
             // Timeout
             receivedInvalidFrame = "Timeout reading header";
+            statistics.frameAbort();
             LOG.debug("{} Timeout reading header: index={}, frame={}", thisStation, index, frame);
             state = ReadFrameState.idle;
             activity = true;
@@ -433,18 +660,22 @@ public abstract class MstpNode implements Runnable {
         if (!headerCRC.isOk()) {
             // BadCRC
             receivedInvalidFrame = "Bad header CRC. Frame: " + frame;
+            statistics.headerCrcError();
             state = ReadFrameState.idle;
         } else {
-            if (!frame.forStationOrBroadcast(thisStation))
+            if (!frame.forStationOrBroadcast(thisStation)) {
                 // NotForUs
+                statistics.frameReceived(frame, clock.millis());
                 state = ReadFrameState.idle;
-            else if (frame.getLength() > MAX_FRAME_LENGTH) {
+            } else if (frame.getLength() > (isExtended(frame) ? MAX_EXTENDED_FRAME_LENGTH : MAX_FRAME_LENGTH)) {
                 // FrameTooLong
                 receivedInvalidFrame = "Frame too long";
+                statistics.frameTooLong();
                 state = ReadFrameState.idle;
             } else if (frame.getLength() == 0) {
                 // NoData
                 receivedValidFrame = true;
+                statistics.frameReceived(frame, clock.millis());
                 if (frame.getFrameType() == null && LOG.isDebugEnabled()) {
                     LOG.debug("{} Received valid frame with no type (1): {}", thisStation, frame);
                 }
@@ -454,7 +685,8 @@ public abstract class MstpNode implements Runnable {
                 index = 0;
                 dataCRC.reset();
                 state = ReadFrameState.data;
-                frame.setData(new byte[frame.getLength()]);
+                // The data of an extended frame is COBS encoded, and includes what would otherwise be the CRC.
+                frame.setData(new byte[isExtended(frame) ? frame.getLength() + 2 : frame.getLength()]);
             }
         }
     }
@@ -463,6 +695,7 @@ public abstract class MstpNode implements Runnable {
         if (silence() > Constants.FRAME_ABORT) {
             // Timeout
             receivedInvalidFrame = "Timeout reading data";
+            statistics.frameAbort();
             state = ReadFrameState.idle;
             activity = true;
         } else {
@@ -471,7 +704,14 @@ public abstract class MstpNode implements Runnable {
                 noise();
                 byte b = inputBuffer.pop();
 
-                if (index < frame.getLength()) {
+                if (isExtended(frame)) {
+                    // EncodedOctet
+                    frame.getData()[index++] = b;
+                    if (index == frame.getData().length) {
+                        state = ReadFrameState.dataCrc;
+                        break;
+                    }
+                } else if (index < frame.getLength()) {
                     // DataOctet
                     dataCRC.accumulate(b);
                     frame.getData()[index] = b;
@@ -493,12 +733,26 @@ public abstract class MstpNode implements Runnable {
     protected void dataCrc() {
         activity = true;
 
-        if (!dataCRC.isOk())
+        if (isExtended(frame)) {
+            byte[] decoded = Cobs.decodeFrameData(frame.getData(), 0, frame.getData().length);
+            if (decoded == null || decoded.length > MAX_EXTENDED_DATA_LENGTH) {
+                // BadCRC
+                receivedInvalidFrame = "Bad extended data CRC";
+                statistics.dataCrcError();
+            } else {
+                // GoodCRC
+                frame.setData(decoded);
+                receivedValidFrame = true;
+                statistics.frameReceived(frame, clock.millis());
+            }
+        } else if (!dataCRC.isOk()) {
             // BadCRC
             receivedInvalidFrame = "Bad data CRC";
-        else {
+            statistics.dataCrcError();
+        } else {
             // GoodCRC
             receivedValidFrame = true;
+            statistics.frameReceived(frame, clock.millis());
             if (frame.getFrameType() == null && LOG.isDebugEnabled()) {
                 LOG.debug("{} Received valid frame with no type (2): {}", thisStation, frame);
             }
@@ -530,29 +784,17 @@ public abstract class MstpNode implements Runnable {
                 LOG.trace("{} out: {}", tracePrefix(), frame);
             }
 
-            // Preamble
-            out.write(0x55);
-            out.write(0xFF);
-
-            // Header
-            out.write(frame.getFrameType().id & 0xff);
-            out.write(frame.getDestinationAddress() & 0xff);
-            out.write(frame.getSourceAddress() & 0xff);
-            out.write(frame.getLength() >> 8 & 0xff);
-            out.write(frame.getLength() & 0xff);
-            out.write(sendHeaderCRC.getCrc(frame));
-            bytesOut += 8;
-
-            if (frame.getLength() > 0) {
-                // Data
-                out.write(frame.getData());
-                int crc = sendDataCRC.getCrc(frame);
-                out.write(crc & 0xff);
-                out.write(crc >> 8 & 0xff);
-                bytesOut += frame.getLength() + 2;
+            // Write the whole frame at once. On USB adapters each write can otherwise become its own transfer.
+            synchronized (sendLock) {
+                int size = encodedSize(frame);
+                if (sendBuffer.length < size)
+                    sendBuffer = new byte[size];
+                int length = encode(frame, sendBuffer);
+                out.write(sendBuffer, 0, length);
+                out.flush();
+                bytesOut += length;
+                statistics.frameSent(frame);
             }
-
-            out.flush();
         } catch (IOException e) {
             // Only write the same error message once. Prevents logs from getting filled up unnecessarily with repeated
             // error messages.
@@ -570,6 +812,57 @@ public abstract class MstpNode implements Runnable {
         // but not more than Tpostdrive.
     }
 
+    /**
+     * @return whether the frame type is known to this node. Extended frame types are unknown unless enabled.
+     */
+    protected boolean isKnown(FrameType type) {
+        return type != null && (!type.isExtended() || extendedFrames);
+    }
+
+    private static boolean isExtended(Frame frame) {
+        return frame.getFrameType() != null && frame.getFrameType().isExtended();
+    }
+
+    static int encodedSize(Frame frame) {
+        if (isExtended(frame))
+            return HEADER_LENGTH + Cobs.maxFrameDataSize(frame.getLength());
+        return HEADER_LENGTH + (frame.getLength() > 0 ? frame.getLength() + 2 : 0);
+    }
+
+    /**
+     * Writes the frame, including preamble and CRCs, into the buffer, which must be at least encodedSize(frame) long.
+     *
+     * @return the number of octets written.
+     */
+    static int encode(Frame frame, byte[] buf) {
+        int length = frame.getLength();
+        int encodedLength = 0;
+        if (isExtended(frame)) {
+            // The data and its CRC-32K are COBS encoded, and the length field is the encoded length less two.
+            encodedLength = Cobs.encodeFrameData(frame.getData(), 0, length, buf, HEADER_LENGTH);
+            length = encodedLength - 2;
+        }
+
+        buf[0] = PREAMBLE1;
+        buf[1] = PREAMBLE2;
+        buf[2] = frame.getFrameType().id;
+        buf[3] = frame.getDestinationAddress();
+        buf[4] = frame.getSourceAddress();
+        buf[5] = (byte) (length >> 8);
+        buf[6] = (byte) length;
+        buf[7] = (byte) HeaderCRC.crc(buf, 2, 5);
+        if (encodedLength > 0)
+            return HEADER_LENGTH + encodedLength;
+        if (length == 0)
+            return HEADER_LENGTH;
+
+        System.arraycopy(frame.getData(), 0, buf, HEADER_LENGTH, length);
+        int crc = DataCRC.crc(buf, HEADER_LENGTH, length);
+        buf[HEADER_LENGTH + length] = (byte) crc;
+        buf[HEADER_LENGTH + length + 1] = (byte) (crc >> 8);
+        return HEADER_LENGTH + length + 2;
+    }
+
     private void noise() {
         lastNonSilence = clock.millis();
     }
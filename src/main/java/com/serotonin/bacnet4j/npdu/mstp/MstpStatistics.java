@@ -0,0 +1,324 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2025 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+
+package com.serotonin.bacnet4j.npdu.mstp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Link statistics of an MS/TP node. Counters are updated by the node thread and can be read at any time from any
+ * thread. The cost is a few atomic increments per frame, so they are always on.
+ */
+public class MstpStatistics {
+    /**
+     * The upper bounds in milliseconds of the token rotation histogram buckets. The last bucket has no upper bound.
+     */
+    private static final long[] TOKEN_ROTATION_BOUNDS = {10, 20, 50, 100, 200, 500, 1000, 2000, 5000};
+
+    private final AtomicLongArray framesReceived = new AtomicLongArray(256);
+    private final AtomicLongArray framesSent = new AtomicLongArray(256);
+    private final AtomicLong headerCrcErrors = new AtomicLong();
+    private final AtomicLong dataCrcErrors = new AtomicLong();
+    private final AtomicLong frameTooLongErrors = new AtomicLong();
+    private final AtomicLong frameAborts = new AtomicLong();
+    private final AtomicLong receiveErrors = new AtomicLong();
+    private final AtomicLong events = new AtomicLong();
+    private final AtomicLong tokenRetries = new AtomicLong();
+    private final AtomicLong lostTokens = new AtomicLong();
+    private final AtomicLongArray replyTimeouts = new AtomicLongArray(256);
+    private final AtomicLongArray tokenRotations = new AtomicLongArray(TOKEN_ROTATION_BOUNDS.length + 1);
+    private final AtomicLongArray stationLastSeen = new AtomicLongArray(256);
+    private final AtomicLongArray stationFrames = new AtomicLongArray(256);
+    private final AtomicLongArray stationIsManager = new AtomicLongArray(256);
+
+    //
+    // Updates
+    //
+    void frameReceived(Frame frame, long now) {
+        FrameType type = frame.getFrameType();
+        if (type != null)
+            framesReceived.incrementAndGet(type.id & 0xff);
+
+        int source = frame.getSourceAddress() & 0xff;
+        stationLastSeen.set(source, now);
+        stationFrames.incrementAndGet(source);
+        if (type == FrameType.token || type == FrameType.replyToPollForManager || type == FrameType.pollForManager)
+            stationIsManager.set(source, 1);
+    }
+
+    void frameSent(Frame frame) {
+        framesSent.incrementAndGet(frame.getFrameType().id & 0xff);
+    }
+
+    void headerCrcError() {
+        headerCrcErrors.incrementAndGet();
+    }
+
+    void dataCrcError() {
+        dataCrcErrors.incrementAndGet();
+    }
+
+    void frameTooLong() {
+        frameTooLongErrors.incrementAndGet();
+    }
+
+    void frameAbort() {
+        frameAborts.incrementAndGet();
+    }
+
+    void receiveError() {
+        receiveErrors.incrementAndGet();
+        events.incrementAndGet();
+    }
+
+    void octetsReceived(int count) {
+        events.addAndGet(count);
+    }
+
+    void tokenRetry() {
+        tokenRetries.incrementAndGet();
+    }
+
+    void lostToken() {
+        lostTokens.incrementAndGet();
+    }
+
+    void replyTimeout(byte destination) {
+        replyTimeouts.incrementAndGet(destination & 0xff);
+    }
+
+    void tokenRotation(long millis) {
+        int bucket = 0;
+        while (bucket < TOKEN_ROTATION_BOUNDS.length && millis >= TOKEN_ROTATION_BOUNDS[bucket])
+            bucket++;
+        tokenRotations.incrementAndGet(bucket);
+    }
+
+    //
+    // Reads
+    //
+    public long getFramesReceived(FrameType type) {
+        return framesReceived.get(type.id & 0xff);
+    }
+
+    public long getFramesReceived() {
+        return sum(framesReceived);
+    }
+
+    public long getFramesSent(FrameType type) {
+        return framesSent.get(type.id & 0xff);
+    }
+
+    public long getFramesSent() {
+        return sum(framesSent);
+    }
+
+    public long getPollForManagerSent() {
+        return getFramesSent(FrameType.pollForManager);
+    }
+
+    public long getPollForManagerReceived() {
+        return getFramesReceived(FrameType.pollForManager);
+    }
+
+    public long getHeaderCrcErrors() {
+        return headerCrcErrors.get();
+    }
+
+    /**
+     * @return the number of frames with a bad data CRC, including extended frames with a bad CRC-32K or encoding.
+     */
+    public long getDataCrcErrors() {
+        return dataCrcErrors.get();
+    }
+
+    public long getFrameTooLongErrors() {
+        return frameTooLongErrors.get();
+    }
+
+    /**
+     * @return the number of frames abandoned because the line was silent for longer than Tframe_abort.
+     */
+    public long getFrameAborts() {
+        return frameAborts.get();
+    }
+
+    /**
+     * @return the number of ReceiveError events, i.e. errors reported while reading from the port.
+     */
+    public long getReceiveErrors() {
+        return receiveErrors.get();
+    }
+
+    /**
+     * @return the number of EventCount events: octets received plus receive errors.
+     */
+    public long getEvents() {
+        return events.get();
+    }
+
+    public long getTokenRetries() {
+        return tokenRetries.get();
+    }
+
+    public long getLostTokens() {
+        return lostTokens.get();
+    }
+
+    public long getReplyTimeouts(int station) {
+        return replyTimeouts.get(station);
+    }
+
+    public long getReplyTimeouts() {
+        return sum(replyTimeouts);
+    }
+
+    /**
+     * @return the upper bounds in milliseconds of the token rotation histogram buckets. The histogram has one more
+     * bucket, for rotations of at least the last bound.
+     */
+    public long[] getTokenRotationBounds() {
+        return TOKEN_ROTATION_BOUNDS.clone();
+    }
+
+    /**
+     * @return the number of token rotations in each bucket. Only manager nodes record token rotations.
+     */
+    public long[] getTokenRotationHistogram() {
+        long[] result = new long[tokenRotations.length()];
+        for (int i = 0; i < result.length; i++)
+            result[i] = tokenRotations.get(i);
+        return result;
+    }
+
+    /**
+     * @return the last-seen time of the given station, or 0 if no valid frame has been received from it.
+     */
+    public long getLastSeen(int station) {
+        return stationLastSeen.get(station);
+    }
+
+    /**
+     * @return the stations from which valid frames have been received, in address order.
+     */
+    public List<Station> getStations() {
+        List<Station> result = new ArrayList<>();
+        for (int i = 0; i < 256; i++) {
+            long lastSeen = stationLastSeen.get(i);
+            if (lastSeen != 0)
+                result.add(new Station(i, lastSeen, stationFrames.get(i), stationIsManager.get(i) != 0));
+        }
+        return result;
+    }
+
+    public void reset() {
+        for (int i = 0; i < 256; i++) {
+            framesReceived.set(i, 0);
+            framesSent.set(i, 0);
+            replyTimeouts.set(i, 0);
+            stationLastSeen.set(i, 0);
+            stationFrames.set(i, 0);
+            stationIsManager.set(i, 0);
+        }
+        for (int i = 0; i < tokenRotations.length(); i++)
+            tokenRotations.set(i, 0);
+        headerCrcErrors.set(0);
+        dataCrcErrors.set(0);
+        frameTooLongErrors.set(0);
+        frameAborts.set(0);
+        receiveErrors.set(0);
+        events.set(0);
+        tokenRetries.set(0);
+        lostTokens.set(0);
+    }
+
+    private static long sum(AtomicLongArray array) {
+        long sum = 0;
+        for (int i = 0; i < array.length(); i++)
+            sum += array.get(i);
+        return sum;
+    }
+
+    @Override
+    public String toString() {
+        return "MstpStatistics [framesReceived=" + getFramesReceived() + ", framesSent=" + getFramesSent()
+                + ", headerCrcErrors=" + getHeaderCrcErrors() + ", dataCrcErrors=" + getDataCrcErrors()
+                + ", frameTooLongErrors=" + getFrameTooLongErrors() + ", frameAborts=" + getFrameAborts()
+                + ", receiveErrors=" + getReceiveErrors() + ", events=" + getEvents() + ", tokenRetries="
+                + getTokenRetries() + ", lostTokens=" + getLostTokens() + ", replyTimeouts=" + getReplyTimeouts()
+                + ", stations=" + getStations().size() + "]";
+    }
+
+    /**
+     * A station that has been heard on the link.
+     */
+    public static class Station {
+        private final int address;
+        private final long lastSeen;
+        private final long frames;
+        private final boolean manager;
+
+        public Station(int address, long lastSeen, long frames, boolean manager) {
+            this.address = address;
+            this.lastSeen = lastSeen;
+            this.frames = frames;
+            this.manager = manager;
+        }
+
+        public int getAddress() {
+            return address;
+        }
+
+        /**
+         * @return the clock time in milliseconds of the last valid frame received from the station.
+         */
+        public long getLastSeen() {
+            return lastSeen;
+        }
+
+        public long getFrames() {
+            return frames;
+        }
+
+        /**
+         * @return whether the station has been seen passing the token or taking part in a Poll For Manager.
+         */
+        public boolean isManager() {
+            return manager;
+        }
+
+        @Override
+        public String toString() {
+            return "Station [address=" + address + ", lastSeen=" + lastSeen + ", frames=" + frames + ", manager="
+                    + manager + "]";
+        }
+    }
+}
@@ -73,6 +73,13 @@ public class RealtimeManagerNode extends ManagerNode {
         this.responseTimeoutMs = responseTimeoutMs;
     }
 
+    @Override
+    public void setReceiveMode(ReceiveMode receiveMode) {
+        // The driver already delivers whole frames through blocking reads.
+        if (receiveMode != ReceiveMode.POLL)
+            throw new IllegalArgumentException("The real-time driver does not support receive mode " + receiveMode);
+    }
+
     @Override
     public void initialize(Transport transport) throws BACnetException {
         try {
@@ -118,6 +125,7 @@ public class RealtimeManagerNode extends ManagerNode {
             // EatAnError
             receiveError = false;
             eventCount++;
+            statistics.receiveError();
             activity = true;
         }
     }
@@ -134,6 +142,7 @@ public class RealtimeManagerNode extends ManagerNode {
                 }
                 inputBuffer.push(readArray, 0, readCount);
                 eventCount += readCount;
+                statistics.octetsReceived(readCount);
                 int pos = 0;
                 frame.setSourceAddress(readArray[pos++]);
                 byte[] data = new byte[readCount - 1];
@@ -143,6 +152,7 @@ public class RealtimeManagerNode extends ManagerNode {
                 frame.setData(data);
                 LOG.trace("in: {}", frame);
                 receivedValidFrame = true;
+                statistics.frameReceived(frame, clock.millis());
             }
         } catch (IOException e) {
             if (Strings.CS.equals(e.getMessage(), "Stream closed."))
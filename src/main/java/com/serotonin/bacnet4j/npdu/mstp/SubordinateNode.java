@@ -75,6 +75,14 @@ public class SubordinateNode extends MstpNode {
                 // If there is still time to reply immediately...
                 replyFrame = new Frame(type, frame.getSourceAddress(), thisStation, data);
         }
+        wakeUp();
+    }
+
+    @Override
+    protected long nextTimerDeadline() {
+        if (state == SubordinateNodeState.answerDataRequest)
+            return Math.min(replyDeadline + 1, super.nextTimerDeadline());
+        return super.nextTimerDeadline();
     }
 
     @Override
@@ -99,11 +107,12 @@ public class SubordinateNode extends MstpNode {
         } else if (receivedValidFrame) {
             FrameType type = frame.getFrameType();
 
-            if (type == null) {
+            if (!isKnown(type)) {
                 // ReceivedUnwantedFrame
                 LOG.debug("Unknown frame type");
             } else if (frame.broadcast()
-                    && type.oneOf(FrameType.token, FrameType.bacnetDataExpectingReply, FrameType.testRequest)) {
+                    && type.oneOf(FrameType.token, FrameType.bacnetDataExpectingReply,
+                            FrameType.bacnetExtendedDataExpectingReply, FrameType.testRequest)) {
                 // ReceivedUnwantedFrame
                 LOG.debug("Frame type should not be broadcast: {}", type);
             } else if (type.oneOf(FrameType.pollForManager)) {
@@ -114,11 +123,13 @@ public class SubordinateNode extends MstpNode {
                 // ReceivedUnwantedFrame
                 LOG.debug("Received unwanted frame type: {}", type);
             } else if (frame.forStationOrBroadcast(thisStation)
-                    && type.oneOf(FrameType.bacnetDataNotExpectingReply, FrameType.testResponse)) {
+                    && type.oneOf(FrameType.bacnetDataNotExpectingReply,
+                            FrameType.bacnetExtendedDataNotExpectingReply, FrameType.testResponse)) {
                 // ReceivedDataNoReply
                 receivedDataNoReply(frame);
             } else if (frame.forStation(thisStation)
-                    && type.oneOf(FrameType.bacnetDataExpectingReply, FrameType.testRequest)) {
+                    && type.oneOf(FrameType.bacnetDataExpectingReply, FrameType.bacnetExtendedDataExpectingReply,
+                            FrameType.testRequest)) {
                 // ReceivedDataNeedingReply
                 state = SubordinateNodeState.answerDataRequest;
                 replyDeadline = lastNonSilence + Constants.REPLY_DELAY;
@@ -143,7 +154,7 @@ public class SubordinateNode extends MstpNode {
                 replyFrame = null;
                 state = SubordinateNodeState.idle;
                 activity = true;
-            } else if (replyDeadline >= clock.millis()) {
+            } else if (replyDeadline < clock.millis()) {
                 // CannotReply
                 LOG.debug("Failed to respond to request: {}", frame);
                 state = SubordinateNodeState.idle;
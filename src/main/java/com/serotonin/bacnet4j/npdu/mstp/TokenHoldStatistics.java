@@ -0,0 +1,118 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2025 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+
+package com.serotonin.bacnet4j.npdu.mstp;
+
+/**
+ * A snapshot of how a manager node has used the token.
+ */
+public class TokenHoldStatistics {
+    private final long tokensHeld;
+    private final long framesSent;
+    private final int maxFramesPerHold;
+    private final long totalHoldTime;
+    private final long maxHoldTime;
+    private final double averageTokenRotation;
+    private final int frameLimit;
+    private final int queuedFrames;
+
+    public TokenHoldStatistics(long tokensHeld, long framesSent, int maxFramesPerHold, long totalHoldTime,
+            long maxHoldTime, double averageTokenRotation, int frameLimit, int queuedFrames) {
+        this.tokensHeld = tokensHeld;
+        this.framesSent = framesSent;
+        this.maxFramesPerHold = maxFramesPerHold;
+        this.totalHoldTime = totalHoldTime;
+        this.maxHoldTime = maxHoldTime;
+        this.averageTokenRotation = averageTokenRotation;
+        this.frameLimit = frameLimit;
+        this.queuedFrames = queuedFrames;
+    }
+
+    /**
+     * @return the number of times the node has held the token.
+     */
+    public long getTokensHeld() {
+        return tokensHeld;
+    }
+
+    /**
+     * @return the number of data and test frames sent while holding the token.
+     */
+    public long getFramesSent() {
+        return framesSent;
+    }
+
+    public int getMaxFramesPerHold() {
+        return maxFramesPerHold;
+    }
+
+    public double getAverageFramesPerHold() {
+        return tokensHeld == 0 ? 0 : (double) framesSent / tokensHeld;
+    }
+
+    /**
+     * @return the total time in milliseconds that the node has held the token.
+     */
+    public long getTotalHoldTime() {
+        return totalHoldTime;
+    }
+
+    public long getMaxHoldTime() {
+        return maxHoldTime;
+    }
+
+    public double getAverageHoldTime() {
+        return tokensHeld == 0 ? 0 : (double) totalHoldTime / tokensHeld;
+    }
+
+    /**
+     * @return the moving average of the time in milliseconds between receipts of the token.
+     */
+    public double getAverageTokenRotation() {
+        return averageTokenRotation;
+    }
+
+    /**
+     * @return the number of frames the node may send during the current or most recent token hold.
+     */
+    public int getFrameLimit() {
+        return frameLimit;
+    }
+
+    public int getQueuedFrames() {
+        return queuedFrames;
+    }
+
+    @Override
+    public String toString() {
+        return "TokenHoldStatistics [tokensHeld=" + tokensHeld + ", framesSent=" + framesSent + ", maxFramesPerHold="
+                + maxFramesPerHold + ", totalHoldTime=" + totalHoldTime + ", maxHoldTime=" + maxHoldTime
+                + ", averageTokenRotation=" + averageTokenRotation + ", frameLimit=" + frameLimit + ", queuedFrames="
+                + queuedFrames + "]";
+    }
+}
@@ -0,0 +1,543 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2025 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+package com.serotonin.bacnet4j.npdu.router;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.serotonin.bacnet4j.LocalDevice;
+import com.serotonin.bacnet4j.ResponseConsumer;
+import com.serotonin.bacnet4j.ServiceFuture;
+import com.serotonin.bacnet4j.exception.BACnetException;
+import com.serotonin.bacnet4j.npdu.MessageValidationException;
+import com.serotonin.bacnet4j.npdu.NPCI;
+import com.serotonin.bacnet4j.npdu.NPDU;
+import com.serotonin.bacnet4j.npdu.Network;
+import com.serotonin.bacnet4j.npdu.NetworkIdentifier;
+import com.serotonin.bacnet4j.npdu.router.RoutingTable.Route;
+import com.serotonin.bacnet4j.service.confirmed.ConfirmedRequestService;
+import com.serotonin.bacnet4j.service.unconfirmed.UnconfirmedRequestService;
+import com.serotonin.bacnet4j.transport.Transport;
+import com.serotonin.bacnet4j.type.constructed.Address;
+import com.serotonin.bacnet4j.type.enumerated.Segmentation;
+import com.serotonin.bacnet4j.type.primitive.OctetString;
+import com.serotonin.bacnet4j.util.sero.ByteQueue;
+
+/**
+ * A BACnet router (clause 6.6) between the network of a local device and any number of other networks, each of
+ * which is a port of the router. Messages are forwarded by rewriting their NPCI only; the APDU is copied as is, and
+ * never decoded.
+ * <p>
+ * The local device hosts the router: its network is the first port, and its executor and clock serve the other ports'
+ * networks, which the router initializes itself. Devices on the other ports reach the local device at its address on
+ * its own network. Every network needs a distinct, non-zero local network number.
+ * <p>
+ * The router answers Who-Is-Router-To-Network, announces its networks with I-Am-Router-To-Network, and learns the
+ * networks of other routers from their announcements, which it asks for when it starts. A message for a network it
+ * cannot reach is rejected with Reject-Message-To-Network, and a Who-Is-Router-To-Network is sent on the other ports
+ * so that a retry may succeed.
+ * <pre>
+ * LocalDevice localDevice = new LocalDevice(1, new DefaultTransport(ipNetwork));
+ * localDevice.initialize();
+ * BACnetRouter router = new BACnetRouter(localDevice);
+ * router.addPort(mstpNetwork);
+ * router.initialize();
+ * ...
+ * router.terminate();
+ * localDevice.terminate();
+ * </pre>
+ */
+public class BACnetRouter {
+    static final Logger LOG = LoggerFactory.getLogger(BACnetRouter.class);
+
+    static final int WHO_IS_ROUTER_TO_NETWORK = 0x00;
+    static final int I_AM_ROUTER_TO_NETWORK = 0x01;
+    static final int REJECT_MESSAGE_TO_NETWORK = 0x03;
+
+    static final int REJECT_UNKNOWN_NETWORK = 1;
+    static final int REJECT_MESSAGE_TOO_LONG = 4;
+
+    private static final int GLOBAL_NETWORK = 0xFFFF;
+
+    private final LocalDevice localDevice;
+    private final RouterPort localPort;
+    private final List<RouterPort> ports = new CopyOnWriteArrayList<>();
+    private final RoutingTable routingTable = new RoutingTable();
+    private volatile boolean initialized;
+
+    public BACnetRouter(LocalDevice localDevice) {
+        this.localDevice = localDevice;
+        localPort = new RouterPort(this, localDevice.getNetwork(), true);
+        ports.add(localPort);
+    }
+
+    /**
+     * Adds a network as a port of the router. The router initializes and terminates the network.
+     *
+     * @return the port
+     */
+    public RouterPort addPort(Network network) {
+        if (initialized)
+            throw new IllegalStateException("Ports must be added before the router is initialized");
+        RouterPort port = new RouterPort(this, network, false);
+        ports.add(port);
+        return port;
+    }
+
+    public LocalDevice getLocalDevice() {
+        return localDevice;
+    }
+
+    public List<RouterPort> getPorts() {
+        return Collections.unmodifiableList(ports);
+    }
+
+    public RouterPort getPort(int networkNumber) {
+        for (RouterPort port : ports) {
+            if (port.getNetworkNumber() == networkNumber)
+                return port;
+        }
+        return null;
+    }
+
+    public RoutingTable getRoutingTable() {
+        return routingTable;
+    }
+
+    /**
+     * Starts routing. The local device must already be initialized.
+     */
+    public void initialize() throws BACnetException {
+        if (!localDevice.isInitialized())
+            throw new IllegalStateException("The local device must be initialized before the router");
+        List<Integer> networkNumbers = new ArrayList<>();
+        for (RouterPort port : ports) {
+            int nn = port.getNetworkNumber();
+            if (nn < 1 || nn >= GLOBAL_NETWORK)
+                throw new IllegalArgumentException("Invalid network number " + nn + " for a router port");
+            if (networkNumbers.contains(nn))
+                throw new IllegalArgumentException("More than one router port has network number " + nn);
+            networkNumbers.add(nn);
+        }
+
+        for (RouterPort port : ports) {
+            if (!port.isLocal())
+                port.getNetwork().initialize(new PortTransport(port.getNetwork()));
+            routingTable.addDirect(port);
+            port.attach();
+            if (!port.isLocal())
+                addLocalRoute(port.getNetworkNumber());
+        }
+        initialized = true;
+
+        for (RouterPort port : ports) {
+            announce(port, routingTable.getNetworksNotOn(port));
+            // Learn the networks of the routers that are already there.
+            port.send(null, new NPCI(null, null, false, WHO_IS_ROUTER_TO_NETWORK, 0), new byte[0]);
+        }
+    }
+
+    /**
+     * Stops routing, and terminates the networks of the ports other than the local device's. Call this before
+     * terminating the local device.
+     */
+    public void terminate() {
+        initialized = false;
+        for (RouterPort port : ports) {
+            port.detach();
+            if (!port.isLocal())
+                port.getNetwork().terminate();
+        }
+    }
+
+    //
+    // Routing
+    //
+
+    boolean incoming(RouterPort port, NPCI npci, ByteQueue data, OctetString linkService) {
+        if (!initialized)
+            return true;
+
+        if (!npci.hasDestinationInfo()) {
+            if (npci.isNetworkMessage())
+                return networkMessage(port, npci, data, linkService);
+            return true;
+        }
+
+        int dnet = npci.getDestinationNetwork();
+        if (dnet == port.getNetworkNumber())
+            return true;
+        port.received();
+        if (dnet == GLOBAL_NETWORK) {
+            // The network goes on to parse the message with its NPCI, so the forwarded message gets its own.
+            forwardGlobal(port, copy(npci), data.peekAll(), linkService);
+            return true;
+        }
+        forward(port, npci, data.popAll(), linkService);
+        return false;
+    }
+
+    boolean outgoing(RouterPort port, Address recipient, ByteQueue npdu) {
+        if (!initialized)
+            return false;
+
+        if (recipient.isGlobal()) {
+            ByteQueue copy = new ByteQueue(npdu.peekAll());
+            forwardGlobal(port, readNpci(copy), copy.popAll(), port.getLocalMac());
+            return false;
+        }
+
+        if (port.getNetwork().isThisNetwork(recipient))
+            return false;
+        Route route = routingTable.get(recipient.getNetworkNumber().intValue());
+        if (route == null || route.port() == port)
+            return false;
+        forward(port, readNpci(npdu), npdu.popAll(), port.getLocalMac());
+        return true;
+    }
+
+    private static NPCI copy(NPCI npci) {
+        ByteQueue queue = new ByteQueue();
+        npci.write(queue);
+        return readNpci(queue);
+    }
+
+    private static NPCI readNpci(ByteQueue npdu) {
+        try {
+            return new NPCI(npdu);
+        } catch (MessageValidationException e) {
+            // The NPCI was just written by the network.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Forwards a message that is addressed to a remote network (clause 6.5.4).
+     */
+    private void forward(RouterPort in, NPCI npci, byte[] data, OctetString linkService) {
+        int dnet = npci.getDestinationNetwork();
+
+        int hopCount = npci.getHopCount() - 1;
+        if (hopCount <= 0) {
+            LOG.debug("Hop count of message to network {} ran out", dnet);
+            in.dropped();
+            return;
+        }
+
+        Route route = routingTable.get(dnet);
+        if (route == null) {
+            LOG.debug("No route to network {}; rejecting", dnet);
+            reject(in, npci, linkService, REJECT_UNKNOWN_NETWORK, dnet);
+            whoIsRouter(in, npci, linkService, dnet);
+            return;
+        }
+        RouterPort out = route.port();
+        if (out == in) {
+            // The sender should have sent it to the next router directly.
+            in.dropped();
+            return;
+        }
+        if (!npci.isNetworkMessage() && data.length > out.getNetwork().getMaxApduLength().getMaxLengthInt()) {
+            reject(in, npci, linkService, REJECT_MESSAGE_TOO_LONG, dnet);
+            return;
+        }
+
+        if (!hasRemoteSource(npci))
+            npci.source(in.getNetworkNumber(), linkService.getBytes());
+
+        if (route.isDirect()) {
+            OctetString mac = npci.isDestinationBroadcast() ? null : new OctetString(npci.getDestinationAddress());
+            npci.clearDestination();
+            out.send(mac, npci, data);
+        } else {
+            npci.hopCount(hopCount);
+            out.send(route.nextHop(), npci, data);
+        }
+    }
+
+    /**
+     * Forwards a global broadcast to all ports other than the one it came from.
+     */
+    private void forwardGlobal(RouterPort in, NPCI npci, byte[] data, OctetString linkService) {
+        int hopCount = npci.getHopCount() - 1;
+        if (hopCount <= 0) {
+            in.dropped();
+            return;
+        }
+        if (!hasRemoteSource(npci))
+            npci.source(in.getNetworkNumber(), linkService.getBytes());
+        npci.hopCount(hopCount);
+        for (RouterPort out : ports) {
+            if (out != in)
+                out.send(null, npci, data);
+        }
+    }
+
+    /**
+     * Whether the message came from beyond the network it was received on. A source network of zero is not valid, and
+     * is taken to mean the local network.
+     */
+    private static boolean hasRemoteSource(NPCI npci) {
+        return npci.hasSourceInfo() && npci.getSourceNetwork() != 0;
+    }
+
+    private void reject(RouterPort port, NPCI npci, OctetString linkService, int reason, int dnet) {
+        port.dropped();
+        // The rejection goes back the way the message came.
+        Address destination = hasRemoteSource(npci)
+                ? new Address(npci.getSourceNetwork(), npci.getSourceAddress())
+                : null;
+        NPCI reply = new NPCI(destination, null, false, REJECT_MESSAGE_TO_NETWORK, 0);
+        port.send(linkService, reply, new byte[] {(byte) reason, (byte) (dnet >> 8), (byte) dnet});
+    }
+
+    //
+    // Network layer messages
+    //
+
+    private boolean networkMessage(RouterPort port, NPCI npci, ByteQueue data, OctetString linkService) {
+        switch (npci.getMessageType()) {
+            case WHO_IS_ROUTER_TO_NETWORK:
+                if (data.size() >= 2) {
+                    int dnet = data.popU2B();
+                    Route route = routingTable.get(dnet);
+                    if (route == null)
+                        whoIsRouter(port, npci, linkService, dnet);
+                    else if (route.port() != port)
+                        announce(port, List.of(dnet));
+                } else {
+                    announce(port, routingTable.getNetworksNotOn(port));
+                }
+                return false;
+            case I_AM_ROUTER_TO_NETWORK:
+                iAmRouter(port, data.peekAll(), linkService);
+                // The local device learns the routes on its own network too.
+                return true;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Asks on the ports other than the given one for a router to the network.
+     */
+    private void whoIsRouter(RouterPort in, NPCI npci, OctetString linkService, int dnet) {
+        for (RouterPort out : ports) {
+            if (out == in)
+                continue;
+            NPCI request = new NPCI(null, null, false, WHO_IS_ROUTER_TO_NETWORK, 0);
+            if (hasRemoteSource(npci))
+                request.source(npci.getSourceNetwork(), npci.getSourceAddress());
+            else
+                request.source(in.getNetworkNumber(), linkService.getBytes());
+            out.send(null, request, new byte[] {(byte) (dnet >> 8), (byte) dnet});
+        }
+    }
+
+    private void iAmRouter(RouterPort port, byte[] networks, OctetString linkService) {
+        List<Integer> changed = new ArrayList<>();
+        for (int i = 0; i + 1 < networks.length; i += 2) {
+            int dnet = (networks[i] & 0xff) << 8 | networks[i + 1] & 0xff;
+            if (routingTable.learn(dnet, port, linkService)) {
+                LOG.debug("Learned route to network {} through {} on port {}", dnet, linkService,
+                        port.getNetworkNumber());
+                changed.add(dnet);
+                if (!port.isLocal())
+                    addLocalRoute(dnet);
+            }
+        }
+        // Only changes are passed on, so that two routers between the same networks do not echo each other.
+        if (!changed.isEmpty()) {
+            for (RouterPort out : ports) {
+                if (out != port)
+                    announce(out, changed);
+            }
+        }
+    }
+
+    private void announce(RouterPort port, List<Integer> networks) {
+        if (networks.isEmpty())
+            return;
+        byte[] data = new byte[networks.size() * 2];
+        for (int i = 0; i < networks.size(); i++) {
+            data[i * 2] = (byte) (networks.get(i) >> 8);
+            data[i * 2 + 1] = networks.get(i).byteValue();
+        }
+        port.send(null, new NPCI(null, null, false, I_AM_ROUTER_TO_NETWORK, 0), data);
+    }
+
+    /**
+     * Tells the local device that the router is its router to a network on another port. Its messages to the network
+     * are then handed to the router by its network.
+     */
+    private void addLocalRoute(int networkNumber) {
+        localPort.getNetwork().getTransport().addNetworkRouter(networkNumber, localPort.getLocalMac());
+    }
+
+    /**
+     * The transport of the networks of the ports other than the local device's. They only need the local device for
+     * its executor and clock; messages for the device arrive through the local device's own network.
+     */
+    private class PortTransport implements Transport {
+        private final Network network;
+
+        PortTransport(Network network) {
+            this.network = network;
+        }
+
+        @Override
+        public NetworkIdentifier getNetworkIdentifier() {
+            return network.getNetworkIdentifier();
+        }
+
+        @Override
+        public Network getNetwork() {
+            return network;
+        }
+
+        @Override
+        public LocalDevice getLocalDevice() {
+            return localDevice;
+        }
+
+        @Override
+        public void setLocalDevice(LocalDevice localDevice) {
+            // The port's network always serves the router's device.
+        }
+
+        @Override
+        public void setTimeout(int timeout) {
+            // The local device's transport does the sending.
+        }
+
+        @Override
+        public int getTimeout() {
+            return localPort.getNetwork().getTransport().getTimeout();
+        }
+
+        @Override
+        public void setSegTimeout(int segTimeout) {
+            // The local device's transport does the sending.
+        }
+
+        @Override
+        public int getSegTimeout() {
+            return localPort.getNetwork().getTransport().getSegTimeout();
+        }
+
+        @Override
+        public void setRetries(int retries) {
+            // The local device's transport does the sending.
+        }
+
+        @Override
+        public int getRetries() {
+            return localPort.getNetwork().getTransport().getRetries();
+        }
+
+        @Override
+        public void setSegWindow(int segWindow) {
+            // The local device's transport does the sending.
+        }
+
+        @Override
+        public int getSegWindow() {
+            return localPort.getNetwork().getTransport().getSegWindow();
+        }
+
+        @Override
+        public void initialize() throws BACnetException {
+            network.initialize(this);
+        }
+
+        @Override
+        public void terminate() {
+            network.terminate();
+        }
+
+        @Override
+        public long getBytesOut() {
+            return network.getBytesOut();
+        }
+
+        @Override
+        public long getBytesIn() {
+            return network.getBytesIn();
+        }
+
+        @Override
+        public Address getLocalBroadcastAddress() {
+            return network.getLocalBroadcastAddress();
+        }
+
+        @Override
+        public void addNetworkRouter(int networkNumber, OctetString mac) {
+            // Routes are kept in the routing table.
+        }
+
+        @Override
+        public Map<Integer, OctetString> getNetworkRouters() {
+            return Collections.emptyMap();
+        }
+
+        // Requests are sent by the local device's transport, which keeps track of them. Its network hands messages
+        // for this port's network to the router.
+
+        @Override
+        public void send(Address address, UnconfirmedRequestService service) {
+            localTransport().send(address, service);
+        }
+
+        @Override
+        public ServiceFuture send(Address address, int maxAPDULengthAccepted, Segmentation segmentationSupported,
+                ConfirmedRequestService service) {
+            return localTransport().send(address, maxAPDULengthAccepted, segmentationSupported, service);
+        }
+
+        @Override
+        public void send(Address address, int maxAPDULengthAccepted, Segmentation segmentationSupported,
+                ConfirmedRequestService service, ResponseConsumer consumer) {
+            localTransport().send(address, maxAPDULengthAccepted, segmentationSupported, service, consumer);
+        }
+
+        private Transport localTransport() {
+            return localPort.getNetwork().getTransport();
+        }
+
+        @Override
+        public void incoming(NPDU npdu) {
+            LOG.debug("Discarding message for the router on port {}: {}", network.getLocalNetworkNumber(), npdu);
+        }
+    }
+}
@@ -0,0 +1,315 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2025 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+package com.serotonin.bacnet4j.npdu.router;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.serotonin.bacnet4j.exception.BACnetException;
+import com.serotonin.bacnet4j.npdu.MessageValidationException;
+import com.serotonin.bacnet4j.npdu.NPCI;
+import com.serotonin.bacnet4j.npdu.NPDU;
+import com.serotonin.bacnet4j.npdu.Network;
+import com.serotonin.bacnet4j.type.constructed.Address;
+import com.serotonin.bacnet4j.type.primitive.OctetString;
+import com.serotonin.bacnet4j.util.sero.ByteQueue;
+
+/**
+ * A network bound to a {@link BACnetRouter}. Messages routed to the port wait in its own queue, so that a slow
+ * network such as MS/TP does not hold up the others, and are sent on the router device's executor. The counters can
+ * be read at any time from any thread.
+ */
+public class RouterPort {
+    static final Logger LOG = LoggerFactory.getLogger(RouterPort.class);
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 1000;
+
+    private static final int BATCH_SIZE = 64;
+
+    private final BACnetRouter router;
+    private final Network network;
+    private final int networkNumber;
+    private final boolean local;
+    private OctetString localMac;
+
+    private final Queue<Outbound> queue = new ConcurrentLinkedQueue<>();
+    // Messages in the queue, reserved before they are added so that the capacity is never exceeded.
+    private final AtomicInteger size = new AtomicInteger();
+    // Messages queued but not yet sent. A positive count means that a drain is scheduled or running.
+    private final AtomicInteger queued = new AtomicInteger();
+    private volatile int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+
+    private final LongAdder received = new LongAdder();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder bytesSent = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    RouterPort(BACnetRouter router, Network network, boolean local) {
+        this.router = router;
+        this.network = network;
+        this.networkNumber = network.getLocalNetworkNumber();
+        this.local = local;
+    }
+
+    void attach() {
+        Address[] addresses = network.getAllLocalAddresses();
+        localMac = addresses.length > 0 ? addresses[0].getMacAddress() : network.getLoopbackAddress().getMacAddress();
+        network.setRouterPort(this);
+    }
+
+    void detach() {
+        network.setRouterPort(null);
+        clearQueue();
+    }
+
+    public BACnetRouter getRouter() {
+        return router;
+    }
+
+    public Network getNetwork() {
+        return network;
+    }
+
+    public int getNetworkNumber() {
+        return networkNumber;
+    }
+
+    /**
+     * @return true if this is the network of the router's own device.
+     */
+    public boolean isLocal() {
+        return local;
+    }
+
+    /**
+     * @return the router's address on this port's network.
+     */
+    public OctetString getLocalMac() {
+        return localMac;
+    }
+
+    /**
+     * Sets the maximum number of messages waiting to be sent on this port. Further messages are dropped.
+     */
+    public void setQueueCapacity(int queueCapacity) {
+        if (queueCapacity < 1)
+            throw new IllegalArgumentException("queueCapacity must be positive");
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public int getQueueSize() {
+        return size.get();
+    }
+
+    /**
+     * @return the number of messages received on this port that were routed, or rejected because they could not be.
+     */
+    public long getReceivedCount() {
+        return received.sum();
+    }
+
+    /**
+     * @return the number of messages routed to this port that were sent.
+     */
+    public long getSentCount() {
+        return sent.sum();
+    }
+
+    public long getBytesSent() {
+        return bytesSent.sum();
+    }
+
+    /**
+     * @return the number of messages that were discarded: because this port's queue was full, their hop count ran
+     * out, or they could not be sent.
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    //
+    // Network hooks
+    //
+
+    /**
+     * Called by the network for each message it receives, after the NPCI has been read.
+     *
+     * @return true if the message is also for this device, false if the router has taken it.
+     */
+    public boolean routeIncoming(NPCI npci, ByteQueue data, OctetString linkService) {
+        // Messages from the router itself, which include those it delivers to its own device, are not routed again.
+        if (localMac.equals(linkService))
+            return true;
+        return router.incoming(this, npci, data, linkService);
+    }
+
+    /**
+     * Called by the network for each message sent by this device.
+     *
+     * @return true if the router has taken the message, false if the network should send it.
+     */
+    public boolean routeOutgoing(Address recipient, ByteQueue npdu) {
+        return router.outgoing(this, recipient, npdu);
+    }
+
+    //
+    // Sending
+    //
+    void received() {
+        received.increment();
+    }
+
+    void dropped() {
+        dropped.increment();
+    }
+
+    /**
+     * Queues a message to be sent on this port.
+     *
+     * @param mac  the address on this port's network to send to, or null to broadcast on it.
+     * @param npci the NPCI of the message.
+     * @param data the APDU or network message that follows the NPCI.
+     */
+    void send(OctetString mac, NPCI npci, byte[] data) {
+        ByteQueue npdu = new ByteQueue(data.length + 24);
+        npci.write(npdu);
+        npdu.push(data);
+
+        boolean broadcast = mac == null;
+        // Messages on the router device's own network that are for the device itself do not go onto the wire, and
+        // broadcasts go to both.
+        boolean loopback = local && !npci.hasDestinationInfo() && (broadcast || mac.equals(localMac));
+        if (!loopback || broadcast) {
+            Address recipient = broadcast ? network.getLocalBroadcastAddress() : new Address(mac);
+            enqueue(new Outbound(recipient, npdu, broadcast, npci.isExpectingReply(), false));
+        }
+        if (loopback)
+            enqueue(new Outbound(null, broadcast ? new ByteQueue(npdu.peekAll()) : npdu, broadcast, false, true));
+    }
+
+    private void enqueue(Outbound out) {
+        if (size.incrementAndGet() > queueCapacity) {
+            size.decrementAndGet();
+            LOG.debug("Queue of port {} is full; dropping message", networkNumber);
+            dropped.increment();
+            return;
+        }
+        queue.add(out);
+        if (queued.getAndIncrement() == 0)
+            scheduleDrain();
+    }
+
+    private void scheduleDrain() {
+        try {
+            router.getLocalDevice().execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            // The device is shutting down.
+            LOG.debug("Executor rejected the drain of port {}", networkNumber, e);
+            queued.set(0);
+            dropped.add(clearQueue());
+        }
+    }
+
+    private int clearQueue() {
+        int count = 0;
+        while (queue.poll() != null) {
+            size.decrementAndGet();
+            count++;
+        }
+        return count;
+    }
+
+    private void drain() {
+        boolean more = true;
+        try {
+            for (int i = 0; more && i < BATCH_SIZE; i++) {
+                Outbound out = queue.poll();
+                if (out != null) {
+                    size.decrementAndGet();
+                    send(out);
+                }
+                more = queued.decrementAndGet() > 0;
+            }
+        } finally {
+            if (more)
+                scheduleDrain();
+        }
+    }
+
+    private void send(Outbound out) {
+        if (out.loopback) {
+            deliverLocally(out.npdu, out.broadcast);
+            return;
+        }
+        int length = out.npdu.size();
+        try {
+            network.sendNPDU(out.recipient, null, out.npdu, out.broadcast, out.expectsReply);
+            sent.increment();
+            bytesSent.add(length);
+        } catch (BACnetException | RuntimeException e) {
+            LOG.warn("Failed to send routed message on port {}", networkNumber, e);
+            dropped.increment();
+        }
+    }
+
+    /**
+     * Hands a message to the router device as if the network had received it from the router.
+     */
+    private void deliverLocally(ByteQueue npdu, boolean broadcast) {
+        try {
+            NPDU in = network.parseNpduData(npdu, localMac);
+            if (in != null) {
+                if (broadcast)
+                    in.broadcast(true);
+                network.getTransport().incoming(in);
+            }
+        } catch (MessageValidationException e) {
+            LOG.debug("Failed to deliver routed message locally", e);
+            dropped.increment();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "RouterPort [network=" + networkNumber + ", local=" + local + ", queued=" + size.get() + "]";
+    }
+
+    private record Outbound(Address recipient, ByteQueue npdu, boolean broadcast, boolean expectsReply,
+            boolean loopback) {
+    }
+}
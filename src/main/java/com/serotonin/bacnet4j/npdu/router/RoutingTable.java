@@ -0,0 +1,101 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2025 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+package com.serotonin.bacnet4j.npdu.router;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.serotonin.bacnet4j.type.primitive.OctetString;
+
+/**
+ * The routing table of a {@link BACnetRouter}: for each reachable network, the port it is reached through and, if it
+ * is not directly connected, the address of the next router on that port.
+ */
+public class RoutingTable {
+    /**
+     * @param port    the port the network is reached through.
+     * @param nextHop the address on the port's network of the next router, or null if the network is directly
+     *                connected.
+     */
+    public record Route(RouterPort port, OctetString nextHop) {
+        public boolean isDirect() {
+            return nextHop == null;
+        }
+    }
+
+    private final Map<Integer, Route> routes = new ConcurrentHashMap<>();
+
+    void addDirect(RouterPort port) {
+        routes.put(port.getNetworkNumber(), new Route(port, null));
+    }
+
+    /**
+     * Records that the given network is reachable through the router at the given address on the given port. Routes to
+     * directly connected networks are not replaced.
+     *
+     * @return true if the route is new or changed.
+     */
+    boolean learn(int networkNumber, RouterPort port, OctetString nextHop) {
+        Route route = new Route(port, nextHop);
+        Route existing = routes.get(networkNumber);
+        if (existing != null && (existing.isDirect() || existing.equals(route)))
+            return false;
+        routes.put(networkNumber, route);
+        return true;
+    }
+
+    public Route get(int networkNumber) {
+        return routes.get(networkNumber);
+    }
+
+    /**
+     * @return the networks reachable through ports other than the given one, which are the networks the router
+     * announces on that port.
+     */
+    public List<Integer> getNetworksNotOn(RouterPort port) {
+        List<Integer> result = new ArrayList<>();
+        routes.forEach((nn, route) -> {
+            if (route.port() != port)
+                result.add(nn);
+        });
+        Collections.sort(result);
+        return result;
+    }
+
+    public Map<Integer, Route> getRoutes() {
+        return Collections.unmodifiableMap(routes);
+    }
+
+    @Override
+    public String toString() {
+        return "RoutingTable " + routes;
+    }
+}
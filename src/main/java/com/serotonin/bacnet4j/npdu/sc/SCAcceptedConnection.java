@@ -0,0 +1,264 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2025 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+package com.serotonin.bacnet4j.npdu.sc;
+
+import java.net.InetSocketAddress;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.java_websocket.WebSocket;
+import org.java_websocket.WebSocketImpl;
+import org.java_websocket.exceptions.WebsocketNotConnectedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.serotonin.bacnet4j.npdu.sc.msg.SCBVLC;
+import com.serotonin.bacnet4j.npdu.sc.msg.SCPayloadBVLCResult;
+import com.serotonin.bacnet4j.npdu.sc.msg.SCPayloadConnectRequest;
+import com.serotonin.bacnet4j.type.enumerated.ErrorClass;
+import com.serotonin.bacnet4j.type.enumerated.ErrorCode;
+
+/**
+ * The accepting side of a BACnet/SC connection, as held by an {@link SCAcceptor}. Outgoing messages go through a
+ * bounded queue: the connection hands at most {@link SCAcceptor#getWireQueueLimit()} frames to the websocket at a
+ * time, and messages that arrive while the queue is full are dropped rather than allowed to grow without bound. A
+ * slow peer therefore loses its own messages instead of stalling, or exhausting the memory of, every other
+ * connection of the acceptor.
+ */
+public class SCAcceptedConnection {
+    private static final Logger LOG = LoggerFactory.getLogger(SCAcceptedConnection.class);
+
+
+    protected enum State {
+        AWAITING_REQUEST,
+        CONNECTED,
+        CLOSED
+    }
+
+
+    private final SCAcceptor acceptor;
+    private final WebSocket socket;
+    private final long openedNanos;
+    private volatile long lastReceivedNanos;
+    private volatile State state = State.AWAITING_REQUEST;
+
+    // Set by the Connect-Request.
+    private volatile SCVmac vmac;
+    private volatile SCUuid uuid;
+    private volatile int peerMaxBvlcLength;
+    private volatile int peerMaxNpduLength;
+
+    private final Queue<byte[]> outbound = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    SCAcceptedConnection(SCAcceptor acceptor, WebSocket socket) {
+        this.acceptor = acceptor;
+        this.socket = socket;
+        openedNanos = System.nanoTime();
+        lastReceivedNanos = openedNanos;
+    }
+
+    public SCVmac getVmac() {
+        return vmac;
+    }
+
+    public SCUuid getUuid() {
+        return uuid;
+    }
+
+    public int getPeerMaxBvlcLength() {
+        return peerMaxBvlcLength;
+    }
+
+    public int getPeerMaxNpduLength() {
+        return peerMaxNpduLength;
+    }
+
+    public InetSocketAddress getRemoteAddress() {
+        return socket.getRemoteSocketAddress();
+    }
+
+    public boolean isConnected() {
+        return state == State.CONNECTED;
+    }
+
+    /**
+     * @return the number of messages waiting in the outbound queue.
+     */
+    public int getQueuedCount() {
+        return queued.get();
+    }
+
+    public long getSentCount() {
+        return sent.get();
+    }
+
+    /**
+     * @return the number of messages dropped because the outbound queue was full.
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    protected State getState() {
+        return state;
+    }
+
+    /**
+     * Queues the given encoded BVLC message for sending. Never blocks.
+     *
+     * @return false if the message was dropped because the connection is closed or its outbound queue is full.
+     */
+    public boolean send(byte[] bvlc) {
+        if (state == State.CLOSED) {
+            return false;
+        }
+        if (queued.incrementAndGet() > acceptor.getOutboundQueueCapacity()) {
+            queued.decrementAndGet();
+            dropped.incrementAndGet();
+            acceptor.messageDropped();
+            LOG.debug("{} outbound queue full; message dropped", this);
+            return false;
+        }
+        outbound.add(bvlc);
+        drain();
+        return true;
+    }
+
+    void sendResult(SCBVLC message, SCVmac originating, ErrorCode errorCode, String errorDetails) {
+        if (!message.isUnicastRequest()) {
+            return;
+        }
+        var result = new SCPayloadBVLCResult(message.getFunction(), 0, ErrorClass.communication, errorCode,
+                errorDetails);
+        send(new SCBVLC(originating, null, SCBVLC.BVLC_RESULT, result.write(), message.getId()).write());
+    }
+
+    /**
+     * Closes the websocket. The acceptor removes the connection when the close completes.
+     */
+    public void close(int code, String reason) {
+        socket.close(code, reason);
+    }
+
+    void touch() {
+        lastReceivedNanos = System.nanoTime();
+    }
+
+    long getIdleNanos(long now) {
+        return now - lastReceivedNanos;
+    }
+
+    long getAgeNanos(long now) {
+        return now - openedNanos;
+    }
+
+    void connected(SCPayloadConnectRequest request) {
+        vmac = request.getVmac();
+        uuid = request.getUuid();
+        peerMaxBvlcLength = request.getMaximumBVLCLength();
+        peerMaxNpduLength = request.getMaximumNPDULength();
+        state = State.CONNECTED;
+    }
+
+    void rejected() {
+        state = State.AWAITING_REQUEST;
+    }
+
+    void closed() {
+        state = State.CLOSED;
+        int discarded = 0;
+        while (outbound.poll() != null) {
+            discarded++;
+        }
+        queued.addAndGet(-discarded);
+    }
+
+    private void drain() {
+        // Only one thread writes to the websocket at a time so that messages keep their queue order. A thread that
+        // finds another draining leaves its message to it; the re-check after releasing the flag picks up messages
+        // that were added just as the other thread finished.
+        while (!outbound.isEmpty() && draining.compareAndSet(false, true)) {
+            try {
+                byte[] next;
+                while (getWireBacklog() < acceptor.getWireQueueLimit() && (next = outbound.poll()) != null) {
+                    queued.decrementAndGet();
+                    write(next);
+                }
+            } finally {
+                draining.set(false);
+            }
+            if (!outbound.isEmpty() && getWireBacklog() >= acceptor.getWireQueueLimit()) {
+                // The websocket has not yet written what it was given. Try again shortly rather than
+                // spin; the peer's own receive rate is the limit.
+                scheduleDrain();
+                return;
+            }
+        }
+    }
+
+    private void scheduleDrain() {
+        if (drainScheduled.compareAndSet(false, true)) {
+            acceptor.schedule(() -> {
+                drainScheduled.set(false);
+                if (getWireBacklog() >= acceptor.getWireQueueLimit()) {
+                    acceptor.requestWrite(socket);
+                }
+                drain();
+            }, 1, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    int getWireBacklog() {
+        return socket instanceof WebSocketImpl impl ? impl.outQueue.size() : 0;
+    }
+
+    private void write(byte[] bvlc) {
+        try {
+            socket.send(bvlc);
+            sent.incrementAndGet();
+        } catch (WebsocketNotConnectedException e) {
+            dropped.incrementAndGet();
+            acceptor.messageDropped();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "%s: vmac=%s, state=%s, remote=%s".formatted(acceptor.getName(), vmac, state,
+                socket.getRemoteSocketAddress());
+    }
+}
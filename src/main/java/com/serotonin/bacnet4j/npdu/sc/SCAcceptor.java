@@ -0,0 +1,511 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2025 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+package com.serotonin.bacnet4j.npdu.sc;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+
+import org.java_websocket.WebSocket;
+import org.java_websocket.drafts.Draft_6455;
+import org.java_websocket.framing.CloseFrame;
+import org.java_websocket.handshake.ClientHandshake;
+import org.java_websocket.protocols.Protocol;
+import org.java_websocket.server.SSLParametersWebSocketServerFactory;
+import org.java_websocket.server.WebSocketServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.serotonin.bacnet4j.npdu.sc.msg.SCBVLC;
+import com.serotonin.bacnet4j.npdu.sc.msg.SCPayloadConnectAccept;
+import com.serotonin.bacnet4j.npdu.sc.msg.SCPayloadConnectRequest;
+import com.serotonin.bacnet4j.type.enumerated.ErrorCode;
+
+/**
+ * The accepting side of BACnet/SC: a TLS websocket server that performs the accepting peer's half of the
+ * connection handshake (AB.6.2.3), answers heartbeats and disconnects, and closes connections that stay idle for
+ * twice the heartbeat timeout (AB.6.3). Connected peers are held in a VMAC table. Subclasses decide what to do with
+ * the messages that are not part of connection management.
+ * <p>
+ * Websocket events are handled on the server's decoder threads, and all events of one connection on the same
+ * thread, so the messages of a connection are processed in the order received. Configuration setters must be
+ * called before {@link #start()}.
+ */
+public abstract class SCAcceptor {
+    private static final Logger LOG = LoggerFactory.getLogger(SCAcceptor.class);
+
+    private final String name;
+    private final InetSocketAddress address;
+    private final SSLContext sslContext;
+    private final String subprotocol;
+
+    private int maxBvlcLength = 1600;
+    private int maxNpduLength = 1497;
+    private int connectWaitTimeout = 10;
+    private int heartbeatTimeout = 300;
+    private int outboundQueueCapacity = 256;
+    private int wireQueueLimit = 32;
+
+    private Server server;
+    private ScheduledExecutorService scheduler;
+    private final Set<SCAcceptedConnection> allConnections = ConcurrentHashMap.newKeySet();
+    private final Map<SCVmac, SCAcceptedConnection> connections = new ConcurrentHashMap<>();
+    private final AtomicLong dropped = new AtomicLong();
+
+    protected SCAcceptor(String name, InetSocketAddress address, SSLContext sslContext, String subprotocol) {
+        this.name = name;
+        this.address = address;
+        this.sslContext = sslContext;
+        this.subprotocol = subprotocol;
+    }
+
+    /**
+     * @return the VMAC with which this acceptor identifies itself in Connect-Accept messages.
+     */
+    protected abstract SCVmac getVmac();
+
+    /**
+     * @return the device UUID with which this acceptor identifies itself in Connect-Accept messages.
+     */
+    protected abstract SCUuid getUuid();
+
+    /**
+     * Called for every message received on an established connection that is not a connection management
+     * message, i.e. the messages that are forwarded by a hub or delivered by a node.
+     */
+    protected abstract void onMessage(SCAcceptedConnection connection, SCBVLC message);
+
+    /**
+     * Called when a connection has been established and entered into the VMAC table.
+     */
+    protected void onConnected(SCAcceptedConnection connection) {
+        // no op
+    }
+
+    /**
+     * Called when an established connection has closed and been removed from the VMAC table.
+     */
+    protected void onDisconnected(SCAcceptedConnection connection) {
+        // no op
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxBvlcLength() {
+        return maxBvlcLength;
+    }
+
+    public void setMaxBvlcLength(int maxBvlcLength) {
+        this.maxBvlcLength = maxBvlcLength;
+    }
+
+    public int getMaxNpduLength() {
+        return maxNpduLength;
+    }
+
+    public void setMaxNpduLength(int maxNpduLength) {
+        this.maxNpduLength = maxNpduLength;
+    }
+
+    /**
+     * @param connectWaitTimeout seconds within which a new websocket must send its Connect-Request.
+     */
+    public void setConnectWaitTimeout(int connectWaitTimeout) {
+        this.connectWaitTimeout = connectWaitTimeout;
+    }
+
+    /**
+     * @param heartbeatTimeout seconds. A connection that receives nothing for twice this long is closed.
+     */
+    public void setHeartbeatTimeout(int heartbeatTimeout) {
+        this.heartbeatTimeout = heartbeatTimeout;
+    }
+
+    public int getOutboundQueueCapacity() {
+        return outboundQueueCapacity;
+    }
+
+    /**
+     * @param outboundQueueCapacity the number of messages a connection can hold for sending before it drops them.
+     */
+    public void setOutboundQueueCapacity(int outboundQueueCapacity) {
+        this.outboundQueueCapacity = outboundQueueCapacity;
+    }
+
+    public int getWireQueueLimit() {
+        return wireQueueLimit;
+    }
+
+    /**
+     * @param wireQueueLimit the number of frames a connection hands to its websocket before waiting for them to be
+     *                       written.
+     */
+    public void setWireQueueLimit(int wireQueueLimit) {
+        this.wireQueueLimit = wireQueueLimit;
+    }
+
+    /**
+     * Starts the server and waits for it to bind.
+     *
+     * @throws IOException if the server could not bind to its address.
+     */
+    public void start() throws IOException {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, name + " scheduler");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::expireConnections, 1, 1, TimeUnit.SECONDS);
+
+        var params = new SSLParameters();
+        params.setProtocols(new String[] {"TLSv1.3"});
+        // Both peers authenticate with their operational certificates (AB.7.4).
+        params.setNeedClientAuth(true);
+        server = new Server();
+        server.setWebSocketFactory(new SSLParametersWebSocketServerFactory(sslContext, params));
+        server.setReuseAddr(true);
+        server.setDaemon(true);
+        // Liveness is checked with BVLC heartbeats, not websocket pings; see SCConnection#createClient.
+        server.setConnectionLostTimeout(0);
+        server.start();
+
+        try {
+            if (!server.started.await(10, TimeUnit.SECONDS)) {
+                throw new IOException(name + " did not start in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(name + " start interrupted", e);
+        }
+        if (server.startError != null) {
+            stop();
+            throw new IOException(name + " failed to start: " + server.startError.getMessage(), server.startError);
+        }
+        LOG.info("{} listening on port {}", name, getPort());
+    }
+
+    /**
+     * Closes all connections and stops the server.
+     */
+    public void stop() {
+        if (server != null) {
+            try {
+                server.stop(1000, "Shutting down");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * @return the bound port, which differs from the configured one if that was 0.
+     */
+    public int getPort() {
+        return server.getPort();
+    }
+
+    /**
+     * @return the URI at which peers can connect to this acceptor.
+     */
+    public URI getUri() {
+        return URI.create("wss://" + address.getHostString() + ":" + getPort());
+    }
+
+    /**
+     * @return the established connection of the peer with the given VMAC, or null.
+     */
+    public SCAcceptedConnection getConnection(SCVmac vmac) {
+        return connections.get(vmac);
+    }
+
+    /**
+     * @return the established connections.
+     */
+    public Collection<SCAcceptedConnection> getConnections() {
+        return Collections.unmodifiableCollection(connections.values());
+    }
+
+    public int getConnectionCount() {
+        return connections.size();
+    }
+
+    /**
+     * @return the number of outgoing messages dropped by all connections, including those dropped by connections
+     * that have since closed.
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    void messageDropped() {
+        dropped.incrementAndGet();
+    }
+
+    /**
+     * Renews the server's interest in writing the websocket's queued frames. The server can drop an interest that
+     * is registered just as it finishes a flush, which would otherwise leave the frames unsent until the next send.
+     */
+    void requestWrite(WebSocket socket) {
+        Server s = server;
+        if (s != null) {
+            s.onWriteDemand(socket);
+        }
+    }
+
+    ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        return scheduler.schedule(command, delay, unit);
+    }
+
+    private void opened(WebSocket socket) {
+        var connection = new SCAcceptedConnection(this, socket);
+        socket.setAttachment(connection);
+        allConnections.add(connection);
+        LOG.debug("{} websocket opened from {}", name, socket.getRemoteSocketAddress());
+    }
+
+    private void closed(WebSocket socket, int code, String reason) {
+        SCAcceptedConnection connection = socket.getAttachment();
+        if (connection == null) {
+            return;
+        }
+        boolean wasConnected = connection.isConnected();
+        connection.closed();
+        allConnections.remove(connection);
+        if (connection.getVmac() != null && connections.remove(connection.getVmac(), connection)) {
+            LOG.debug("{} connection closed: code={}, reason={}, {}", name, code, reason, connection);
+        }
+        if (wasConnected) {
+            onDisconnected(connection);
+        }
+    }
+
+    private void received(WebSocket socket, ByteBuffer data) {
+        SCAcceptedConnection connection = socket.getAttachment();
+        if (connection == null) {
+            return;
+        }
+        connection.touch();
+
+        var message = parseMessage(connection, data);
+        if (message == null) {
+            return;
+        }
+
+        if (connection.getState() == SCAcceptedConnection.State.AWAITING_REQUEST) {
+            if (message.getFunction() == SCBVLC.CONNECT_REQUEST) {
+                accept(connection, message);
+            } else {
+                // AB.6.2.3: nothing but a Connect-Request is expected before the connection is accepted.
+                LOG.warn("{} protocol violation: function {} received before Connect-Request", name,
+                        SCBVLC.functionToString(message.getFunction()));
+            }
+            return;
+        }
+
+        switch (message.getFunction()) {
+            case SCBVLC.HEARTBEAT_REQUEST ->
+                    connection.send(new SCBVLC(null, null, SCBVLC.HEARTBEAT_ACK, message.getId()).write());
+            case SCBVLC.DISCONNECT_REQUEST -> {
+                connection.send(new SCBVLC(null, null, SCBVLC.DISCONNECT_ACK, message.getId()).write());
+                connection.close(CloseFrame.NORMAL, "Disconnect-Request received");
+            }
+            case SCBVLC.HEARTBEAT_ACK, SCBVLC.DISCONNECT_ACK -> {
+                // Not solicited by an accepting peer; nothing to do.
+            }
+            case SCBVLC.CONNECT_REQUEST, SCBVLC.CONNECT_ACCEPT -> LOG.warn(
+                    "{} protocol violation: function {} received on an established connection", name,
+                    SCBVLC.functionToString(message.getFunction()));
+            default -> onMessage(connection, message);
+        }
+    }
+
+    private SCBVLC parseMessage(SCAcceptedConnection connection, ByteBuffer data) {
+        if (data.remaining() < 4) {
+            // AB.3.1.5: a message without a Message ID is discarded without a NAK.
+            LOG.error("{} protocol violation: BVLC message too short to contain a Message ID ({} octets); discarded",
+                    name, data.remaining());
+            return null;
+        }
+        if (data.remaining() > maxBvlcLength) {
+            // AB.7.5.3
+            LOG.error("{} protocol violation: length of BVLC message ({}) exceeds max accepted size ({})", name,
+                    data.remaining(), maxBvlcLength);
+            return null;
+        }
+        // The websocket library allocates a buffer for each message, so the payload can be kept in place.
+        var message = new SCBVLC(data);
+        if (message.isParseError()) {
+            connection.sendResult(message, null, message.getParseErrorCode(), message.getParseErrorReason());
+            return null;
+        }
+        if (message.getPayloadLength() > maxNpduLength) {
+            LOG.error("{} protocol violation: length of NPDU ({}) exceeds max accepted size ({})", name,
+                    message.getPayloadLength(), maxNpduLength);
+            return null;
+        }
+        if (message.getFunction() != SCBVLC.ENCAPSULATED_NPDU && message.getDataOptions() != null) {
+            connection.sendResult(message, null, ErrorCode.inconsistentParameters,
+                    "Data options present with non-NPDU");
+            return null;
+        }
+        return message;
+    }
+
+    private void accept(SCAcceptedConnection connection, SCBVLC message) {
+        SCPayloadConnectRequest request;
+        try {
+            request = new SCPayloadConnectRequest(message.getPayload());
+        } catch (NullPointerException | ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+            connection.sendResult(message, null, ErrorCode.messageIncomplete, "Invalid Connect-Request payload");
+            connection.close(CloseFrame.NORMAL, "Invalid Connect-Request");
+            return;
+        }
+
+        var vmac = request.getVmac();
+        if (SCNetworkUtils.isBroadcast(vmac) || SCNetworkUtils.ZEROS_VMAC.equals(vmac)) {
+            connection.sendResult(message, null, ErrorCode.parameterOutOfRange, "Invalid VMAC");
+            connection.close(CloseFrame.NORMAL, "Invalid VMAC");
+            return;
+        }
+
+        // AB.6.2.3: a VMAC already in use by a different device is a collision, while a device that reconnects
+        // with its VMAC replaces its previous connection, which is closed without a disconnect handshake.
+        connection.connected(request);
+        SCAcceptedConnection[] replaced = new SCAcceptedConnection[1];
+        boolean collision = vmac.equals(getVmac()) || connections.compute(vmac, (k, existing) -> {
+            if (existing == null || existing == connection) {
+                return connection;
+            }
+            if (existing.getUuid().equals(request.getUuid())) {
+                replaced[0] = existing;
+                return connection;
+            }
+            return existing;
+        }) != connection;
+        if (collision) {
+            LOG.info("{} VMAC collision: {}", name, vmac);
+            connection.rejected();
+            connection.sendResult(message, null, ErrorCode.nodeDuplicateVmac, null);
+            connection.close(CloseFrame.NORMAL, "Duplicate VMAC");
+            return;
+        }
+        if (replaced[0] != null) {
+            LOG.info("{} replacing existing connection of {}", name, vmac);
+            replaced[0].close(CloseFrame.NORMAL, "Replaced by new connection");
+        }
+
+        var accept = new SCPayloadConnectAccept(getVmac(), getUuid(), maxBvlcLength, maxNpduLength);
+        connection.send(new SCBVLC(null, null, SCBVLC.CONNECT_ACCEPT, accept.write(), message.getId()).write());
+        LOG.debug("{} accepted connection: {}", name, connection);
+        onConnected(connection);
+    }
+
+    private void expireConnections() {
+        long now = System.nanoTime();
+        for (SCAcceptedConnection connection : allConnections) {
+            if (connection.getState() == SCAcceptedConnection.State.AWAITING_REQUEST
+                    && connection.getAgeNanos(now) > TimeUnit.SECONDS.toNanos(connectWaitTimeout)) {
+                LOG.info("{} no Connect-Request received from {}", name, connection.getRemoteAddress());
+                connection.close(CloseFrame.NORMAL, "Connect-Request not received");
+            } else if (connection.isConnected()
+                    && connection.getIdleNanos(now) > TimeUnit.SECONDS.toNanos(2L * heartbeatTimeout)) {
+                LOG.info("{} nothing received within twice the heartbeat timeout: {}", name, connection);
+                connection.close(CloseFrame.NORMAL, "Heartbeat timeout");
+            }
+        }
+    }
+
+
+    private class Server extends WebSocketServer {
+        final CountDownLatch started = new CountDownLatch(1);
+        volatile Exception startError;
+
+        Server() {
+            super(address, List.of(new Draft_6455(Collections.emptyList(), List.of(new Protocol(subprotocol)))));
+        }
+
+        @Override
+        public void onStart() {
+            started.countDown();
+        }
+
+        @Override
+        public void onOpen(WebSocket conn, ClientHandshake handshake) {
+            opened(conn);
+        }
+
+        @Override
+        public void onClose(WebSocket conn, int code, String reason, boolean remote) {
+            closed(conn, code, reason);
+        }
+
+        @Override
+        public void onMessage(WebSocket conn, String message) {
+            // AB.7.5.3
+            LOG.error("{} text data received from {}", name, conn.getRemoteSocketAddress());
+            conn.close(CloseFrame.REFUSE);
+        }
+
+        @Override
+        public void onMessage(WebSocket conn, ByteBuffer message) {
+            received(conn, message);
+        }
+
+        @Override
+        public void onError(WebSocket conn, Exception ex) {
+            if (conn == null) {
+                // Errors without a connection are server errors, e.g. a failure to bind.
+                startError = ex;
+                started.countDown();
+            } else {
+                LOG.warn("{} websocket error from {}", name, conn.getRemoteSocketAddress(), ex);
+            }
+        }
+    }
+}
@@ -28,7 +28,9 @@
 package com.serotonin.bacnet4j.npdu.sc;
 
 import java.net.URI;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -37,6 +39,7 @@ import javax.net.ssl.SSLParameters;
 import javax.net.ssl.SSLSocketFactory;
 
 import org.java_websocket.enums.ReadyState;
+import org.java_websocket.exceptions.WebsocketNotConnectedException;
 import org.java_websocket.framing.CloseFrame;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -44,21 +47,27 @@ import org.slf4j.LoggerFactory;
 import com.serotonin.bacnet4j.LocalDevice;
 import com.serotonin.bacnet4j.npdu.sc.msg.SCBVLC;
 import com.serotonin.bacnet4j.npdu.sc.msg.SCPayload;
+import com.serotonin.bacnet4j.npdu.sc.msg.SCPayloadAddressResolutionAck;
 import com.serotonin.bacnet4j.npdu.sc.msg.SCPayloadAdvertisement;
 import com.serotonin.bacnet4j.npdu.sc.msg.SCPayloadBVLCResult;
 import com.serotonin.bacnet4j.npdu.sc.msg.SCPayloadConnectAccept;
 import com.serotonin.bacnet4j.npdu.sc.msg.SCPayloadConnectRequest;
 import com.serotonin.bacnet4j.transport.Transport;
 import com.serotonin.bacnet4j.type.constructed.DateTime;
+import com.serotonin.bacnet4j.type.constructed.SCDirectConnection;
 import com.serotonin.bacnet4j.type.constructed.SCHubConnection;
 import com.serotonin.bacnet4j.type.enumerated.ErrorClass;
 import com.serotonin.bacnet4j.type.enumerated.ErrorCode;
 import com.serotonin.bacnet4j.type.enumerated.SCConnectionState;
 import com.serotonin.bacnet4j.type.error.ErrorClassAndCode;
 import com.serotonin.bacnet4j.type.primitive.CharacterString;
-import com.serotonin.bacnet4j.util.sero.ByteQueue;
 import com.serotonin.bacnet4j.util.sero.StreamUtils;
 
+/**
+ * The initiating side of a BACnet/SC connection (AB.6.2.2): either a hub connection held by the
+ * {@link SCHubConnector}, or a direct connection to another node held by the {@link SCDirectConnector}. Messages on
+ * a direct connection carry no VMACs, since both peers are known from the connection handshake.
+ */
 public class SCConnection {
     private static final Logger LOG = LoggerFactory.getLogger(SCConnection.class);
 
@@ -94,9 +103,10 @@ public class SCConnection {
 
 
     private final SCNetwork network;
-    private final SCHubConnector owner;
+    private final SCConnectionOwner owner;
     private final String name;
     private final URI uri;
+    private final boolean direct;
 
     private LocalDevice localDevice;
 
@@ -119,12 +129,19 @@ public class SCConnection {
 
     private int peerMaxBvlcLength;
     private int peerMaxNpduLength;
+    private SCVmac peerVmac;
+    private SCUuid peerUuid;
+
+    public SCConnection(SCConnectionOwner owner, String name, SCNetwork network, URI uri) {
+        this(owner, name, network, uri, false);
+    }
 
-    public SCConnection(SCHubConnector owner, String name, SCNetwork network, URI uri) {
+    public SCConnection(SCConnectionOwner owner, String name, SCNetwork network, URI uri, boolean direct) {
         this.network = network;
         this.owner = owner;
         this.name = name; // For identification in logs
         this.uri = uri;
+        this.direct = direct;
     }
 
     public void configure(Transport transport) {
@@ -134,7 +151,7 @@ public class SCConnection {
     }
 
     protected ScWebSocketClient createClient() {
-        var c = new ScWebSocketClient(name, uri, this, network.getConnectWaitTimeout().intValue() * 1000);
+        var c = new ScWebSocketClient(name, uri, this, network.getConnectWaitTimeout().intValue() * 1000, direct);
         c.setSocketFactory(getSSLSocketFactory());
         // BACnet/SC uses BVLC HEARTBEAT messages for peer liveness (Annex AB Clause 6); the spec
         // does not require WebSocket Pongs, and many SC peers won't send them. Leaving the
@@ -147,6 +164,26 @@ public class SCConnection {
         return state;
     }
 
+    public URI getUri() {
+        return uri;
+    }
+
+    public boolean isDirect() {
+        return direct;
+    }
+
+    /**
+     * @return the VMAC reported by the accepting peer in its Connect-Accept, or null if the connection has not
+     * been established.
+     */
+    public synchronized SCVmac getPeerVmac() {
+        return peerVmac;
+    }
+
+    public synchronized SCUuid getPeerUuid() {
+        return peerUuid;
+    }
+
     public void initialize() {
         handleEvent(Event.INITIATE);
     }
@@ -180,7 +217,17 @@ public class SCConnection {
                 connectionErrorDetails == null ? null : new CharacterString(connectionErrorDetails));
     }
 
-    public void sendMessage(SCBVLC message) {
+    public synchronized SCDirectConnection getDirectConnectionStatus() {
+        return new SCDirectConnection(new CharacterString(uri.toString()), connectionState, connectTimestamp,
+                disconnectTimestamp, null, peerVmac == null ? null : peerVmac.getOctetString(),
+                peerUuid == null ? null : peerUuid.getOctetString(), connectionError,
+                connectionErrorDetails == null ? null : new CharacterString(connectionErrorDetails));
+    }
+
+    /**
+     * @return false if the message was dropped because the websocket is not open.
+     */
+    public boolean sendMessage(SCBVLC message) {
         if (message.needsId()) {
             message.setId(getNextMessageId());
         }
@@ -188,9 +235,9 @@ public class SCConnection {
         // Length issues shouldn't happen because segmentation should be controlled at the APDU level, so these checks
         // are hopefully redundant. Note that nothing in the spec says to discard these messages at this point. Only
         // that if a violating message is *received* that it be dropped (AB.7.5.3).
-        if (message.getPayload() != null && message.getPayload().length > peerMaxNpduLength) {
+        if (message.getPayloadLength() > peerMaxNpduLength) {
             LOG.warn("Length of NPDU to send ({}) exceeds maximum NPDU length of peer ({})",
-                    message.getPayload().length, peerMaxNpduLength);
+                    message.getPayloadLength(), peerMaxNpduLength);
         }
 
         var bytes = message.write();
@@ -199,7 +246,7 @@ public class SCConnection {
                     bytes.length, peerMaxBvlcLength);
         }
 
-        write(bytes);
+        return write(bytes);
     }
 
     private SSLSocketFactory getSSLSocketFactory() {
@@ -235,8 +282,8 @@ public class SCConnection {
 
         SCBVLC message = null;
         SCPayload payload = null;
-        if (event == Event.MESSAGE && args[0] instanceof ByteQueue queue) {
-            message = parseMessage(queue); // will send NAKs for badly formatted messages
+        if (event == Event.MESSAGE && args[0] instanceof ByteBuffer data) {
+            message = parseMessage(data); // will send NAKs for badly formatted messages
             if (message != null) {
                 // Centralize the parsing of payload here so that parsing issues can be handled.
                 try {
@@ -331,6 +378,8 @@ public class SCConnection {
                                 connectionErrorDetails = null;
                                 peerMaxBvlcLength = accept.maximumBVLCLength;
                                 peerMaxNpduLength = accept.maximumNPDULength;
+                                peerVmac = accept.vmac;
+                                peerUuid = accept.uuid;
                                 cancelTimeout();
                                 resetHeartbeatFuture();
                                 // Notify the connector
@@ -340,7 +389,7 @@ public class SCConnection {
                         case SCBVLC.BVLC_RESULT -> {
                             if (checkId(message)) {
                                 var result = (SCPayloadBVLCResult) Objects.requireNonNull(payload);
-                                if (ErrorCode.nodeDuplicateVmac.equals(result.getErrorCode())) {
+                                if (ErrorCode.nodeDuplicateVmac.equals(result.getErrorCode()) && !direct) {
                                     LOG.info("{} BVLC-Result NAK, VMAC collision, generating a new VMAC", name);
                                     client.close(CloseFrame.NORMAL, "Changing VMAC. Be back soon...");
                                     state = State.IDLE;
@@ -429,8 +478,17 @@ public class SCConnection {
                                 cancelTimeout();
                             }
                         }
-                        case SCBVLC.ADDRESS_RESOLUTION ->
+                        case SCBVLC.ADDRESS_RESOLUTION -> {
+                            // AB.3.3: a node that accepts direct connections answers with the URIs at which it
+                            // does so, and any other node with a NAK.
+                            List<String> uris = network.getDirectConnectAcceptUris();
+                            if (uris == null || uris.isEmpty()) {
                                 sendAddressResolutionNak(message.getId(), message.getOriginating());
+                            } else {
+                                sendAddressResolutionAck(message.getId(), message.getOriginating(), uris);
+                            }
+                        }
+                        case SCBVLC.ADDRESS_RESOLUTION_ACK, SCBVLC.BVLC_RESULT -> owner.onIncoming(message);
                         case SCBVLC.ADVERTISEMENT -> {
                             var advertisement = (SCPayloadAdvertisement) Objects.requireNonNull(payload);
                             LOG.info("{} ADVERTISEMENT: {}, originating={}", name, advertisement,
@@ -533,8 +591,11 @@ public class SCConnection {
         handleEvent(Event.TEXT_DATA);
     }
 
-    protected void onWebsocketMessage(ByteQueue queue) {
-        handleEvent(Event.MESSAGE, queue);
+    /**
+     * @param data the received message, which is parsed in place; its content must not be changed afterwards.
+     */
+    protected void onWebsocketMessage(ByteBuffer data) {
+        handleEvent(Event.MESSAGE, data);
     }
 
     protected void onWebsocketClose(int statusCode, String reason) {
@@ -633,6 +694,12 @@ public class SCConnection {
         write(message.write());
     }
 
+    public void sendAddressResolutionAck(int id, SCVmac destination, List<String> uris) {
+        var message = new SCBVLC(null, destination, SCBVLC.ADDRESS_RESOLUTION_ACK,
+                new SCPayloadAddressResolutionAck(uris).write(), id);
+        write(message.write());
+    }
+
     public SCBVLC sendError(SCVmac source, SCVmac destination, int forFunction, int headerMarker,
             ErrorClass errorClass, ErrorCode errorCode, String errorDetails, int messageId) {
         var result = new SCPayloadBVLCResult(forFunction, headerMarker, errorClass, errorCode, errorDetails);
@@ -653,41 +720,47 @@ public class SCConnection {
         return nextMessageId;
     }
 
-    private void write(byte[] bytes) {
+    private boolean write(byte[] bytes) {
         if (client.isOpen()) {
-            client.send(bytes);
-        } else if (LOG.isInfoEnabled()) {
+            try {
+                client.send(bytes);
+                return true;
+            } catch (WebsocketNotConnectedException e) {
+                // The websocket closed after the check.
+            }
+        }
+        if (LOG.isInfoEnabled()) {
             LOG.info("{} message dropped because client is closed: {}", name, StreamUtils.toHex(bytes));
         }
+        return false;
     }
 
-    private SCBVLC parseMessage(ByteQueue queue) {
-        if (queue.size() < 4) {
+    private SCBVLC parseMessage(ByteBuffer data) {
+        if (data.remaining() < 4) {
             // AB.3.1.5 (addendum 135-2020ci-9a): a BVLC message that does not contain a Message ID is
             // discarded without returning a BVLC-Result NAK. The header is 4 octets: function, control,
             // and the 2-octet Message ID.
             LOG.error("{} protocol violation: BVLC message too short to contain a Message ID ({} octets); discarded",
-                    name, queue.size());
+                    name, data.remaining());
             return null;
         }
-        if (queue.size() > network.getMaxBvlcLengthAccepted().intValue()) {
+        if (data.remaining() > network.getMaxBvlcLengthAccepted().intValue()) {
             // AB.7.5.3 discard
             LOG.error("{} protocol violation: length of BVLC message ({}) exceeds max accepted size ({})",
-                    name, queue.size(), network.getMaxBvlcLengthAccepted().intValue());
+                    name, data.remaining(), network.getMaxBvlcLengthAccepted().intValue());
             return null;
         }
 
-        var message = new SCBVLC(queue);
+        var message = new SCBVLC(data);
         // parsing can return partial failure (does not throw exception)
         if (message.isParseError()) {
             // not really sure if we can trust message.originating as the destination of this response, but, ...
             protocolViolationLogAndSend(message, message.getParseErrorCode(), message.getParseErrorReason());
             return null;
         }
-        if (message.getPayload() != null && message.getPayload().length > network.getMaxNpduLengthAccepted()
-                .intValue()) {
+        if (message.getPayloadLength() > network.getMaxNpduLengthAccepted().intValue()) {
             LOG.error("{} protocol violation: length of NPDU ({}) exceeds max accepted size ({})",
-                    name, queue.size(), network.getMaxNpduLengthAccepted().intValue());
+                    name, message.getPayloadLength(), network.getMaxNpduLengthAccepted().intValue());
             return null;
         }
 
@@ -726,12 +799,12 @@ public class SCConnection {
                 // check payload
                 if (message.getFunction() == SCBVLC.CONNECT_REQUEST || message.getFunction() == SCBVLC.CONNECT_ACCEPT) {
                     // AB.3.1.5 Common Error Situations "If a BVLC message is received for which a payload is required, but no payload is present..."
-                    if (message.getPayload() == null) {
+                    if (!message.hasPayload()) {
                         protocolViolationLogAndSend(message, ErrorCode.payloadExpected, "payload must be present");
                         return null;
                     }
                 } else {
-                    if (message.getPayload() != null) {
+                    if (message.hasPayload()) {
                         protocolViolationLogAndSend(message, ErrorCode.unexpectedData, "payload must be absent");
                         return null;
                     }
@@ -745,9 +818,17 @@ public class SCConnection {
                  SCBVLC.ADDRESS_RESOLUTION,
                  SCBVLC.ADVERTISEMENT_SOLICITATION -> {
                 // check addresses
+                if (direct) {
+                    // AB.3.1.2: the peer of a direct connection is known, so neither address is present.
+                    if (message.getOriginating() != null || message.getDestination() != null) {
+                        protocolViolationLogAndSend(message, ErrorCode.headerEncodingError,
+                                "originating and destination fields must be absent in a direct connection");
+                        return null;
+                    }
+                }
                 // This is a little yucky! some result messages are from the hub itself and some are from other nodes,
                 // so we'll let results be either for originating
-                if (message.getOriginating() == null && message.getFunction() != SCBVLC.BVLC_RESULT) {
+                else if (message.getOriginating() == null && message.getFunction() != SCBVLC.BVLC_RESULT) {
                     protocolViolationLogAndSend(message, ErrorCode.headerEncodingError,
                             "originating field must be present in initiated Hub Connection");
                     return null;
@@ -760,7 +841,7 @@ public class SCConnection {
                 // check payload
                 if (message.getFunction() == SCBVLC.ADDRESS_RESOLUTION || message.getFunction() == SCBVLC.ADVERTISEMENT_SOLICITATION) {
                     // This is not a standard error situation - there is no code for UNEXPECTED_PAYLOAD so we'll use INCONSISTENT_PARAMETERS
-                    if (message.getPayload() != null) {
+                    if (message.hasPayload()) {
                         protocolViolationLogAndSend(message, ErrorCode.inconsistentParameters,
                                 "payload must be absent");
                         return null;
@@ -768,7 +849,7 @@ public class SCConnection {
                 } else {
                     // AB.3.1.5 Common Error Situations "If a BVLC message is received for which a payload is required, but no payload is present..."
                     // note that ADDRESS_RESOLUTION_ACK is quirky because it has a defined payload, but the payload can be zero bytes!
-                    if (message.getPayload() == null && message.getFunction() != SCBVLC.ADDRESS_RESOLUTION_ACK) {
+                    if (!message.hasPayload() && message.getFunction() != SCBVLC.ADDRESS_RESOLUTION_ACK) {
                         protocolViolationLogAndSend(message, ErrorCode.payloadExpected, "payload must be present");
                         return null;
                     }
@@ -815,9 +896,9 @@ public class SCConnection {
      * short throws from the payload parser and is handled as MESSAGE_INCOMPLETE.
      */
     private static void checkFixedPayloadLength(SCBVLC message, int fixedLength) {
-        if (message.getPayload() != null && message.getPayload().length > fixedLength) {
+        if (message.getPayloadLength() > fixedLength) {
             throw new UnexpectedDataException(
-                    "payload is longer than expected: " + message.getPayload().length + " > " + fixedLength);
+                    "payload is longer than expected: " + message.getPayloadLength() + " > " + fixedLength);
         }
     }
 
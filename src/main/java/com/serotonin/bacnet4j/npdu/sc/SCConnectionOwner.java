@@ -0,0 +1,48 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2025 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+package com.serotonin.bacnet4j.npdu.sc;
+
+import com.serotonin.bacnet4j.npdu.sc.msg.SCBVLC;
+
+/**
+ * The owner of initiated {@link SCConnection}s: the hub connector for the hub connections, and the direct connector
+ * for direct connections. A connection reports its state changes and the messages it does not handle itself to its
+ * owner.
+ */
+public interface SCConnectionOwner {
+    void onIncoming(SCBVLC message);
+
+    void onConnectionEstablished(SCConnection connection);
+
+    void onConnectionIdle(SCConnection connection, boolean wasEstablished);
+
+    /**
+     * Called when the accepting peer has rejected the Connect-Request because of a VMAC collision (AB.6.2.2).
+     */
+    void restartWithNewVMAC();
+}
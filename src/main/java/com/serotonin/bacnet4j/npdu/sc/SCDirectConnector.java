@@ -0,0 +1,523 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2025 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+package com.serotonin.bacnet4j.npdu.sc;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.lang3.StringUtils;
+import org.java_websocket.framing.CloseFrame;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.serotonin.bacnet4j.LocalDevice;
+import com.serotonin.bacnet4j.npdu.sc.msg.SCBVLC;
+import com.serotonin.bacnet4j.npdu.sc.msg.SCPayloadAddressResolutionAck;
+import com.serotonin.bacnet4j.npdu.sc.msg.SCPayloadBVLCResult;
+import com.serotonin.bacnet4j.transport.Transport;
+import com.serotonin.bacnet4j.type.constructed.DateTime;
+import com.serotonin.bacnet4j.type.constructed.HostAddress;
+import com.serotonin.bacnet4j.type.constructed.HostNPort;
+import com.serotonin.bacnet4j.type.constructed.SCDirectConnection;
+import com.serotonin.bacnet4j.type.enumerated.ErrorCode;
+import com.serotonin.bacnet4j.type.enumerated.SCConnectionState;
+import com.serotonin.bacnet4j.type.primitive.CharacterString;
+import com.serotonin.bacnet4j.type.primitive.OctetString;
+import com.serotonin.bacnet4j.type.primitive.Unsigned16;
+
+/**
+ * Direct connections between nodes (AB.4). Unicast messages to a peer with which a direct connection exists are sent
+ * over that connection instead of through the hub. Either peer may have initiated the connection: connections
+ * accepted by this node's acceptor are used as well as the ones it initiated.
+ * <p>
+ * When direct connect initiation is enabled, the first unicast NPDU to a peer without a direct connection is sent
+ * through the hub as usual, and also starts the resolution of the peer's direct connect URIs with an
+ * Address-Resolution message. If the peer answers with an Address-Resolution-ACK, a connection is attempted to each
+ * of its URIs in turn. Peers that do not accept direct connections, or that cannot be reached, are not retried until
+ * the maximum reconnect time has passed. Until a direct connection is established, messages go through the hub.
+ * <p>
+ * The state of the initiated connections is handled through the network's serial event queue, like that of the hub
+ * connector. {@link #sendMessage(SCBVLC)} may be called from any thread.
+ */
+public class SCDirectConnector {
+    private static final Logger LOG = LoggerFactory.getLogger(SCDirectConnector.class);
+
+    public static final String SUBPROTOCOL = "dc.bsc.bacnet.org";
+
+
+    protected enum PeerState {
+        RESOLVING,
+        CONNECTING,
+        CONNECTED,
+        UNAVAILABLE
+    }
+
+
+    private final SCNode node;
+    private final SCNetwork network;
+    private final Map<SCVmac, Peer> peers = new ConcurrentHashMap<>();
+    private final AtomicInteger nextMessageId = new AtomicInteger();
+
+    private Transport transport;
+    private LocalDevice localDevice;
+    private Acceptor acceptor;
+    private volatile boolean stopping;
+
+    public SCDirectConnector(SCNode node, SCNetwork network) {
+        this.node = node;
+        this.network = network;
+    }
+
+    public void configure(Transport transport) {
+        this.transport = transport;
+        localDevice = transport.getLocalDevice();
+    }
+
+    /**
+     * Starts the acceptor for direct connections if accepting is enabled.
+     *
+     * @throws IOException if the acceptor could not bind to the direct connect binding.
+     */
+    public void startAcceptor() throws IOException {
+        if (!network.isDirectConnectAcceptEnable() || network.getSslContext() == null) {
+            return;
+        }
+        var a = new Acceptor(parseBinding(network.getDirectConnectBinding()));
+        a.setMaxBvlcLength(network.getMaxBvlcLengthAccepted().intValue());
+        a.setMaxNpduLength(network.getMaxNpduLengthAccepted().intValue());
+        a.setConnectWaitTimeout(network.getConnectWaitTimeout().intValue());
+        a.setHeartbeatTimeout(network.getHeartbeatTimeout().intValue());
+        a.start();
+        acceptor = a;
+    }
+
+    static InetSocketAddress parseBinding(String binding) {
+        if (StringUtils.isBlank(binding)) {
+            throw new IllegalArgumentException("Direct connect binding is required to accept direct connections");
+        }
+        // AB.4.2: "host:port", or ":port" to bind to all interfaces.
+        int colon = binding.lastIndexOf(':');
+        String host = colon == -1 ? "" : binding.substring(0, colon);
+        int port;
+        try {
+            port = Integer.parseInt(binding.substring(colon + 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Direct connect binding has an invalid port: " + binding);
+        }
+        return host.isEmpty() ? new InetSocketAddress(port) : new InetSocketAddress(host, port);
+    }
+
+    /**
+     * @return true if this node accepts direct connections.
+     */
+    public boolean isAcceptingConnections() {
+        return acceptor != null && !stopping;
+    }
+
+    /**
+     * @return the URIs at which this node accepts direct connections: the configured ones, or else the URI of the
+     * running acceptor. Empty if this node does not accept direct connections.
+     */
+    public List<String> getAcceptUris() {
+        if (!isAcceptingConnections()) {
+            return List.of();
+        }
+        var uris = network.getConfiguredDirectConnectAcceptUris();
+        return uris.isEmpty() ? List.of(acceptor.getUri().toString()) : uris;
+    }
+
+    /**
+     * @return the status of the initiated and accepted direct connections, for SC_Direct_Connect_Connection_Status.
+     */
+    public List<SCDirectConnection> getConnectionStatus() {
+        var result = new ArrayList<SCDirectConnection>();
+        for (Peer peer : peers.values()) {
+            var connection = peer.connection;
+            if (connection != null) {
+                result.add(connection.getDirectConnectionStatus());
+            }
+        }
+        if (acceptor != null) {
+            for (SCAcceptedConnection connection : acceptor.getConnections()) {
+                result.add(acceptedStatus(connection));
+            }
+        }
+        return result;
+    }
+
+    private static SCDirectConnection acceptedStatus(SCAcceptedConnection connection) {
+        // The acceptor does not know the URI at which the peer reached it, nor does it keep connection timestamps.
+        HostNPort peerAddress = null;
+        var remote = connection.getRemoteAddress();
+        if (remote != null) {
+            var host = remote.getAddress() == null ? new HostAddress(new CharacterString(remote.getHostString()))
+                    : new HostAddress(new OctetString(remote.getAddress().getAddress()));
+            peerAddress = new HostNPort(host, new Unsigned16(remote.getPort()));
+        }
+        return new SCDirectConnection(new CharacterString(""), SCConnectionState.connected, DateTime.UNSPECIFIED,
+                DateTime.UNSPECIFIED, peerAddress, connection.getVmac().getOctetString(),
+                connection.getUuid().getOctetString(), null, null);
+    }
+
+    protected PeerState getPeerState(SCVmac vmac) {
+        var peer = peers.get(vmac);
+        return peer == null ? null : peer.state;
+    }
+
+    /**
+     * Sends the message over a direct connection to its destination if one exists.
+     *
+     * @return false if the message must be sent through the hub instead.
+     */
+    public boolean sendMessage(SCBVLC message) {
+        var destination = message.getDestination();
+        if (stopping || destination == null || SCNetworkUtils.isBroadcast(destination)) {
+            return false;
+        }
+
+        if (acceptor != null) {
+            var accepted = acceptor.getConnection(destination);
+            if (accepted != null) {
+                int id = message.needsId() ? nextMessageId.getAndIncrement() & 0xFFFF : message.getId();
+                // A message that cannot be queued is dropped, as the hub connection would do. A closed connection
+                // just hasn't been removed yet, so the message goes through the hub.
+                return accepted.send(withoutAddresses(message, id).write()) || accepted.isConnected();
+            }
+        }
+
+        var peer = peers.get(destination);
+        if (peer != null && peer.state == PeerState.CONNECTED) {
+            peer.connection.sendMessage(withoutAddresses(message, message.getId()));
+            return true;
+        }
+
+        // Only NPDUs warrant a direct connection. Replies to the peer's messages will use its connection if it made
+        // one.
+        if (network.isDirectConnectInitiateEnable() && message.getFunction() == SCBVLC.ENCAPSULATED_NPDU) {
+            if (peer == null) {
+                if (peers.size() < network.getMaxDirectConnections()) {
+                    var created = new Peer(destination);
+                    if (peers.putIfAbsent(destination, created) == null) {
+                        network.executeSerially(() -> resolve(created));
+                    }
+                }
+            } else if (peer.retryDue()) {
+                network.executeSerially(() -> resolve(peer));
+            }
+        }
+        return false;
+    }
+
+    private static SCBVLC withoutAddresses(SCBVLC message, int id) {
+        // AB.4.1: the originating and destination are implied by the connection.
+        var copy = message.withAddresses(null, null);
+        copy.setId(id);
+        return copy;
+    }
+
+    private void resolve(Peer peer) {
+        if (stopping) {
+            return;
+        }
+        if (acceptor != null && acceptor.getConnection(peer.vmac) != null) {
+            // The peer has connected to this node in the meantime.
+            peers.remove(peer.vmac, peer);
+            return;
+        }
+        LOG.debug("Resolving the direct connect URIs of {}", peer.vmac);
+        int attempt = ++peer.attempt;
+        peer.state = PeerState.RESOLVING;
+        node.sendMessageToHub(new SCBVLC(null, peer.vmac, SCBVLC.ADDRESS_RESOLUTION, -1));
+        // The timeout is canceled when a result arrives, so that pending timeouts do not hold up the shutdown of the
+        // local device's scheduler. A stale one is recognized by its attempt number.
+        peer.resolutionTimeout = localDevice.schedule(() -> network.executeSerially(() -> {
+            if (peer.state == PeerState.RESOLVING && peer.attempt == attempt) {
+                LOG.debug("Address resolution of {} timed out", peer.vmac);
+                unavailable(peer);
+            }
+        }), network.getConnectWaitTimeout().intValue(), TimeUnit.SECONDS);
+    }
+
+    /**
+     * Handles an Address-Resolution-ACK, or a BVLC-Result for an Address-Resolution, received through the hub.
+     */
+    public void onAddressResolutionResult(SCBVLC message) {
+        var peer = message.getOriginating() == null ? null : peers.get(message.getOriginating());
+        if (peer == null || peer.state != PeerState.RESOLVING) {
+            LOG.debug("Ignoring address resolution result {}", message);
+            return;
+        }
+        peer.cancelResolutionTimeout();
+
+        if (message.getFunction() == SCBVLC.BVLC_RESULT) {
+            var result = new SCPayloadBVLCResult(message.getPayload());
+            if (result.getForFunction() == SCBVLC.ADDRESS_RESOLUTION && result.isNak()) {
+                LOG.debug("{} does not accept direct connections: {}", peer.vmac, result.getErrorCode());
+                unavailable(peer);
+            }
+            return;
+        }
+
+        var ack = new SCPayloadAddressResolutionAck(message.getPayload() == null ? new byte[0] : message.getPayload());
+        var uris = new ArrayList<URI>();
+        for (String url : ack.getUrls()) {
+            try {
+                var uri = URI.create(url);
+                if ("wss".equalsIgnoreCase(uri.getScheme())) {
+                    uris.add(uri);
+                }
+            } catch (IllegalArgumentException e) {
+                LOG.debug("Ignoring invalid direct connect URI {} of {}", url, peer.vmac);
+            }
+        }
+        if (uris.isEmpty()) {
+            unavailable(peer);
+        } else {
+            peer.uris = uris;
+            peer.uriIndex = 0;
+            connect(peer);
+        }
+    }
+
+    private void connect(Peer peer) {
+        var uri = peer.uris.get(peer.uriIndex);
+        LOG.debug("Connecting directly to {} at {}", peer.vmac, uri);
+        var connection = createConnection(peer, uri);
+        connection.configure(transport);
+        peer.connection = connection;
+        peer.state = PeerState.CONNECTING;
+        connection.initialize();
+    }
+
+    protected SCConnection createConnection(SCConnectionOwner owner, URI uri) {
+        return new SCConnection(owner, "direct " + uri, network, uri, true);
+    }
+
+    private void unavailable(Peer peer) {
+        peer.cancelResolutionTimeout();
+        peer.connection = null;
+        synchronized (peer) {
+            peer.retryAt = System.nanoTime()
+                    + TimeUnit.SECONDS.toNanos(network.getMaximumReconnectTime().intValue());
+            peer.state = PeerState.UNAVAILABLE;
+        }
+    }
+
+    /**
+     * Closes all direct connections, e.g. because this node's VMAC is changing.
+     */
+    public void closeConnections() {
+        for (Peer peer : peers.values()) {
+            peer.cancelResolutionTimeout();
+            var connection = peer.connection;
+            if (connection != null && connection.getState() != SCConnection.State.IDLE) {
+                connection.terminate();
+            }
+        }
+        if (acceptor != null) {
+            for (SCAcceptedConnection connection : acceptor.getConnections()) {
+                connection.close(CloseFrame.GOING_AWAY, "Closing direct connections");
+            }
+        }
+    }
+
+    /**
+     * Stops the acceptor and disconnects the initiated connections. The node is notified when they are all idle.
+     */
+    public void terminate() {
+        stopping = true;
+        if (acceptor != null) {
+            acceptor.stop();
+        }
+        closeConnections();
+        checkIdle();
+    }
+
+    /**
+     * Immediately forces all connections closed. Deliberately bypasses the serial event queue; see
+     * {@link SCNode#hardTerminate()}.
+     */
+    public void hardTerminate() {
+        stopping = true;
+        if (acceptor != null) {
+            acceptor.stop();
+        }
+        for (Peer peer : peers.values()) {
+            peer.cancelResolutionTimeout();
+            var connection = peer.connection;
+            if (connection != null) {
+                connection.hardTerminate();
+            }
+        }
+        peers.clear();
+    }
+
+    private void checkIdle() {
+        if (!stopping) {
+            return;
+        }
+        for (Peer peer : peers.values()) {
+            var connection = peer.connection;
+            if (connection != null && connection.getState() != SCConnection.State.IDLE) {
+                return;
+            }
+        }
+        peers.clear();
+        node.onDirectConnectorIdle();
+    }
+
+    /**
+     * A peer node to which this node initiates direct connections. It owns the connection to the peer, so that
+     * the messages received on the connection can be attributed to the peer.
+     */
+    private class Peer implements SCConnectionOwner {
+        private final SCVmac vmac;
+        // Changed in the serial event queue, but read by senders on any thread.
+        private volatile PeerState state = PeerState.RESOLVING;
+        private volatile SCConnection connection;
+        // Only used in the serial event queue.
+        private List<URI> uris = List.of();
+        private int uriIndex;
+        private int attempt;
+        // Guarded by the peer's monitor, since retryDue is called by senders.
+        private long retryAt;
+        private volatile ScheduledFuture<?> resolutionTimeout;
+
+        Peer(SCVmac vmac) {
+            this.vmac = vmac;
+        }
+
+        void cancelResolutionTimeout() {
+            var timeout = resolutionTimeout;
+            if (timeout != null) {
+                timeout.cancel(false);
+            }
+        }
+
+        synchronized boolean retryDue() {
+            if (state == PeerState.UNAVAILABLE && System.nanoTime() - retryAt >= 0) {
+                // Claim the retry so that it is started only once.
+                retryAt = Long.MAX_VALUE;
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void onIncoming(SCBVLC message) {
+            // Attribute the message to the peer, as the hub would have.
+            node.onIncoming(message.withAddresses(vmac, null));
+        }
+
+        @Override
+        public void onConnectionEstablished(SCConnection c) {
+            if (c != connection) {
+                c.terminate();
+            } else if (!vmac.equals(c.getPeerVmac())) {
+                // The node at the resolved URI is not the one that was resolved.
+                LOG.warn("Direct connection to {} reached {} instead. Disconnecting", vmac, c.getPeerVmac());
+                uriIndex = uris.size();
+                c.terminate();
+            } else {
+                LOG.info("Direct connection established to {} at {}", vmac, c.getUri());
+                state = PeerState.CONNECTED;
+            }
+        }
+
+        @Override
+        public void onConnectionIdle(SCConnection c, boolean wasEstablished) {
+            if (c == connection) {
+                if (stopping) {
+                    checkIdle();
+                } else if (state == PeerState.CONNECTED) {
+                    // The next message to the peer resolves it again.
+                    LOG.info("Direct connection to {} closed", vmac);
+                    peers.remove(vmac, this);
+                } else if (++uriIndex < uris.size()) {
+                    connect(this);
+                } else {
+                    unavailable(this);
+                }
+            }
+        }
+
+        @Override
+        public void restartWithNewVMAC() {
+            // A VMAC collision is only detected by the hub; a direct peer that rejects this node's VMAC just
+            // fails the connection.
+            LOG.warn("Direct connection to {} rejected this node's VMAC", vmac);
+        }
+    }
+
+    /**
+     * Accepts direct connections from other nodes. Messages on an accepted connection are attributed to the
+     * connected peer and handed to the node.
+     */
+    private class Acceptor extends SCAcceptor {
+        Acceptor(InetSocketAddress address) {
+            super("SC direct connect acceptor", address, network.getSslContext(), SUBPROTOCOL);
+        }
+
+        @Override
+        protected SCVmac getVmac() {
+            return new SCVmac(network.getVmac().getBytes());
+        }
+
+        @Override
+        protected SCUuid getUuid() {
+            return new SCUuid(network.getDeviceUUID().getBytes());
+        }
+
+        @Override
+        protected void onMessage(SCAcceptedConnection connection, SCBVLC message) {
+            if (message.getOriginating() != null || message.getDestination() != null) {
+                connection.sendResult(message, null, ErrorCode.headerEncodingError,
+                        "originating and destination fields must be absent in a direct connection");
+                return;
+            }
+            switch (message.getFunction()) {
+                case SCBVLC.ENCAPSULATED_NPDU, SCBVLC.ADVERTISEMENT_SOLICITATION -> {
+                    var attributed = message.withAddresses(connection.getVmac(), null);
+                    network.executeSerially(() -> node.onIncoming(attributed));
+                }
+                case SCBVLC.ADDRESS_RESOLUTION -> connection.send(new SCBVLC(null, null,
+                        SCBVLC.ADDRESS_RESOLUTION_ACK, new SCPayloadAddressResolutionAck(getAcceptUris()).write(),
+                        message.getId()).write());
+                default -> LOG.debug("Ignoring direct connection message {}", message);
+            }
+        }
+    }
+}
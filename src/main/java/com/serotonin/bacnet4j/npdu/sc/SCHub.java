@@ -0,0 +1,147 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2025 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+package com.serotonin.bacnet4j.npdu.sc;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.net.ssl.SSLContext;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.serotonin.bacnet4j.npdu.sc.msg.SCBVLC;
+import com.serotonin.bacnet4j.npdu.sc.msg.SCPayloadAdvertisement;
+import com.serotonin.bacnet4j.type.enumerated.ErrorCode;
+
+/**
+ * An embedded BACnet/SC hub function (AB.5.3). Nodes connect to it as their primary or failover hub, and it
+ * forwards their messages: unicast messages to the connection of the destination VMAC, and broadcasts to every
+ * other connection. Forwarded messages have their destination removed (unicast) and the VMAC of the sending node
+ * added as the originating address. Messages to unknown destinations are discarded.
+ * <p>
+ * The hub has no network layer of its own. A message addressed to the hub itself - i.e. without a destination - is
+ * answered if it is an Advertisement-Solicitation or Address-Resolution, and otherwise discarded.
+ * <pre>
+ * var tls = new SCTLSManager(privateKey, hubCertificate, issuerCertificate, new byte[0]);
+ * var hub = new SCHub(new InetSocketAddress(4443), tls.getSSLContext(), SCVmac.makeRandom(), uuid);
+ * hub.start();
+ * </pre>
+ */
+public class SCHub extends SCAcceptor {
+    private static final Logger LOG = LoggerFactory.getLogger(SCHub.class);
+
+    public static final String SUBPROTOCOL = "hub.bsc.bacnet.org";
+
+    private final SCVmac vmac;
+    private final SCUuid uuid;
+
+    private final AtomicLong forwarded = new AtomicLong();
+    private final AtomicLong undeliverable = new AtomicLong();
+
+    public SCHub(InetSocketAddress address, SSLContext sslContext, SCVmac vmac, SCUuid uuid) {
+        super("SC hub", address, sslContext, SUBPROTOCOL);
+        this.vmac = vmac;
+        this.uuid = uuid;
+    }
+
+    @Override
+    protected SCVmac getVmac() {
+        return vmac;
+    }
+
+    @Override
+    protected SCUuid getUuid() {
+        return uuid;
+    }
+
+    /**
+     * @return the number of messages handed to destination connections. A broadcast counts once per recipient.
+     */
+    public long getForwardedCount() {
+        return forwarded.get();
+    }
+
+    /**
+     * @return the number of unicast messages discarded because no node with their destination VMAC is connected,
+     * or because they exceed the maximum BVLC length of that node.
+     */
+    public long getUndeliverableCount() {
+        return undeliverable.get();
+    }
+
+    @Override
+    protected void onMessage(SCAcceptedConnection connection, SCBVLC message) {
+        if (message.getOriginating() != null) {
+            // AB.5.3.2: nodes do not address their messages to the hub with an originating VMAC.
+            connection.sendResult(message, vmac, ErrorCode.headerEncodingError, "originating field must be absent");
+            return;
+        }
+
+        var destination = message.getDestination();
+        if (destination == null) {
+            handleLocally(connection, message);
+        } else if (SCNetworkUtils.isBroadcast(destination)) {
+            // Encode once; every recipient sends the same bytes.
+            var bytes = forward(connection, message, destination);
+            for (SCAcceptedConnection recipient : getConnections()) {
+                if (recipient != connection && bytes.length <= recipient.getPeerMaxBvlcLength()
+                        && recipient.send(bytes)) {
+                    forwarded.incrementAndGet();
+                }
+            }
+        } else {
+            var recipient = getConnection(destination);
+            var bytes = forward(connection, message, null);
+            if (recipient == null || bytes.length > recipient.getPeerMaxBvlcLength()) {
+                LOG.debug("Undeliverable message from {} to {}", connection.getVmac(), destination);
+                undeliverable.incrementAndGet();
+            } else if (recipient.send(bytes)) {
+                forwarded.incrementAndGet();
+            }
+        }
+    }
+
+    private static byte[] forward(SCAcceptedConnection from, SCBVLC message, SCVmac destination) {
+        return message.withAddresses(from.getVmac(), destination).write();
+    }
+
+    private void handleLocally(SCAcceptedConnection connection, SCBVLC message) {
+        switch (message.getFunction()) {
+            case SCBVLC.ADVERTISEMENT_SOLICITATION -> {
+                var advertisement = new SCPayloadAdvertisement(SCPayloadAdvertisement.CONN_STAT_NONE, true,
+                        getMaxBvlcLength(), getMaxNpduLength());
+                connection.send(new SCBVLC(vmac, null, SCBVLC.ADVERTISEMENT, advertisement.write(),
+                        message.getId()).write());
+            }
+            case SCBVLC.ADDRESS_RESOLUTION ->
+                    connection.sendResult(message, vmac, ErrorCode.optionalFunctionalityNotSupported, null);
+            default -> LOG.debug("Discarding message addressed to the hub: {}", message);
+        }
+    }
+}
@@ -27,7 +27,9 @@
 
 package com.serotonin.bacnet4j.npdu.sc;
 
+import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.Deque;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
@@ -43,9 +45,19 @@ import com.serotonin.bacnet4j.type.constructed.SCHubConnection;
 import com.serotonin.bacnet4j.type.enumerated.SCConnectionState;
 import com.serotonin.bacnet4j.type.enumerated.SCHubConnectorState;
 
-public class SCHubConnector {
+/**
+ * Maintains the node's connection to the primary hub, falling back to the failover hub (AB.5.3).
+ * <p>
+ * With {@link SCNetwork#isFailoverHotStandby() hot standby} enabled, the failover connection is also established
+ * and kept open while connected to the primary, so that the loss of the primary connection switches traffic to the
+ * failover without a reconnect. Messages that cannot be sent while no hub connection is usable are then queued and
+ * sent in order once one is, unless they have waited longer than the connect wait timeout.
+ */
+public class SCHubConnector implements SCConnectionOwner {
     private static final Logger LOG = LoggerFactory.getLogger(SCHubConnector.class);
 
+    static final int MAX_PENDING_MESSAGES = 256;
+
 
     protected enum State {
         IDLE,
@@ -80,20 +92,27 @@ public class SCHubConnector {
     private final SCNode node;
     private final SCNetwork network;
     private final BackoffPolicy backoff;
+    private final boolean hotStandby;
 
     private LocalDevice localDevice;
 
-    private State state = State.IDLE;
+    private volatile State state = State.IDLE;
     // We need both connections because while we are connected to the failover we are
     // still trying to connect to the primary.
     private SCConnection primaryConnection;
     private SCConnection failoverConnection;
     private ScheduledFuture<Void> timeoutFuture;
+    // Messages waiting for a usable hub connection in hot standby mode, oldest first.
+    private final Deque<PendingMessage> pendingMessages = new ArrayDeque<>();
+
+    private record PendingMessage(SCBVLC message, long queuedNanos) {
+    }
 
     public SCHubConnector(SCNode node, SCNetwork network) {
         this.node = node;
         this.network = network;
         this.backoff = network.getBackoffPolicy();
+        this.hotStandby = network.isFailoverHotStandby();
     }
 
     public void configure(Transport transport) {
@@ -131,6 +150,7 @@ public class SCHubConnector {
     public void hardTerminate() {
         SCHubConnectorState before = getHubConnectorState();
         cancelTimeout();
+        clearPendingMessages();
         if (primaryConnection != null) {
             primaryConnection.hardTerminate();
         }
@@ -164,11 +184,79 @@ public class SCHubConnector {
     }
 
     public void sendMessage(SCBVLC message) {
-        if (state == State.CONNECTED_PRIMARY) {
-            primaryConnection.sendMessage(message);
-        } else if (state == State.CONNECTED_FAILOVER || state == State.REWAIT_PRIMARY) {
-            failoverConnection.sendMessage(message);
-        } // Otherwise drop the message.
+        SCConnection connection = getActiveConnection();
+        if (!hotStandby) {
+            if (connection != null) {
+                connection.sendMessage(message);
+            } // Otherwise drop the message.
+            return;
+        }
+
+        synchronized (pendingMessages) {
+            // Messages already waiting go first so that order is preserved.
+            if (pendingMessages.isEmpty() && connection != null && connection.sendMessage(message)) {
+                return;
+            }
+            if (pendingMessages.size() >= MAX_PENDING_MESSAGES) {
+                LOG.warn("Pending message queue is full; discarding oldest message");
+                pendingMessages.removeFirst();
+            }
+            pendingMessages.addLast(new PendingMessage(message, System.nanoTime()));
+        }
+
+        // If the connector switched connections while the message was being queued, the flush that followed the
+        // switch may have missed it.
+        SCConnection current = getActiveConnection();
+        if (current != null && current != connection) {
+            network.executeSerially(this::flushPendingMessages);
+        }
+    }
+
+    private SCConnection getActiveConnection() {
+        return switch (state) {
+            case CONNECTED_PRIMARY -> primaryConnection;
+            case CONNECTED_FAILOVER, REWAIT_PRIMARY -> failoverConnection;
+            default -> null;
+        };
+    }
+
+    /**
+     * Sends the pending messages over the active connection, discarding those that have waited longer than the
+     * connect wait timeout. Stops at the first message that cannot be sent; it is retried on the next switch.
+     */
+    private void flushPendingMessages() {
+        SCConnection connection = getActiveConnection();
+        if (connection == null) {
+            return;
+        }
+        synchronized (pendingMessages) {
+            if (pendingMessages.isEmpty()) {
+                return;
+            }
+            long maxAge = TimeUnit.SECONDS.toNanos(network.getConnectWaitTimeout().intValue());
+            long now = System.nanoTime();
+            int sent = 0;
+            int expired = 0;
+            while (!pendingMessages.isEmpty()) {
+                PendingMessage pending = pendingMessages.peekFirst();
+                if (now - pending.queuedNanos > maxAge) {
+                    expired++;
+                } else if (connection.sendMessage(pending.message)) {
+                    sent++;
+                } else {
+                    break;
+                }
+                pendingMessages.removeFirst();
+            }
+            LOG.debug("Sent {} pending messages, discarded {} expired, {} remaining", sent, expired,
+                    pendingMessages.size());
+        }
+    }
+
+    private void clearPendingMessages() {
+        synchronized (pendingMessages) {
+            pendingMessages.clear();
+        }
     }
 
     private void queueEvent(Event event, Object... args) {
@@ -189,6 +277,9 @@ public class SCHubConnector {
 
         if (event == Event.STOP) {
             state = State.STOPPING;
+            // A pending retry would otherwise hold up the local device's termination.
+            cancelTimeout();
+            clearPendingMessages();
             if (primaryConnection != null) {
                 primaryConnection.terminate();
             }
@@ -198,7 +289,6 @@ public class SCHubConnector {
             if (primaryConnection == null && failoverConnection == null) {
                 // No connections were ever created (blank hub URIs), so no connection
                 // event will arrive to complete the stop. Go idle immediately.
-                cancelTimeout();
                 state = State.IDLE;
                 node.onConnectorIdle();
             }
@@ -235,21 +325,44 @@ public class SCHubConnector {
                     backoff.reset();
                     state = State.CONNECTED_PRIMARY;
                     node.onConnected();
+                    flushPendingMessages();
+                    startStandby();
                 } else {
                     illegalState(event, args);
                 }
             }
             case CONNECTED_PRIMARY -> {
-                if (event == Event.CONNECTION_CLOSED) {
-                    // Check what connection closed. It could just be the failover connection closing after the
-                    // primary connection was established.
-                    if (args[0] == primaryConnection) {
+                if (event == Event.CONNECTION_CLOSED && args[0] == primaryConnection) {
+                    if (hotStandby && failoverConnection != null
+                            && failoverConnection.getState() == SCConnection.State.CONNECTED) {
+                        // Switch to the standby without a disconnect, and retry the primary as usual.
+                        LOG.info("Primary hub connection lost; switching to standby failover hub connection");
+                        state = State.CONNECTED_FAILOVER;
+                        setTimeoutFuture(backoff.getReconnectWaitTimeout());
+                        flushPendingMessages();
+                    } else {
+                        if (hotStandby && failoverConnection != null) {
+                            // The standby is not ready, so fall back to connecting in sequence.
+                            cancelTimeout();
+                            failoverConnection.hardTerminate();
+                        }
                         node.onDisconnected();
                         raiseChange(State.TRY_PRIMARY);
                     }
-                } else {
+                } else if (hotStandby && args.length > 0 && args[0] == failoverConnection) {
+                    if (event == Event.CONNECTION_ESTABLISHED) {
+                        LOG.debug("Failover hub connection is in standby");
+                    } else if (event.isOneOf(Event.CONNECTION_CLOSED, Event.CONNECTION_IDLE)) {
+                        // Retry the standby after the reconnect wait.
+                        setTimeoutFuture(backoff.getReconnectWaitTimeout());
+                    } else {
+                        illegalState(event, args);
+                    }
+                } else if (hotStandby && event == Event.TIMEOUT) {
+                    startStandby();
+                } else if (event != Event.CONNECTION_CLOSED) {
                     illegalState(event, args);
-                }
+                } // Otherwise the failover connection closed after the primary connection was established.
             }
             case TRY_FAILOVER -> {
                 if (event == Event.CHANGE) {
@@ -272,6 +385,7 @@ public class SCHubConnector {
                     backoff.reset();
                     state = State.CONNECTED_FAILOVER;
                     node.onConnected();
+                    flushPendingMessages();
                     if (primaryConnection != null) {
                         // Set a timeout for retrying the primary.
                         setTimeoutFuture(backoff.getReconnectWaitTimeout());
@@ -305,8 +419,13 @@ public class SCHubConnector {
                     } // Otherwise ignore.
                 } else if (event == Event.CONNECTION_ESTABLISHED) {
                     backoff.reset();
-                    failoverConnection.terminate();
                     state = State.CONNECTED_PRIMARY;
+                    if (hotStandby) {
+                        // The failover connection stays open as the standby.
+                        flushPendingMessages();
+                    } else {
+                        failoverConnection.terminate();
+                    }
                 } else {
                     illegalState(event, args);
                 }
@@ -348,6 +467,13 @@ public class SCHubConnector {
         LOG.debug("handleEvent end: {}", state);
     }
 
+    private void startStandby() {
+        if (hotStandby && failoverConnection != null && failoverConnection.getState() == SCConnection.State.IDLE) {
+            LOG.debug("Connecting to failover hub for standby");
+            failoverConnection.initialize();
+        }
+    }
+
     /**
      * Notifies the network's hub connection listeners if the externally visible connector state differs
      * from the given prior state. Internal state transitions that map to the same BACnetSCHubConnectorState
@@ -365,10 +491,12 @@ public class SCHubConnector {
         queueEvent(Event.CHANGE);
     }
 
+    @Override
     public void onIncoming(SCBVLC message) {
         node.onIncoming(message);
     }
 
+    @Override
     public void onConnectionEstablished(SCConnection connection) {
         if (connection != primaryConnection && connection != failoverConnection) {
             LOG.warn("onConnectionEstablished received from unknown (zombie?) connection: {}", connection);
@@ -377,6 +505,7 @@ public class SCHubConnector {
         }
     }
 
+    @Override
     public void onConnectionIdle(SCConnection connection, boolean wasEstablished) {
         if (connection != primaryConnection && connection != failoverConnection) {
             LOG.warn("onConnectionIdle received from unknown (zombie?) connection: {}", connection);
@@ -385,7 +514,8 @@ public class SCHubConnector {
         }
     }
 
-    void restartWithNewVMAC() {
+    @Override
+    public void restartWithNewVMAC() {
         node.restartWithNewVMAC();
     }
 
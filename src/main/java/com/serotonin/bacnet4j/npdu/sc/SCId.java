@@ -27,6 +27,7 @@
 
 package com.serotonin.bacnet4j.npdu.sc;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Objects;
 
@@ -52,6 +53,11 @@ public abstract class SCId {
         }
     }
 
+    protected SCId(ByteBuffer buffer) {
+        bytes = new byte[size()];
+        buffer.get(bytes);
+    }
+
     public void write(ByteQueue queue) {
         queue.push(bytes);
     }
@@ -33,6 +33,7 @@ import java.security.PrivateKey;
 import java.security.cert.CertificateException;
 import java.security.cert.CertificateFactory;
 import java.security.cert.X509Certificate;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
@@ -56,6 +57,7 @@ import com.serotonin.bacnet4j.transport.Transport;
 import com.serotonin.bacnet4j.type.constructed.Address;
 import com.serotonin.bacnet4j.type.constructed.BACnetArray;
 import com.serotonin.bacnet4j.type.constructed.DateTime;
+import com.serotonin.bacnet4j.type.constructed.SCDirectConnection;
 import com.serotonin.bacnet4j.type.constructed.SCHubConnection;
 import com.serotonin.bacnet4j.type.enumerated.ErrorClass;
 import com.serotonin.bacnet4j.type.enumerated.ErrorCode;
@@ -68,6 +70,7 @@ import com.serotonin.bacnet4j.type.primitive.CharacterString;
 import com.serotonin.bacnet4j.type.primitive.ObjectIdentifier;
 import com.serotonin.bacnet4j.type.primitive.OctetString;
 import com.serotonin.bacnet4j.type.primitive.UnsignedInteger;
+import com.serotonin.bacnet4j.util.SerialExecutor;
 import com.serotonin.bacnet4j.util.sero.ByteQueue;
 
 /**
@@ -101,6 +104,12 @@ public class SCNetwork extends Network {
     private final ObjectIdentifier issuerCertificateFile2Id;
     private final ObjectIdentifier certificateSigningRequestFileId;
     private final BackoffPolicy backoffPolicy;
+    private final boolean directConnectInitiateEnable;
+    private final boolean directConnectAcceptEnable;
+    private final String directConnectBinding;
+    private final List<String> directConnectAcceptUris;
+    private final int maxDirectConnections;
+    private final boolean failoverHotStandby;
 
     // Evaluated
     private SSLContext sslContext;
@@ -138,7 +147,13 @@ public class SCNetwork extends Network {
             Integer issuerCertificateFile1Id,
             Integer issuerCertificateFile2Id,
             Integer certificateSigningRequestFileId,
-            BackoffPolicy backoffPolicy) {
+            BackoffPolicy backoffPolicy,
+            boolean directConnectInitiateEnable,
+            boolean directConnectAcceptEnable,
+            String directConnectBinding,
+            List<String> directConnectAcceptUris,
+            int maxDirectConnections,
+            boolean failoverHotStandby) {
         super(localNetworkNumber);
 
         this.uuid = uuid;
@@ -160,6 +175,12 @@ public class SCNetwork extends Network {
         this.issuerCertificateFile2Id = new ObjectIdentifier(ObjectType.file, issuerCertificateFile2Id);
         this.certificateSigningRequestFileId = new ObjectIdentifier(ObjectType.file, certificateSigningRequestFileId);
         this.backoffPolicy = backoffPolicy;
+        this.directConnectInitiateEnable = directConnectInitiateEnable;
+        this.directConnectAcceptEnable = directConnectAcceptEnable;
+        this.directConnectBinding = directConnectBinding;
+        this.directConnectAcceptUris = List.copyOf(directConnectAcceptUris);
+        this.maxDirectConnections = maxDirectConnections;
+        this.failoverHotStandby = failoverHotStandby;
 
         backoffPolicy.configure(minimumReconnectTime, maximumReconnectTime);
     }
@@ -306,6 +327,46 @@ public class SCNetwork extends Network {
         return backoffPolicy;
     }
 
+    public boolean isDirectConnectInitiateEnable() {
+        return directConnectInitiateEnable;
+    }
+
+    public boolean isDirectConnectAcceptEnable() {
+        return directConnectAcceptEnable;
+    }
+
+    public String getDirectConnectBinding() {
+        return directConnectBinding;
+    }
+
+    /**
+     * @return the direct connect accept URIs as configured, which may be empty even if direct connections are
+     * accepted.
+     */
+    public List<String> getConfiguredDirectConnectAcceptUris() {
+        return directConnectAcceptUris;
+    }
+
+    /**
+     * @return the URIs at which this node accepts direct connections, as returned in Address-Resolution-ACK
+     * messages. Empty if direct connections are not accepted.
+     */
+    public List<String> getDirectConnectAcceptUris() {
+        return node == null ? List.of() : node.getDirectConnectAcceptUris();
+    }
+
+    public int getMaxDirectConnections() {
+        return maxDirectConnections;
+    }
+
+    public boolean isFailoverHotStandby() {
+        return failoverHotStandby;
+    }
+
+    public List<SCDirectConnection> getDirectConnectionStatus() {
+        return node == null ? List.of() : node.getDirectConnectionStatus();
+    }
+
     public SCHubConnectorState getHubConnectorState() {
         return node == null ? SCHubConnectorState.noHubConnection : node.getHubConnectorState();
     }
@@ -441,6 +502,7 @@ public class SCNetwork extends Network {
             initializeTLS(localDevice);
             node = new SCNode(this);
             node.configure(getTransport());
+            node.startDirectConnectAcceptor();
             node.initialize();
         } catch (BACnetServiceException | IOException e) {
             initializationError(ErrorClass.device, ErrorCode.internalError, e.getMessage());
@@ -586,7 +648,10 @@ public class SCNetwork extends Network {
 
     void onIncoming(SCBVLC message) {
         var sender = message.getOriginating();
-        handleIncomingData(new ByteQueue(message.getPayload()),
+        // Copied once, from the received frame.
+        var npdu = new ByteQueue(message.getPayloadLength());
+        npdu.push(message.getPayloadBuffer());
+        handleIncomingData(npdu,
                 new OctetString(sender == null ? new byte[0] : sender.getBytes()),
                 SCNetworkUtils.isBroadcast(message.getDestination()));
     }
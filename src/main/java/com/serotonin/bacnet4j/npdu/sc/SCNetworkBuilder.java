@@ -27,6 +27,7 @@
 
 package com.serotonin.bacnet4j.npdu.sc;
 
+import java.util.List;
 import java.util.UUID;
 
 import com.serotonin.bacnet4j.type.constructed.Address;
@@ -61,6 +62,12 @@ public class SCNetworkBuilder {
     private Integer issuerCertificateFile2Id;
     private Integer certificateSigningRequestFileId;
     private BackoffPolicy backoffPolicy = new ExponentialBackoff(1.5);
+    private boolean directConnectInitiateEnable;
+    private boolean directConnectAcceptEnable;
+    private String directConnectBinding = "";
+    private List<String> directConnectAcceptUris = List.of();
+    private int maxDirectConnections = 32;
+    private boolean failoverHotStandby;
 
     public SCNetworkBuilder vmac(OctetString vmac) {
         this.vmac = vmac;
@@ -186,6 +193,59 @@ public class SCNetworkBuilder {
         return this;
     }
 
+    /**
+     * @param directConnectInitiateEnable whether the node initiates direct connections to the peers it sends to.
+     */
+    public SCNetworkBuilder directConnectInitiateEnable(boolean directConnectInitiateEnable) {
+        this.directConnectInitiateEnable = directConnectInitiateEnable;
+        return this;
+    }
+
+    /**
+     * @param directConnectAcceptEnable whether the node accepts direct connections at its direct connect binding.
+     */
+    public SCNetworkBuilder directConnectAcceptEnable(boolean directConnectAcceptEnable) {
+        this.directConnectAcceptEnable = directConnectAcceptEnable;
+        return this;
+    }
+
+    /**
+     * @param directConnectBinding the "host:port" at which direct connections are accepted, or ":port" for all
+     *                             interfaces.
+     */
+    public SCNetworkBuilder directConnectBinding(String directConnectBinding) {
+        this.directConnectBinding = directConnectBinding;
+        return this;
+    }
+
+    /**
+     * @param directConnectAcceptUris the URIs at which peers can reach the direct connect binding. If none are given,
+     *                                the URI of the binding itself is reported, which does not work for ":port".
+     */
+    public SCNetworkBuilder directConnectAcceptUris(String... directConnectAcceptUris) {
+        this.directConnectAcceptUris = List.of(directConnectAcceptUris);
+        return this;
+    }
+
+    /**
+     * @param maxDirectConnections the maximum number of peers to which direct connections are initiated.
+     */
+    public SCNetworkBuilder maxDirectConnections(int maxDirectConnections) {
+        this.maxDirectConnections = maxDirectConnections;
+        return this;
+    }
+
+    /**
+     * @param failoverHotStandby whether the connection to the failover hub is kept established while connected to
+     *                           the primary hub, so that the node can switch over without reconnecting when the
+     *                           primary connection is lost. Messages that cannot be sent during the switch are
+     *                           queued and sent once a hub connection is available.
+     */
+    public SCNetworkBuilder failoverHotStandby(boolean failoverHotStandby) {
+        this.failoverHotStandby = failoverHotStandby;
+        return this;
+    }
+
     public SCNetwork build() {
         if (uuid == null) {
             throw new IllegalArgumentException("Device UUID is required for Secure Connect");
@@ -216,6 +276,15 @@ public class SCNetworkBuilder {
             throw new IllegalArgumentException("invalid heartbeat wait timeout");
         }
 
+        if (directConnectAcceptEnable) {
+            SCDirectConnector.parseBinding(directConnectBinding);
+        }
+        for (String uri : directConnectAcceptUris) {
+            if (!uri.startsWith("wss://")) {
+                throw new IllegalArgumentException("direct connect accept URIs must use wss");
+            }
+        }
+
         if (keyPairHandler == null) {
             throw new IllegalArgumentException("keyPairHandler is required");
         }
@@ -235,6 +304,7 @@ public class SCNetworkBuilder {
                 primaryHubUri, failoverHubUri, minimumReconnectTime, maximumReconnectTime, connectWaitTimeout,
                 disconnectWaitTimeout, heartbeatTimeout, heartbeatAckTimeout, keyPairHandler,
                 operationalCertificateFileId, issuerCertificateFile1Id, issuerCertificateFile2Id,
-                certificateSigningRequestFileId, backoffPolicy);
+                certificateSigningRequestFileId, backoffPolicy, directConnectInitiateEnable, directConnectAcceptEnable,
+                directConnectBinding, directConnectAcceptUris, maxDirectConnections, failoverHotStandby);
     }
 }
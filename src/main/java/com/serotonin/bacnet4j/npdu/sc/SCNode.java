@@ -27,7 +27,9 @@
 
 package com.serotonin.bacnet4j.npdu.sc;
 
+import java.io.IOException;
 import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -41,6 +43,7 @@ import com.serotonin.bacnet4j.npdu.sc.msg.SCOption;
 import com.serotonin.bacnet4j.npdu.sc.msg.SCPayloadAdvertisement;
 import com.serotonin.bacnet4j.npdu.sc.msg.SCPayloadBVLCResult;
 import com.serotonin.bacnet4j.transport.Transport;
+import com.serotonin.bacnet4j.type.constructed.SCDirectConnection;
 import com.serotonin.bacnet4j.type.constructed.SCHubConnection;
 import com.serotonin.bacnet4j.type.enumerated.ErrorClass;
 import com.serotonin.bacnet4j.type.enumerated.ErrorCode;
@@ -48,10 +51,10 @@ import com.serotonin.bacnet4j.type.enumerated.SCHubConnectorState;
 import com.serotonin.bacnet4j.type.primitive.OctetString;
 
 /**
- * SCNode holds and manages the required hub connector. This state machine is responsible for starting up the node.
- * It can also shut everything down and restart in the case that its VMAC needs to change. Like other state machines,
- * calls like initialize() and terminate() actually fire events themselves that the state machine processes from its one
- * entry point. This keeps "side effects" out of the state machine.
+ * SCNode holds and manages the required hub connector, and the direct connector. This state machine is responsible for
+ * starting up the node. It can also shut everything down and restart in the case that its VMAC needs to change. Like
+ * other state machines, calls like initialize() and terminate() actually fire events themselves that the state machine
+ * processes from its one entry point. This keeps "side effects" out of the state machine.
  */
 public class SCNode {
     private static final Logger LOG = LoggerFactory.getLogger(SCNode.class);
@@ -73,7 +76,8 @@ public class SCNode {
         NEW_MAC,
         TIMEOUT,
         DISCONNECTED,
-        CONNECTOR_IDLE;
+        CONNECTOR_IDLE,
+        DIRECT_CONNECTOR_IDLE;
 
         boolean isOneOf(Event... events) {
             return Arrays.stream(events).anyMatch(event -> event == this);
@@ -83,10 +87,14 @@ public class SCNode {
 
     private final SCNetwork network;
     private SCHubConnector hubConnector;
+    private SCDirectConnector directConnector;
 
     private LocalDevice localDevice;
 
     private State state = State.IDLE;
+    // While stopping, which of the connectors have yet to become idle.
+    private boolean hubConnectorStopping;
+    private boolean directConnectorStopping;
     private ScheduledFuture<Void> timeoutFuture;
     private final CountDownLatch terminationLatch = new CountDownLatch(1);
 
@@ -98,12 +106,27 @@ public class SCNode {
         localDevice = transport.getLocalDevice();
         hubConnector = createHubConnector(network);
         hubConnector.configure(transport);
+        directConnector = createDirectConnector(network);
+        directConnector.configure(transport);
     }
 
     protected SCHubConnector createHubConnector(SCNetwork network) {
         return new SCHubConnector(this, network);
     }
 
+    protected SCDirectConnector createDirectConnector(SCNetwork network) {
+        return new SCDirectConnector(this, network);
+    }
+
+    /**
+     * Starts accepting direct connections if that is enabled. Must be called after {@link #configure(Transport)}.
+     *
+     * @throws IOException if the direct connect binding could not be bound.
+     */
+    public void startDirectConnectAcceptor() throws IOException {
+        directConnector.startAcceptor();
+    }
+
     protected State getState() {
         return state;
     }
@@ -124,6 +147,7 @@ public class SCNode {
      */
     public void hardTerminate() {
         hubConnector.hardTerminate();
+        directConnector.hardTerminate();
         state = State.IDLE;
         terminationLatch.countDown();
     }
@@ -151,6 +175,14 @@ public class SCNode {
         return hubConnector.getFailoverHubConnectionStatus();
     }
 
+    public List<String> getDirectConnectAcceptUris() {
+        return directConnector.getAcceptUris();
+    }
+
+    public List<SCDirectConnection> getDirectConnectionStatus() {
+        return directConnector.getConnectionStatus();
+    }
+
     private void queueEvent(Event event) {
         network.executeSerially(() -> handleEvent(event));
     }
@@ -163,8 +195,13 @@ public class SCNode {
                 // Nothing to shut down; the node is already terminated.
                 terminationLatch.countDown();
             } else {
+                if (state != State.STOPPING) {
+                    state = State.STOPPING;
+                    hubConnectorStopping = true;
+                    directConnectorStopping = true;
+                }
                 hubConnector.terminate();
-                state = State.STOPPING;
+                directConnector.terminate();
             }
             return;
         }
@@ -208,9 +245,16 @@ public class SCNode {
                 }
             }
             case STOPPING -> {
-                if (event == Event.CONNECTOR_IDLE) {
-                    state = State.IDLE;
-                    terminationLatch.countDown();
+                if (event.isOneOf(Event.CONNECTOR_IDLE, Event.DIRECT_CONNECTOR_IDLE)) {
+                    if (event == Event.CONNECTOR_IDLE) {
+                        hubConnectorStopping = false;
+                    } else {
+                        directConnectorStopping = false;
+                    }
+                    if (!hubConnectorStopping && !directConnectorStopping) {
+                        state = State.IDLE;
+                        terminationLatch.countDown();
+                    }
                 } else {
                     illegalState(event);
                 }
@@ -222,6 +266,8 @@ public class SCNode {
 
     private void newMac() {
         state = State.NEW_MAC_STOPPING;
+        // Direct peers know this node by its current VMAC.
+        directConnector.closeConnections();
         hubConnector.terminate();
         setTimeoutFuture(network.getDisconnectWaitTimeout().intValue());
     }
@@ -276,10 +322,13 @@ public class SCNode {
         switch (message.getFunction()) {
             case SCBVLC.ADVERTISEMENT_SOLICITATION -> {
                 LOG.info("Node Responding to Advertisement Solicitation");
-                sendAdvertisement(message.getOriginating(), hubConnector.getStateAsInt(), false,
+                sendAdvertisement(message.getOriginating(), hubConnector.getStateAsInt(),
+                        directConnector.isAcceptingConnections(),
                         network.getMaxBvlcLengthAccepted().intValue(), network.getMaxNpduLengthAccepted().intValue());
             }
             case SCBVLC.ENCAPSULATED_NPDU -> network.onIncoming(message);
+            case SCBVLC.ADDRESS_RESOLUTION_ACK, SCBVLC.BVLC_RESULT ->
+                    directConnector.onAddressResolutionResult(message);
             default -> LOG.warn("Node received unexpected message function {}", message);
         }
     }
@@ -296,12 +345,25 @@ public class SCNode {
         queueEvent(Event.CONNECTOR_IDLE);
     }
 
+    void onDirectConnectorIdle() {
+        queueEvent(Event.DIRECT_CONNECTOR_IDLE);
+    }
+
     void restartWithNewVMAC() {
         // This happens when the current VMAC is detected as being a duplicate. See AB.6.2.2.
         queueEvent(Event.NEW_MAC);
     }
 
+    /**
+     * Sends the message over a direct connection to its destination if there is one, and otherwise through the hub.
+     */
     public void sendMessage(SCBVLC message) {
+        if (!directConnector.sendMessage(message)) {
+            hubConnector.sendMessage(message);
+        }
+    }
+
+    void sendMessageToHub(SCBVLC message) {
         hubConnector.sendMessage(message);
     }
 
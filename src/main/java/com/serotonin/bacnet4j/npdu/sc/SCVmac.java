@@ -27,6 +27,7 @@
 
 package com.serotonin.bacnet4j.npdu.sc;
 
+import java.nio.ByteBuffer;
 import java.security.SecureRandom;
 
 import com.serotonin.bacnet4j.util.sero.ByteQueue;
@@ -49,6 +50,10 @@ public class SCVmac extends SCId {
         super(queue);
     }
 
+    public SCVmac(ByteBuffer buffer) {
+        super(buffer);
+    }
+
     protected int size() {
         return 6;
     }
@@ -45,22 +45,34 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.serotonin.bacnet4j.type.enumerated.ErrorCode;
-import com.serotonin.bacnet4j.util.sero.ByteQueue;
 
 public class ScWebSocketClient extends WebSocketClient {
     private static final Logger LOG = LoggerFactory.getLogger(ScWebSocketClient.class);
-    private static final String SUBPROTOCOL = "hub.bsc.bacnet.org"; // The only sub-protocol needed for node-only.
-    private static final Draft_6455 draft = new Draft_6455(Collections.emptyList(), List.of(new Protocol(SUBPROTOCOL)));
+    private static final Draft_6455 hubDraft = createDraft(SCHub.SUBPROTOCOL);
+    private static final Draft_6455 directDraft = createDraft(SCDirectConnector.SUBPROTOCOL);
 
     private final String name;
     private SCConnection connection;
 
     public ScWebSocketClient(String name, URI serverUri, SCConnection connection, int connectTimeout) {
-        super(serverUri, draft, null, connectTimeout);
+        this(name, serverUri, connection, connectTimeout, false);
+    }
+
+    /**
+     * @param direct true for a direct connection to another node, false for a connection to a hub. The two use
+     *               different websocket subprotocols (AB.7.1).
+     */
+    public ScWebSocketClient(String name, URI serverUri, SCConnection connection, int connectTimeout,
+            boolean direct) {
+        super(serverUri, direct ? directDraft : hubDraft, null, connectTimeout);
         this.name = name;
         this.connection = connection;
     }
 
+    private static Draft_6455 createDraft(String subprotocol) {
+        return new Draft_6455(Collections.emptyList(), List.of(new Protocol(subprotocol)));
+    }
+
     public void terminate() {
         // Setting this to null prevents the client from sending zombie messages to the connection.
         connection = null;
@@ -97,9 +109,8 @@ public class ScWebSocketClient extends WebSocketClient {
     public void onMessage(ByteBuffer bb) {
         withConnection(conn -> {
             LOG.debug("{} websocket onMessage: {}", name, bb);
-            var queue = new ByteQueue();
-            queue.push(bb);
-            conn.onWebsocketMessage(queue);
+            // The websocket library allocates a buffer for each message, so it can be parsed in place.
+            conn.onWebsocketMessage(bb);
         });
     }
 
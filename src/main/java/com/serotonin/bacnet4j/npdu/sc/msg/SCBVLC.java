@@ -27,6 +27,8 @@
 
 package com.serotonin.bacnet4j.npdu.sc.msg;
 
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -50,6 +52,8 @@ public class SCBVLC {
     private List<SCOption> destOptions = null;  // Destination Options Optional, N-octets options
     private List<SCOption> dataOptions = null;  // Data Options Optional, N-octets options
     private byte[] payload = null;  // Payload Variable, The payload of the BVLC message
+    // The payload of a parsed message as a slice of the received frame. Copied into payload only on demand.
+    private ByteBuffer payloadBuffer = null;
 
     private boolean parseError;
     private ErrorCode parseErrorCode;
@@ -115,7 +119,15 @@ public class SCBVLC {
     }
 
     public SCBVLC(ByteQueue queue) {
-        parse(queue);
+        this(ByteBuffer.wrap(queue.popAll()));
+    }
+
+    /**
+     * Parses the message in place. The payload is kept as a slice of the given buffer rather than copied, so the
+     * buffer's content must not be changed afterwards.
+     */
+    public SCBVLC(ByteBuffer buffer) {
+        parse(buffer);
     }
 
     public SCVmac getOriginating() {
@@ -134,12 +146,7 @@ public class SCBVLC {
         return dataOptions;
     }
 
-    private void parse(ByteQueue queue) {
-        if (id == -1) {
-            // It is a bug if this happens, so handling is not required.
-            throw new IllegalStateException("id not set");
-        }
-
+    private void parse(ByteBuffer buffer) {
         // This will check for AB.3.1.5 Common Error Situations, including cases for "If a BVLC message is received..."
         // "...is truncated" - checked
         // "...a header has encoding errors" - not much to check for, actually
@@ -147,19 +154,15 @@ public class SCBVLC {
         // "...any parameter, field of a known header, or parameter in a BACnet/SC defined payload, is out of range"
         // "...any data inconsistency exists in any" - checked by users of this class, payload not checked here
         try {
-            function = queue.popU1B();
-            control = queue.popU1B();
-            id = queue.popU2B();
-            originating = ((control & FLAG_ORIG_ADDR) == 0) ? null : new SCVmac(queue);
-            destination = ((control & FLAG_DEST_ADDR) == 0) ? null : new SCVmac(queue);
-            destOptions = ((control & FLAG_DEST_OPTS) == 0) ? null : parseOptions(queue); // can set parseErrorXxxx
-            dataOptions = ((control & FLAG_DATA_OPTS) == 0) ? null : parseOptions(queue); // can set parseErrorXxxx
-            if (queue.size() > 0) {
-                payload = new byte[queue.size()];
-                queue.pop(payload);
-            } else {
-                payload = null;
-            }
+            function = buffer.get() & 0xFF;
+            control = buffer.get() & 0xFF;
+            id = buffer.getShort() & 0xFFFF;
+            originating = ((control & FLAG_ORIG_ADDR) == 0) ? null : new SCVmac(buffer);
+            destination = ((control & FLAG_DEST_ADDR) == 0) ? null : new SCVmac(buffer);
+            destOptions = ((control & FLAG_DEST_OPTS) == 0) ? null : parseOptions(buffer); // can set parseErrorXxxx
+            dataOptions = ((control & FLAG_DATA_OPTS) == 0) ? null : parseOptions(buffer); // can set parseErrorXxxx
+            payloadBuffer = buffer.hasRemaining() ? buffer.slice() : null;
+            buffer.position(buffer.limit());
 
             // Check for errors and inconsistency
             if ((control & ~FLAG_MASK) != 0) {
@@ -172,7 +175,7 @@ public class SCBVLC {
             // of SCMessage, like SCConnection, check for a lot more error conditions.
             // ALSO... checking options for "must understand" is also done by higher level users. This class doesn't want
             // to assume too much.
-        } catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+        } catch (BufferUnderflowException e) {
             // AB.3.1.5 "If a BVLC message is received that is truncated..."
             setParseError(ErrorCode.messageIncomplete, "Not enough data in message - length wrong?");
         }
@@ -186,10 +189,49 @@ public class SCBVLC {
         return function;
     }
 
+    /**
+     * @return the payload, or null if there is none. For a parsed message the payload is copied out of the received
+     * frame on the first call; use {@link #getPayloadBuffer()} to read it in place.
+     */
     public byte[] getPayload() {
+        if (payload == null && payloadBuffer != null) {
+            payload = new byte[payloadBuffer.remaining()];
+            payloadBuffer.duplicate().get(payload);
+        }
         return payload;
     }
 
+    /**
+     * @return a buffer over the payload that does not copy it, or null if there is none.
+     */
+    public ByteBuffer getPayloadBuffer() {
+        if (payloadBuffer != null) {
+            return payloadBuffer.duplicate();
+        }
+        return payload == null ? null : ByteBuffer.wrap(payload);
+    }
+
+    public int getPayloadLength() {
+        if (payload != null) {
+            return payload.length;
+        }
+        return payloadBuffer == null ? 0 : payloadBuffer.remaining();
+    }
+
+    public boolean hasPayload() {
+        return payload != null || payloadBuffer != null;
+    }
+
+    /**
+     * @return a copy of this message with the given addresses. The copy shares the payload and options, so that a
+     * received message can be forwarded without copying its payload more than once, when it is written.
+     */
+    public SCBVLC withAddresses(SCVmac originating, SCVmac destination) {
+        var copy = new SCBVLC(originating, destination, function, payload, id, destOptions, dataOptions);
+        copy.payloadBuffer = payloadBuffer;
+        return copy;
+    }
+
     private void setParseError(ErrorCode code, String reason) {
         parseError = true;
         parseErrorCode = code;
@@ -224,30 +266,52 @@ public class SCBVLC {
         }
     }
 
+    /**
+     * @return the length of the encoded message.
+     */
+    public int getLength() {
+        int length = 4;
+        if (originating != null) {
+            length += originating.getBytes().length;
+        }
+        if (destination != null) {
+            length += destination.getBytes().length;
+        }
+        return length + getOptionsLength(destOptions) + getOptionsLength(dataOptions) + getPayloadLength();
+    }
+
     public byte[] write() {
+        var bytes = new byte[getLength()];
+        write(ByteBuffer.wrap(bytes));
+        return bytes;
+    }
+
+    /**
+     * Encodes the message into the given buffer, which must have {@link #getLength()} bytes remaining.
+     */
+    public void write(ByteBuffer buffer) {
         updateControlFlags();
 
-        var queue = new ByteQueue();
-        queue.push((byte) function);
-        queue.push((byte) control);
-        queue.pushU2B(id);
+        buffer.put((byte) function);
+        buffer.put((byte) control);
+        buffer.putShort((short) id);
         if (originating != null) {
-            originating.write(queue);
+            buffer.put(originating.getBytes());
         }
         if (destination != null) {
-            destination.write(queue);
+            buffer.put(destination.getBytes());
         }
         if (destOptions != null) {
-            writeOptions(destOptions, queue);
+            writeOptions(destOptions, buffer);
         }
         if (dataOptions != null) {
-            writeOptions(dataOptions, queue);
+            writeOptions(dataOptions, buffer);
         }
         if (payload != null) {
-            queue.push(payload);
+            buffer.put(payload);
+        } else if (payloadBuffer != null) {
+            buffer.put(payloadBuffer.duplicate());
         }
-
-        return queue.popAll();
     }
 
     public boolean isUnicast() {
@@ -269,12 +333,12 @@ public class SCBVLC {
                         function > MAX_FUNCTION);
     }
 
-    private List<SCOption> parseOptions(ByteQueue queue) {
+    private List<SCOption> parseOptions(ByteBuffer buffer) {
         List<SCOption> result = new ArrayList<>();
         boolean more = true;
         while (more) {
             SCOption option = new SCOption();
-            more = option.parse(queue);
+            more = option.parse(buffer);
             if (option.hasParseError()) {
                 parseError = true;
                 parseErrorCode = option.getParseError();
@@ -286,12 +350,22 @@ public class SCBVLC {
         return result;
     }
 
-    private void writeOptions(List<SCOption> options, ByteQueue queue) {
+    private static int getOptionsLength(List<SCOption> options) {
+        int length = 0;
+        if (options != null) {
+            for (SCOption option : options) {
+                length += option.getLength();
+            }
+        }
+        return length;
+    }
+
+    private void writeOptions(List<SCOption> options, ByteBuffer buffer) {
         // Have to use iterator not for..each because we need to know the last one
         Iterator<SCOption> iter = options.iterator();
         while (iter.hasNext()) {
             SCOption option = iter.next();
-            option.write(queue, iter.hasNext()); // indicate the last one
+            option.write(buffer, iter.hasNext()); // indicate the last one
         }
     }
 
@@ -312,6 +386,7 @@ public class SCBVLC {
                         (destOptions == null ? "" : " destopt=" + destOptions) +
                         (dataOptions == null ? "" : " dataopt=" + dataOptions) +
                         " p={";
+        byte[] payload = getPayload();
         switch (function) {
             case BVLC_RESULT -> {
                 if (payload == null)
@@ -27,8 +27,10 @@
 
 package com.serotonin.bacnet4j.npdu.sc.msg;
 
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
 import com.serotonin.bacnet4j.type.enumerated.ErrorCode;
-import com.serotonin.bacnet4j.util.sero.ByteQueue;
 import com.serotonin.bacnet4j.util.sero.StreamUtils;
 
 public class SCOption {
@@ -76,17 +78,17 @@ public class SCOption {
         return marker;
     }
 
-    public boolean parse(ByteQueue queue) {
-        marker = queue.popU1B() & 0xFF;
+    public boolean parse(ByteBuffer buffer) {
+        marker = buffer.get() & 0xFF;
         boolean more = (marker & FLAG_MORE) != 0;
         mustUnderstand = (marker & FLAG_UNDERSTAND) != 0;
         type = marker & TYPE_MASK;
         if ((marker & FLAG_DATA) != 0) {
             try {
-                int length = queue.popU2B();
+                int length = buffer.getShort() & 0xFFFF;
                 data = new byte[length];
-                queue.pop(data);
-            } catch (ArrayIndexOutOfBoundsException e) {
+                buffer.get(data);
+            } catch (BufferUnderflowException e) {
                 // AB.3.1.5 "If a BVLC message is received that is truncated..."
                 parseError = true;
                 parseErrorCode = ErrorCode.messageIncomplete;
@@ -109,7 +111,14 @@ public class SCOption {
         return parseErrorReason;
     }
 
-    public void write(ByteQueue queue, boolean more) {
+    /**
+     * @return the length of the encoded option.
+     */
+    public int getLength() {
+        return data == null ? 1 : 3 + data.length;
+    }
+
+    public void write(ByteBuffer buffer, boolean more) {
         marker = type;
         if (mustUnderstand)
             marker |= FLAG_UNDERSTAND;
@@ -117,10 +126,10 @@ public class SCOption {
             marker |= FLAG_DATA;
         if (more)
             marker |= FLAG_MORE;
-        queue.push((byte) marker);
+        buffer.put((byte) marker);
         if (data != null) {
-            queue.pushU2B(data.length);
-            queue.push(data);
+            buffer.putShort((short) data.length);
+            buffer.put(data);
         }
     }
 
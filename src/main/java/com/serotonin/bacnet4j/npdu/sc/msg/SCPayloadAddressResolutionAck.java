@@ -28,6 +28,7 @@
 package com.serotonin.bacnet4j.npdu.sc.msg;
 
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 import com.serotonin.bacnet4j.util.sero.ByteQueue;
 
@@ -44,6 +45,14 @@ public class SCPayloadAddressResolutionAck implements SCPayload {
         urls = queue.size() == 0 ? new String[0] : queue.popString(queue.size(), StandardCharsets.UTF_8).split(" ");
     }
 
+    public SCPayloadAddressResolutionAck(List<String> urls) {
+        this.urls = urls.toArray(new String[0]);
+    }
+
+    public List<String> getUrls() {
+        return List.of(urls);
+    }
+
     public byte[] write() {
         return String.join(" ", urls).getBytes(StandardCharsets.UTF_8);
     }
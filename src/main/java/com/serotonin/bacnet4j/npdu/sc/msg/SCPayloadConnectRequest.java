@@ -56,6 +56,22 @@ public class SCPayloadConnectRequest implements SCPayload {
         maxNPDU = queue.popU2B();
     }
 
+    public SCVmac getVmac() {
+        return vmac;
+    }
+
+    public SCUuid getUuid() {
+        return uuid;
+    }
+
+    public int getMaximumBVLCLength() {
+        return maxBVLC;
+    }
+
+    public int getMaximumNPDULength() {
+        return maxNPDU;
+    }
+
     public byte[] write() {
         var queue = new ByteQueue();
         vmac.write(queue);
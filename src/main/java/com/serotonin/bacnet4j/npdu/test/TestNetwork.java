@@ -77,7 +77,15 @@ public class TestNetwork extends Network implements Runnable {
     }
 
     public TestNetwork(TestNetworkMap map, Address address, int sendDelay) {
-        super(0);
+        this(map, address, sendDelay, 0);
+    }
+
+    /**
+     * @param localNetworkNumber the number of the simulated network. Networks that are connected by a router each
+     *                           need their own map and network number.
+     */
+    public TestNetwork(TestNetworkMap map, Address address, int sendDelay, int localNetworkNumber) {
+        super(localNetworkNumber);
         this.networkMap = map;
         this.address = address;
         this.sendDelay = sendDelay;
@@ -164,6 +172,7 @@ public class TestNetwork extends Network implements Runnable {
             throws BACnetException {
         SendData d = new SendData();
         d.recipient = recipient;
+        d.router = router;
         d.data = npdu.popAll();
 
         queue.add(d);
@@ -182,13 +191,18 @@ public class TestNetwork extends Network implements Runnable {
                 // Pause before handing off the message.
                 ThreadUtils.sleep(sendDelay);
 
-                if (d.recipient.equals(getLocalBroadcastAddress()) || d.recipient.equals(Address.GLOBAL)) {
+                if (d.router != null) {
+                    // A message to a remote network. Pass it to the router.
+                    TestNetwork network = networkMap.get(new Address(d.router));
+                    if (network != null)
+                        receive(network, d.data, false);
+                } else if (d.recipient.equals(getLocalBroadcastAddress()) || d.recipient.equals(Address.GLOBAL)) {
                     // A broadcast. Send to everyone.
                     for (TestNetwork network : networkMap)
                         receive(network, d.data, true);
                 } else {
                     // A directed message. Find the network to pass it to.
-                    TestNetwork network = networkMap.get(d.recipient);
+                    TestNetwork network = networkMap.get(new Address(d.recipient.getMacAddress()));
                     if (network != null)
                         receive(network, d.data, false);
                 }
@@ -212,6 +226,7 @@ public class TestNetwork extends Network implements Runnable {
 
     static class SendData {
         Address recipient;
+        OctetString router;
         byte[] data;
     }
 }
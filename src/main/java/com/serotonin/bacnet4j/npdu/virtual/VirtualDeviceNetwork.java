@@ -0,0 +1,140 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2025 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+package com.serotonin.bacnet4j.npdu.virtual;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import com.serotonin.bacnet4j.enums.MaxApduLength;
+import com.serotonin.bacnet4j.exception.BACnetException;
+import com.serotonin.bacnet4j.npdu.MessageValidationException;
+import com.serotonin.bacnet4j.npdu.NPDU;
+import com.serotonin.bacnet4j.npdu.Network;
+import com.serotonin.bacnet4j.npdu.NetworkIdentifier;
+import com.serotonin.bacnet4j.transport.Transport;
+import com.serotonin.bacnet4j.type.constructed.Address;
+import com.serotonin.bacnet4j.type.primitive.OctetString;
+import com.serotonin.bacnet4j.util.BACnetUtils;
+import com.serotonin.bacnet4j.util.sero.ByteQueue;
+
+/**
+ * The network of a device on a {@link VirtualNetwork}. Its address is the three octet virtual address of the device
+ * instance. Messages are passed in memory, to the other devices or to the router.
+ */
+public class VirtualDeviceNetwork extends Network {
+    private final VirtualNetwork virtualNetwork;
+    private final OctetString mac;
+    private final LongAdder bytesOut = new LongAdder();
+    private final LongAdder bytesIn = new LongAdder();
+
+    VirtualDeviceNetwork(VirtualNetwork virtualNetwork, int instanceNumber) {
+        super(virtualNetwork.getLocalNetworkNumber());
+        this.virtualNetwork = virtualNetwork;
+        mac = BACnetUtils.toVirtualAddressBytes(instanceNumber);
+    }
+
+    public VirtualNetwork getVirtualNetwork() {
+        return virtualNetwork;
+    }
+
+    public OctetString getMac() {
+        return mac;
+    }
+
+    @Override
+    public NetworkIdentifier getNetworkIdentifier() {
+        return virtualNetwork.getNetworkIdentifier();
+    }
+
+    @Override
+    public MaxApduLength getMaxApduLength() {
+        return virtualNetwork.getMaxApduLength();
+    }
+
+    @Override
+    public long getBytesOut() {
+        return bytesOut.sum();
+    }
+
+    @Override
+    public long getBytesIn() {
+        return bytesIn.sum();
+    }
+
+    @Override
+    public void initialize(Transport transport) throws BACnetException {
+        super.initialize(transport);
+        virtualNetwork.attach(this);
+    }
+
+    @Override
+    public void terminate() {
+        virtualNetwork.detach(this);
+    }
+
+    @Override
+    protected OctetString getBroadcastMAC() {
+        return VirtualNetwork.BROADCAST;
+    }
+
+    @Override
+    public Address[] getAllLocalAddresses() {
+        return new Address[] {new Address(mac)};
+    }
+
+    @Override
+    public Address getLoopbackAddress() {
+        return new Address(mac);
+    }
+
+    @Override
+    public void sendNPDU(Address recipient, OctetString router, ByteQueue npdu, boolean broadcast,
+            boolean expectsReply) throws BACnetException {
+        byte[] data = npdu.popAll();
+        bytesOut.add(data.length);
+        virtualNetwork.deliver(this, recipient, router, data, broadcast);
+    }
+
+    /**
+     * Receives a message from another device on the virtual network, or from the router.
+     */
+    void receive(byte[] data, OctetString from, boolean broadcast) {
+        bytesIn.add(data.length);
+        handleIncomingData(new ByteQueue(data), from, broadcast);
+    }
+
+    @Override
+    protected NPDU handleIncomingDataImpl(ByteQueue queue, OctetString linkService)
+            throws MessageValidationException {
+        return parseNpduData(queue, linkService);
+    }
+
+    @Override
+    public String toString() {
+        return "VirtualDeviceNetwork [network=" + getLocalNetworkNumber() + ", mac=" + mac + "]";
+    }
+}
@@ -0,0 +1,334 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2025 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+package com.serotonin.bacnet4j.npdu.virtual;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.serotonin.bacnet4j.LocalDevice;
+import com.serotonin.bacnet4j.enums.MaxApduLength;
+import com.serotonin.bacnet4j.exception.BACnetException;
+import com.serotonin.bacnet4j.npdu.MessageValidationException;
+import com.serotonin.bacnet4j.npdu.NPCI;
+import com.serotonin.bacnet4j.npdu.NPDU;
+import com.serotonin.bacnet4j.npdu.Network;
+import com.serotonin.bacnet4j.npdu.NetworkIdentifier;
+import com.serotonin.bacnet4j.npdu.router.RouterPort;
+import com.serotonin.bacnet4j.transport.DefaultTransport;
+import com.serotonin.bacnet4j.transport.Transport;
+import com.serotonin.bacnet4j.transport.TransportGroup;
+import com.serotonin.bacnet4j.type.constructed.Address;
+import com.serotonin.bacnet4j.type.primitive.ObjectIdentifier;
+import com.serotonin.bacnet4j.type.primitive.OctetString;
+import com.serotonin.bacnet4j.util.BACnetUtils;
+import com.serotonin.bacnet4j.util.sero.ByteQueue;
+
+/**
+ * A network that exists only in memory, on which any number of local devices are reachable through a
+ * {@link com.serotonin.bacnet4j.npdu.router.BACnetRouter}: the virtual router of a gateway that presents each of the
+ * field devices behind it as a BACnet device. The network is a port of the router, and the router's device on the
+ * physical network hosts the virtual devices.
+ * <p>
+ * The devices share the host device's executor and clock, and their transports are processed by a
+ * {@link TransportGroup} rather than by a thread each: the group of the host's runtime if it has one. Messages that
+ * the router forwards to the network are delivered to the device with the destination address, which is the virtual
+ * address of its instance number, or to every device for a broadcast.
+ * <pre>
+ * LocalDevice host = new LocalDevice(1, new DefaultTransport(ipNetwork)).initialize();
+ * BACnetRouter router = new BACnetRouter(host);
+ * VirtualNetwork virtualNetwork = new VirtualNetwork(1000);
+ * router.addPort(virtualNetwork);
+ * router.initialize();
+ * LocalDevice device = virtualNetwork.createDevice(1001);
+ * device.addObject(...);
+ * device.initialize();
+ * ...
+ * router.terminate();
+ * host.terminate();
+ * </pre>
+ * Terminating the network, which the router does, terminates the devices that are still on it.
+ */
+public class VirtualNetwork extends Network {
+    static final Logger LOG = LoggerFactory.getLogger(VirtualNetwork.class);
+
+    public static final OctetString BROADCAST = new OctetString(new byte[0]);
+
+    private static final int WHO_IS_ROUTER_TO_NETWORK = 0x00;
+
+    /**
+     * The router's address on the network: the virtual address of the one instance number that no device can have.
+     */
+    public static final OctetString ROUTER_MAC = BACnetUtils.toVirtualAddressBytes(ObjectIdentifier.UNINITIALIZED);
+
+    private final NetworkIdentifier networkIdentifier;
+    private final Map<OctetString, VirtualDeviceNetwork> devices = new ConcurrentHashMap<>();
+    private final LongAdder bytesOut = new LongAdder();
+    private final LongAdder bytesIn = new LongAdder();
+    private final boolean groupGiven;
+    private boolean groupCreated;
+    private volatile boolean peerBroadcasts;
+    private TransportGroup group;
+    private LocalDevice host;
+
+    /**
+     * Creates a network whose devices are processed by the transport group of the host's runtime, or if it has none,
+     * by a group of the network's own, with a thread per available processor.
+     */
+    public VirtualNetwork(int localNetworkNumber) {
+        this(localNetworkNumber, null);
+    }
+
+    /**
+     * @param group the transport group that processes the devices, which may be shared with other networks. The
+     *              caller shuts it down.
+     */
+    public VirtualNetwork(int localNetworkNumber, TransportGroup group) {
+        super(localNetworkNumber);
+        networkIdentifier = new VirtualNetworkIdentifier(localNetworkNumber);
+        this.group = group;
+        groupGiven = group != null;
+    }
+
+    @Override
+    public NetworkIdentifier getNetworkIdentifier() {
+        return networkIdentifier;
+    }
+
+    @Override
+    public MaxApduLength getMaxApduLength() {
+        return MaxApduLength.UP_TO_1476;
+    }
+
+    @Override
+    public long getBytesOut() {
+        return bytesOut.sum();
+    }
+
+    @Override
+    public long getBytesIn() {
+        return bytesIn.sum();
+    }
+
+    public TransportGroup getTransportGroup() {
+        return group;
+    }
+
+    /**
+     * Sets whether the broadcasts of a device reach the other devices on the network, or only the router. Off by
+     * default: the devices of a gateway have no use for each other's broadcasts, and with thousands of devices, a
+     * broadcast from each, such as the restart notifications at start-up, would be delivered millions of times.
+     */
+    public void setPeerBroadcasts(boolean peerBroadcasts) {
+        this.peerBroadcasts = peerBroadcasts;
+    }
+
+    public boolean isPeerBroadcasts() {
+        return peerBroadcasts;
+    }
+
+    @Override
+    public void initialize(Transport transport) throws BACnetException {
+        super.initialize(transport);
+        host = transport.getLocalDevice();
+        if (!groupGiven) {
+            if (host.getRuntime() != null) {
+                group = host.getRuntime().getTransportGroup();
+            } else {
+                group = new TransportGroup();
+                groupCreated = true;
+            }
+        }
+    }
+
+    @Override
+    public void terminate() {
+        for (VirtualDeviceNetwork device : new ArrayList<>(devices.values())) {
+            LocalDevice localDevice = device.getTransport().getLocalDevice();
+            if (localDevice.isInitialized())
+                localDevice.terminate();
+        }
+        devices.clear();
+        if (groupCreated) {
+            group.shutdown();
+            groupCreated = false;
+        }
+        if (!groupGiven)
+            group = null;
+    }
+
+    /**
+     * Creates a device on this network. The device is not initialized: add its objects, then initialize it. The
+     * network must have been initialized by its router.
+     *
+     * @param instanceNumber the device's instance number, from which its address on the network is derived.
+     */
+    public LocalDevice createDevice(int instanceNumber) {
+        if (host == null)
+            throw new IllegalStateException("The router must be initialized before devices are created");
+        DefaultTransport transport = new DefaultTransport(new VirtualDeviceNetwork(this, instanceNumber));
+        transport.setTransportGroup(group);
+        LocalDevice device = new LocalDevice(instanceNumber, transport);
+        if (host.getRuntime() != null)
+            return device.withRuntime(host.getRuntime());
+        return device.withClock(host.getClock()).withSharedExecutor(host);
+    }
+
+    /**
+     * @return the number of devices that are initialized on the network.
+     */
+    public int getDeviceCount() {
+        return devices.size();
+    }
+
+    public List<LocalDevice> getDevices() {
+        List<LocalDevice> result = new ArrayList<>(devices.size());
+        for (VirtualDeviceNetwork device : devices.values())
+            result.add(device.getTransport().getLocalDevice());
+        return result;
+    }
+
+    void attach(VirtualDeviceNetwork device) throws BACnetException {
+        if (devices.putIfAbsent(device.getMac(), device) != null)
+            throw new BACnetException("A device with address " + device.getMac() + " is already on virtual network "
+                    + getLocalNetworkNumber());
+    }
+
+    void detach(VirtualDeviceNetwork device) {
+        devices.remove(device.getMac(), device);
+    }
+
+    @Override
+    protected OctetString getBroadcastMAC() {
+        return BROADCAST;
+    }
+
+    @Override
+    public Address[] getAllLocalAddresses() {
+        return new Address[] {new Address(ROUTER_MAC)};
+    }
+
+    @Override
+    public Address getLoopbackAddress() {
+        return new Address(ROUTER_MAC);
+    }
+
+    /**
+     * Sends a message from the router to the devices.
+     */
+    @Override
+    public void sendNPDU(Address recipient, OctetString router, ByteQueue npdu, boolean broadcast,
+            boolean expectsReply) throws BACnetException {
+        byte[] data = npdu.popAll();
+        bytesOut.add(data.length);
+        if (isBroadcast(recipient, router, broadcast)) {
+            for (VirtualDeviceNetwork device : devices.values())
+                device.receive(data, ROUTER_MAC, true);
+        } else {
+            VirtualDeviceNetwork device = devices.get(getDestination(recipient, router));
+            if (device == null)
+                LOG.debug("No device at {} on virtual network {}", recipient, getLocalNetworkNumber());
+            else
+                device.receive(data, ROUTER_MAC, false);
+        }
+    }
+
+    /**
+     * Passes a message sent by a device to its recipient: another device, the router, or for a broadcast, both.
+     */
+    void deliver(VirtualDeviceNetwork from, Address recipient, OctetString router, byte[] data, boolean broadcast) {
+        if (isBroadcast(recipient, router, broadcast)) {
+            if (answerWhoIsRouter(from, data))
+                return;
+            if (peerBroadcasts) {
+                for (VirtualDeviceNetwork device : devices.values()) {
+                    if (device != from)
+                        device.receive(data, from.getMac(), true);
+                }
+            }
+            receive(data, from.getMac(), true);
+            return;
+        }
+
+        OctetString destination = getDestination(recipient, router);
+        if (ROUTER_MAC.equals(destination)) {
+            receive(data, from.getMac(), false);
+        } else {
+            VirtualDeviceNetwork device = devices.get(destination);
+            if (device == null)
+                LOG.debug("No device at {} on virtual network {}", destination, getLocalNetworkNumber());
+            else
+                device.receive(data, from.getMac(), false);
+        }
+    }
+
+    /**
+     * Answers the Who-Is-Router-To-Network that a device broadcasts when it starts by giving it the router's routes
+     * directly. The router's answer would be an I-Am-Router-To-Network broadcast, which would reach every device on
+     * the network each time one of them starts.
+     *
+     * @return true if the message was a Who-Is-Router-To-Network for any network, and has been answered.
+     */
+    private boolean answerWhoIsRouter(VirtualDeviceNetwork from, byte[] data) {
+        RouterPort port = getRouterPort();
+        if (port == null)
+            return false;
+        try {
+            ByteQueue queue = new ByteQueue(data);
+            NPCI npci = new NPCI(queue);
+            if (!npci.isNetworkMessage() || npci.getMessageType() != WHO_IS_ROUTER_TO_NETWORK
+                    || npci.hasDestinationInfo() || queue.size() > 0)
+                return false;
+        } catch (MessageValidationException e) {
+            return false;
+        }
+        for (int networkNumber : port.getRouter().getRoutingTable().getNetworksNotOn(port))
+            from.getTransport().addNetworkRouter(networkNumber, ROUTER_MAC);
+        return true;
+    }
+
+    private static boolean isBroadcast(Address recipient, OctetString router, boolean broadcast) {
+        return router == null && (broadcast || recipient.isGlobal() || BROADCAST.equals(recipient.getMacAddress()));
+    }
+
+    private void receive(byte[] data, OctetString from, boolean broadcast) {
+        bytesIn.add(data.length);
+        handleIncomingData(new ByteQueue(data), from, broadcast);
+    }
+
+    @Override
+    protected NPDU handleIncomingDataImpl(ByteQueue queue, OctetString linkService)
+            throws MessageValidationException {
+        return parseNpduData(queue, linkService);
+    }
+}
@@ -97,6 +97,34 @@ public class AbstractMixin {
     // Methods for subclasses to override as needed.
     //
 
+    /**
+     * Declares the properties for which this mixin needs {@link #beforeReadProperty}, so that reads of other properties
+     * skip it. Called when the object first needs the declaration after its mixins change.
+     *
+     * @return the properties, or null for all of them.
+     */
+    protected PropertyIdentifier[] getObservedReads() {
+        return null;
+    }
+
+    /**
+     * Declares the properties for which this mixin needs {@link #afterWriteProperty}, so that writes of other
+     * properties skip it. Called when the object first needs the declaration after its mixins change.
+     *
+     * @return the properties, or null for all of them.
+     */
+    protected PropertyIdentifier[] getObservedWrites() {
+        return null;
+    }
+
+    /**
+     * To be called by a mixin when the properties it declares in {@link #getObservedReads} or
+     * {@link #getObservedWrites} change.
+     */
+    protected final void observedPropertiesChanged() {
+        bo.mixinsChanged();
+    }
+
     /**
      * Allow the mixin a chance to perform actions before the property is read.
      *
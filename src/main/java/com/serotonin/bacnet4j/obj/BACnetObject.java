@@ -28,6 +28,7 @@
 package com.serotonin.bacnet4j.obj;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -79,7 +80,7 @@ public class BACnetObject {
 
     private final LocalDevice localDevice;
     private final ObjectType objectType;
-    protected final Map<PropertyIdentifier, Encodable> properties = new ConcurrentHashMap<>();
+    protected final Map<PropertyIdentifier, Encodable> properties;
     private final List<BACnetObjectListener> listeners = new CopyOnWriteArrayList<>();
 
     // Mixins
@@ -88,6 +89,9 @@ public class BACnetObject {
     private HasStatusFlagsMixin hasStatusFlagsMixin;
     private EventReportingMixin eventReportingMixin;
     private CovReportingMixin changeOfValueMixin;
+    // Which mixins to notify of the reads and the writes of each property. Built when first needed.
+    private volatile MixinDispatch readDispatch;
+    private volatile MixinDispatch writeDispatch;
 
     // Configuration
     private boolean deletable;
@@ -113,6 +117,8 @@ public class BACnetObject {
 
         this.localDevice = localDevice;
         objectType = id.getObjectType();
+        properties = localDevice.isCompactPropertyStorage() ? new CompactPropertyMap(objectType)
+                : new ConcurrentHashMap<>();
 
         properties.put(PropertyIdentifier.objectIdentifier, id);
         properties.put(PropertyIdentifier.objectName, new CharacterString(name == null ? id.toString() : name));
@@ -212,7 +218,12 @@ public class BACnetObject {
     }
 
     protected final <T extends AbstractMixin> T addMixin(int index, T mixin) {
-        mixins.add(index, mixin);
+        synchronized (mixins) {
+            // The indexes of the mixins after the new one change, so the dispatch is rebuilt.
+            mixins.add(index, mixin);
+            readDispatch = null;
+            writeDispatch = null;
+        }
 
         if (mixin instanceof HasStatusFlagsMixin m)
             hasStatusFlagsMixin = m;
@@ -226,6 +237,41 @@ public class BACnetObject {
         return mixin;
     }
 
+    final void mixinsChanged() {
+        synchronized (mixins) {
+            readDispatch = null;
+            writeDispatch = null;
+        }
+    }
+
+    private MixinDispatch readDispatch() {
+        MixinDispatch dispatch = readDispatch;
+        if (dispatch == null) {
+            synchronized (mixins) {
+                dispatch = readDispatch;
+                if (dispatch == null) {
+                    dispatch = MixinDispatch.forReads(mixins);
+                    readDispatch = dispatch;
+                }
+            }
+        }
+        return dispatch;
+    }
+
+    private MixinDispatch writeDispatch() {
+        MixinDispatch dispatch = writeDispatch;
+        if (dispatch == null) {
+            synchronized (mixins) {
+                dispatch = writeDispatch;
+                if (dispatch == null) {
+                    dispatch = MixinDispatch.forWrites(mixins);
+                    writeDispatch = dispatch;
+                }
+            }
+        }
+        return dispatch;
+    }
+
     public void setOverridden(boolean b) {
         if (hasStatusFlagsMixin != null)
             hasStatusFlagsMixin.setOverridden(b);
@@ -325,6 +371,20 @@ public class BACnetObject {
                 monitoredPropertyIdentifier, covIncrement);
     }
 
+    /**
+     * Adds a subscription made with SubscribeCOVPropertyMultiple, whose notifications are sent together with those of
+     * the subscriber's other such subscriptions.
+     */
+    public void addCovSubscription(Address from, UnsignedInteger subscriberProcessIdentifier,
+            Boolean issueConfirmedNotifications, UnsignedInteger lifetime,
+            PropertyReference monitoredPropertyIdentifier, Real covIncrement, UnsignedInteger maxNotificationDelay,
+            boolean timestamped) throws BACnetServiceException {
+        if (changeOfValueMixin == null)
+            throw new BACnetServiceException(ErrorClass.object, ErrorCode.optionalFunctionalityNotSupported);
+        changeOfValueMixin.addCovSubscription(from, subscriberProcessIdentifier, issueConfirmedNotifications, lifetime,
+                monitoredPropertyIdentifier, covIncrement, maxNotificationDelay, timestamped);
+    }
+
     public void removeCovSubscription(Address from, UnsignedInteger subscriberProcessIdentifier,
             PropertyReference monitoredPropertyIdentifier) {
         if (changeOfValueMixin != null)
@@ -358,9 +418,8 @@ public class BACnetObject {
      * @throws BACnetServiceException if the object objected to the read
      */
     public final <T extends Encodable> T readProperty(PropertyIdentifier pid) throws BACnetServiceException {
-        // Give the mixins notice that the property is being read.
-        for (AbstractMixin mixin : mixins)
-            mixin.beforeReadProperty(pid);
+        // Give the mixins that observe the property notice that it is being read.
+        readDispatch().beforeReadProperty(pid);
         beforeReadProperty(pid);
 
         return get(pid);
@@ -623,9 +682,8 @@ public class BACnetObject {
         Encodable oldValue = properties.get(pid);
         set(pid, value);
 
-        // After writing.
-        for (AbstractMixin mixin : mixins)
-            mixin.afterWriteProperty(pid, oldValue, value);
+        // After writing, notify the mixins that observe the property.
+        writeDispatch().afterWriteProperty(pid, oldValue, value);
         afterWriteProperty(pid, oldValue, value);
 
         if (!Objects.equals(value, oldValue)) {
@@ -636,6 +694,54 @@ public class BACnetObject {
         return this;
     }
 
+    /**
+     * Changes several properties at once in the manner of writePropertyInternal. All the values are set before the
+     * mixins and listeners are notified of the first of them, so that the "after write" methods see the object with
+     * all the changes applied. They are still called once per property: intrinsic reporting, for example, runs its
+     * algorithms for each trigger property written, and may report an event for each.
+     */
+    public BACnetObject writePropertiesInternal(Map<PropertyIdentifier, Encodable> values) {
+        propertiesWritten(values, setPropertiesInternal(values));
+        return this;
+    }
+
+    /**
+     * The first half of {@link #writePropertiesInternal(Map)}: sets the values without notifying anything. Must be
+     * followed by {@link #propertiesWritten(Map, Map)}.
+     *
+     * @return the values that were replaced, by property
+     */
+    public Map<PropertyIdentifier, Encodable> setPropertiesInternal(Map<PropertyIdentifier, Encodable> values) {
+        Map<PropertyIdentifier, Encodable> oldValues = new HashMap<>();
+        for (Map.Entry<PropertyIdentifier, Encodable> e : values.entrySet()) {
+            oldValues.put(e.getKey(), properties.get(e.getKey()));
+            set(e.getKey(), e.getValue());
+        }
+        return oldValues;
+    }
+
+    /**
+     * The second half of {@link #writePropertiesInternal(Map)}: notifies the mixins and listeners of the values that
+     * were set.
+     *
+     * @param values    the values that were set
+     * @param oldValues the values they replaced, as returned by {@link #setPropertiesInternal(Map)}
+     */
+    public void propertiesWritten(Map<PropertyIdentifier, Encodable> values,
+            Map<PropertyIdentifier, Encodable> oldValues) {
+        for (Map.Entry<PropertyIdentifier, Encodable> e : values.entrySet()) {
+            PropertyIdentifier pid = e.getKey();
+            Encodable oldValue = oldValues.get(pid);
+            Encodable value = e.getValue();
+
+            writeDispatch().afterWriteProperty(pid, oldValue, value);
+            afterWriteProperty(pid, oldValue, value);
+
+            if (!Objects.equals(value, oldValue))
+                listeners.forEach(l -> l.propertyChange(pid, oldValue, value));
+        }
+    }
+
     /**
      * Allows the object itself to validate the property before being written.
      *
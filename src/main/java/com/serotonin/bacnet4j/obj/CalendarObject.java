@@ -124,6 +124,11 @@ public class CalendarObject extends BACnetObject {
             super(bo);
         }
 
+        @Override
+        protected PropertyIdentifier[] getObservedReads() {
+            return new PropertyIdentifier[] {PropertyIdentifier.presentValue};
+        }
+
         @Override
         protected void beforeReadProperty(final PropertyIdentifier pid) {
             if (pid.equals(PropertyIdentifier.presentValue))
@@ -141,6 +146,11 @@ public class CalendarObject extends BACnetObject {
             return false;
         }
 
+        @Override
+        protected PropertyIdentifier[] getObservedWrites() {
+            return new PropertyIdentifier[] {PropertyIdentifier.dateList};
+        }
+
         @Override
         protected void afterWriteProperty(final PropertyIdentifier pid, final Encodable oldValue,
                 final Encodable newValue) {
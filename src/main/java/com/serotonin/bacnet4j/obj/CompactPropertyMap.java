@@ -0,0 +1,304 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2025 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+package com.serotonin.bacnet4j.obj;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.serotonin.bacnet4j.type.Encodable;
+import com.serotonin.bacnet4j.type.constructed.StatusFlags;
+import com.serotonin.bacnet4j.type.enumerated.ObjectType;
+import com.serotonin.bacnet4j.type.enumerated.PropertyIdentifier;
+import com.serotonin.bacnet4j.type.primitive.Real;
+import com.serotonin.bacnet4j.type.primitive.UnsignedInteger;
+
+/**
+ * A property map that takes a fraction of the memory of a ConcurrentHashMap, for devices with very many objects.
+ * <p>
+ * The properties that {@link ObjectProperties} defines for the object type have a slot each in an array, found by
+ * the property identifier's number rather than by hashing it. Other properties go to a small map that is only created
+ * when needed. A present value that is a Real or an UnsignedInteger, and the status flags, are kept as primitives
+ * and a new value object is created on each read. A StatusFlags read from the map is therefore a copy, and changing
+ * it does not change the property: write it back instead.
+ * <p>
+ * Like ConcurrentHashMap, reads do not lock, iteration is weakly consistent, and neither keys nor values may be null.
+ * Writes are serialized on the map.
+ */
+final class CompactPropertyMap extends AbstractMap<PropertyIdentifier, Encodable> {
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(Encodable[].class);
+    private static final Map<ObjectType, SlotTable> TABLES = new ConcurrentHashMap<>();
+
+    // Tags of the packed present value, in the bits above the value.
+    private static final long PV_REAL = 1L << 32;
+    private static final long PV_UNSIGNED = 2L << 32;
+    // Set in the packed status flags when they are present.
+    private static final int SF_PRESENT = 1 << 4;
+
+    private final SlotTable table;
+    private final Encodable[] slots;
+    private volatile long presentValue;
+    private volatile int statusFlags;
+    private volatile Map<PropertyIdentifier, Encodable> overflow;
+    private volatile int size;
+
+    CompactPropertyMap(ObjectType objectType) {
+        table = TABLES.computeIfAbsent(objectType, SlotTable::new);
+        slots = new Encodable[table.pids.length];
+    }
+
+    @Override
+    public Encodable get(Object key) {
+        if (!(key instanceof PropertyIdentifier pid))
+            return null;
+
+        int id = pid.intValue();
+        if (id == PropertyIdentifier.presentValue.intValue()) {
+            long packed = presentValue;
+            if ((packed & PV_REAL) != 0)
+                return new Real(Float.intBitsToFloat((int) packed));
+            if ((packed & PV_UNSIGNED) != 0)
+                return new UnsignedInteger((int) packed);
+        } else if (id == PropertyIdentifier.statusFlags.intValue()) {
+            int packed = statusFlags;
+            if ((packed & SF_PRESENT) != 0)
+                return new StatusFlags((packed & 1) != 0, (packed & 2) != 0, (packed & 4) != 0, (packed & 8) != 0);
+        }
+
+        int slot = table.slot(id);
+        if (slot >= 0)
+            return (Encodable) SLOTS.getVolatile(slots, slot);
+        Map<PropertyIdentifier, Encodable> o = overflow;
+        return o == null ? null : o.get(pid);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public synchronized Encodable put(PropertyIdentifier pid, Encodable value) {
+        Objects.requireNonNull(value);
+        Encodable old = get(pid);
+
+        // Write the new value before removing the old one, so that a reader sees one or the other. Values are only
+        // packed for properties that have a slot, which is where iteration finds them.
+        int id = pid.intValue();
+        int slot = table.slot(id);
+        if (slot >= 0 && id == PropertyIdentifier.presentValue.intValue() && packPresentValue(value)) {
+            clearSlot(pid);
+        } else if (slot >= 0 && id == PropertyIdentifier.statusFlags.intValue()
+                && value.getClass() == StatusFlags.class && ((StatusFlags) value).getValue().length == 4) {
+            StatusFlags sf = (StatusFlags) value;
+            statusFlags = SF_PRESENT | (sf.isInAlarm() ? 1 : 0) | (sf.isFault() ? 2 : 0) | (sf.isOverridden() ? 4 : 0)
+                    | (sf.isOutOfService() ? 8 : 0);
+            clearSlot(pid);
+        } else {
+            if (slot >= 0) {
+                SLOTS.setVolatile(slots, slot, value);
+            } else {
+                if (overflow == null)
+                    overflow = new ConcurrentHashMap<>(4);
+                overflow.put(pid, value);
+            }
+            clearPacked(id);
+        }
+
+        if (old == null)
+            size++;
+        return old;
+    }
+
+    @Override
+    public synchronized Encodable remove(Object key) {
+        Encodable old = get(key);
+        if (old == null)
+            return null;
+
+        PropertyIdentifier pid = (PropertyIdentifier) key;
+        clearPacked(pid.intValue());
+        clearSlot(pid);
+        size--;
+        return old;
+    }
+
+    @Override
+    public synchronized void clear() {
+        presentValue = 0;
+        statusFlags = 0;
+        for (int i = 0; i < slots.length; i++)
+            SLOTS.setVolatile(slots, i, (Encodable) null);
+        overflow = null;
+        size = 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Set<Entry<PropertyIdentifier, Encodable>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<PropertyIdentifier, Encodable>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private boolean packPresentValue(Encodable value) {
+        if (value.getClass() == Real.class) {
+            presentValue = PV_REAL | Integer.toUnsignedLong(Float.floatToRawIntBits(((Real) value).floatValue()));
+            return true;
+        }
+        if (value.getClass() == UnsignedInteger.class && ((UnsignedInteger) value).isSmallValue()) {
+            presentValue = PV_UNSIGNED | Integer.toUnsignedLong(((UnsignedInteger) value).intValue());
+            return true;
+        }
+        return false;
+    }
+
+    private void clearPacked(int id) {
+        if (id == PropertyIdentifier.presentValue.intValue())
+            presentValue = 0;
+        else if (id == PropertyIdentifier.statusFlags.intValue())
+            statusFlags = 0;
+    }
+
+    private void clearSlot(PropertyIdentifier pid) {
+        int slot = table.slot(pid.intValue());
+        if (slot >= 0)
+            SLOTS.setVolatile(slots, slot, (Encodable) null);
+        else if (overflow != null)
+            overflow.remove(pid);
+    }
+
+    /**
+     * Visits the slots in the order of the object type's definitions, then the properties outside of them.
+     */
+    private class EntryIterator implements Iterator<Entry<PropertyIdentifier, Encodable>> {
+        private final Iterator<Entry<PropertyIdentifier, Encodable>> overflowIterator;
+        private int slot;
+        private Entry<PropertyIdentifier, Encodable> next;
+        private PropertyIdentifier last;
+
+        EntryIterator() {
+            Map<PropertyIdentifier, Encodable> o = overflow;
+            overflowIterator = o == null ? null : o.entrySet().iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null) {
+                if (slot < table.pids.length) {
+                    PropertyIdentifier pid = table.pids[slot++];
+                    Encodable value = get(pid);
+                    if (value != null)
+                        next = new SimpleImmutableEntry<>(pid, value);
+                } else if (overflowIterator != null && overflowIterator.hasNext()) {
+                    Entry<PropertyIdentifier, Encodable> e = overflowIterator.next();
+                    next = new SimpleImmutableEntry<>(e.getKey(), e.getValue());
+                } else {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public Entry<PropertyIdentifier, Encodable> next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            Entry<PropertyIdentifier, Encodable> e = next;
+            next = null;
+            last = e.getKey();
+            return e;
+        }
+
+        @Override
+        public void remove() {
+            if (last == null)
+                throw new IllegalStateException();
+            CompactPropertyMap.this.remove(last);
+            last = null;
+        }
+    }
+
+    /**
+     * The slots of an object type: the properties of the type's definitions, and the properties of every object.
+     * Properties with large identifiers, such as those of the BACnet/SC addendum, are left to the overflow map so
+     * that the index stays small.
+     */
+    static final class SlotTable {
+        private static final int MAX_SLOTTED_ID = 1023;
+
+        final PropertyIdentifier[] pids;
+        // The slot of each property identifier number, or -1.
+        private final short[] slotById;
+
+        SlotTable(ObjectType objectType) {
+            List<PropertyIdentifier> list = new ArrayList<>(List.of(PropertyIdentifier.objectIdentifier,
+                    PropertyIdentifier.objectName, PropertyIdentifier.objectType, PropertyIdentifier.propertyList));
+            for (ObjectPropertyTypeDefinition def : ObjectProperties.getObjectPropertyTypeDefinitions(objectType)) {
+                PropertyIdentifier pid = def.getPropertyTypeDefinition().getPropertyIdentifier();
+                if (pid.intValue() <= MAX_SLOTTED_ID && !list.contains(pid))
+                    list.add(pid);
+            }
+
+            int max = -1;
+            for (PropertyIdentifier pid : list)
+                max = Math.max(max, pid.intValue());
+            slotById = new short[max + 1];
+            Arrays.fill(slotById, (short) -1);
+            for (int i = 0; i < list.size(); i++)
+                slotById[list.get(i).intValue()] = (short) i;
+            pids = list.toArray(new PropertyIdentifier[0]);
+        }
+
+        int slot(int id) {
+            return id >= 0 && id < slotById.length ? slotById[id] : -1;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2025 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+package com.serotonin.bacnet4j.obj;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeMap;
+
+import com.serotonin.bacnet4j.exception.BACnetServiceException;
+import com.serotonin.bacnet4j.type.Encodable;
+import com.serotonin.bacnet4j.type.enumerated.PropertyIdentifier;
+
+/**
+ * Which of the mixins of an object to notify of the reads or the writes of each property. The mixins are the bits of
+ * a mask, in the order of the object's mixin list, so that they are notified in the same order as before. The
+ * dispatch keeps its own copy of the list, so that the bits always refer to the mixins it was built from.
+ * <p>
+ * A mixin is left out if it does not override the notification method, and is limited to the properties it declares
+ * if the declaration comes from the class that overrides the method or from a subclass of it. Otherwise, for example
+ * if a subclass overrides the method of a mixin that declares its properties, it is notified of all properties.
+ * <p>
+ * An object with more mixins than there are bits in the mask has all of them notified of every property.
+ */
+final class MixinDispatch {
+    private static final ClassValue<Class<?>[]> DECLARING_CLASSES = new ClassValue<>() {
+        @Override
+        protected Class<?>[] computeValue(Class<?> type) {
+            return new Class<?>[] {
+                    declaringClass(type, "beforeReadProperty", PropertyIdentifier.class),
+                    declaringClass(type, "getObservedReads"),
+                    declaringClass(type, "afterWriteProperty", PropertyIdentifier.class, Encodable.class,
+                            Encodable.class),
+                    declaringClass(type, "getObservedWrites")};
+        }
+    };
+
+    private final AbstractMixin[] mixins;
+    // Whether the mixins are too many for a mask.
+    private final boolean unmasked;
+    // The mixins that are notified of every property.
+    private final long all;
+    // The sorted numbers of the declared properties, and the mixins that declared each.
+    private final int[] ids;
+    private final long[] masks;
+
+    private MixinDispatch(AbstractMixin[] mixins, boolean unmasked, long all, int[] ids, long[] masks) {
+        this.mixins = mixins;
+        this.unmasked = unmasked;
+        this.all = all;
+        this.ids = ids;
+        this.masks = masks;
+    }
+
+    /**
+     * Must be called while the list cannot change.
+     */
+    static MixinDispatch forReads(List<AbstractMixin> mixins) {
+        return build(mixins, true);
+    }
+
+    /**
+     * Must be called while the list cannot change.
+     */
+    static MixinDispatch forWrites(List<AbstractMixin> mixins) {
+        return build(mixins, false);
+    }
+
+    void beforeReadProperty(PropertyIdentifier pid) throws BACnetServiceException {
+        if (unmasked) {
+            for (AbstractMixin mixin : mixins)
+                mixin.beforeReadProperty(pid);
+            return;
+        }
+        for (long mask = mask(pid); mask != 0; mask &= mask - 1)
+            mixins[Long.numberOfTrailingZeros(mask)].beforeReadProperty(pid);
+    }
+
+    void afterWriteProperty(PropertyIdentifier pid, Encodable oldValue, Encodable newValue) {
+        if (unmasked) {
+            for (AbstractMixin mixin : mixins)
+                mixin.afterWriteProperty(pid, oldValue, newValue);
+            return;
+        }
+        for (long mask = mask(pid); mask != 0; mask &= mask - 1)
+            mixins[Long.numberOfTrailingZeros(mask)].afterWriteProperty(pid, oldValue, newValue);
+    }
+
+    /**
+     * @return the mixins to notify for the given property, as bits of their indexes in the mixin list.
+     */
+    long mask(PropertyIdentifier pid) {
+        int i = Arrays.binarySearch(ids, pid.intValue());
+        return i < 0 ? all : all | masks[i];
+    }
+
+    private static MixinDispatch build(List<AbstractMixin> list, boolean reads) {
+        AbstractMixin[] mixins = list.toArray(new AbstractMixin[0]);
+        if (mixins.length > Long.SIZE)
+            return new MixinDispatch(mixins, true, 0, new int[0], new long[0]);
+
+        long all = 0;
+        TreeMap<Integer, Long> declared = new TreeMap<>();
+        for (int i = 0; i < mixins.length; i++) {
+            AbstractMixin mixin = mixins[i];
+            Class<?>[] classes = DECLARING_CLASSES.get(mixin.getClass());
+            Class<?> method = reads ? classes[0] : classes[2];
+            Class<?> declaration = reads ? classes[1] : classes[3];
+            if (method == AbstractMixin.class)
+                continue;
+
+            PropertyIdentifier[] pids = null;
+            if (method.isAssignableFrom(declaration))
+                pids = reads ? mixin.getObservedReads() : mixin.getObservedWrites();
+            if (pids == null) {
+                all |= 1L << i;
+            } else {
+                for (PropertyIdentifier pid : pids)
+                    declared.merge(pid.intValue(), 1L << i, (a, b) -> a | b);
+            }
+        }
+
+        int[] ids = new int[declared.size()];
+        long[] masks = new long[declared.size()];
+        int i = 0;
+        for (var e : declared.entrySet()) {
+            ids[i] = e.getKey();
+            masks[i++] = e.getValue();
+        }
+        return new MixinDispatch(mixins, false, all, ids, masks);
+    }
+
+    private static Class<?> declaringClass(Class<?> type, String name, Class<?>... parameterTypes) {
+        for (Class<?> c = type; c != AbstractMixin.class; c = c.getSuperclass()) {
+            try {
+                Method m = c.getDeclaredMethod(name, parameterTypes);
+                return m.getDeclaringClass();
+            } catch (NoSuchMethodException e) {
+                // Look in the superclass.
+            }
+        }
+        return AbstractMixin.class;
+    }
+}
@@ -273,6 +273,11 @@ public class NotificationForwarderObject extends BACnetObject {
             super(bo);
         }
 
+        @Override
+        protected PropertyIdentifier[] getObservedReads() {
+            return new PropertyIdentifier[] {PropertyIdentifier.subscribedRecipients};
+        }
+
         @Override
         protected void beforeReadProperty(final PropertyIdentifier pid) {
             if (PropertyIdentifier.subscribedRecipients.equals(pid)) {
@@ -347,6 +352,11 @@ public class NotificationForwarderObject extends BACnetObject {
             return false;
         }
 
+        @Override
+        protected PropertyIdentifier[] getObservedWrites() {
+            return new PropertyIdentifier[] {PropertyIdentifier.recipientList, PropertyIdentifier.subscribedRecipients};
+        }
+
         @Override
         protected void afterWriteProperty(final PropertyIdentifier pid, final Encodable oldValue,
                 final Encodable newValue) {
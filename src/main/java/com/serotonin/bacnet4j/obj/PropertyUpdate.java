@@ -0,0 +1,46 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2026 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+package com.serotonin.bacnet4j.obj;
+
+import com.serotonin.bacnet4j.type.Encodable;
+import com.serotonin.bacnet4j.type.enumerated.PropertyIdentifier;
+import com.serotonin.bacnet4j.type.primitive.ObjectIdentifier;
+
+/**
+ * A new value for a property of a local object, for applying in a batch with
+ * {@link com.serotonin.bacnet4j.LocalDevice#applyUpdates(java.util.Collection)}.
+ *
+ * @param objectId           the identifier of the local object
+ * @param propertyIdentifier the property to write
+ * @param value              the new value
+ */
+public record PropertyUpdate(ObjectIdentifier objectId, PropertyIdentifier propertyIdentifier, Encodable value) {
+    public static PropertyUpdate presentValue(ObjectIdentifier objectId, Encodable value) {
+        return new PropertyUpdate(objectId, PropertyIdentifier.presentValue, value);
+    }
+}
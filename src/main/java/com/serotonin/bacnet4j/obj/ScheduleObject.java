@@ -259,6 +259,14 @@ public class ScheduleObject extends BACnetObject {
             return false;
         }
 
+        @Override
+        protected PropertyIdentifier[] getObservedWrites() {
+            return new PropertyIdentifier[] {
+                    PropertyIdentifier.effectivePeriod, PropertyIdentifier.weeklySchedule,
+                    PropertyIdentifier.exceptionSchedule, PropertyIdentifier.scheduleDefault,
+                    PropertyIdentifier.presentValue};
+        }
+
         @Override
         protected void afterWriteProperty(PropertyIdentifier pid, Encodable oldValue, Encodable newValue) {
             var changed = !Objects.equals(newValue, oldValue);
@@ -64,10 +64,12 @@ import com.serotonin.bacnet4j.service.confirmed.WritePropertyMultipleRequest;
 import com.serotonin.bacnet4j.service.confirmed.WritePropertyRequest;
 import com.serotonin.bacnet4j.type.Encodable;
 import com.serotonin.bacnet4j.type.constructed.Address;
+import com.serotonin.bacnet4j.type.constructed.BACnetArray;
 import com.serotonin.bacnet4j.type.constructed.DateTime;
 import com.serotonin.bacnet4j.type.constructed.Health;
 import com.serotonin.bacnet4j.type.constructed.ObjectPropertyValue;
 import com.serotonin.bacnet4j.type.constructed.PropertyValue;
+import com.serotonin.bacnet4j.type.constructed.SequenceOf;
 import com.serotonin.bacnet4j.type.constructed.ValueSource;
 import com.serotonin.bacnet4j.type.enumerated.ErrorClass;
 import com.serotonin.bacnet4j.type.enumerated.ErrorCode;
@@ -140,8 +142,15 @@ public class SecureConnectNetworkPortObject extends NetworkPortObject {
         writePropertyInternal(PropertyIdentifier.scFailoverHubConnectionStatus,
                 network.getFailoverHubConnectionStatus());
         writePropertyInternal(PropertyIdentifier.scHubFunctionEnable, Boolean.FALSE);
-        writePropertyInternal(PropertyIdentifier.scDirectConnectInitiateEnable, Boolean.FALSE);
-        writePropertyInternal(PropertyIdentifier.scDirectConnectAcceptEnable, Boolean.FALSE);
+        writePropertyInternal(PropertyIdentifier.scDirectConnectInitiateEnable,
+                Boolean.valueOf(network.isDirectConnectInitiateEnable()));
+        writePropertyInternal(PropertyIdentifier.scDirectConnectAcceptEnable,
+                Boolean.valueOf(network.isDirectConnectAcceptEnable()));
+        writePropertyInternal(PropertyIdentifier.scDirectConnectBinding,
+                new CharacterString(network.getDirectConnectBinding()));
+        writePropertyInternal(PropertyIdentifier.scDirectConnectAcceptUris, new BACnetArray<>(
+                network.getConfiguredDirectConnectAcceptUris().stream().map(CharacterString::new).toList()));
+        writePropertyInternal(PropertyIdentifier.scDirectConnectConnectionStatus, new SequenceOf<>());
 
         writePropertyInternal(PropertyIdentifier.operationalCertificateFile, network.getOperationalCertificateFileId());
         writePropertyInternal(PropertyIdentifier.issuerCertificateFiles, network.getIssuerCertificateFileIds());
@@ -188,6 +197,13 @@ public class SecureConnectNetworkPortObject extends NetworkPortObject {
             }
         } else if (pid.equals(PropertyIdentifier.currentHealth)) {
             writePropertyInternal(PropertyIdentifier.currentHealth, evaluateHealth());
+        } else if (pid.equals(PropertyIdentifier.scDirectConnectConnectionStatus)) {
+            writePropertyInternal(PropertyIdentifier.scDirectConnectConnectionStatus,
+                    new SequenceOf<>(network.getDirectConnectionStatus()));
+        } else if (pid.equals(PropertyIdentifier.scDirectConnectAcceptUris) && network.isInitialized()) {
+            // Without configured URIs, the URI of the running acceptor is reported.
+            writePropertyInternal(PropertyIdentifier.scDirectConnectAcceptUris, new BACnetArray<>(
+                    network.getDirectConnectAcceptUris().stream().map(CharacterString::new).toList()));
         }
     }
 
@@ -54,6 +54,11 @@ public class ActiveCovSubscriptionMixin extends AbstractMixin {
         writePropertyInternal(PropertyIdentifier.activeCovSubscriptions, new SequenceOf<CovSubscription>());
     }
 
+    @Override
+    protected PropertyIdentifier[] getObservedReads() {
+        return new PropertyIdentifier[] {PropertyIdentifier.activeCovSubscriptions};
+    }
+
     @Override
     protected void beforeReadProperty(final PropertyIdentifier pid) {
         if (pid.equals(PropertyIdentifier.activeCovSubscriptions)) {
@@ -69,6 +69,11 @@ public class ActiveTimeMixin extends AbstractMixin {
         resetLastActiveTime();
     }
 
+    @Override
+    protected PropertyIdentifier[] getObservedReads() {
+        return new PropertyIdentifier[] {PropertyIdentifier.elapsedActiveTime};
+    }
+
     @Override
     protected void beforeReadProperty(PropertyIdentifier pid) {
         if (pid.equals(PropertyIdentifier.elapsedActiveTime)) {
@@ -82,6 +87,11 @@ public class ActiveTimeMixin extends AbstractMixin {
         }
     }
 
+    @Override
+    protected PropertyIdentifier[] getObservedWrites() {
+        return new PropertyIdentifier[] {monitoredValue, PropertyIdentifier.elapsedActiveTime};
+    }
+
     @Override
     protected void afterWriteProperty(PropertyIdentifier pid, Encodable oldValue, Encodable newValue) {
         if (pid.equals(monitoredValue)) {
@@ -226,6 +226,11 @@ public class CommandableMixin extends AbstractMixin {
             writePropertyInternal(PropertyIdentifier.valueSource, valueSource);
     }
 
+    @Override
+    protected PropertyIdentifier[] getObservedWrites() {
+        return new PropertyIdentifier[] {relinquishDefault, minimumOffTime, minimumOnTime};
+    }
+
     @Override
     protected synchronized void afterWriteProperty(PropertyIdentifier pid, Encodable oldValue, Encodable newValue) {
         if (relinquishDefault.equals(pid)) {
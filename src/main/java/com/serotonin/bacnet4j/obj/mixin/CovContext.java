@@ -51,9 +51,17 @@ public class CovContext {
     private boolean issueConfirmedNotifications;
     private long expiryTime;
     private Real covIncrement;
+    // Set for subscriptions made with SubscribeCOVPropertyMultiple, which are notified with COV-Notification-Multiple.
+    private boolean multiple;
+    private int maxNotificationDelay;
+    private boolean timestamped;
 
     // Runtime values.
     private Encodable lastCovIncrementValue;
+    // When the last notification was sent, by the dispatcher's clock.
+    private volatile long lastNotificationTime;
+    // Set when the subscription is cancelled, so that notifications made before are not sent.
+    private volatile boolean cancelled;
 
     public CovContext(final Clock clock, final Address address, final UnsignedInteger subscriberProcessIdentifier,
             final PropertyIdentifier monitoredProperty, final PropertyIdentifier exposedMonitoredProperty) {
@@ -100,6 +108,34 @@ public class CovContext {
         this.covIncrement = covIncrement;
     }
 
+    public boolean isMultiple() {
+        return multiple;
+    }
+
+    public void setMultiple(final boolean multiple) {
+        this.multiple = multiple;
+    }
+
+    /**
+     * @return the longest time in seconds that a notification of a multiple subscription waits to be sent together
+     * with others to the same subscriber.
+     */
+    public int getMaxNotificationDelay() {
+        return maxNotificationDelay;
+    }
+
+    public void setMaxNotificationDelay(final int maxNotificationDelay) {
+        this.maxNotificationDelay = maxNotificationDelay;
+    }
+
+    public boolean isTimestamped() {
+        return timestamped;
+    }
+
+    public void setTimestamped(final boolean timestamped) {
+        this.timestamped = timestamped;
+    }
+
     public void setExpiryTime(final int seconds) {
         if (seconds == 0)
             expiryTime = -1;
@@ -121,6 +157,22 @@ public class CovContext {
         this.lastCovIncrementValue = lastCovIncrementValue;
     }
 
+    public long getLastNotificationTime() {
+        return lastNotificationTime;
+    }
+
+    public void setLastNotificationTime(final long lastNotificationTime) {
+        this.lastNotificationTime = lastNotificationTime;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
     public int getSecondsRemaining(final long now) {
         if (expiryTime == -1)
             return 0;
@@ -0,0 +1,451 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2026 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+package com.serotonin.bacnet4j.obj.mixin;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.serotonin.bacnet4j.LocalDevice;
+import com.serotonin.bacnet4j.RemoteDevice;
+import com.serotonin.bacnet4j.ResponseConsumer;
+import com.serotonin.bacnet4j.apdu.AckAPDU;
+import com.serotonin.bacnet4j.apdu.ConfirmedRequest;
+import com.serotonin.bacnet4j.exception.BACnetException;
+import com.serotonin.bacnet4j.service.acknowledgement.AcknowledgementService;
+import com.serotonin.bacnet4j.service.confirmed.ConfirmedCovNotificationMultipleRequest;
+import com.serotonin.bacnet4j.service.confirmed.ConfirmedCovNotificationMultipleRequest.CovNotification;
+import com.serotonin.bacnet4j.service.confirmed.ConfirmedCovNotificationMultipleRequest.CovNotification.CovNotificationValue;
+import com.serotonin.bacnet4j.service.confirmed.ConfirmedCovNotificationRequest;
+import com.serotonin.bacnet4j.service.unconfirmed.UnconfirmedCovNotificationMultipleRequest;
+import com.serotonin.bacnet4j.service.unconfirmed.UnconfirmedCovNotificationRequest;
+import com.serotonin.bacnet4j.type.constructed.Address;
+import com.serotonin.bacnet4j.type.constructed.DateTime;
+import com.serotonin.bacnet4j.type.constructed.PropertyValue;
+import com.serotonin.bacnet4j.type.constructed.SequenceOf;
+import com.serotonin.bacnet4j.type.primitive.ObjectIdentifier;
+import com.serotonin.bacnet4j.type.primitive.Time;
+import com.serotonin.bacnet4j.type.primitive.Unsigned32;
+import com.serotonin.bacnet4j.type.primitive.UnsignedInteger;
+import com.serotonin.bacnet4j.util.SerialExecutor;
+import com.serotonin.bacnet4j.util.sero.ByteQueue;
+
+/**
+ * Sends the COV notifications of the local objects of a device, off the threads that write the objects' properties.
+ * <p>
+ * At most one notification waits per subscription: a newer one replaces it, so that a subscriber gets the latest
+ * values of a fast-changing object rather than every change. Notifications to the same subscription are at least the
+ * minimum interval apart. The number of waiting notifications is bounded by the queue capacity; beyond it, a
+ * notification is sent immediately on the writer's thread. Confirmed notifications are not retried here: the
+ * transport already retries a request that gets no response.
+ * <p>
+ * The notifications of the subscriptions made with SubscribeCOVPropertyMultiple are instead gathered per subscriber,
+ * for no longer than the subscriptions' maximum notification delay, and sent together with COV-Notification-Multiple,
+ * in as few messages as fit in the maximum APDU length accepted by the subscriber. The time remaining reported in a
+ * message is the least of those of its subscriptions. When the queue is full, the subscriber's batch is sent without
+ * waiting for its deadline.
+ * <p>
+ * Notifications are sent one at a time, by default as a serial lane of the device's executor.
+ */
+public class CovNotificationDispatcher {
+    static final Logger LOG = LoggerFactory.getLogger(CovNotificationDispatcher.class);
+
+    private final LocalDevice localDevice;
+    // The notification waiting per subscription. Guards all the waiting notifications.
+    private final Map<CovContext, Notification> pending = new HashMap<>();
+    // The notifications of multiple subscriptions waiting per subscriber.
+    private final Map<Subscriber, Batch> batches = new HashMap<>();
+    private int queueSize;
+
+    private volatile Executor executor;
+    private volatile long minimumInterval;
+    private volatile int queueCapacity = 10000;
+
+    public CovNotificationDispatcher(LocalDevice localDevice) {
+        this.localDevice = localDevice;
+        executor = new SerialExecutor(localDevice::execute);
+    }
+
+    /**
+     * @param executor the executor on which to send the notifications. It should run its tasks one at a time so that
+     *                 the notifications of a subscription are sent in order.
+     * @return this
+     */
+    public CovNotificationDispatcher withExecutor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * @param minimumInterval the least time between the notifications sent to a subscription. Zero by default.
+     * @param unit            the unit of the interval
+     * @return this
+     */
+    public CovNotificationDispatcher withMinimumInterval(long minimumInterval, TimeUnit unit) {
+        this.minimumInterval = unit.toMillis(minimumInterval);
+        return this;
+    }
+
+    /**
+     * @param queueCapacity the number of subscriptions that can have a notification waiting. 10000 by default.
+     * @return this
+     */
+    public CovNotificationDispatcher withQueueCapacity(int queueCapacity) {
+        if (queueCapacity < 1)
+            throw new IllegalArgumentException("queueCapacity must be positive");
+        this.queueCapacity = queueCapacity;
+        return this;
+    }
+
+    /**
+     * Queues a notification to the given subscription, replacing any that is still waiting.
+     *
+     * @param ctx                       the subscription
+     * @param monitoredObjectIdentifier the object that the notification is about
+     * @param values                    the values to report
+     */
+    public void submit(CovContext ctx, ObjectIdentifier monitoredObjectIdentifier, SequenceOf<PropertyValue> values) {
+        if (ctx.isCancelled())
+            return;
+        Notification notification = new Notification(monitoredObjectIdentifier, values,
+                localDevice.getClock().millis());
+        if (ctx.isMultiple())
+            queueMultiple(ctx, notification);
+        else
+            queue(ctx, notification);
+    }
+
+    /**
+     * Discards the notification waiting for the given subscription, and any that is submitted or in the course of being
+     * sent later. Called when the subscription is cancelled.
+     *
+     * @param ctx the subscription
+     */
+    public void cancel(CovContext ctx) {
+        ctx.cancel();
+        synchronized (pending) {
+            if (pending.remove(ctx) != null)
+                queueSize--;
+            Subscriber subscriber = new Subscriber(ctx.getAddress(), ctx.getSubscriberProcessIdentifier(),
+                    ctx.isIssueConfirmedNotifications());
+            Batch batch = batches.get(subscriber);
+            if (batch != null && batch.notifications.remove(ctx) != null) {
+                queueSize--;
+                // The scheduled dispatch of an empty batch finds nothing to send.
+                if (batch.notifications.isEmpty())
+                    batches.remove(subscriber);
+            }
+        }
+    }
+
+    /**
+     * @return the number of notifications that are waiting to be sent.
+     */
+    public int getQueueSize() {
+        synchronized (pending) {
+            return queueSize;
+        }
+    }
+
+    /**
+     * Discards the waiting notifications. Called when the device is terminated.
+     */
+    public void clear() {
+        synchronized (pending) {
+            pending.clear();
+            batches.clear();
+            queueSize = 0;
+        }
+    }
+
+    private void queue(CovContext ctx, Notification notification) {
+        boolean full;
+        synchronized (pending) {
+            if (pending.containsKey(ctx)) {
+                // The sending of the waiting notification is already scheduled.
+                pending.put(ctx, notification);
+                return;
+            }
+            full = queueSize >= queueCapacity;
+            if (!full) {
+                pending.put(ctx, notification);
+                queueSize++;
+            }
+        }
+
+        if (full) {
+            LOG.debug("COV notification queue is full; sending immediately to {}", ctx.getAddress());
+            long now = localDevice.getClock().millis();
+            ctx.setLastNotificationTime(now);
+            send(ctx, notification, now);
+        } else {
+            executor.execute(() -> dispatch(ctx));
+        }
+    }
+
+    private void dispatch(CovContext ctx) {
+        long now = localDevice.getClock().millis();
+        Notification notification;
+        long delay;
+        synchronized (pending) {
+            // Against the time of the last notification actually sent, which may be later than when this was queued.
+            delay = ctx.getLastNotificationTime() + minimumInterval - now;
+            if (delay > 0) {
+                notification = null;
+            } else {
+                notification = pending.remove(ctx);
+                if (notification != null) {
+                    queueSize--;
+                    ctx.setLastNotificationTime(now);
+                }
+            }
+        }
+
+        if (delay > 0)
+            localDevice.schedule(() -> executor.execute(() -> dispatch(ctx)), delay, TimeUnit.MILLISECONDS);
+        else if (notification != null)
+            send(ctx, notification, now);
+    }
+
+    private void send(CovContext ctx, Notification notification, long now) {
+        if (ctx.isCancelled() || ctx.hasExpired(now))
+            return;
+
+        UnsignedInteger timeLeft = new UnsignedInteger(ctx.getSecondsRemaining(now));
+        if (ctx.isIssueConfirmedNotifications()) {
+            ConfirmedCovNotificationRequest req = new ConfirmedCovNotificationRequest(
+                    ctx.getSubscriberProcessIdentifier(), localDevice.getId(), notification.monitoredObjectIdentifier,
+                    timeLeft, notification.values);
+            localDevice.send(ctx.getAddress(), req, new LoggingConsumer(ctx.getAddress()));
+        } else {
+            UnconfirmedCovNotificationRequest req = new UnconfirmedCovNotificationRequest(
+                    ctx.getSubscriberProcessIdentifier(), localDevice.getId(), notification.monitoredObjectIdentifier,
+                    timeLeft, notification.values);
+            localDevice.send(ctx.getAddress(), req);
+        }
+    }
+
+    //
+    // COV-Notification-Multiple
+    //
+    private void queueMultiple(CovContext ctx, Notification notification) {
+        Subscriber subscriber = new Subscriber(ctx.getAddress(), ctx.getSubscriberProcessIdentifier(),
+                ctx.isIssueConfirmedNotifications());
+        long now = localDevice.getClock().millis();
+        long deadline = now + ctx.getMaxNotificationDelay() * 1000L;
+        boolean full = false;
+        boolean schedule = false;
+        synchronized (pending) {
+            Batch batch = batches.computeIfAbsent(subscriber, s -> new Batch());
+            Notification existing = batch.notifications.get(ctx);
+            batch.notifications.put(ctx, notification);
+            if (existing == null) {
+                queueSize++;
+                full = queueSize > queueCapacity;
+            }
+
+            // A dispatch that comes earlier than needed only sends the batch sooner than its deadline.
+            if (batch.notifications.size() == 1 || deadline < batch.deadline) {
+                batch.deadline = deadline;
+                schedule = true;
+            }
+        }
+
+        if (full) {
+            LOG.debug("COV notification queue is full; sending immediately to {}", ctx.getAddress());
+            executor.execute(() -> dispatchMultiple(subscriber));
+        } else if (schedule) {
+            if (deadline > now) {
+                localDevice.schedule(() -> executor.execute(() -> dispatchMultiple(subscriber)), deadline - now,
+                        TimeUnit.MILLISECONDS);
+            } else {
+                executor.execute(() -> dispatchMultiple(subscriber));
+            }
+        }
+    }
+
+    private void dispatchMultiple(Subscriber subscriber) {
+        Batch batch;
+        synchronized (pending) {
+            batch = batches.remove(subscriber);
+            if (batch != null)
+                queueSize -= batch.notifications.size();
+        }
+        if (batch != null)
+            sendMultiple(subscriber, batch.notifications);
+    }
+
+    private void sendMultiple(Subscriber subscriber, Map<CovContext, Notification> notifications) {
+        long now = localDevice.getClock().millis();
+
+        // The values per object, those of the subscriptions to different properties of an object together.
+        Map<ObjectIdentifier, List<CovNotificationValue>> values = new LinkedHashMap<>();
+        // The least time remaining of the subscriptions, so that the subscriber renews none of them too late.
+        int timeLeft = 0;
+        boolean timestamped = false;
+        for (Map.Entry<CovContext, Notification> e : notifications.entrySet()) {
+            CovContext ctx = e.getKey();
+            Notification notification = e.getValue();
+            if (ctx.isCancelled() || ctx.hasExpired(now))
+                continue;
+            ctx.setLastNotificationTime(now);
+
+            int seconds = ctx.getSecondsRemaining(now);
+            if (seconds > 0 && (timeLeft == 0 || seconds < timeLeft))
+                timeLeft = seconds;
+            Time timeOfChange = null;
+            if (ctx.isTimestamped()) {
+                // The notification time was taken from the device's clock.
+                timeOfChange = new DateTime(notification.time).getTime();
+                timestamped = true;
+            }
+
+            // Only the monitored property is reported.
+            List<CovNotificationValue> objectValues = values.computeIfAbsent(notification.monitoredObjectIdentifier,
+                    id -> new ArrayList<>());
+            for (PropertyValue pv : notification.values) {
+                if (pv.getPropertyIdentifier().equals(ctx.getMonitoredProperty())) {
+                    objectValues.add(new CovNotificationValue(pv.getPropertyIdentifier(), pv.getPropertyArrayIndex(),
+                            pv.getValue(), timeOfChange));
+                }
+            }
+        }
+        if (values.isEmpty())
+            return;
+
+        Unsigned32 processId = new Unsigned32(subscriber.subscriberProcessIdentifier.longValue());
+        UnsignedInteger timeRemaining = new UnsignedInteger(timeLeft);
+        DateTime timestamp = timestamped ? new DateTime(localDevice) : null;
+
+        // As many notifications per message as fit in what the subscriber accepts, after the APDU header and the
+        // other parameters of the request. The confirmed request has the larger header, so the room suits both.
+        ByteQueue header = new ByteQueue();
+        new ConfirmedCovNotificationMultipleRequest(processId, localDevice.getId(), timeRemaining, timestamp,
+                new SequenceOf<>()).write(header);
+        int room = getMaxApduLength(subscriber.address) - ConfirmedRequest.getHeaderSize(false) - header.size();
+        SequenceOf<CovNotification> message = new SequenceOf<>();
+        int size = 0;
+        for (Map.Entry<ObjectIdentifier, List<CovNotificationValue>> e : values.entrySet()) {
+            CovNotification cn = new CovNotification(e.getKey(), new SequenceOf<>(e.getValue()));
+            ByteQueue queue = new ByteQueue();
+            cn.write(queue);
+            if (message.getCount() > 0 && size + queue.size() > room) {
+                sendMultiple(subscriber, processId, timeRemaining, timestamp, message);
+                message = new SequenceOf<>();
+                size = 0;
+            }
+            message.add(cn);
+            size += queue.size();
+        }
+        sendMultiple(subscriber, processId, timeRemaining, timestamp, message);
+    }
+
+    private void sendMultiple(Subscriber subscriber, Unsigned32 processId, UnsignedInteger timeRemaining,
+            DateTime timestamp, SequenceOf<CovNotification> message) {
+        if (subscriber.confirmed) {
+            ConfirmedCovNotificationMultipleRequest req = new ConfirmedCovNotificationMultipleRequest(processId,
+                    localDevice.getId(), timeRemaining, timestamp, message);
+            localDevice.send(subscriber.address, req, new LoggingConsumer(subscriber.address));
+        } else {
+            SequenceOf<UnconfirmedCovNotificationMultipleRequest.CovNotification> unconfirmed = new SequenceOf<>();
+            for (CovNotification cn : message) {
+                SequenceOf<UnconfirmedCovNotificationMultipleRequest.CovNotification.CovNotificationValue> values =
+                        new SequenceOf<>();
+                for (CovNotificationValue v : cn.getListOfValues()) {
+                    values.add(new UnconfirmedCovNotificationMultipleRequest.CovNotification.CovNotificationValue(
+                            v.getPropertyIdentifier(), v.getPropertyArrayIndex(), v.getPropertyValue(),
+                            v.getTimeOfChange()));
+                }
+                unconfirmed.add(new UnconfirmedCovNotificationMultipleRequest.CovNotification(
+                        cn.getMonitoredObjectIdentifier(), values));
+            }
+            localDevice.send(subscriber.address, new UnconfirmedCovNotificationMultipleRequest(processId,
+                    localDevice.getId(), timeRemaining, timestamp, unconfirmed));
+        }
+    }
+
+    /**
+     * @return the maximum APDU length accepted by the device at the address if it is known, otherwise that of the
+     *         network.
+     */
+    private int getMaxApduLength(Address address) {
+        int max = localDevice.getNetwork().getMaxApduLength().getMaxLengthInt();
+        RemoteDevice rd = localDevice.getCachedRemoteDevice(address);
+        if (rd != null) {
+            int accepted = rd.getMaxAPDULengthAccepted();
+            if (accepted > 0)
+                max = Math.min(max, accepted);
+        }
+        return max;
+    }
+
+    /**
+     * Logs the failure of a confirmed notification.
+     */
+    private static class LoggingConsumer implements ResponseConsumer {
+        private final Address address;
+
+        LoggingConsumer(Address address) {
+            this.address = address;
+        }
+
+        @Override
+        public void success(AcknowledgementService ack) {
+            // no op
+        }
+
+        @Override
+        public void fail(AckAPDU ack) {
+            LOG.debug("COV notification to {} was refused: {}", address, ack);
+        }
+
+        @Override
+        public void ex(BACnetException e) {
+            LOG.debug("COV notification to {} failed", address, e);
+        }
+    }
+
+    private record Notification(ObjectIdentifier monitoredObjectIdentifier, SequenceOf<PropertyValue> values,
+            long time) {
+    }
+
+    private record Subscriber(Address address, UnsignedInteger subscriberProcessIdentifier, boolean confirmed) {
+    }
+
+    private static class Batch {
+        final Map<CovContext, Notification> notifications = new LinkedHashMap<>();
+        long deadline;
+    }
+}
@@ -39,8 +39,6 @@ import com.serotonin.bacnet4j.exception.BACnetRuntimeException;
 import com.serotonin.bacnet4j.exception.BACnetServiceException;
 import com.serotonin.bacnet4j.obj.AbstractMixin;
 import com.serotonin.bacnet4j.obj.BACnetObject;
-import com.serotonin.bacnet4j.service.confirmed.ConfirmedCovNotificationRequest;
-import com.serotonin.bacnet4j.service.unconfirmed.UnconfirmedCovNotificationRequest;
 import com.serotonin.bacnet4j.type.Encodable;
 import com.serotonin.bacnet4j.type.constructed.Address;
 import com.serotonin.bacnet4j.type.constructed.PropertyReference;
@@ -140,7 +138,7 @@ public class CovReportingMixin extends AbstractMixin {
                         // subscriptions where the monitored property is one of the criteria's monitored properties.
                         if (ctx.isObjectSubscription()
                                 || ctx.getMonitoredProperty().isOneOf(criteria.monitoredProperties)) {
-                            sendObjectNotification(ctx, now);
+                            sendObjectNotification(ctx);
                             sent = true;
                         }
                     }
@@ -154,7 +152,7 @@ public class CovReportingMixin extends AbstractMixin {
                                 final SequenceOf<PropertyValue> values = new SequenceOf<>();
                                 addPropertyValues(ctx, values, ctx.getMonitoredProperty(),
                                         PropertyIdentifier.statusFlags);
-                                sendNotification(ctx, now, values);
+                                sendNotification(ctx, values);
                                 sent = true;
                             }
                         }
@@ -167,13 +165,13 @@ public class CovReportingMixin extends AbstractMixin {
                             if (table13_1Met //
                                     || PropertyIdentifier.valueSource.equals(pid) //
                                     || PropertyIdentifier.currentCommandPriority.equals(pid)) {
-                                sendPropertyNotification(ctx, now);
+                                sendPropertyNotification(ctx);
                                 sent = true;
                             }
                         } else {
                             // Non-commandable
                             if (table13_1Met || PropertyIdentifier.valueSource.equals(pid)) {
-                                sendPropertyNotification(ctx, now);
+                                sendPropertyNotification(ctx);
                                 sent = true;
                             }
                         }
@@ -191,6 +189,20 @@ public class CovReportingMixin extends AbstractMixin {
             final Boolean issueConfirmedNotifications, final UnsignedInteger lifetime,
             final PropertyReference monitoredPropertyIdentifier, final Real covIncrement)
             throws BACnetServiceException {
+        addCovSubscription(from, subscriberProcessIdentifier, issueConfirmedNotifications, lifetime,
+                monitoredPropertyIdentifier, covIncrement, null, false);
+    }
+
+    /**
+     * @param maxNotificationDelay for a subscription made with SubscribeCOVPropertyMultiple, the longest time in
+     *                             seconds that its notifications wait to be sent together with others. Null for other
+     *                             subscriptions.
+     * @param timestamped          whether the notifications of a multiple subscription include the time of change
+     */
+    public void addCovSubscription(final Address from, final UnsignedInteger subscriberProcessIdentifier,
+            final Boolean issueConfirmedNotifications, final UnsignedInteger lifetime,
+            final PropertyReference monitoredPropertyIdentifier, final Real covIncrement,
+            final UnsignedInteger maxNotificationDelay, final boolean timestamped) throws BACnetServiceException {
         final List<CovContext> ctxs = getLocalDevice().getCovContexts().get(getId());
         synchronized (ctxs) {
             final PropertyIdentifier monitored = monitoredPropertyIdentifier == null ? null
@@ -224,15 +236,17 @@ public class CovReportingMixin extends AbstractMixin {
             else
                 ctx.setExpiryTime(lifetime.intValue());
             ctx.setCovIncrement(covIncrement);
+            ctx.setMultiple(maxNotificationDelay != null);
+            ctx.setMaxNotificationDelay(maxNotificationDelay == null ? 0 : maxNotificationDelay.intValue());
+            ctx.setTimestamped(timestamped);
 
             // "Immediately" send a notification
             final CovContext _ctx = ctx;
             getLocalDevice().execute(() -> {
-                final long now = getLocalDevice().getClock().millis();
                 if (_ctx.getMonitoredProperty() != null)
-                    sendPropertyNotification(_ctx, now);
+                    sendPropertyNotification(_ctx);
                 else
-                    sendObjectNotification(_ctx, now);
+                    sendObjectNotification(_ctx);
             });
         }
     }
@@ -246,8 +260,10 @@ public class CovReportingMixin extends AbstractMixin {
                         : monitoredPropertyIdentifier.getPropertyIdentifier();
 
                 final CovContext sub = findCovSubscription(ctxs, from, subscriberProcessIdentifier, monitored);
-                if (sub != null)
+                if (sub != null) {
                     ctxs.remove(sub);
+                    getLocalDevice().getCovNotificationDispatcher().cancel(sub);
+                }
             }
         }
     }
@@ -263,13 +279,13 @@ public class CovReportingMixin extends AbstractMixin {
         return null;
     }
 
-    private void sendObjectNotification(final CovContext ctx, final long now) {
+    private void sendObjectNotification(final CovContext ctx) {
         final SequenceOf<PropertyValue> values = new SequenceOf<>();
         addPropertyValues(ctx, values, criteria.propertiesReported);
-        sendNotification(ctx, now, values);
+        sendNotification(ctx, values);
     }
 
-    private void sendPropertyNotification(final CovContext ctx, final long now) {
+    private void sendPropertyNotification(final CovContext ctx) {
         final SequenceOf<PropertyValue> values = new SequenceOf<>();
 
         if (PropertyIdentifier.valueSource.equals(ctx.getMonitoredProperty())) {
@@ -288,7 +304,7 @@ public class CovReportingMixin extends AbstractMixin {
             addPropertyValues(ctx, values, ctx.getMonitoredProperty(), PropertyIdentifier.statusFlags);
         }
 
-        sendNotification(ctx, now, values);
+        sendNotification(ctx, values);
     }
 
     private void addPropertyValues(final CovContext ctx, final SequenceOf<PropertyValue> values,
@@ -303,20 +319,13 @@ public class CovReportingMixin extends AbstractMixin {
         }
     }
 
-    private void sendNotification(final CovContext ctx, final long now, final SequenceOf<PropertyValue> values) {
-        final ObjectIdentifier deviceId = getLocalDevice().getId();
+    private void sendNotification(final CovContext ctx, final SequenceOf<PropertyValue> values) {
         final ObjectIdentifier id = get(PropertyIdentifier.objectIdentifier);
-        final UnsignedInteger timeLeft = new UnsignedInteger(ctx.getSecondsRemaining(now));
+        final Runnable send = () -> getLocalDevice().getCovNotificationDispatcher().submit(ctx, id, values);
 
-        if (ctx.isIssueConfirmedNotifications()) {
-            final ConfirmedCovNotificationRequest req = new ConfirmedCovNotificationRequest( //
-                    ctx.getSubscriberProcessIdentifier(), deviceId, id, timeLeft, values);
-            getLocalDevice().send(ctx.getAddress(), req, null);
-        } else {
-            final UnconfirmedCovNotificationRequest req = new UnconfirmedCovNotificationRequest(
-                    ctx.getSubscriberProcessIdentifier(), deviceId, id, timeLeft, values);
-            getLocalDevice().send(ctx.getAddress(), req);
-        }
+        // Within a batch of updates, only the last notification per subscription is sent, after the batch.
+        if (!getLocalDevice().deferCovNotification(ctx, send))
+            send.run();
     }
 
     private boolean incrementChange(final CovContext subscription, final Encodable value) {
@@ -357,12 +366,11 @@ public class CovReportingMixin extends AbstractMixin {
 
         if (covPeriod.intValue() > 0) {
             covPeriodFuture = getLocalDevice().scheduleAtFixedRate(() -> {
-                final long now = getLocalDevice().getClock().millis();
                 final List<CovContext> ctxs = getLocalDevice().getCovContexts().get(getId());
                 for (final CovContext ctx : ctxs) {
                     if (ctx.isObjectSubscription()) {
                         // This action only applies to object subscriptions, not to property subscriptions.
-                        sendObjectNotification(ctx, now);
+                        sendObjectNotification(ctx);
                     }
                 }
             }, covPeriod.intValue(), covPeriod.intValue(), TimeUnit.SECONDS);
@@ -61,6 +61,11 @@ public class HasStatusFlagsMixin extends AbstractMixin {
         return false;
     }
 
+    @Override
+    protected PropertyIdentifier[] getObservedWrites() {
+        return new PropertyIdentifier[] {eventState, reliability, outOfService};
+    }
+
     @Override
     public void afterWriteProperty(final PropertyIdentifier pid, final Encodable oldValue, final Encodable newValue) {
         if (pid.isOneOf(eventState, reliability, outOfService))
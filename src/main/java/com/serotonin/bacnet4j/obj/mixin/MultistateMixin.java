@@ -88,6 +88,13 @@ public class MultistateMixin extends AbstractMixin {
         return false;
     }
 
+    @Override
+    protected PropertyIdentifier[] getObservedWrites() {
+        return new PropertyIdentifier[] {
+                PropertyIdentifier.numberOfStates, PropertyIdentifier.stateText, PropertyIdentifier.presentValue,
+                PropertyIdentifier.outOfService};
+    }
+
     @Override
     protected void afterWriteProperty(PropertyIdentifier pid, Encodable oldValue, Encodable newValue) {
         if (PropertyIdentifier.numberOfStates.equals(pid)) {
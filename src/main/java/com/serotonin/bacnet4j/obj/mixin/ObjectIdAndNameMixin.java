@@ -88,10 +88,16 @@ public class ObjectIdAndNameMixin extends AbstractMixin {
         return false;
     }
 
+    @Override
+    protected PropertyIdentifier[] getObservedWrites() {
+        return new PropertyIdentifier[] {PropertyIdentifier.objectIdentifier, PropertyIdentifier.objectName};
+    }
+
     @Override
     protected void afterWriteProperty(final PropertyIdentifier pid, final Encodable oldValue,
             final Encodable newValue) {
         if (pid.isOneOf(PropertyIdentifier.objectIdentifier, PropertyIdentifier.objectName)) {
+            getLocalDevice().objectIdentityChanged(getBo(), pid, oldValue);
             getLocalDevice().incrementDatabaseRevision();
         }
     }
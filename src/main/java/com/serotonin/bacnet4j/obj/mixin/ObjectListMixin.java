@@ -29,9 +29,6 @@ package com.serotonin.bacnet4j.obj.mixin;
 
 import static com.serotonin.bacnet4j.type.enumerated.PropertyIdentifier.objectList;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import com.serotonin.bacnet4j.exception.BACnetServiceException;
 import com.serotonin.bacnet4j.obj.AbstractMixin;
 import com.serotonin.bacnet4j.obj.BACnetObject;
@@ -56,14 +53,20 @@ public class ObjectListMixin extends AbstractMixin {
         return false;
     }
 
+    @Override
+    protected PropertyIdentifier[] getObservedReads() {
+        return new PropertyIdentifier[] {objectList};
+    }
+
     @Override
     protected void beforeReadProperty(final PropertyIdentifier pid) {
         if (objectList.equals(pid)) {
-            final List<ObjectIdentifier> oids = new ArrayList<>();
-            for (final BACnetObject bo : getLocalDevice().getLocalObjects()) {
-                oids.add(bo.getId());
-            }
-            writePropertyInternal(objectList, new BACnetArray<>(oids));
+            // The device maintains the list as objects are added and removed. Put the current list in place
+            // without a write, which would run the mixins and listeners on every read, including each indexed read
+            // of a client walking the list.
+            final BACnetArray<ObjectIdentifier> list = getLocalDevice().getObjectList();
+            if (get(objectList) != list)
+                set(objectList, list);
         }
     }
 }
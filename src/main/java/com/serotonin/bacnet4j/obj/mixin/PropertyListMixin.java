@@ -46,6 +46,9 @@ import com.serotonin.bacnet4j.type.enumerated.ErrorCode;
 import com.serotonin.bacnet4j.type.enumerated.PropertyIdentifier;
 
 public class PropertyListMixin extends AbstractMixin {
+    // The number of properties when the list was last built.
+    private volatile int propertyCount = -1;
+
     public PropertyListMixin(final BACnetObject bo) {
         super(bo);
     }
@@ -58,15 +61,28 @@ public class PropertyListMixin extends AbstractMixin {
         return false;
     }
 
+    @Override
+    protected PropertyIdentifier[] getObservedReads() {
+        return new PropertyIdentifier[] {propertyList};
+    }
+
     @Override
     protected void beforeReadProperty(final PropertyIdentifier pid) {
         if (pid.equals(PropertyIdentifier.propertyList)) {
-            final List<PropertyIdentifier> pids = new ArrayList<>();
-            for (final PropertyIdentifier p : properties().keySet()) {
-                if (!p.isOneOf(objectName, objectType, objectIdentifier, propertyList))
-                    pids.add(p);
+            // Properties are added to objects but not removed, so the list only needs to be rebuilt when the number
+            // of properties changes. It is put in place without a write, which would run the mixins and listeners.
+            final int size = properties().size();
+            if (size != propertyCount) {
+                final boolean listed = properties().containsKey(propertyList);
+                final List<PropertyIdentifier> pids = new ArrayList<>();
+                for (final PropertyIdentifier p : properties().keySet()) {
+                    if (!p.isOneOf(objectName, objectType, objectIdentifier, propertyList))
+                        pids.add(p);
+                }
+                set(propertyList, new BACnetArray<>(pids));
+                // Count the list itself if it was just added.
+                propertyCount = listed ? size : size + 1;
             }
-            writePropertyInternal(propertyList, new BACnetArray<>(pids));
         }
     }
 }
@@ -54,6 +54,11 @@ public class StateChangeMixin extends AbstractMixin {
         writePropertyInternal(PropertyIdentifier.timeOfStateCountReset, new DateTime(getLocalDevice()));
     }
 
+    @Override
+    protected PropertyIdentifier[] getObservedWrites() {
+        return new PropertyIdentifier[] {PropertyIdentifier.presentValue, PropertyIdentifier.changeOfStateCount};
+    }
+
     @Override
     protected void afterWriteProperty(final PropertyIdentifier pid, final Encodable oldValue,
             final Encodable newValue) {
@@ -135,6 +135,13 @@ public class TimeSynchronizationMixin extends AbstractMixin {
         }
     }
 
+    @Override
+    protected PropertyIdentifier[] getObservedWrites() {
+        return new PropertyIdentifier[] {
+                PropertyIdentifier.timeSynchronizationInterval, PropertyIdentifier.alignIntervals,
+                PropertyIdentifier.intervalOffset};
+    }
+
     @Override
     protected void afterWriteProperty(final PropertyIdentifier pid, final Encodable oldValue,
             final Encodable newValue) {
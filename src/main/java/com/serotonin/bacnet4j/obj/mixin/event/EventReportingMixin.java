@@ -161,6 +161,13 @@ public abstract class EventReportingMixin extends AbstractMixin {
         return super.writeProperty(valueSource, value);
     }
 
+    @Override
+    protected PropertyIdentifier[] getObservedWrites() {
+        return new PropertyIdentifier[] {
+                PropertyIdentifier.reliability, PropertyIdentifier.eventAlgorithmInhibit,
+                PropertyIdentifier.outOfService};
+    }
+
     @Override
     protected synchronized void afterWriteProperty(PropertyIdentifier pid, Encodable oldValue, Encodable newValue) {
         if (PropertyIdentifier.reliability.equals(pid)) {
@@ -27,6 +27,9 @@
 
 package com.serotonin.bacnet4j.obj.mixin.event;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
@@ -91,6 +94,7 @@ public class IntrinsicReportingMixin extends EventReportingMixin {
             PropertyIdentifier... configurationProperties) {
         this.configurationConflictCheck = check;
         this.configurationProperties = configurationProperties;
+        observedPropertiesChanged();
         evaluateConfigurationConflict();
         return this;
     }
@@ -190,6 +194,14 @@ public class IntrinsicReportingMixin extends EventReportingMixin {
         }
     }
 
+    @Override
+    protected PropertyIdentifier[] getObservedWrites() {
+        List<PropertyIdentifier> pids = new ArrayList<>(Arrays.asList(super.getObservedWrites()));
+        pids.addAll(Arrays.asList(triggerProperties));
+        pids.addAll(Arrays.asList(configurationProperties));
+        return pids.toArray(new PropertyIdentifier[0]);
+    }
+
     @Override
     protected synchronized void afterWriteProperty(PropertyIdentifier pid, Encodable oldValue, Encodable newValue) {
         super.afterWriteProperty(pid, oldValue, newValue);
@@ -30,6 +30,7 @@ package com.serotonin.bacnet4j.service.confirmed;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.locks.Lock;
 import java.util.stream.Collectors;
 
 import com.serotonin.bacnet4j.LocalDevice;
@@ -80,17 +81,24 @@ public class ReadPropertyMultipleRequest extends ConfirmedRequestService {
     public AcknowledgementService handle(LocalDevice localDevice, Address from) throws BACnetException {
         List<ReadAccessResult> readAccessResults = new ArrayList<>();
 
-        for (ReadAccessSpecification req : listOfReadAccessSpecs) {
-            var oid = req.getObjectIdentifier();
-            var obj = localDevice.getObject(oid, true);
-            if (obj != null) {
-                oid = obj.getId();
-            }
-            var results = new ArrayList<Result>();
-            for (PropertyReference propRef : req.getListOfPropertyReferences()) {
-                addProperty(obj, results, propRef.getPropertyIdentifier(), propRef.getPropertyArrayIndex());
+        // Read the values of a single moment, rather than part of a batch of updates.
+        Lock lock = localDevice.getUpdateBatchReadLock();
+        lock.lock();
+        try {
+            for (ReadAccessSpecification req : listOfReadAccessSpecs) {
+                var oid = req.getObjectIdentifier();
+                var obj = localDevice.getObject(oid, true);
+                if (obj != null) {
+                    oid = obj.getId();
+                }
+                var results = new ArrayList<Result>();
+                for (PropertyReference propRef : req.getListOfPropertyReferences()) {
+                    addProperty(obj, results, propRef.getPropertyIdentifier(), propRef.getPropertyArrayIndex());
+                }
+                readAccessResults.add(new ReadAccessResult(oid, new SequenceOf<>(results)));
             }
-            readAccessResults.add(new ReadAccessResult(oid, new SequenceOf<>(results)));
+        } finally {
+            lock.unlock();
         }
 
         return new ReadPropertyMultipleAck(new SequenceOf<>(readAccessResults));
@@ -31,14 +31,19 @@ import com.serotonin.bacnet4j.LocalDevice;
 import com.serotonin.bacnet4j.exception.BACnetErrorException;
 import com.serotonin.bacnet4j.exception.BACnetException;
 import com.serotonin.bacnet4j.exception.BACnetRuntimeException;
-import com.serotonin.bacnet4j.exception.NotImplementedException;
+import com.serotonin.bacnet4j.exception.BACnetServiceException;
+import com.serotonin.bacnet4j.obj.BACnetObject;
 import com.serotonin.bacnet4j.service.acknowledgement.AcknowledgementService;
+import com.serotonin.bacnet4j.service.confirmed.SubscribeCOVPropertyMultipleRequest.CovSubscriptionSpecification.CovReference;
 import com.serotonin.bacnet4j.type.constructed.Address;
 import com.serotonin.bacnet4j.type.constructed.BaseType;
 import com.serotonin.bacnet4j.type.constructed.PropertyReference;
 import com.serotonin.bacnet4j.type.constructed.SequenceOf;
 import com.serotonin.bacnet4j.type.enumerated.ErrorClass;
 import com.serotonin.bacnet4j.type.enumerated.ErrorCode;
+import com.serotonin.bacnet4j.type.error.ErrorClassAndCode;
+import com.serotonin.bacnet4j.type.error.SubscribeCovPropertyMultipleError;
+import com.serotonin.bacnet4j.type.error.SubscribeCovPropertyMultipleError.FirstFailedSubscription;
 import com.serotonin.bacnet4j.type.primitive.Boolean;
 import com.serotonin.bacnet4j.type.primitive.ObjectIdentifier;
 import com.serotonin.bacnet4j.type.primitive.Real;
@@ -97,19 +102,32 @@ public class SubscribeCOVPropertyMultipleRequest extends ConfirmedRequestService
         if (issueConfirmedNotifications == null != (lifetime == null))
             throw new BACnetErrorException(ErrorClass.services, ErrorCode.inconsistentParameters);
 
-        throw new NotImplementedException();
+        // Subscriptions are identified by the process identifier as in the other subscription services.
+        final UnsignedInteger processId = new UnsignedInteger(subscriberProcessIdentifier.longValue());
+        final UnsignedInteger delay = maxNotificationDelay == null ? UnsignedInteger.ZERO : maxNotificationDelay;
 
-        //        try {
-        //            final BACnetObject obj = localDevice.getObjectRequired(monitoredObjectIdentifier);
-        //            if (issueConfirmedNotifications == null && lifetime == null)
-        //                obj.removeCovSubscription(from, subscriberProcessIdentifier);
-        //            else
-        //                obj.addCovSubscription(from, subscriberProcessIdentifier, issueConfirmedNotifications, lifetime,
-        //                        monitoredPropertyIdentifier, covIncrement);
-        //            return null;
-        //        } catch (final BACnetServiceException e) {
-        //            throw new BACnetErrorException(getChoiceId(), e);
-        //        }
+        // The subscriptions are made in order up to the first that fails, which is reported.
+        for (final CovSubscriptionSpecification spec : listOfCovSubscriptionSpecifications) {
+            final ObjectIdentifier oid = spec.getMonitoredObjectIdentifier();
+            for (final CovReference ref : spec.getListOfCovReferences()) {
+                try {
+                    // A missing object fails a cancellation as well as a subscription.
+                    final BACnetObject obj = localDevice.getObjectRequired(oid);
+                    if (issueConfirmedNotifications == null) {
+                        obj.removeCovSubscription(from, processId, ref.getMonitoredProperty());
+                    } else {
+                        obj.addCovSubscription(from, processId, issueConfirmedNotifications, lifetime,
+                                ref.getMonitoredProperty(), ref.getCovIncrement(), delay,
+                                ref.getTimestamped().booleanValue());
+                    }
+                } catch (final BACnetServiceException e) {
+                    throw new BACnetErrorException(getChoiceId(), new SubscribeCovPropertyMultipleError(
+                            new FirstFailedSubscription(oid, ref.getMonitoredProperty(),
+                                    new ErrorClassAndCode(e.getErrorClass(), e.getErrorCode()))));
+                }
+            }
+        }
+        return null;
     }
 
     @Override
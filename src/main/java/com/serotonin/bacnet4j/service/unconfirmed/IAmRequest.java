@@ -59,6 +59,11 @@ public class IAmRequest extends UnconfirmedRequestService {
      */
     private boolean isResponseToWhoIs;
 
+    /**
+     * The encoding of the request, which is cached since the I-Am of a local device may be sent many times.
+     */
+    private volatile byte[] encoded;
+
     public IAmRequest(ObjectIdentifier iamDeviceIdentifier, UnsignedInteger maxAPDULengthAccepted,
             Segmentation segmentationSupported, Unsigned16 vendorId) {
         this.iAmDeviceIdentifier = iamDeviceIdentifier;
@@ -102,6 +107,13 @@ public class IAmRequest extends UnconfirmedRequestService {
             localDevice.notifySameDeviceIdCallback(from);
         }
 
+        if (localDevice.getIAmIngester() != null) {
+            // Leave the rest of the work to the ingester, outside the transport thread.
+            localDevice.getIAmIngester().iAmReceived(localDevice, remoteDoi, from, maxAPDULengthAccepted,
+                    segmentationSupported, vendorId);
+            return;
+        }
+
         localDevice.updateRemoteDevice(remoteDoi, from);
 
         var rd = localDevice.getCachedRemoteDevice(remoteDoi);
@@ -117,10 +129,17 @@ public class IAmRequest extends UnconfirmedRequestService {
 
     @Override
     public void write(ByteQueue queue) {
-        write(queue, iAmDeviceIdentifier);
-        write(queue, maxAPDULengthAccepted);
-        write(queue, segmentationSupported);
-        write(queue, vendorId);
+        byte[] data = encoded;
+        if (data == null) {
+            ByteQueue encoding = new ByteQueue();
+            write(encoding, iAmDeviceIdentifier);
+            write(encoding, maxAPDULengthAccepted);
+            write(encoding, segmentationSupported);
+            write(encoding, vendorId);
+            data = encoding.popAll();
+            encoded = data;
+        }
+        queue.push(data);
     }
 
     public IAmRequest(ByteQueue queue) throws BACnetException {
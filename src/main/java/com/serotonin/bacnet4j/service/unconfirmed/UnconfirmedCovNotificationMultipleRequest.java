@@ -29,12 +29,12 @@ package com.serotonin.bacnet4j.service.unconfirmed;
 
 import com.serotonin.bacnet4j.LocalDevice;
 import com.serotonin.bacnet4j.exception.BACnetException;
-import com.serotonin.bacnet4j.exception.NotImplementedException;
 import com.serotonin.bacnet4j.type.Encodable;
 import com.serotonin.bacnet4j.type.ThreadLocalObjectTypeStack;
 import com.serotonin.bacnet4j.type.constructed.Address;
 import com.serotonin.bacnet4j.type.constructed.BaseType;
 import com.serotonin.bacnet4j.type.constructed.DateTime;
+import com.serotonin.bacnet4j.type.constructed.PropertyValue;
 import com.serotonin.bacnet4j.type.constructed.SequenceOf;
 import com.serotonin.bacnet4j.type.enumerated.PropertyIdentifier;
 import com.serotonin.bacnet4j.type.primitive.ObjectIdentifier;
@@ -69,10 +69,16 @@ public class UnconfirmedCovNotificationMultipleRequest extends UnconfirmedReques
 
     @Override
     public void handle(final LocalDevice localDevice, final Address from) throws BACnetException {
-        throw new NotImplementedException();
-        //        localDevice.updateRemoteDevice(initiatingDeviceIdentifier.getInstanceNumber(), from);
-        //        localDevice.getEventHandler().fireCovNotification(subscriberProcessIdentifier, initiatingDeviceIdentifier,
-        //                monitoredObjectIdentifier, timeRemaining, listOfValues);
+        localDevice.updateRemoteDevice(initiatingDeviceIdentifier.getInstanceNumber(), from);
+        // Listeners are notified of each object's values as by a COV notification of its own.
+        for (final CovNotification notification : listOfCovNotifications) {
+            final SequenceOf<PropertyValue> listOfValues = new SequenceOf<>();
+            for (final CovNotification.CovNotificationValue value : notification.getListOfValues())
+                listOfValues.add(new PropertyValue(value.getPropertyIdentifier(), value.getPropertyArrayIndex(),
+                        value.getPropertyValue(), null));
+            localDevice.getEventHandler().fireCovNotification(subscriberProcessIdentifier, initiatingDeviceIdentifier,
+                    notification.getMonitoredObjectIdentifier(), timeRemaining, listOfValues);
+        }
     }
 
     @Override
@@ -99,4 +99,14 @@ public abstract class UnconfirmedRequestService extends Service {
     }
 
     public abstract void handle(LocalDevice localDevice, Address from) throws BACnetException;
+
+    /**
+     * Handles the request, knowing whether it was received as a broadcast. Services whose response depends on this
+     * override this method. The default ignores it.
+     *
+     * @param broadcast whether the request was received as a broadcast at either the network or data link layer.
+     */
+    public void handle(LocalDevice localDevice, Address from, boolean broadcast) throws BACnetException {
+        handle(localDevice, from);
+    }
 }
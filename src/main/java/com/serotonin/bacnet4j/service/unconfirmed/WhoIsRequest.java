@@ -69,6 +69,11 @@ public class WhoIsRequest extends UnconfirmedRequestService {
 
     @Override
     public void handle(LocalDevice localDevice, Address from) throws BACnetException {
+        handle(localDevice, from, true);
+    }
+
+    @Override
+    public void handle(LocalDevice localDevice, Address from, boolean broadcast) throws BACnetException {
         int instanceId = localDevice.getInstanceNumber();
 
         // Check if we're in the device id range.
@@ -90,6 +95,9 @@ public class WhoIsRequest extends UnconfirmedRequestService {
                 LOG.warn("Not configured to send WhoAmI: vendorId={}, modelName={}, serialNumber={}",
                         vendorId, modelName, serialNumber);
             }
+        } else if (localDevice.getIAmResponder() != null) {
+            // The responder coalesces requests and sends the response later.
+            localDevice.getIAmResponder().whoIsReceived(localDevice, from, broadcast);
         } else {
             // Return the result in an iAm message.
             IAmRequest iam = localDevice.getIAm().withIsResponseToWhoIs(true);
@@ -27,12 +27,17 @@
 
 package com.serotonin.bacnet4j.transport;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -87,7 +92,29 @@ public class DefaultTransport implements Transport, Runnable {
     static final Logger LOG = LoggerFactory.getLogger(DefaultTransport.class);
     static final MaxSegments MAX_SEGMENTS = MaxSegments.MORE_THAN_64;
 
+    /**
+     * What to do with an incoming NPDU when the incoming queue is full.
+     */
+    public enum IncomingDropPolicy {
+        /**
+         * Discard the NPDU that just arrived. This favours requests that have already been waiting.
+         */
+        DROP_NEWEST,
+        /**
+         * Discard the NPDU at the head of the queue to make room. This favours fresh traffic, since requests that
+         * have waited a long time may already have timed out at their sender.
+         */
+        DROP_OLDEST
+    }
+
+    public static final int DEFAULT_ROUTER_DISCOVERY_TIMEOUT = 5000;
+    public static final int DEFAULT_ROUTER_DISCOVERY_INTERVAL = 1000;
+    public static final int DEFAULT_MAX_PENDING_PER_NETWORK = 100;
+
     final Map<Integer, OctetString> networkRouters = new ConcurrentHashMap<>();
+    // The last time each learned router was heard from. Routers added with addNetworkRouter are not in here, and so
+    // never age.
+    private final Map<Integer, Long> networkRouterLastSeen = new ConcurrentHashMap<>();
 
     // Configuration
     private LocalDevice localDevice;
@@ -97,18 +124,39 @@ public class DefaultTransport implements Transport, Runnable {
     int segTimeout = DEFAULT_SEG_TIMEOUT;
     int segWindow = DEFAULT_SEG_WINDOW;
     ServicesSupported servicesSupported;
+    private volatile long routerMaxAge = 0;
+    private volatile int routerDiscoveryTimeout = DEFAULT_ROUTER_DISCOVERY_TIMEOUT;
+    private volatile int routerDiscoveryInterval = DEFAULT_ROUTER_DISCOVERY_INTERVAL;
+    private volatile int maxPendingPerNetwork = DEFAULT_MAX_PENDING_PER_NETWORK;
 
     // Message queues
     private final Queue<Outgoing> outgoing = new ConcurrentLinkedQueue<>();
     private final Queue<NPDU> incoming = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger incomingSize = new AtomicInteger();
+    private final LongAdder incomingDropped = new LongAdder();
+    private volatile int incomingCapacity = 0;
+    private volatile IncomingDropPolicy incomingDropPolicy = IncomingDropPolicy.DROP_NEWEST;
     private final Queue<DelayedOutgoing> delayedOutgoing = new ConcurrentLinkedQueue<>();
+    // Messages waiting for a router to their network to be discovered. Only accessed by the transport thread.
+    private final Map<Integer, PendingRoute> pendingRoutes = new HashMap<>();
+    private final AtomicInteger pendingRouteCount = new AtomicInteger();
 
     // Processing
     final UnackedMessages unackedMessages = new UnackedMessages();
     private Thread thread;
+    // The thread that is processing, if any: the transport's own thread, or one of the group's.
+    private volatile Thread processingThread;
     private volatile boolean running = true;
     private final Object runLock = new Object();
     private final Object pauseLock = new Object();
+    private TransportGroup group;
+    // Whether a slice of processing is queued or running in the group. Notified when a slice ends.
+    private final AtomicBoolean sliceScheduled = new AtomicBoolean();
+    // Whether there are timeouts or retries that the group's sweep should have processed. Set at the end of a slice.
+    private volatile boolean sweepDue;
+    // Processing in a group is done in slices of at most this many steps, so that one busy transport does not hold a
+    // thread that the others need.
+    static final int SLICE_STEPS = 64;
 
     public DefaultTransport(Network network) {
         this.network = network;
@@ -188,6 +236,18 @@ public class DefaultTransport implements Transport, Runnable {
         this.localDevice = localDevice;
     }
 
+    /**
+     * Has the transport processed by the threads of a group rather than by a thread of its own. Must be set before
+     * the transport is initialized.
+     */
+    public void setTransportGroup(TransportGroup group) {
+        this.group = group;
+    }
+
+    public TransportGroup getTransportGroup() {
+        return group;
+    }
+
     @Override
     public void initialize() throws BACnetException {
         servicesSupported = localDevice.getServicesSupported();
@@ -196,8 +256,12 @@ public class DefaultTransport implements Transport, Runnable {
             running = true;
         }
         network.initialize(this);
-        thread = new Thread(this, "BACnet4J transport for device " + localDevice.getInstanceNumber());
-        thread.start();
+        if (group == null) {
+            thread = new Thread(this, "BACnet4J transport for device " + localDevice.getInstanceNumber());
+            thread.start();
+        } else {
+            group.add(this);
+        }
 
         // Send a WhoIsRouter message.
         LOG.debug("Broadcasting WhoIsRouter to local network");
@@ -214,6 +278,14 @@ public class DefaultTransport implements Transport, Runnable {
         ThreadUtils.notifySync(pauseLock);
         if (thread != null)
             ThreadUtils.join(thread);
+        if (group != null) {
+            group.remove(this);
+            // Let a slice that is under way finish, unless this is it.
+            synchronized (sliceScheduled) {
+                while (sliceScheduled.get() && processingThread != Thread.currentThread())
+                    ThreadUtils.wait(sliceScheduled);
+            }
+        }
 
         // Cancel any queued outgoing messages.
         for (Outgoing og : outgoing) {
@@ -222,6 +294,17 @@ public class DefaultTransport implements Transport, Runnable {
             }
         }
 
+        // Cancel any messages waiting for a router.
+        for (PendingRoute pending : pendingRoutes.values()) {
+            for (Outgoing og : pending.queue) {
+                if (og instanceof OutgoingConfirmed ogc && ogc.consumer != null) {
+                    ogc.consumer.ex(new BACnetException("Outgoing cancelled due to transport shutdown"));
+                }
+            }
+        }
+        pendingRoutes.clear();
+        pendingRouteCount.set(0);
+
         // cancel any delayed outgoing messages.
         for (DelayedOutgoing delayed : delayedOutgoing) {
             if (delayed.outgoing instanceof OutgoingConfirmed ogc && ogc.consumer != null) {
@@ -257,6 +340,77 @@ public class DefaultTransport implements Transport, Runnable {
     @Override
     public void addNetworkRouter(int networkNumber, OctetString mac) {
         networkRouters.put(networkNumber, mac);
+        networkRouterLastSeen.remove(networkNumber);
+    }
+
+    @Override
+    public void networkRouterSeen(int networkNumber, OctetString mac) {
+        OctetString existing = networkRouters.putIfAbsent(networkNumber, mac);
+        if (existing == null)
+            LOG.debug("Network router {} to {} was not known. Added to the list", mac, networkNumber);
+        if (existing == null || (existing.equals(mac) && networkRouterLastSeen.containsKey(networkNumber)))
+            networkRouterLastSeen.put(networkNumber, localDevice.getClock().millis());
+    }
+
+    /**
+     * @return whether the router to the network was configured with {@link #addNetworkRouter}, rather than learned.
+     */
+    private boolean isConfiguredRouter(int networkNumber) {
+        return networkRouters.containsKey(networkNumber) && !networkRouterLastSeen.containsKey(networkNumber);
+    }
+
+    /**
+     * Routers that are learned from I-Am-Router-To-Network messages or from received traffic are forgotten if they
+     * are not heard from again within the given time, after which the next message to that network will cause the
+     * router to be rediscovered. Routers configured with {@link #addNetworkRouter} never age. By default, routers do
+     * not age.
+     *
+     * @param routerMaxAge the maximum age in milliseconds, or 0 to disable aging.
+     */
+    public void setRouterMaxAge(long routerMaxAge) {
+        this.routerMaxAge = routerMaxAge;
+    }
+
+    public long getRouterMaxAge() {
+        return routerMaxAge;
+    }
+
+    /**
+     * Configures what happens when a message is sent to a remote network for which no router is known. The message is
+     * held while a Who-Is-Router-To-Network is broadcast for the network, and is sent as soon as a router answers. If
+     * none answers within the timeout, the message fails as it would have without discovery.
+     *
+     * @param timeout              the time in milliseconds to wait for a router, or 0 to fail such messages
+     *                             immediately.
+     * @param interval             the minimum time in milliseconds between Who-Is-Router-To-Network requests for the
+     *                             same network.
+     * @param maxPendingPerNetwork the maximum number of messages held per network. Further messages fail immediately.
+     */
+    public void setRouterDiscovery(int timeout, int interval, int maxPendingPerNetwork) {
+        if (timeout < 0 || interval < 0 || maxPendingPerNetwork < 1)
+            throw new IllegalArgumentException("Invalid router discovery configuration");
+        this.routerDiscoveryTimeout = timeout;
+        this.routerDiscoveryInterval = interval;
+        this.maxPendingPerNetwork = maxPendingPerNetwork;
+    }
+
+    public int getRouterDiscoveryTimeout() {
+        return routerDiscoveryTimeout;
+    }
+
+    public int getRouterDiscoveryInterval() {
+        return routerDiscoveryInterval;
+    }
+
+    public int getMaxPendingPerNetwork() {
+        return maxPendingPerNetwork;
+    }
+
+    /**
+     * @return the number of outgoing messages waiting for a router to be discovered.
+     */
+    public int getPendingRouteCount() {
+        return pendingRouteCount.get();
     }
 
     @Override
@@ -268,6 +422,37 @@ public class DefaultTransport implements Transport, Runnable {
         return delayedOutgoing.size();
     }
 
+    /**
+     * Bounds the queue of received NPDUs waiting to be processed by the transport thread. By default, the queue is
+     * unbounded.
+     *
+     * @param capacity   the maximum number of queued NPDUs, or 0 for no limit.
+     * @param dropPolicy which NPDU to discard when the queue is full.
+     */
+    public void setIncomingQueueLimit(int capacity, IncomingDropPolicy dropPolicy) {
+        if (capacity < 0)
+            throw new IllegalArgumentException("capacity cannot be negative");
+        if (dropPolicy == null)
+            throw new IllegalArgumentException("dropPolicy cannot be null");
+        this.incomingCapacity = capacity;
+        this.incomingDropPolicy = dropPolicy;
+    }
+
+    public int getIncomingQueueCapacity() {
+        return incomingCapacity;
+    }
+
+    public int getIncomingCount() {
+        return incomingSize.get();
+    }
+
+    /**
+     * @return the number of received NPDUs that were discarded because the incoming queue was full.
+     */
+    public long getIncomingDroppedCount() {
+        return incomingDropped.sum();
+    }
+
     //
     //
     // Adding new requests and responses.
@@ -294,7 +479,7 @@ public class DefaultTransport implements Transport, Runnable {
                 }
             }
 
-            ThreadUtils.notifySync(pauseLock);
+            wake();
         }
     }
 
@@ -307,9 +492,13 @@ public class DefaultTransport implements Transport, Runnable {
     @Override
     public ServiceFuture send(Address address, int maxAPDULengthAccepted, Segmentation segmentationSupported,
             Integer maxSegmentsAccepted, ConfirmedRequestService service) {
-        if (Thread.currentThread() == thread)
+        if (Thread.currentThread() == processingThread)
             throw new IllegalStateException("Cannot send future request in the transport thread. Use a callback " //
                     + "call instead, or make this call in a new thread.");
+        TransportGroup g = group;
+        if (g != null && g.isGroupThread(Thread.currentThread()))
+            throw new IllegalStateException("Cannot send future request in a thread of the transport group. Use a " //
+                    + "callback call instead, or make this call in a new thread.");
         ServiceFutureImpl future = new ServiceFutureImpl();
         send(address, maxAPDULengthAccepted, segmentationSupported, maxSegmentsAccepted, service, future);
         return future;
@@ -359,7 +548,7 @@ public class DefaultTransport implements Transport, Runnable {
                 if (consumer != null) {
                     consumer.queued();
                 }
-                ThreadUtils.notifySync(pauseLock);
+                wake();
             } else {
                 LOG.debug("Transport is not running, will not queue outgoing {}", out);
                 if (consumer != null) {
@@ -375,8 +564,52 @@ public class DefaultTransport implements Transport, Runnable {
 
     @Override
     public void incoming(NPDU npdu) {
+        if (!reserveIncoming(npdu))
+            return;
         incoming.add(npdu);
-        ThreadUtils.notifySync(pauseLock);
+        wake();
+    }
+
+    /**
+     * Reserves a place in the incoming queue for the given message, so that the queue never exceeds its capacity
+     * however many network threads deliver at once.
+     *
+     * @return false if the message is to be dropped
+     */
+    private boolean reserveIncoming(NPDU npdu) {
+        int capacity = incomingCapacity;
+        if (capacity <= 0) {
+            incomingSize.incrementAndGet();
+            return true;
+        }
+        while (true) {
+            int size = incomingSize.get();
+            if (size < capacity) {
+                if (incomingSize.compareAndSet(size, size + 1))
+                    return true;
+            } else if (incomingDropPolicy == IncomingDropPolicy.DROP_NEWEST) {
+                incomingDropped.increment();
+                LOG.debug("Incoming queue is full, dropping {}", npdu);
+                return false;
+            } else {
+                // The place of the oldest message is taken over by this one, so the size does not change.
+                NPDU oldest = incoming.poll();
+                if (oldest != null) {
+                    incomingDropped.increment();
+                    LOG.debug("Incoming queue is full, dropping {}", oldest);
+                    return true;
+                }
+                // The places are reserved by messages that are still being added. Try again.
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    private NPDU pollIncoming() {
+        NPDU npdu = incoming.poll();
+        if (npdu != null)
+            incomingSize.decrementAndGet();
+        return npdu;
     }
 
     abstract class Outgoing {
@@ -397,8 +630,9 @@ public class DefaultTransport implements Transport, Runnable {
                 // Going to a specific remote network. Check if we know the router for it.
                 linkService = networkRouters.get(targetNetworkNumber);
                 if (linkService == null) {
-                    handleException(new BACnetException(
-                            "Unable to find router to network " + address.getNetworkNumber().intValue()));
+                    if (!queueForRouter(targetNetworkNumber, this))
+                        handleException(new BACnetException(
+                                "Unable to find router to network " + address.getNetworkNumber().intValue()));
                     return;
                 }
             }
@@ -541,6 +775,18 @@ public class DefaultTransport implements Transport, Runnable {
     }
 
 
+    static class PendingRoute {
+        final Deque<Outgoing> queue = new ArrayDeque<>();
+        final long created;
+        long lastWhoIsRouter;
+
+        PendingRoute(long created) {
+            this.created = created;
+            this.lastWhoIsRouter = created;
+        }
+    }
+
+
     class DelayedOutgoing {
         final Outgoing outgoing;
         final long retryTime;
@@ -563,65 +809,127 @@ public class DefaultTransport implements Transport, Runnable {
     //
     @Override
     public void run() {
+        processingThread = Thread.currentThread();
+        while (running) {
+            if (!step() && running)
+                ThreadUtils.waitSync(pauseLock, 50);
+        }
+    }
+
+    /**
+     * Signals that there is something to process.
+     */
+    private void wake() {
+        TransportGroup g = group;
+        if (g == null) {
+            ThreadUtils.notifySync(pauseLock);
+        } else if (running && sliceScheduled.compareAndSet(false, true)) {
+            if (!g.execute(this::runSlice))
+                sliceScheduled.set(false);
+        }
+    }
+
+    private void runSlice() {
+        processingThread = Thread.currentThread();
+        try {
+            for (int i = 0; i < SLICE_STEPS && running; i++) {
+                if (!step())
+                    break;
+            }
+        } catch (RuntimeException e) {
+            LOG.error("Error during processing", e);
+        } finally {
+            sweepDue = hasTimedWork();
+            processingThread = null;
+            synchronized (sliceScheduled) {
+                sliceScheduled.set(false);
+                sliceScheduled.notifyAll();
+            }
+        }
+        // Anything that arrived after the last step, or that the slice had no room for.
+        if (!outgoing.isEmpty() || incomingSize.get() > 0)
+            wake();
+    }
+
+    /**
+     * Called by the group periodically, in place of the timed wait of a transport's own thread, to have timeouts and
+     * retries processed. Whether there are any was determined by the last slice, since the state it depends on
+     * belongs to the thread that is processing.
+     */
+    void sweep() {
+        if (sweepDue)
+            wake();
+    }
+
+    private boolean hasTimedWork() {
+        return !unackedMessages.getRequests().isEmpty() || !delayedOutgoing.isEmpty() || pendingRouteCount.get() > 0
+                || routerMaxAge > 0 && !networkRouterLastSeen.isEmpty();
+    }
+
+    /**
+     * Makes one pass of the processing loop.
+     *
+     * @return true if there was anything to do, in which case there may be more.
+     */
+    private boolean step() {
         Outgoing out;
         NPDU in;
-        boolean pause;
+        boolean pause = true;
 
-        while (running) {
-            pause = true;
-
-            // Send an outgoing message.
-            out = outgoing.poll();
-            if (out != null) {
-                try {
-                    out.send();
-                } catch (Exception e) {
-                    LOG.error("Error during send: {}", out, e);
-                    out.handleException(new BACnetException("Error during send", e));
-                }
-                pause = false;
+        // Send an outgoing message.
+        out = outgoing.poll();
+        if (out != null) {
+            try {
+                out.send();
+            } catch (Exception e) {
+                LOG.error("Error during send: {}", out, e);
+                out.handleException(new BACnetException("Error during send", e));
             }
+            pause = false;
+        }
 
-            // Receive an incoming message.
-            in = incoming.poll();
-            if (in != null) {
-                try {
-                    receiveImpl(in);
-                } catch (Exception e) {
-                    LOG.error("Error during receive: {}", in, e);
-                }
-                pause = false;
+        // Receive an incoming message.
+        in = pollIncoming();
+        if (in != null) {
+            try {
+                receiveImpl(in);
+            } catch (Exception e) {
+                LOG.error("Error during receive: {}", in, e);
             }
-
-            // Find delayed outgoings to retry.
-            if (!delayedOutgoing.isEmpty()) {
-                Iterator<DelayedOutgoing> iter = delayedOutgoing.iterator();
-                while (iter.hasNext()) {
-                    DelayedOutgoing delayedOutgoingItem = iter.next();
-                    if (delayedOutgoingItem.isReady()) {
-                        iter.remove();
-                        outgoing.add(delayedOutgoingItem.outgoing);
-                        LOG.info("Retrying delayed outgoing {}", delayedOutgoingItem.outgoing);
-                        pause = false;
-                    } else {
-                        // No other entries in the list should be ready either
-                        // since they were added chronologically.
-                        break;
-                    }
+            pause = false;
+        }
+
+        // Release or expire messages waiting for a router.
+        if (!pendingRoutes.isEmpty() && checkPendingRoutes())
+            pause = false;
+
+        // Find delayed outgoings to retry.
+        if (!delayedOutgoing.isEmpty()) {
+            Iterator<DelayedOutgoing> iter = delayedOutgoing.iterator();
+            while (iter.hasNext()) {
+                DelayedOutgoing delayedOutgoingItem = iter.next();
+                if (delayedOutgoingItem.isReady()) {
+                    iter.remove();
+                    outgoing.add(delayedOutgoingItem.outgoing);
+                    LOG.info("Retrying delayed outgoing {}", delayedOutgoingItem.outgoing);
+                    pause = false;
+                } else {
+                    // No other entries in the list should be ready either
+                    // since they were added chronologically.
+                    break;
                 }
             }
+        }
 
-            if (pause && running) {
-                try {
-                    pause = expire();
-                } catch (Exception e) {
-                    LOG.error("Error during expire messages: ", e);
-                }
+        if (pause && running) {
+            try {
+                pause = expire();
+            } catch (Exception e) {
+                LOG.error("Error during expire messages: ", e);
             }
-
-            if (pause && running)
-                ThreadUtils.waitSync(pauseLock, 50);
         }
+
+        return !pause;
     }
 
     private void receiveImpl(NPDU in) {
@@ -629,10 +937,18 @@ public class DefaultTransport implements Transport, Runnable {
             switch (in.getNetworkMessageType()) {
                 case 0x1, 0x2: // I-Am-Router-To-Network, I-Could-Be-Router-To-Network
                     ByteQueue data = in.getNetworkMessageData();
+                    long now = localDevice.getClock().millis();
                     while (data.size() > 1) {
                         int nn = data.popU2B();
-                        LOG.debug("Adding network router {} for network {}", in.getFrom().getMacAddress(), nn);
-                        networkRouters.put(nn, in.getFrom().getMacAddress());
+                        if (isConfiguredRouter(nn)) {
+                            // Configured routers are neither replaced nor aged.
+                            LOG.debug("Keeping the configured network router for network {}", nn);
+                        } else {
+                            LOG.debug("Adding network router {} for network {}", in.getFrom().getMacAddress(), nn);
+                            networkRouters.put(nn, in.getFrom().getMacAddress());
+                            networkRouterLastSeen.put(nn, now);
+                        }
+                        releasePendingRoute(nn);
                     }
                     break;
                 case 0x3: // Reject-Message-To-Network
@@ -700,7 +1016,7 @@ public class DefaultTransport implements Transport, Runnable {
                     LOG.debug("Unconfigured device dropping unconfirmed choice {}", service.getClass());
                 } else {
                     localDevice.getEventHandler().requestReceived(from, service);
-                    ur.getService().handle(localDevice, from);
+                    ur.getService().handle(localDevice, from, npdu.isBroadcast());
                 }
             } catch (@SuppressWarnings("unused") BACnetRejectException e) {
                 // Ignore
@@ -1423,10 +1739,106 @@ public class DefaultTransport implements Transport, Runnable {
         }
     }
 
+    /**
+     * Holds a message to a network with no known router, and broadcasts a Who-Is-Router-To-Network for it unless one
+     * was sent recently.
+     *
+     * @return false if the message could not be held and should fail.
+     */
+    private boolean queueForRouter(int networkNumber, Outgoing out) {
+        if (routerDiscoveryTimeout <= 0)
+            return false;
+
+        long now = localDevice.getClock().millis();
+        PendingRoute pending = pendingRoutes.get(networkNumber);
+        if (pending == null) {
+            pending = new PendingRoute(now);
+            pendingRoutes.put(networkNumber, pending);
+            sendWhoIsRouterToNetwork(networkNumber);
+        } else if (pending.queue.size() >= maxPendingPerNetwork) {
+            return false;
+        }
+
+        LOG.debug("Holding {} until a router to network {} is found", out, networkNumber);
+        pending.queue.add(out);
+        pendingRouteCount.incrementAndGet();
+        return true;
+    }
+
+    private void sendWhoIsRouterToNetwork(int networkNumber) {
+        LOG.debug("Broadcasting WhoIsRouter for network {}", networkNumber);
+        try {
+            network.sendNetworkMessage(getLocalBroadcastAddress(), null, 0,
+                    new byte[] {(byte) (networkNumber >> 8), (byte) networkNumber}, true, false);
+        } catch (BACnetException e) {
+            LOG.warn("Failed to send WhoIsRouter for network {}", networkNumber, e);
+        }
+    }
+
+    /**
+     * Moves messages that were waiting for a router to the given network back into the outgoing queue.
+     */
+    private void releasePendingRoute(int networkNumber) {
+        PendingRoute pending = pendingRoutes.remove(networkNumber);
+        if (pending != null) {
+            LOG.debug("Router to network {} found, releasing {} held messages", networkNumber, pending.queue.size());
+            pendingRouteCount.addAndGet(-pending.queue.size());
+            outgoing.addAll(pending.queue);
+        }
+    }
+
+    private boolean checkPendingRoutes() {
+        boolean didSomething = false;
+        long now = localDevice.getClock().millis();
+
+        Iterator<Map.Entry<Integer, PendingRoute>> iter = pendingRoutes.entrySet().iterator();
+        while (iter.hasNext()) {
+            Map.Entry<Integer, PendingRoute> e = iter.next();
+            int nn = e.getKey();
+            PendingRoute pending = e.getValue();
+
+            if (networkRouters.containsKey(nn)) {
+                // Learned from received traffic rather than an I-Am-Router-To-Network.
+                iter.remove();
+                pendingRouteCount.addAndGet(-pending.queue.size());
+                outgoing.addAll(pending.queue);
+                didSomething = true;
+            } else if (now - pending.created >= routerDiscoveryTimeout) {
+                iter.remove();
+                pendingRouteCount.addAndGet(-pending.queue.size());
+                for (Outgoing out : pending.queue)
+                    out.handleException(new BACnetException("Unable to find router to network " + nn));
+                didSomething = true;
+            } else if (now - pending.lastWhoIsRouter >= routerDiscoveryInterval) {
+                pending.lastWhoIsRouter = now;
+                sendWhoIsRouterToNetwork(nn);
+            }
+        }
+
+        return didSomething;
+    }
+
+    private void ageNetworkRouters(long now) {
+        long maxAge = routerMaxAge;
+        if (maxAge <= 0)
+            return;
+
+        Iterator<Map.Entry<Integer, Long>> iter = networkRouterLastSeen.entrySet().iterator();
+        while (iter.hasNext()) {
+            Map.Entry<Integer, Long> e = iter.next();
+            if (now - e.getValue() > maxAge) {
+                LOG.debug("Router to network {} has not been heard from and is being forgotten", e.getKey());
+                iter.remove();
+                networkRouters.remove(e.getKey());
+            }
+        }
+    }
+
     private boolean expire() {
         boolean didSomething = false;
 
         long now = localDevice.getClock().millis();
+        ageNetworkRouters(now);
         Iterator<Map.Entry<UnackedMessageKey, UnackedMessageContext>> umIter = unackedMessages.getRequests()
                 .entrySet().iterator();
 
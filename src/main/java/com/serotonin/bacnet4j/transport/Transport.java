@@ -89,6 +89,15 @@ public interface Transport {
 
     Map<Integer, OctetString> getNetworkRouters();
 
+    /**
+     * Called by the network when a message is received through a router. Unlike {@link #addNetworkRouter}, which
+     * configures a router permanently, a router learned this way may be aged out if it is not heard from again.
+     */
+    default void networkRouterSeen(int networkNumber, OctetString mac) {
+        if (!getNetworkRouters().containsKey(networkNumber))
+            addNetworkRouter(networkNumber, mac);
+    }
+
     void send(Address address, UnconfirmedRequestService service);
 
     ServiceFuture send(Address address, int maxAPDULengthAccepted, Segmentation segmentationSupported,
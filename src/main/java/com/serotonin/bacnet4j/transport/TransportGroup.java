@@ -0,0 +1,151 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2025 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+package com.serotonin.bacnet4j.transport;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A fixed set of threads that process any number of {@link DefaultTransport}s, for hosting more devices than could
+ * have a thread each. A transport in a group is processed in slices, when it has messages to process or timeouts to
+ * check, and never by more than one thread at a time.
+ * <pre>
+ * TransportGroup group = new TransportGroup(4);
+ * DefaultTransport transport = new DefaultTransport(network);
+ * transport.setTransportGroup(group);
+ * ...
+ * group.shutdown();
+ * </pre>
+ * Shut the group down after the transports in it have been terminated.
+ * <p>
+ * The threads of the group are shared by all of its transports, so a listener or service handler that is called in
+ * one must not block waiting on a response from any transport of the group, not only its own. If every thread did
+ * that, none would be left to process the responses. Sending a request with a future from a group thread is
+ * therefore rejected; use a callback instead.
+ */
+public class TransportGroup {
+    static final Logger LOG = LoggerFactory.getLogger(TransportGroup.class);
+
+    // The same as the timed wait of a transport's own thread.
+    static final long SWEEP_PERIOD = 50;
+
+    private final ScheduledThreadPoolExecutor executor;
+    private final Set<DefaultTransport> transports = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Creates a group with a thread per available processor.
+     */
+    public TransportGroup() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public TransportGroup(int threads) {
+        if (threads < 1)
+            throw new IllegalArgumentException("threads must be positive");
+        AtomicInteger count = new AtomicInteger();
+        executor = new ScheduledThreadPoolExecutor(threads, r -> {
+            Thread thread = new GroupThread(this, r, "BACnet4J transport group " + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::sweep, SWEEP_PERIOD, SWEEP_PERIOD, TimeUnit.MILLISECONDS);
+    }
+
+    void add(DefaultTransport transport) {
+        transports.add(transport);
+    }
+
+    void remove(DefaultTransport transport) {
+        transports.remove(transport);
+    }
+
+    /**
+     * @return false if the group has been shut down.
+     */
+    boolean execute(Runnable slice) {
+        try {
+            executor.execute(slice);
+            return true;
+        } catch (RejectedExecutionException e) {
+            LOG.debug("Transport group is shut down", e);
+            return false;
+        }
+    }
+
+    /**
+     * @return the number of transports in the group.
+     */
+    public int size() {
+        return transports.size();
+    }
+
+    public int getThreadCount() {
+        return executor.getCorePoolSize();
+    }
+
+    /**
+     * @return whether the thread is one of this group's.
+     */
+    public boolean isGroupThread(Thread thread) {
+        return thread instanceof GroupThread gt && gt.group == this;
+    }
+
+    private void sweep() {
+        for (DefaultTransport transport : transports)
+            transport.sweep();
+    }
+
+    private static class GroupThread extends Thread {
+        final TransportGroup group;
+
+        GroupThread(TransportGroup group, Runnable target, String name) {
+            super(target, name);
+            this.group = group;
+        }
+    }
+
+    public void shutdown() {
+        if (!transports.isEmpty())
+            LOG.warn("Shutting down a transport group that still has {} transports", transports.size());
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS))
+                LOG.warn("Transport group did not shut down within the timeout");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOG.warn("Interrupted while waiting for the transport group to shut down", e);
+        }
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2025 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+
+package com.serotonin.bacnet4j.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.serotonin.bacnet4j.LocalDevice;
+import com.serotonin.bacnet4j.RemoteDevice;
+import com.serotonin.bacnet4j.type.constructed.Address;
+import com.serotonin.bacnet4j.type.constructed.NetworkSourceAddress;
+import com.serotonin.bacnet4j.type.enumerated.PropertyIdentifier;
+import com.serotonin.bacnet4j.type.enumerated.Segmentation;
+import com.serotonin.bacnet4j.type.primitive.Unsigned16;
+import com.serotonin.bacnet4j.type.primitive.UnsignedInteger;
+
+/**
+ * Ingests received I-Am messages in batches. Without it, every I-Am is processed on the transport thread as it
+ * arrives, and submits its own task to notify the event listeners. After a global Who-Is on a large site that means
+ * tens of thousands of tiny tasks competing with the transport.
+ * <p>
+ * With an ingester installed, the transport thread only records the I-Am in a buffer. Repeated I-Ams from the same
+ * device within an interval are merged. Once per interval the buffer is flushed in the executor: the remote devices
+ * are created or updated, put into the remote device cache together, and the listeners are given the whole batch
+ * through {@link com.serotonin.bacnet4j.event.DeviceEventListener#iAmsReceived(List)}.
+ */
+public class IAmIngester {
+    static final Logger LOG = LoggerFactory.getLogger(IAmIngester.class);
+
+    private final long intervalMillis;
+    private final int maxBatchSize;
+
+    private final Object lock = new Object();
+    private Map<Integer, Received> buffer = new LinkedHashMap<>();
+    private ScheduledFuture<?> pending;
+    private boolean flushingNow;
+
+    private long receivedCount;
+    private long batchCount;
+
+    /**
+     * @param intervalMillis the time for which I-Ams are buffered before they are ingested.
+     * @param maxBatchSize   the number of distinct devices after which the buffer is ingested without waiting for the
+     *                       interval to end.
+     */
+    public IAmIngester(long intervalMillis, int maxBatchSize) {
+        if (intervalMillis < 0)
+            throw new IllegalArgumentException("intervalMillis cannot be negative");
+        if (maxBatchSize < 1)
+            throw new IllegalArgumentException("maxBatchSize must be at least 1");
+        this.intervalMillis = intervalMillis;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Called in the transport thread when an I-Am has been received.
+     */
+    public void iAmReceived(LocalDevice localDevice, int instanceNumber, Address from,
+            UnsignedInteger maxAPDULengthAccepted, Segmentation segmentationSupported, Unsigned16 vendorId) {
+        synchronized (lock) {
+            receivedCount++;
+            buffer.put(instanceNumber,
+                    new Received(from, maxAPDULengthAccepted, segmentationSupported, vendorId));
+
+            if (buffer.size() >= maxBatchSize) {
+                // Reschedule only once when the batch fills, not for every I-Am that arrives before the flush runs.
+                if (!flushingNow) {
+                    if (pending != null)
+                        pending.cancel(false);
+                    pending = localDevice.schedule(() -> flush(localDevice), 0, TimeUnit.MILLISECONDS);
+                    flushingNow = true;
+                }
+            } else if (pending == null) {
+                pending = localDevice.schedule(() -> flush(localDevice), intervalMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Ingests everything that is currently buffered.
+     */
+    public void flush(LocalDevice localDevice) {
+        Map<Integer, Received> batch;
+        synchronized (lock) {
+            batch = buffer;
+            buffer = new LinkedHashMap<>();
+            pending = null;
+            flushingNow = false;
+        }
+        if (batch.isEmpty())
+            return;
+
+        Map<Integer, RemoteDevice> existing = new LinkedHashMap<>();
+        Map<Integer, RemoteDevice> created = new LinkedHashMap<>();
+        batch.forEach((instanceNumber, received) -> {
+            RemoteDevice rd = localDevice.getCachedRemoteDevice(instanceNumber);
+            if (rd == null) {
+                // Set up completely before it becomes visible in the cache.
+                rd = new RemoteDevice(localDevice, instanceNumber, received.from);
+                received.applyTo(rd);
+                created.put(instanceNumber, rd);
+            } else {
+                existing.put(instanceNumber, rd);
+            }
+        });
+
+        // Another thread may have cached some of the devices since they were looked up. Its instances win.
+        Map<Integer, RemoteDevice> cached = localDevice.getRemoteDeviceCache().putEntitiesIfAbsent(created,
+                localDevice.getCachePolicies()::getDevicePolicy);
+        cached.forEach((instanceNumber, rd) -> {
+            if (rd != created.get(instanceNumber))
+                existing.put(instanceNumber, rd);
+        });
+
+        List<RemoteDevice> devices = new ArrayList<>(batch.size());
+        batch.forEach((instanceNumber, received) -> {
+            RemoteDevice rd = existing.get(instanceNumber);
+            if (rd == null) {
+                rd = created.get(instanceNumber);
+            } else {
+                // Same rule as LocalDevice.updateRemoteDevice: only trust addresses with source information.
+                if (received.from instanceof NetworkSourceAddress)
+                    rd.setAddress(received.from);
+                received.applyTo(rd);
+            }
+            devices.add(rd);
+        });
+
+        synchronized (lock) {
+            batchCount++;
+        }
+        LOG.debug("Ingested {} I-Ams, {} of them from new devices", devices.size(), devices.size() - existing.size());
+        localDevice.getEventHandler().fireIAmsReceived(devices);
+    }
+
+    /**
+     * Discards anything that is buffered and cancels the scheduled flush.
+     */
+    public void cancel() {
+        synchronized (lock) {
+            if (pending != null) {
+                pending.cancel(false);
+                pending = null;
+            }
+            buffer.clear();
+            flushingNow = false;
+        }
+    }
+
+    public long getIntervalMillis() {
+        return intervalMillis;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    /**
+     * @return the number of I-Ams that have been received.
+     */
+    public long getReceivedCount() {
+        synchronized (lock) {
+            return receivedCount;
+        }
+    }
+
+    /**
+     * @return the number of batches that have been delivered to the listeners.
+     */
+    public long getBatchCount() {
+        synchronized (lock) {
+            return batchCount;
+        }
+    }
+
+    static class Received {
+        final Address from;
+        final UnsignedInteger maxAPDULengthAccepted;
+        final Segmentation segmentationSupported;
+        final Unsigned16 vendorId;
+
+        Received(Address from, UnsignedInteger maxAPDULengthAccepted, Segmentation segmentationSupported,
+                Unsigned16 vendorId) {
+            this.from = from;
+            this.maxAPDULengthAccepted = maxAPDULengthAccepted;
+            this.segmentationSupported = segmentationSupported;
+            this.vendorId = vendorId;
+        }
+
+        void applyTo(RemoteDevice rd) {
+            rd.setDeviceProperty(PropertyIdentifier.maxApduLengthAccepted, maxAPDULengthAccepted);
+            rd.setDeviceProperty(PropertyIdentifier.segmentationSupported, segmentationSupported);
+            rd.setDeviceProperty(PropertyIdentifier.vendorIdentifier, vendorId);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2025 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+
+package com.serotonin.bacnet4j.util;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.serotonin.bacnet4j.LocalDevice;
+import com.serotonin.bacnet4j.service.unconfirmed.IAmRequest;
+import com.serotonin.bacnet4j.type.constructed.Address;
+
+/**
+ * Coalesces the I-Am responses of a local device to Who-Is requests. Without it, every matching Who-Is is answered
+ * immediately with a global broadcast, so that a burst of Who-Is requests from several workstations produces an equal
+ * burst of I-Ams from every device at the same instant.
+ * <p>
+ * With a responder installed, the first matching Who-Is schedules a response after a random jitter, and every Who-Is
+ * received until it is sent is merged into it. At most one response is sent per window. If any of the merged requests
+ * was received as a broadcast, the response is a single global broadcast. If all of them were directed to this
+ * device, the response is a unicast to each distinct requester instead.
+ * <p>
+ * The I-Am itself is reused between responses for as long as the device properties it carries do not change, and it
+ * caches its own encoding.
+ */
+public class IAmResponder {
+    static final Logger LOG = LoggerFactory.getLogger(IAmResponder.class);
+
+    private final long windowMillis;
+    private final long maxJitterMillis;
+
+    private final Object lock = new Object();
+    private boolean broadcastPending;
+    private final Set<Address> unicastPending = new LinkedHashSet<>();
+    private ScheduledFuture<?> pending;
+    private long lastSent = Long.MIN_VALUE;
+    private IAmRequest iAm;
+
+    private long responseCount;
+    private long requestCount;
+
+    /**
+     * @param windowMillis    the minimum time between two responses.
+     * @param maxJitterMillis the maximum random delay added before a response is sent.
+     */
+    public IAmResponder(long windowMillis, long maxJitterMillis) {
+        if (windowMillis < 0)
+            throw new IllegalArgumentException("windowMillis cannot be negative");
+        if (maxJitterMillis < 0)
+            throw new IllegalArgumentException("maxJitterMillis cannot be negative");
+        this.windowMillis = windowMillis;
+        this.maxJitterMillis = maxJitterMillis;
+    }
+
+    /**
+     * Called when a Who-Is that matches the local device has been received.
+     *
+     * @param localDevice the local device that is to respond.
+     * @param from        the address of the requester.
+     * @param broadcast   whether the request was received as a broadcast.
+     */
+    public void whoIsReceived(LocalDevice localDevice, Address from, boolean broadcast) {
+        synchronized (lock) {
+            requestCount++;
+            if (broadcast)
+                broadcastPending = true;
+            else
+                unicastPending.add(from);
+
+            if (pending == null) {
+                long now = localDevice.getClock().millis();
+                long delay = lastSent == Long.MIN_VALUE ? 0 : Math.max(0, lastSent + windowMillis - now);
+                if (maxJitterMillis > 0)
+                    delay += ThreadLocalRandom.current().nextLong(maxJitterMillis + 1);
+                pending = localDevice.schedule(() -> respond(localDevice), delay, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void respond(LocalDevice localDevice) {
+        boolean broadcast;
+        Address[] unicasts;
+        synchronized (lock) {
+            broadcast = broadcastPending;
+            unicasts = unicastPending.toArray(new Address[0]);
+            broadcastPending = false;
+            unicastPending.clear();
+            pending = null;
+            lastSent = localDevice.getClock().millis();
+        }
+
+        IAmRequest response = getIAm(localDevice);
+        if (broadcast) {
+            // A global broadcast also reaches any requester that asked directly.
+            LOG.debug("Responding to Who-Is with a global broadcast");
+            localDevice.sendGlobalBroadcast(response);
+            countResponses(1);
+        } else {
+            for (Address address : unicasts)
+                localDevice.send(address, response);
+            countResponses(unicasts.length);
+        }
+    }
+
+    private IAmRequest getIAm(LocalDevice localDevice) {
+        IAmRequest current = localDevice.getIAm().withIsResponseToWhoIs(true);
+        synchronized (lock) {
+            // Keep the previous instance if it is unchanged, so that its cached encoding is reused.
+            if (!current.equals(iAm))
+                iAm = current;
+            return iAm;
+        }
+    }
+
+    private void countResponses(int count) {
+        synchronized (lock) {
+            responseCount += count;
+        }
+    }
+
+    /**
+     * Cancels any pending response.
+     */
+    public void cancel() {
+        synchronized (lock) {
+            if (pending != null) {
+                pending.cancel(false);
+                pending = null;
+            }
+            broadcastPending = false;
+            unicastPending.clear();
+        }
+    }
+
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    public long getMaxJitterMillis() {
+        return maxJitterMillis;
+    }
+
+    /**
+     * @return the number of matching Who-Is requests that have been received.
+     */
+    public long getRequestCount() {
+        synchronized (lock) {
+            return requestCount;
+        }
+    }
+
+    /**
+     * @return the number of I-Am messages that have been sent in response.
+     */
+    public long getResponseCount() {
+        synchronized (lock) {
+            return responseCount;
+        }
+    }
+}
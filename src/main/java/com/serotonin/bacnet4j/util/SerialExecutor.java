@@ -0,0 +1,128 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2026 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+package com.serotonin.bacnet4j.util;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An executor that runs tasks strictly one at a time, in submission order, on a delegate executor. Used, for
+ * example, to serialize the events of the BACnet/SC state machines (node, hub connector, connections), and the
+ * sending of COV notifications: the delegate — the local device's executor — is a thread pool, which guarantees
+ * neither ordering nor mutual exclusion for tasks submitted to it directly.
+ * <p>
+ * A task submitted from within a running task is appended to the queue (breadth-first), it does not run
+ * inline. A task that throws does not prevent subsequent tasks from running.
+ * <p>
+ * Submission does not lock: tasks go into a lock-free queue, and a count of the unfinished tasks decides which
+ * submitter hands a drain to the delegate. The drain runs the queued tasks in batches, so a busy executor does not
+ * pay for a hand-off to the delegate per task, nor hold a pool thread indefinitely.
+ */
+public class SerialExecutor implements Executor {
+    static final Logger LOG = LoggerFactory.getLogger(SerialExecutor.class);
+
+    static final int BATCH_SIZE = 256;
+
+    private final Executor delegate;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    // Tasks submitted but not yet run. Incremented after a task is queued, so a positive count seen by the drain
+    // means that a task is there to be taken.
+    private final AtomicInteger pending = new AtomicInteger();
+    private volatile boolean stopped;
+
+    public SerialExecutor(Executor delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (stopped) {
+            LOG.debug("Dropping task submitted after stop");
+            return;
+        }
+        tasks.add(task);
+        if (pending.getAndIncrement() == 0) {
+            scheduleDrain();
+        }
+    }
+
+    /**
+     * Permanently stops this executor: queued tasks are discarded and subsequent submissions are dropped.
+     * A task already running is not interrupted; it completes normally. Used by hard termination, where
+     * queued events are stale by definition and must not act on the forcibly reset state machines.
+     */
+    public void stop() {
+        stopped = true;
+        tasks.clear();
+    }
+
+    private void scheduleDrain() {
+        try {
+            delegate.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            // The delegate has been shut down. Stop rather than wedge: with the drain lost, the pending count
+            // would never return to zero and every subsequent submission would be silently swallowed.
+            LOG.debug("Delegate rejected task; stopping serial executor", e);
+            stop();
+        }
+    }
+
+    private void drain() {
+        boolean more = true;
+        try {
+            for (int i = 0; more && i < BATCH_SIZE; i++) {
+                run(tasks.poll());
+                more = pending.decrementAndGet() > 0;
+            }
+        } finally {
+            // Also reached when a task throws an error, which leaves its count behind; the next drain then
+            // finds the queue empty once and evens it out.
+            if (more) {
+                scheduleDrain();
+            }
+        }
+    }
+
+    private void run(Runnable task) {
+        // The task is missing if stop() cleared the queue.
+        if (task == null || stopped) {
+            return;
+        }
+        try {
+            task.run();
+        } catch (Exception e) {
+            LOG.error("Error in serially executed task", e);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2025 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+package com.serotonin.bacnet4j;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.serotonin.bacnet4j.npdu.ip.IpNetwork;
+import com.serotonin.bacnet4j.npdu.ip.IpNetworkBuilder;
+import com.serotonin.bacnet4j.npdu.ip.IpNetworkUtils;
+import com.serotonin.bacnet4j.npdu.test.TestNetwork;
+import com.serotonin.bacnet4j.npdu.test.TestNetworkMap;
+import com.serotonin.bacnet4j.service.acknowledgement.ReadPropertyAck;
+import com.serotonin.bacnet4j.service.confirmed.ReadPropertyRequest;
+import com.serotonin.bacnet4j.transport.DefaultTransport;
+import com.serotonin.bacnet4j.type.constructed.Address;
+import com.serotonin.bacnet4j.type.enumerated.ObjectType;
+import com.serotonin.bacnet4j.type.enumerated.PropertyIdentifier;
+import com.serotonin.bacnet4j.type.primitive.ObjectIdentifier;
+
+public class BACnetRuntimeTest {
+    private final List<LocalDevice> devices = new ArrayList<>();
+    private BACnetRuntime runtime;
+
+    @After
+    public void after() {
+        for (LocalDevice device : devices) {
+            if (device.isInitialized())
+                device.terminate();
+        }
+        if (runtime != null)
+            runtime.terminate();
+    }
+
+    private static ReadPropertyRequest readName(int instanceNumber) {
+        return new ReadPropertyRequest(new ObjectIdentifier(ObjectType.device, instanceNumber),
+                PropertyIdentifier.objectName);
+    }
+
+    private static boolean threadExists(String namePrefix) {
+        return Thread.getAllStackTraces().keySet().stream().anyMatch(t -> t.getName().startsWith(namePrefix));
+    }
+
+    @Test
+    public void devicesShareTheRuntime() throws Exception {
+        runtime = new BACnetRuntime().withHandlerThreads(2).initialize();
+        TestNetworkMap map = new TestNetworkMap();
+        for (int i = 1; i <= 20; i++) {
+            devices.add(new LocalDevice(5000 + i, new DefaultTransport(new TestNetwork(map, i, 0)))
+                    .withRuntime(runtime).initialize());
+        }
+        assertEquals(20, runtime.getTransportGroup().size());
+        assertFalse(threadExists("BACnet4J transport for device 50"));
+        assertEquals(runtime.getClock(), devices.get(0).getClock());
+
+        ReadPropertyAck ack = devices.get(0).send(devices.get(0).getRemoteDeviceBlocking(5020), readName(5020)).get();
+        assertEquals(devices.get(19).get(PropertyIdentifier.objectName), ack.getValue());
+
+        // Terminating a device leaves the runtime to the others.
+        devices.get(19).terminate();
+        assertEquals(19, runtime.getTransportGroup().size());
+        ack = devices.get(1).send(devices.get(1).getRemoteDeviceBlocking(5001), readName(5001)).get();
+        assertEquals(devices.get(0).get(PropertyIdentifier.objectName), ack.getValue());
+        assertFalse(runtime.getExecutor().isShutdown());
+    }
+
+    @Test
+    public void ioEngineReceivesForIpNetworks() throws Exception {
+        runtime = new BACnetRuntime().withIoEngine(true).initialize();
+        for (int i = 1; i <= 2; i++) {
+            IpNetwork network = new IpNetworkBuilder().withLocalBindAddress("127.0.0.1").withPort(47900 + i)
+                    .withSubnet("127.0.0.0", 8).build();
+            devices.add(new LocalDevice(i, new DefaultTransport(network)).withRuntime(runtime).initialize());
+        }
+        assertFalse(threadExists("BACnet4J IP socket listener"));
+        assertTrue(runtime.getIoEngine().getChannelCount() >= 2);
+
+        // Loopback broadcasts are not dependable, so the device is addressed directly.
+        Address address = IpNetworkUtils.toAddress("127.0.0.1", 47902);
+        ReadPropertyAck ack = devices.get(0).send(address, readName(2)).get();
+        assertEquals(devices.get(1).get(PropertyIdentifier.objectName), ack.getValue());
+        assertTrue(devices.get(1).getBytesIn() > 0);
+    }
+
+    @Test
+    public void futureRequestsAreRejectedInGroupThreads() throws Exception {
+        runtime = new BACnetRuntime().initialize();
+        TestNetworkMap map = new TestNetworkMap();
+        for (int i = 1; i <= 3; i++) {
+            devices.add(new LocalDevice(5000 + i, new DefaultTransport(new TestNetwork(map, i, 0)))
+                    .withRuntime(runtime).initialize());
+        }
+        RemoteDevice rd2 = devices.get(0).getRemoteDeviceBlocking(5002);
+        RemoteDevice rd1 = devices.get(2).getRemoteDeviceBlocking(5001);
+
+        // The callback is called in a thread of the group. Waiting there on another transport of the group could
+        // deadlock it.
+        CompletableFuture<Throwable> result = new CompletableFuture<>();
+        devices.get(0).send(rd2, readName(5002), new ResponseConsumerAdapter<ReadPropertyAck>() {
+            @Override
+            public void ack(ReadPropertyAck ack) {
+                try {
+                    devices.get(2).send(rd1, readName(5001));
+                    result.complete(null);
+                } catch (Throwable t) {
+                    result.complete(t);
+                }
+            }
+        });
+        assertTrue(result.get(5, TimeUnit.SECONDS) instanceof IllegalStateException);
+    }
+
+    @Test
+    public void runtimeMustBeInitializedFirst() {
+        runtime = new BACnetRuntime();
+        LocalDevice device = new LocalDevice(1, new DefaultTransport(new TestNetwork(new TestNetworkMap(), 1, 0)))
+                .withRuntime(runtime);
+        assertThrows(IllegalStateException.class, device::initialize);
+    }
+}
@@ -38,6 +38,7 @@ import static org.junit.Assert.fail;
 
 import java.time.Clock;
 import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CancellationException;
@@ -64,7 +65,11 @@ import com.serotonin.bacnet4j.obj.AnalogInputObject;
 import com.serotonin.bacnet4j.obj.DeviceObject;
 import com.serotonin.bacnet4j.transport.DefaultTransport;
 import com.serotonin.bacnet4j.type.enumerated.EngineeringUnits;
+import com.serotonin.bacnet4j.type.enumerated.ErrorCode;
+import com.serotonin.bacnet4j.type.enumerated.ObjectType;
 import com.serotonin.bacnet4j.type.enumerated.PropertyIdentifier;
+import com.serotonin.bacnet4j.type.primitive.CharacterString;
+import com.serotonin.bacnet4j.type.primitive.ObjectIdentifier;
 import com.serotonin.bacnet4j.util.DiscoveryUtils;
 import com.serotonin.bacnet4j.util.RemoteDeviceDiscoverer;
 import com.serotonin.bacnet4j.util.RemoteDeviceFinder.RemoteDeviceFuture;
@@ -183,6 +188,51 @@ public class LocalDeviceTest {
         assertThrows(IllegalArgumentException.class, () -> ld.addObject(o));
     }
 
+    @Test
+    public void objectIndexes() throws Exception {
+        var ai0 = d1.addObject(new AnalogInputObject(d1, 0, "ai0", 0, EngineeringUnits.noUnits, false));
+        var ai1 = d1.addObject(new AnalogInputObject(d1, 1, "ai1", 0, EngineeringUnits.noUnits, false));
+        var ai3 = d1.addObject(new AnalogInputObject(d1, 3, "ai3", 0, EngineeringUnits.noUnits, false));
+
+        assertSame(ai1, d1.getObject(ai1.getId()));
+        assertSame(ai1, d1.getObject("ai1"));
+        assertEquals(2, d1.getNextInstanceObjectNumber(ObjectType.analogInput));
+        assertEquals(List.of(d1.getDeviceObject(), ai0, ai1, ai3), d1.getLocalObjects());
+
+        // Duplicates are refused.
+        var sameId = new AnalogInputObject(d1, 1, "other", 0, EngineeringUnits.noUnits, false);
+        assertEquals(ErrorCode.objectIdentifierAlreadyExists,
+                assertThrows(BACnetServiceException.class, () -> d1.addObject(sameId)).getErrorCode());
+        var sameName = new AnalogInputObject(d1, 2, "ai1", 0, EngineeringUnits.noUnits, false);
+        assertEquals(ErrorCode.duplicateName,
+                assertThrows(BACnetServiceException.class, () -> d1.addObject(sameName)).getErrorCode());
+
+        // Writes of the name and the identifier move the object in the indexes.
+        ai1.writePropertyInternal(PropertyIdentifier.objectName, new CharacterString("renamed"));
+        assertNull(d1.getObject("ai1"));
+        assertSame(ai1, d1.getObject("renamed"));
+        var newId = new ObjectIdentifier(ObjectType.analogInput, 2);
+        ai1.writePropertyInternal(PropertyIdentifier.objectIdentifier, newId);
+        assertNull(d1.getObject(new ObjectIdentifier(ObjectType.analogInput, 1)));
+        assertSame(ai1, d1.getObject(newId));
+        assertEquals(1, d1.getNextInstanceObjectNumber(ObjectType.analogInput));
+        assertEquals(List.of(d1.getDeviceObject(), ai0, ai1, ai3), d1.getLocalObjects());
+
+        d1.removeObject(ai0.getId());
+        assertNull(d1.getObject("ai0"));
+        assertEquals(0, d1.getNextInstanceObjectNumber(ObjectType.analogInput));
+        assertEquals(List.of(d1.getDeviceObject(), ai1, ai3), d1.getLocalObjects());
+        assertThrows(BACnetServiceException.class, () -> d1.removeObject(ai0.getId()));
+
+        // Instance numbers can be sparse.
+        var high = d1.addObject(new AnalogInputObject(d1, ObjectIdentifier.UNINITIALIZED - 1, "high", 0,
+                EngineeringUnits.noUnits, false));
+        assertSame(high, d1.getObject(high.getId()));
+        assertEquals(0, d1.getNextInstanceObjectNumber(ObjectType.analogInput));
+        d1.addObject(new AnalogInputObject(d1, 0, "ai0", 0, EngineeringUnits.noUnits, false));
+        assertEquals(1, d1.getNextInstanceObjectNumber(ObjectType.analogInput));
+    }
+
     @SuppressWarnings("unused")
     @Test
     public void getDeviceBlockingTimeout() throws Exception {
@@ -0,0 +1,123 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2025 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+
+package com.serotonin.bacnet4j.npdu;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.serotonin.bacnet4j.type.primitive.OctetString;
+
+public class IngressRateLimiterTest {
+    private static final int ORIGINAL_UNICAST = 0xa;
+    private static final int ORIGINAL_BROADCAST = 0xb;
+
+    private final OctetString source1 = new OctetString(new byte[] {1, 2, 3, 4, (byte) 0xba, (byte) 0xc0});
+    private final OctetString source2 = new OctetString(new byte[] {1, 2, 3, 5, (byte) 0xba, (byte) 0xc0});
+
+    @Test
+    public void tokenBucketRefills() {
+        TokenBucket bucket = new TokenBucket(10, 2, 0);
+        assertTrue(bucket.tryAcquire(0));
+        assertTrue(bucket.tryAcquire(0));
+        assertFalse(bucket.tryAcquire(0));
+
+        // 10 per second is one token every 100ms.
+        assertFalse(bucket.tryAcquire(99));
+        assertTrue(bucket.tryAcquire(100));
+        assertFalse(bucket.tryAcquire(100));
+
+        // Never more than the burst, no matter how long the bucket is idle.
+        assertTrue(bucket.isFull(10_000));
+        assertTrue(bucket.tryAcquire(10_000));
+        assertTrue(bucket.tryAcquire(10_000));
+        assertFalse(bucket.tryAcquire(10_000));
+    }
+
+    @Test
+    public void perSourceLimitDoesNotAffectOtherSources() {
+        IngressRateLimiter limiter = new IngressRateLimiter(1, 3);
+
+        for (int i = 0; i < 3; i++)
+            assertTrue(limiter.tryAcquire(source1, ORIGINAL_UNICAST, 0));
+        assertFalse(limiter.tryAcquire(source1, ORIGINAL_UNICAST, 0));
+        assertFalse(limiter.tryAcquire(source1, ORIGINAL_BROADCAST, 0));
+
+        // The flooding source does not use up the tokens of another.
+        assertTrue(limiter.tryAcquire(source2, ORIGINAL_UNICAST, 0));
+
+        assertEquals(2, limiter.getDroppedCount());
+        assertEquals(Map.of(source1, 2L), limiter.getDropCounts());
+
+        // After a second there is another token.
+        assertTrue(limiter.tryAcquire(source1, ORIGINAL_UNICAST, 1000));
+    }
+
+    @Test
+    public void functionLimitIsSharedBySources() {
+        IngressRateLimiter limiter = new IngressRateLimiter(0, 1) //
+                .withFunctionLimit(ORIGINAL_BROADCAST, 1, 2);
+
+        assertTrue(limiter.tryAcquire(source1, ORIGINAL_BROADCAST, 0));
+        assertTrue(limiter.tryAcquire(source2, ORIGINAL_BROADCAST, 0));
+        assertFalse(limiter.tryAcquire(source1, ORIGINAL_BROADCAST, 0));
+        assertFalse(limiter.tryAcquire(source2, ORIGINAL_BROADCAST, 0));
+
+        // Unicasts are not limited at all.
+        for (int i = 0; i < 100; i++)
+            assertTrue(limiter.tryAcquire(source1, ORIGINAL_UNICAST, 0));
+
+        assertEquals(Map.of(source1, 1L, source2, 1L), limiter.getDropCounts());
+
+        limiter.resetDropCounts();
+        assertEquals(0, limiter.getDroppedCount());
+        assertTrue(limiter.getDropCounts().isEmpty());
+    }
+
+    @Test
+    public void untrackedSourcesShareAnOverflowBucket() {
+        IngressRateLimiter limiter = new IngressRateLimiter(1, 1).withMaxTrackedSources(1);
+
+        // source1 takes the only tracked bucket and keeps it busy.
+        assertTrue(limiter.tryAcquire(source1, ORIGINAL_UNICAST, 0));
+
+        // source2 cannot be tracked, so it is limited through the overflow bucket.
+        OctetString source3 = new OctetString(new byte[] {1, 2, 3, 6, (byte) 0xba, (byte) 0xc0});
+        assertTrue(limiter.tryAcquire(source2, ORIGINAL_UNICAST, 0));
+        assertFalse(limiter.tryAcquire(source3, ORIGINAL_UNICAST, 0));
+
+        // Once source1 is idle, its bucket is full and is discarded to make room.
+        assertTrue(limiter.tryAcquire(source3, ORIGINAL_UNICAST, 5000));
+        assertTrue(limiter.tryAcquire(source1, ORIGINAL_UNICAST, 5000));
+    }
+}
@@ -77,6 +77,25 @@ public class NPCITest {
         assertEquals(0, queue.size());
     }
 
+    /**
+     * A router adds the source of a message from a directly connected network, and removes the destination when it
+     * delivers the message to its destination network.
+     */
+    @Test
+    public void routedRewrite() throws Exception {
+        NPCI npci = new NPCI(new Address(20, new byte[] {5}), null, true);
+        npci.source(10, new byte[] {7});
+        ByteQueue queue = new ByteQueue();
+        npci.write(queue);
+        assertArrayEquals(new byte[] {0x1, 0x2c, 0x0, 0x14, 0x1, 0x5, 0x0, 0xa, 0x1, 0x7, (byte) 0xff},
+                queue.peekAll());
+
+        NPCI forwarded = new NPCI(queue).clearDestination();
+        queue = new ByteQueue();
+        forwarded.write(queue);
+        assertArrayEquals(new byte[] {0x1, 0xc, 0x0, 0xa, 0x1, 0x7}, queue.popAll());
+    }
+
     /**
      * The control octet says which of the optional fields follow, so a message truncated part way through them used
      * to run the queue empty and fail with an ArrayIndexOutOfBoundsException naming an array index. Each field is
@@ -0,0 +1,110 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2025 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+package com.serotonin.bacnet4j.npdu.ipv6;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import com.serotonin.bacnet4j.type.primitive.OctetString;
+
+public class VmacTableTest {
+    private static OctetString vmac(int id) {
+        return new OctetString(new byte[] {0, (byte) (id >> 8), (byte) id});
+    }
+
+    private static OctetString addr(int id) {
+        byte[] b = new byte[18];
+        b[15] = (byte) id;
+        b[16] = (byte) 0xba;
+        b[17] = (byte) 0xc0;
+        return new OctetString(b);
+    }
+
+    @Test
+    public void entriesExpire() {
+        VmacTable table = new VmacTable(1000, 10);
+        table.put(vmac(1), addr(1), 0);
+        table.put(vmac(2), addr(2), 0);
+        assertEquals(addr(1), table.get(vmac(1), 1000));
+
+        // Refreshing an entry resets its age.
+        table.put(vmac(2), addr(2), 900);
+        assertNull(table.get(vmac(1), 1001));
+        assertEquals(addr(2), table.get(vmac(2), 1001));
+        assertEquals(1, table.size());
+
+        table.purge(1901);
+        assertEquals(0, table.size());
+    }
+
+    @Test
+    public void addressChangeReplacesEntry() {
+        VmacTable table = new VmacTable(1000, 10);
+        table.put(vmac(1), addr(1), 0);
+        table.put(vmac(1), addr(9), 10);
+        assertEquals(addr(9), table.get(vmac(1), 10));
+        assertEquals(1, table.size());
+    }
+
+    @Test
+    public void leastRecentlySeenIsEvicted() {
+        VmacTable table = new VmacTable(0, 3);
+        table.pin(vmac(0), addr(0));
+        table.put(vmac(2), addr(2), 5);
+        table.put(vmac(1), addr(1), 10);
+        table.put(vmac(3), addr(3), 20);
+
+        assertEquals(3, table.size());
+        assertNull(table.get(vmac(2), 20));
+        assertEquals(addr(1), table.get(vmac(1), 20));
+        assertEquals(addr(3), table.get(vmac(3), 20));
+    }
+
+    @Test
+    public void refreshedEntryIsNotEvicted() {
+        VmacTable table = new VmacTable(0, 2);
+        table.put(vmac(1), addr(1), 0);
+        table.put(vmac(2), addr(2), 10);
+        table.put(vmac(1), addr(1), 20);
+        table.put(vmac(3), addr(3), 30);
+
+        assertEquals(2, table.size());
+        assertNull(table.get(vmac(2), 30));
+        assertEquals(addr(1), table.get(vmac(1), 30));
+    }
+
+    @Test
+    public void pinnedEntriesNeverExpire() {
+        VmacTable table = new VmacTable(1000, 10);
+        table.pin(vmac(0), addr(0));
+        table.put(vmac(0), addr(5), 0);
+        assertEquals(addr(0), table.get(vmac(0), Long.MAX_VALUE / 2));
+    }
+}
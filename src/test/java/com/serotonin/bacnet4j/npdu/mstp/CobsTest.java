@@ -0,0 +1,104 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2025 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+
+package com.serotonin.bacnet4j.npdu.mstp;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class CobsTest {
+    @Test
+    public void crc32KCheckValue() {
+        byte[] data = "123456789".getBytes(StandardCharsets.US_ASCII);
+        int crc = ~ExtendedDataCRC.accumulate(ExtendedDataCRC.INITIAL_VALUE, data, 0, data.length);
+        assertEquals(0x2D3DD0AE, crc);
+
+        int bitwise = ExtendedDataCRC.INITIAL_VALUE;
+        for (byte b : data)
+            bitwise = ExtendedDataCRC.calcCrc32K(b & 0xff, bitwise);
+        assertEquals(0x2D3DD0AE, ~bitwise);
+    }
+
+    @Test
+    public void encode() {
+        byte[] buf = new byte[10];
+        assertEquals(5, Cobs.encode(new byte[] {0x11, 0x22, 0x00, 0x33}, 0, 4, buf, 0, (byte) 0));
+        assertArrayEquals(new byte[] {0x03, 0x11, 0x22, 0x02, 0x33}, Arrays.copyOf(buf, 5));
+
+        assertEquals(2, Cobs.encode(new byte[] {0x00}, 0, 1, buf, 0, (byte) 0));
+        assertArrayEquals(new byte[] {0x01, 0x01}, Arrays.copyOf(buf, 2));
+
+        // The mask is applied to every encoded octet.
+        assertEquals(2, Cobs.encode(new byte[] {0x00}, 0, 1, buf, 0, Cobs.MASK));
+        assertArrayEquals(new byte[] {0x54, 0x54}, Arrays.copyOf(buf, 2));
+    }
+
+    @Test
+    public void roundTrip() {
+        Random random = new Random(0);
+        for (int length : new int[] {1, 2, 253, 254, 255, 508, 509, 1000, 1497}) {
+            for (int zeros : new int[] {0, 1, 10, length}) {
+                byte[] data = new byte[length];
+                for (int i = 0; i < length; i++)
+                    data[i] = (byte) (random.nextInt(255) + 1);
+                for (int i = 0; i < zeros; i++)
+                    data[random.nextInt(length)] = 0;
+
+                byte[] buf = new byte[Cobs.maxFrameDataSize(length)];
+                int encoded = Cobs.encodeFrameData(data, 0, length, buf, 0);
+                assertTrue(encoded <= buf.length);
+                for (int i = 0; i < encoded; i++)
+                    assertTrue(buf[i] != Cobs.MASK);
+
+                assertArrayEquals(data, Cobs.decodeFrameData(buf, 0, encoded));
+            }
+        }
+    }
+
+    @Test
+    public void corruptDataIsRejected() {
+        byte[] data = new byte[600];
+        new Random(1).nextBytes(data);
+        byte[] buf = new byte[Cobs.maxFrameDataSize(data.length)];
+        int encoded = Cobs.encodeFrameData(data, 0, data.length, buf, 0);
+
+        buf[100] ^= 0x04;
+        assertNull(Cobs.decodeFrameData(buf, 0, encoded));
+        buf[100] ^= 0x04;
+        buf[encoded - 2] ^= 0x01;
+        assertNull(Cobs.decodeFrameData(buf, 0, encoded));
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2025 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+package com.serotonin.bacnet4j.npdu.mstp;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Clock;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class FrameEncodingTest {
+    private static final byte[] DATA = {0x1, 0x20, (byte) 0xff, (byte) 0xfc, (byte) 0xfe, 0x20, (byte) 0xa0,
+            (byte) 0xe7, (byte) 0x91, (byte) 0xf0, 0x3, 0x22, 0x1, 0x15, 0x2b, (byte) 0xf9, (byte) 0xff, 0x55,
+            (byte) 0xff, 0x0, 0x4};
+
+    @Test
+    public void tablesMatchBitwiseCalculation() {
+        Random random = new Random(0);
+        byte[] data = new byte[1000];
+        random.nextBytes(data);
+
+        int header = 0xff;
+        int dataCrc = 0xffff;
+        HeaderCRC headerCRC = new HeaderCRC();
+        DataCRC dataCRC = new DataCRC();
+        for (byte b : data) {
+            header = HeaderCRC.calcHeaderCRC(b & 0xff, header);
+            dataCrc = DataCRC.calcDataCRC(b & 0xff, dataCrc);
+            headerCRC.accumulate(b);
+            dataCRC.accumulate(b);
+        }
+
+        // Accumulating the ones complement of the CRC yields the check value.
+        headerCRC.reset();
+        dataCRC.reset();
+        for (byte b : data) {
+            headerCRC.accumulate(b);
+            dataCRC.accumulate(b);
+        }
+        headerCRC.accumulate(~header & 0xff);
+        int sent = ~dataCrc & 0xffff;
+        dataCRC.accumulate(sent & 0xff);
+        dataCRC.accumulate(sent >> 8);
+        assertTrue(headerCRC.isOk());
+        assertTrue(dataCRC.isOk());
+
+        assertEquals(~header & 0xff, HeaderCRC.crc(data, 0, data.length));
+        assertEquals(sent, DataCRC.crc(data, 0, data.length));
+    }
+
+    @Test
+    public void encode() {
+        Frame frame = new Frame(FrameType.bacnetDataNotExpectingReply, (byte) 0xff, (byte) 8, DATA);
+        byte[] buf = new byte[MstpNode.encodedSize(frame)];
+        assertEquals(buf.length, MstpNode.encode(frame, buf));
+
+        byte[] expected = new byte[8 + DATA.length + 2];
+        System.arraycopy(new byte[] {0x55, (byte) 0xff, 0x6, (byte) 0xff, 0x8, 0x0, 0x15, (byte) 0xda}, 0, expected,
+                0, 8);
+        System.arraycopy(DATA, 0, expected, 8, DATA.length);
+        expected[8 + DATA.length] = (byte) 0x96;
+        expected[8 + DATA.length + 1] = (byte) 0xb8;
+        assertArrayEquals(expected, buf);
+
+        Frame token = new Frame(FrameType.token, (byte) 0x10, (byte) 0x05);
+        buf = new byte[MstpNode.encodedSize(token)];
+        assertEquals(8, MstpNode.encode(token, buf));
+        assertArrayEquals(new byte[] {0x55, (byte) 0xff, 0x0, 0x10, 0x5, 0x0, 0x0, (byte) 0x8c},
+                Arrays.copyOf(buf, 8));
+    }
+
+    @Test
+    public void frameIsWrittenInOneCall() {
+        CountingOutputStream out = new CountingOutputStream();
+        ManagerNode node = new ManagerNode("test", null, out, (byte) 8, 1);
+        node.clock = Clock.systemUTC();
+
+        node.testSendFrame(new Frame(FrameType.bacnetDataNotExpectingReply, (byte) 0xff, (byte) 8, DATA));
+        assertEquals(1, out.writes);
+        assertEquals(1, out.flushes);
+        assertEquals(8 + DATA.length + 2, out.toByteArray().length);
+        assertEquals(8 + DATA.length + 2, node.getBytesOut());
+    }
+
+    static class CountingOutputStream extends ByteArrayOutputStream {
+        int writes;
+        int flushes;
+
+        @Override
+        public synchronized void write(int b) {
+            writes++;
+            super.write(b);
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            writes++;
+            super.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            flushes++;
+            super.flush();
+        }
+    }
+}
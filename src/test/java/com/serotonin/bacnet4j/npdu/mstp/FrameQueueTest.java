@@ -0,0 +1,91 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2025 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+
+package com.serotonin.bacnet4j.npdu.mstp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+public class FrameQueueTest {
+    @Test
+    public void framesAreTakenByPriorityThenArrival() {
+        FrameQueue queue = new FrameQueue();
+        Frame normal1 = frame(0);
+        Frame urgent = frame(1);
+        Frame normal2 = frame(0);
+        Frame lifeSafety = frame(3);
+        Frame test = new Frame(FrameType.testRequest, (byte) 1, (byte) 0, new byte[] {1, 3});
+
+        queue.add(normal1);
+        queue.add(urgent);
+        queue.add(normal2);
+        queue.add(test);
+        queue.add(lifeSafety);
+        assertEquals(5, queue.size());
+
+        assertEquals(lifeSafety, queue.poll());
+        assertEquals(urgent, queue.poll());
+        assertEquals(normal1, queue.poll());
+        assertEquals(normal2, queue.poll());
+        // Test frames don't carry an NPDU, so are normal priority.
+        assertEquals(test, queue.poll());
+        assertNull(queue.poll());
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void concurrentProducers() throws Exception {
+        FrameQueue queue = new FrameQueue();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int priority = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++)
+                    queue.add(frame(priority));
+            });
+            threads[t].start();
+        }
+
+        int taken = 0;
+        while (taken < 40_000) {
+            if (queue.poll() != null)
+                taken++;
+        }
+        for (Thread thread : threads)
+            thread.join();
+        assertEquals(0, queue.size());
+        assertNull(queue.poll());
+    }
+
+    private static Frame frame(int priority) {
+        // NPDU version 1, with the network priority in the control octet.
+        return new Frame(FrameType.bacnetDataNotExpectingReply, (byte) 1, (byte) 0, new byte[] {1, (byte) priority});
+    }
+}
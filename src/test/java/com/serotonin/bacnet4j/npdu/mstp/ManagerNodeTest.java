@@ -38,6 +38,7 @@ import java.io.ByteArrayOutputStream;
 import java.time.Clock;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -151,6 +152,78 @@ public class ManagerNodeTest {
         assertUnwanted();
     }
 
+    // ---------- adaptive Max_Info_Frames ----------
+
+    @Test
+    public void adaptiveMaxInfoFrames_sendsBurstInOneTokenHold() throws Exception {
+        TokenHoldStatistics stats = sendBurst(node -> node.setAdaptiveMaxInfoFrames(1, 8, 0));
+        assertEquals(8, stats.getMaxFramesPerHold());
+        assertEquals(0, stats.getQueuedFrames());
+    }
+
+    @Test
+    public void fixedMaxInfoFrames_sendsOneFramePerTokenHold() throws Exception {
+        TokenHoldStatistics stats = sendBurst(node -> node.setMaxInfoFrames(1));
+        assertEquals(1, stats.getMaxFramesPerHold());
+        assertEquals(0, stats.getQueuedFrames());
+    }
+
+    @Test
+    public void adaptiveMaxInfoFrames_throttledBySlowTokenRotation() throws Exception {
+        // At 9600 baud the token rotation of two managers with nothing to send is well above 5ms.
+        TokenHoldStatistics stats = sendBurst(node -> node.setAdaptiveMaxInfoFrames(2, 8, 5), 9600);
+        assertTrue(stats.getAverageTokenRotation() > 5);
+        assertEquals(2, stats.getMaxFramesPerHold());
+    }
+
+    @Test
+    public void idleTokenHolds_countNoFrames() throws Exception {
+        SimulatedRs485Bus bus = new SimulatedRs485Bus(38400, 0);
+        ManagerNode m0 = new ManagerNode(bus.createPort("m0"), (byte) 0, 1);
+        ManagerNode m1 = new ManagerNode(bus.createPort("m1"), (byte) 1, 1);
+        m0.setMaxManager(1);
+        m1.setMaxManager(1);
+        m0.setAdaptiveMaxInfoFrames(1, 8, 0);
+        bus.attach(m0);
+        bus.attach(m1);
+        try {
+            bus.run(2_000_000_000L);
+            TokenHoldStatistics stats = m0.getTokenHoldStatistics();
+            assertTrue(stats.getTokensHeld() > 0);
+            assertEquals(0, stats.getFramesSent());
+            assertEquals(0, stats.getMaxFramesPerHold());
+            assertEquals(0, stats.getAverageFramesPerHold(), 0);
+        } finally {
+            bus.terminate();
+        }
+    }
+
+    private static TokenHoldStatistics sendBurst(Consumer<ManagerNode> config) throws Exception {
+        return sendBurst(config, 38400);
+    }
+
+    private static TokenHoldStatistics sendBurst(Consumer<ManagerNode> config, int baud) throws Exception {
+        SimulatedRs485Bus bus = new SimulatedRs485Bus(baud, 0);
+        ManagerNode m0 = new ManagerNode(bus.createPort("m0"), (byte) 0, 1);
+        ManagerNode m1 = new ManagerNode(bus.createPort("m1"), (byte) 1, 1);
+        m0.setMaxManager(1);
+        m1.setMaxManager(1);
+        config.accept(m0);
+        bus.attach(m0);
+        bus.attach(m1);
+        try {
+            bus.run(2_000_000_000L);
+            assertTrue(m0.hasReceivedToken());
+
+            for (int i = 0; i < 10; i++)
+                m0.queueFrame(FrameType.bacnetDataNotExpectingReply, (byte) 1, new byte[] {1, 0, (byte) i});
+            bus.run(2_000_000_000L);
+            return m0.getTokenHoldStatistics();
+        } finally {
+            bus.terminate();
+        }
+    }
+
     // ---------- helpers ----------
 
     private void prepareFrame(final FrameType type, final byte destination, final byte source) {
@@ -0,0 +1,282 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2025 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+
+package com.serotonin.bacnet4j.npdu.mstp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.serotonin.bacnet4j.npdu.mstp.SimulatedRs485Bus.Port;
+
+/**
+ * Runs MS/TP networks of various sizes and settings on a {@link SimulatedRs485Bus} and reports the frame rate, token
+ * rotation time and APDU round trip latency of each. Station 0 is a client that sends confirmed requests one after the
+ * other to all other stations in turn, and the other managers take turns to send unconfirmed broadcasts at a fixed
+ * total rate, so that the offered load is the same for every configuration. A second scenario has station 0 queue a
+ * burst of confirmed requests at once, as a schedule writing many outputs would, and reports the time until all have
+ * been answered.
+ * Times are simulated, so results are reproducible and independent of the host. Run as a Java application.
+ */
+public class MstpBusBenchmark {
+    private static final long WARMUP_NANOS = 5_000_000_000L;
+    private static final long RUN_NANOS = 30_000_000_000L;
+    private static final int SUBORDINATES = 4;
+    private static final int REQUEST_SIZE = 50;
+    private static final int REPLY_SIZE = 200;
+    private static final int BROADCAST_SIZE = 100;
+    private static final long BROADCAST_INTERVAL_NANOS = 500_000_000L;
+    private static final int BURST_SIZE = 60;
+
+    public static void main(String[] args) throws Exception {
+        System.out.println(
+                "baud    managers  maxInfo  frames/s  rotation avg/max (ms)  RTT avg/p95 (ms)  requests  collisions");
+        for (int baud : new int[] {9600, 38400, 115200}) {
+            for (int managers : new int[] {2, 8, 32}) {
+                run(baud, managers, "1", node -> node.setMaxInfoFrames(1));
+                run(baud, managers, "4", node -> node.setMaxInfoFrames(4));
+                run(baud, managers, "1-8", node -> node.setAdaptiveMaxInfoFrames(1, 8, 0));
+            }
+        }
+
+        System.out.println();
+        System.out.println("Burst of " + BURST_SIZE + " requests with 8 managers");
+        System.out.println("baud    maxInfo  completion (ms)  max frames/hold");
+        for (int baud : new int[] {9600, 38400, 115200}) {
+            runBurst(baud, "1", node -> node.setMaxInfoFrames(1));
+            runBurst(baud, "4", node -> node.setMaxInfoFrames(4));
+            runBurst(baud, "1-8", node -> node.setAdaptiveMaxInfoFrames(1, 8, 0));
+            runBurst(baud, "1-32", node -> node.setAdaptiveMaxInfoFrames(1, 32, 0));
+        }
+    }
+
+    private static void runBurst(int baud, String maxInfo, Consumer<ManagerNode> config) throws Exception {
+        SimulatedRs485Bus bus = new SimulatedRs485Bus(baud, 0);
+        List<Byte> responders = new ArrayList<>();
+        BenchmarkManager client = null;
+        for (int i = 0; i < 8; i++) {
+            BenchmarkManager node = new BenchmarkManager(bus.createPort("m" + i), (byte) i);
+            node.setMaxManager(7);
+            config.accept(node);
+            bus.attach(node);
+            if (i == 0)
+                client = node;
+            else
+                responders.add((byte) i);
+        }
+        client.responders = responders;
+
+        try {
+            bus.run(WARMUP_NANOS);
+            client.startBurst(bus, BURST_SIZE);
+            while (client.roundTrips.size() < BURST_SIZE)
+                bus.run(1_000_000);
+            System.out.printf("%-7d %-8s %-16.1f %d%n", baud, maxInfo, client.roundTrips.get(BURST_SIZE - 1) / 1e6,
+                    client.getTokenHoldStatistics().getMaxFramesPerHold());
+        } finally {
+            bus.terminate();
+        }
+    }
+
+    private static void run(int baud, int managers, String maxInfo, Consumer<ManagerNode> config) throws Exception {
+        TokenRotation rotation = new TokenRotation();
+        SimulatedRs485Bus bus = new SimulatedRs485Bus(baud, 0).withFrameListener(rotation);
+
+        List<BenchmarkManager> managerNodes = new ArrayList<>();
+        for (int i = 0; i < managers; i++) {
+            BenchmarkManager node = new BenchmarkManager(bus.createPort("m" + i), (byte) i);
+            node.setMaxManager(managers - 1);
+            config.accept(node);
+            managerNodes.add(bus.attach(node));
+        }
+        List<Byte> responders = new ArrayList<>();
+        for (int i = 1; i < managers; i++)
+            responders.add((byte) i);
+        for (int i = 0; i < SUBORDINATES; i++) {
+            byte station = (byte) (100 + i);
+            bus.attach(new BenchmarkSubordinate(bus.createPort("s" + station), station));
+            responders.add(station);
+        }
+
+        BenchmarkManager client = managerNodes.get(0);
+        client.responders = responders;
+
+        try {
+            // Let the token ring form.
+            bus.run(WARMUP_NANOS);
+            long start = bus.getNanos();
+            long frames = bus.getFramesTransmitted();
+            long collisions = bus.getCollisions();
+            rotation.reset();
+            client.startRequests(bus);
+
+            long nextBroadcast = start;
+            int broadcaster = 0;
+            while (bus.getNanos() < start + RUN_NANOS) {
+                if (bus.getNanos() >= nextBroadcast) {
+                    managerNodes.get(1 + broadcaster++ % (managers - 1))
+                            .queueFrame(FrameType.bacnetDataNotExpectingReply, (byte) 0xFF, new byte[BROADCAST_SIZE]);
+                    nextBroadcast += BROADCAST_INTERVAL_NANOS;
+                }
+                bus.run(1_000_000);
+            }
+
+            double seconds = (bus.getNanos() - start) / 1e9;
+            long[] rtts = client.roundTrips.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(rtts);
+            System.out.printf("%-7d %-9d %-8s %-9.1f %8.1f / %-10.1f %7.1f / %-8.1f %-9d %d%n", baud, managers,
+                    maxInfo, (bus.getFramesTransmitted() - frames) / seconds, rotation.average() / 1e6,
+                    rotation.max / 1e6, average(rtts) / 1e6, percentile(rtts, 0.95) / 1e6, rtts.length,
+                    bus.getCollisions() - collisions);
+        } finally {
+            bus.terminate();
+        }
+    }
+
+    private static double average(long[] values) {
+        return values.length == 0 ? 0 : (double) Arrays.stream(values).sum() / values.length;
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        return sorted.length == 0 ? 0 : sorted[(int) Math.min(sorted.length - 1, sorted.length * percentile)];
+    }
+
+    /**
+     * Measures the time between successive token passes by station 0.
+     */
+    static class TokenRotation implements SimulatedRs485Bus.FrameListener {
+        long last = -1;
+        long count;
+        long total;
+        long max;
+
+        @Override
+        public void transmitted(Port port, long startNanos, byte[] octets) {
+            if (octets.length < MstpNode.HEADER_LENGTH || octets[2] != FrameType.token.id || octets[4] != 0)
+                return;
+            if (last >= 0) {
+                long rotation = startNanos - last;
+                count++;
+                total += rotation;
+                max = Math.max(max, rotation);
+            }
+            last = startNanos;
+        }
+
+        void reset() {
+            last = -1;
+            count = total = max = 0;
+        }
+
+        double average() {
+            return count == 0 ? 0 : (double) total / count;
+        }
+    }
+
+    static class BenchmarkManager extends ManagerNode {
+        final List<Long> roundTrips = new ArrayList<>();
+        List<Byte> responders;
+        SimulatedRs485Bus bus;
+        int nextResponder;
+        long requestStart;
+        boolean burst;
+
+        BenchmarkManager(Port port, byte station) {
+            super(port, station, 1);
+        }
+
+        void startRequests(SimulatedRs485Bus bus) {
+            this.bus = bus;
+            sendRequest();
+        }
+
+        void startBurst(SimulatedRs485Bus bus, int count) {
+            this.bus = bus;
+            burst = true;
+            requestStart = bus.getNanos();
+            for (int i = 0; i < count; i++)
+                queueFrame(FrameType.bacnetDataExpectingReply, responders.get(nextResponder++ % responders.size()),
+                        new byte[REQUEST_SIZE]);
+        }
+
+        private void sendRequest() {
+            byte destination = responders.get(nextResponder++ % responders.size());
+            requestStart = bus.getNanos();
+            queueFrame(FrameType.bacnetDataExpectingReply, destination, new byte[REQUEST_SIZE]);
+        }
+
+        byte replyTo = -1;
+
+        @Override
+        protected void doCycle() {
+            // Replies are provided on the cycle after the request, as the network layer would.
+            if (replyTo != -1) {
+                setReplyFrame(FrameType.bacnetDataNotExpectingReply, replyTo, new byte[REPLY_SIZE]);
+                replyTo = -1;
+            }
+            super.doCycle();
+        }
+
+        @Override
+        protected void receivedDataNeedingReply(Frame frame) {
+            replyTo = frame.getSourceAddress();
+        }
+
+        @Override
+        protected void receivedDataNoReply(Frame frame) {
+            if (bus != null && frame.forStation(thisStation)) {
+                roundTrips.add(bus.getNanos() - requestStart);
+                if (!burst)
+                    sendRequest();
+            }
+        }
+    }
+
+    static class BenchmarkSubordinate extends SubordinateNode {
+        BenchmarkSubordinate(Port port, byte station) {
+            super(port, station);
+        }
+
+        byte replyTo = -1;
+
+        @Override
+        protected void doCycle() {
+            if (replyTo != -1) {
+                setReplyFrame(FrameType.bacnetDataNotExpectingReply, replyTo, new byte[REPLY_SIZE]);
+                replyTo = -1;
+            }
+            super.doCycle();
+        }
+
+        @Override
+        protected void receivedDataNeedingReply(Frame frame) {
+            replyTo = frame.getSourceAddress();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2025 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+package com.serotonin.bacnet4j.npdu.mstp;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+
+/**
+ * Compares the frame transmission path of MstpNode with the previous one, which computed the CRCs bit by bit and
+ * wrote the preamble and header octet by octet. The output stream charges a fixed cost per write call to stand in for
+ * the per-transfer overhead of a USB-RS485 adapter. Run as a Java application.
+ */
+public class MstpFrameBenchmark {
+    private static final int FRAMES = 200_000;
+    private static final long NANOS_PER_WRITE_CALL = 2_000;
+
+    public static void main(String[] args) throws Exception {
+        Random random = new Random(0);
+        Frame[] frames = new Frame[64];
+        for (int i = 0; i < frames.length; i++) {
+            byte[] data = new byte[random.nextInt(480) + 20];
+            random.nextBytes(data);
+            frames[i] = new Frame(FrameType.bacnetDataExpectingReply, (byte) 1, (byte) 2, data);
+        }
+
+        System.out.println("CRC only (no I/O cost):");
+        for (int round = 0; round < 3; round++) {
+            long legacy = time(frames, new SimulatedPort(0), MstpFrameBenchmark::sendLegacy);
+            long current = time(frames, new SimulatedPort(0), MstpFrameBenchmark::sendCurrent);
+            report(legacy, current);
+        }
+
+        System.out.println("With " + NANOS_PER_WRITE_CALL + "ns per write call:");
+        for (int round = 0; round < 3; round++) {
+            SimulatedPort legacyPort = new SimulatedPort(NANOS_PER_WRITE_CALL);
+            SimulatedPort currentPort = new SimulatedPort(NANOS_PER_WRITE_CALL);
+            long legacy = time(frames, legacyPort, MstpFrameBenchmark::sendLegacy);
+            long current = time(frames, currentPort, MstpFrameBenchmark::sendCurrent);
+            report(legacy, current);
+            System.out.printf("  write calls per frame: legacy=%.1f, current=%.1f%n",
+                    (double) legacyPort.calls / FRAMES, (double) currentPort.calls / FRAMES);
+        }
+    }
+
+    interface Sender {
+        void send(Frame frame, OutputStream out, byte[] buf) throws IOException;
+    }
+
+    private static long time(Frame[] frames, OutputStream out, Sender sender) throws IOException {
+        byte[] buf = new byte[MstpNode.HEADER_LENGTH + 512];
+        long start = System.nanoTime();
+        for (int i = 0; i < FRAMES; i++)
+            sender.send(frames[i % frames.length], out, buf);
+        return System.nanoTime() - start;
+    }
+
+    private static void report(long legacy, long current) {
+        System.out.printf("  legacy: %,d frames/s, current: %,d frames/s (%.1fx)%n", FRAMES * 1_000_000_000L / legacy,
+                FRAMES * 1_000_000_000L / current, (double) legacy / current);
+    }
+
+    static void sendCurrent(Frame frame, OutputStream out, byte[] buf) throws IOException {
+        int length = MstpNode.encode(frame, buf);
+        out.write(buf, 0, length);
+        out.flush();
+    }
+
+    static void sendLegacy(Frame frame, OutputStream out, byte[] buf) throws IOException {
+        out.write(0x55);
+        out.write(0xFF);
+        out.write(frame.getFrameType().id & 0xff);
+        out.write(frame.getDestinationAddress() & 0xff);
+        out.write(frame.getSourceAddress() & 0xff);
+        out.write(frame.getLength() >> 8 & 0xff);
+        out.write(frame.getLength() & 0xff);
+
+        int headerCrc = 0xff;
+        headerCrc = HeaderCRC.calcHeaderCRC(frame.getFrameType().id & 0xff, headerCrc);
+        headerCrc = HeaderCRC.calcHeaderCRC(frame.getDestinationAddress() & 0xff, headerCrc);
+        headerCrc = HeaderCRC.calcHeaderCRC(frame.getSourceAddress() & 0xff, headerCrc);
+        headerCrc = HeaderCRC.calcHeaderCRC(frame.getLength() >> 8 & 0xff, headerCrc);
+        headerCrc = HeaderCRC.calcHeaderCRC(frame.getLength() & 0xff, headerCrc);
+        out.write(~headerCrc & 0xff);
+
+        out.write(frame.getData());
+        int dataCrc = 0xffff;
+        for (byte b : frame.getData())
+            dataCrc = DataCRC.calcDataCRC(b & 0xff, dataCrc);
+        dataCrc = ~dataCrc & 0xffff;
+        out.write(dataCrc & 0xff);
+        out.write(dataCrc >> 8 & 0xff);
+        out.flush();
+    }
+
+    static class SimulatedPort extends OutputStream {
+        private final long nanosPerCall;
+        long calls;
+        long octets;
+        // Consumes the written values so that the JIT cannot discard the work that produced them.
+        long sink;
+
+        SimulatedPort(long nanosPerCall) {
+            this.nanosPerCall = nanosPerCall;
+        }
+
+        @Override
+        public void write(int b) {
+            sink += b;
+            call(1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            sink += b[off] + b[off + len - 1];
+            call(len);
+        }
+
+        private void call(int len) {
+            calls++;
+            octets += len;
+            if (nanosPerCall > 0) {
+                long until = System.nanoTime() + nanosPerCall;
+                while (System.nanoTime() < until) {
+                    Thread.onSpinWait();
+                }
+            }
+        }
+    }
+}
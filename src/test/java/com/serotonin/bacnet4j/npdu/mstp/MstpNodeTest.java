@@ -0,0 +1,129 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2025 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+package com.serotonin.bacnet4j.npdu.mstp;
+
+import static com.serotonin.bacnet4j.TestUtils.awaitTrue;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.time.Clock;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.Test;
+
+import com.serotonin.bacnet4j.npdu.mstp.MstpNode.ReceiveMode;
+
+public class MstpNodeTest {
+    /**
+     * Two managers connected back to back in BLOCKING receive mode establish a token ring and exchange a test
+     * request and response.
+     */
+    @Test(timeout = 10_000)
+    public void blockingReceiveMode() throws Exception {
+        PipedOutputStream aOut = new PipedOutputStream();
+        PipedOutputStream bOut = new PipedOutputStream();
+        PipedInputStream aIn = new PipedInputStream(bOut, 4096);
+        PipedInputStream bIn = new PipedInputStream(aOut, 4096);
+
+        RecordingManagerNode a = new RecordingManagerNode(aIn, aOut, (byte) 1);
+        RecordingManagerNode b = new RecordingManagerNode(bIn, bOut, (byte) 2);
+        try {
+            a.initialize(true);
+            b.initialize(true);
+
+            awaitTrue(() -> a.hasReceivedToken() && b.hasReceivedToken());
+
+            byte[] data = {1, 2, 3, 4};
+            a.queueFrame(FrameType.testRequest, (byte) 2, data);
+            awaitTrue(() -> !a.received.isEmpty());
+
+            Frame response = a.received.get(0);
+            assertEquals(FrameType.testResponse, response.getFrameType());
+            assertArrayEquals(data, response.getData());
+        } finally {
+            a.terminate();
+            b.terminate();
+        }
+    }
+
+    /**
+     * An NPDU too large for a classic frame is COBS encoded into an extended frame and decoded by the receiver.
+     */
+    @Test(timeout = 10_000)
+    public void extendedDataFrame() throws Exception {
+        PipedOutputStream aOut = new PipedOutputStream();
+        PipedOutputStream bOut = new PipedOutputStream();
+        PipedInputStream aIn = new PipedInputStream(bOut, 4096);
+        PipedInputStream bIn = new PipedInputStream(aOut, 4096);
+
+        RecordingManagerNode a = new RecordingManagerNode(aIn, aOut, (byte) 1);
+        RecordingManagerNode b = new RecordingManagerNode(bIn, bOut, (byte) 2);
+        a.setExtendedFrames(true);
+        b.setExtendedFrames(true);
+        try {
+            a.initialize(true);
+            b.initialize(true);
+
+            awaitTrue(() -> a.hasReceivedToken() && b.hasReceivedToken());
+
+            byte[] data = new byte[MstpNode.MAX_EXTENDED_DATA_LENGTH];
+            new Random(0).nextBytes(data);
+            data[10] = 0;
+            a.queueFrame(FrameType.bacnetExtendedDataNotExpectingReply, (byte) 2, data);
+            awaitTrue(() -> !b.received.isEmpty());
+
+            Frame frame = b.received.get(0);
+            assertEquals(FrameType.bacnetExtendedDataNotExpectingReply, frame.getFrameType());
+            assertEquals((byte) 1, frame.getSourceAddress());
+            assertArrayEquals(data, frame.getData());
+        } finally {
+            a.terminate();
+            b.terminate();
+        }
+    }
+
+    private static class RecordingManagerNode extends ManagerNode {
+        final List<Frame> received = new CopyOnWriteArrayList<>();
+
+        RecordingManagerNode(PipedInputStream in, PipedOutputStream out, byte station) {
+            super("test" + station, in, out, station, 1);
+            this.clock = Clock.systemUTC();
+            setMaxManager(2);
+            setReceiveMode(ReceiveMode.BLOCKING);
+        }
+
+        @Override
+        protected void receivedDataNoReply(Frame frame) {
+            received.add(frame.copy());
+        }
+    }
+}
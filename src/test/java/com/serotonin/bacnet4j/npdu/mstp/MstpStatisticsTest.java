@@ -0,0 +1,108 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2025 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+
+package com.serotonin.bacnet4j.npdu.mstp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class MstpStatisticsTest {
+    @Test
+    public void linkStatistics() throws Exception {
+        SimulatedRs485Bus bus = new SimulatedRs485Bus(38400, 0);
+        ManagerNode m0 = new ManagerNode(bus.createPort("m0"), (byte) 0, 1);
+        ManagerNode m1 = new ManagerNode(bus.createPort("m1"), (byte) 1, 1);
+        m0.setMaxManager(1);
+        m1.setMaxManager(1);
+        bus.attach(m0);
+        bus.attach(m1);
+        bus.attach(new SubordinateNode(bus.createPort("s10"), (byte) 10));
+        try {
+            bus.run(2_000_000_000L);
+            m0.queueFrame(FrameType.testRequest, (byte) 10, new byte[] {1});
+            // Nothing answers at station 20.
+            m0.queueFrame(FrameType.testRequest, (byte) 20, new byte[] {2});
+            bus.run(1_000_000_000L);
+
+            MstpStatistics stats = m0.getStatistics();
+            assertTrue(stats.getFramesSent(FrameType.token) > 0);
+            assertTrue(stats.getFramesReceived(FrameType.token) > 0);
+            assertTrue(stats.getPollForManagerSent() > 0);
+            assertEquals(2, stats.getFramesSent(FrameType.testRequest));
+            assertEquals(1, stats.getFramesReceived(FrameType.testResponse));
+            assertEquals(1, stats.getReplyTimeouts(20));
+            assertEquals(0, stats.getReplyTimeouts(10));
+            assertEquals(0, stats.getHeaderCrcErrors());
+            assertEquals(0, stats.getDataCrcErrors());
+            assertTrue(stats.getEvents() >= m0.getBytesIn());
+            assertTrue(Arrays.stream(stats.getTokenRotationHistogram()).sum() > 0);
+
+            List<MstpStatistics.Station> stations = stats.getStations();
+            assertEquals(2, stations.size());
+            assertEquals(1, stations.get(0).getAddress());
+            assertTrue(stations.get(0).isManager());
+            assertEquals(10, stations.get(1).getAddress());
+            assertFalse(stations.get(1).isManager());
+            assertEquals(bus.getClock().millis(), stats.getLastSeen(1), 100);
+
+            stats.reset();
+            assertEquals(0, stats.getFramesSent());
+            assertTrue(stats.getStations().isEmpty());
+        } finally {
+            bus.terminate();
+        }
+    }
+
+    @Test
+    public void crcErrorsAreCounted() throws Exception {
+        SimulatedRs485Bus bus = new SimulatedRs485Bus(38400, 1).withBitErrorRate(1e-3);
+        ManagerNode m0 = new ManagerNode(bus.createPort("m0"), (byte) 0, 1);
+        ManagerNode m1 = new ManagerNode(bus.createPort("m1"), (byte) 1, 1);
+        m0.setMaxManager(1);
+        m1.setMaxManager(1);
+        bus.attach(m0);
+        bus.attach(m1);
+        try {
+            for (int i = 0; i < 50; i++) {
+                m0.queueFrame(FrameType.bacnetDataNotExpectingReply, (byte) 1, new byte[200]);
+                bus.run(100_000_000L);
+            }
+            MstpStatistics stats = m1.getStatistics();
+            assertTrue(stats.getHeaderCrcErrors() > 0);
+            assertTrue(stats.getDataCrcErrors() > 0);
+        } finally {
+            bus.terminate();
+        }
+    }
+}
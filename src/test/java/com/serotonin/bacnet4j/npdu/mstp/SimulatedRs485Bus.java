@@ -0,0 +1,408 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2025 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+
+package com.serotonin.bacnet4j.npdu.mstp;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import com.serotonin.bacnet4j.exception.BACnetException;
+import com.serotonin.bacnet4j.util.sero.ByteQueue;
+import com.serotonin.bacnet4j.util.sero.SerialPortWrapper;
+
+/**
+ * An in-memory multi-drop RS-485 bus for MS/TP simulations. Every octet takes 10 bit times to transmit (8N1) at the
+ * configured baud rate, and is delivered to every other port once it has been fully transmitted. Transmissions from
+ * different ports that overlap in time collide, and the overlapping octets are garbled for every receiver. Bit errors
+ * can be injected at a given bit error rate.
+ * <p>
+ * By default, writes block until the last octet has been transmitted, as with a driver that drains the UART before
+ * returning. While a node is blocked in a write, the clock keeps running for the rest of the bus. With non-blocking
+ * writes, the write returns immediately, as with adapters that buffer the frame.
+ * <p>
+ * The bus runs on a simulated clock and is single threaded: nodes are attached without their own threads, and
+ * {@link #run(long)} advances the clock in fixed ticks, delivering octets and cycling every node on each tick. Given
+ * the same seed, the same configuration and the same inputs, a run is fully reproducible.
+ */
+public class SimulatedRs485Bus {
+    public interface FrameListener {
+        /**
+         * Called when a port starts transmitting. Each write by an MstpNode is one frame.
+         */
+        void transmitted(Port port, long startNanos, byte[] octets);
+    }
+
+    private final int baudRate;
+    private final long octetNanos;
+    private final Random random;
+    private final SimulationClock clock = new SimulationClock();
+    private final List<Port> ports = new ArrayList<>();
+    private final List<Transmission> transmissions = new ArrayList<>();
+
+    private long tickNanos = 50_000;
+    private double bitErrorRate;
+    private double octetErrorRate;
+    private boolean blockingWrites = true;
+    private FrameListener frameListener;
+
+    private long framesTransmitted;
+    private long octetsTransmitted;
+    private long collisions;
+    private long corruptedOctets;
+
+    public SimulatedRs485Bus(int baudRate, long seed) {
+        if (baudRate <= 0)
+            throw new IllegalArgumentException("Invalid baud rate: " + baudRate);
+        this.baudRate = baudRate;
+        octetNanos = 10 * 1_000_000_000L / baudRate;
+        random = new Random(seed);
+    }
+
+    /**
+     * Sets the probability that any one bit on the wire is received in error.
+     */
+    public SimulatedRs485Bus withBitErrorRate(double bitErrorRate) {
+        if (bitErrorRate < 0 || bitErrorRate >= 1)
+            throw new IllegalArgumentException("Invalid bit error rate: " + bitErrorRate);
+        this.bitErrorRate = bitErrorRate;
+        octetErrorRate = 1 - Math.pow(1 - bitErrorRate, 10);
+        return this;
+    }
+
+    /**
+     * Sets the simulation step. Nodes see incoming octets and get to respond at most once per tick, so the tick also
+     * acts as the turnaround time of the nodes.
+     */
+    public SimulatedRs485Bus withTickNanos(long tickNanos) {
+        if (tickNanos <= 0)
+            throw new IllegalArgumentException("Invalid tick: " + tickNanos);
+        this.tickNanos = tickNanos;
+        return this;
+    }
+
+    public SimulatedRs485Bus withBlockingWrites(boolean blockingWrites) {
+        this.blockingWrites = blockingWrites;
+        return this;
+    }
+
+    public SimulatedRs485Bus withFrameListener(FrameListener frameListener) {
+        this.frameListener = frameListener;
+        return this;
+    }
+
+    public int getBaudRate() {
+        return baudRate;
+    }
+
+    /**
+     * @return the time to transmit one octet: 10 bit times.
+     */
+    public long getOctetNanos() {
+        return octetNanos;
+    }
+
+    public double getBitErrorRate() {
+        return bitErrorRate;
+    }
+
+    /**
+     * @return the simulated clock, which only advances in {@link #run(long)}.
+     */
+    public Clock getClock() {
+        return clock;
+    }
+
+    public long getNanos() {
+        return clock.nanos;
+    }
+
+    public long getFramesTransmitted() {
+        return framesTransmitted;
+    }
+
+    public long getOctetsTransmitted() {
+        return octetsTransmitted;
+    }
+
+    public long getCollisions() {
+        return collisions;
+    }
+
+    public long getCorruptedOctets() {
+        return corruptedOctets;
+    }
+
+    public Port createPort(String id) {
+        Port port = new Port(id);
+        ports.add(port);
+        return port;
+    }
+
+    /**
+     * Sets the node's clock to the simulated clock and initializes the node without a thread. The node must have been
+     * created with a port of this bus.
+     */
+    public <T extends MstpNode> T attach(T node) throws BACnetException {
+        Port port = ports.stream().filter(p -> p.id.equals(node.getCommPortId())).findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Node is not using a port of this bus"));
+        if (port.node != null)
+            throw new IllegalStateException("Port " + port.id + " already has a node");
+        node.clock = clock;
+        port.node = node;
+        node.initialize(false);
+        return node;
+    }
+
+    /**
+     * Runs the simulation for the given number of simulated nanoseconds.
+     */
+    public void run(long nanos) {
+        runUntil(clock.nanos + nanos);
+    }
+
+    private void runUntil(long end) {
+        while (clock.nanos < end) {
+            clock.nanos += tickNanos;
+            deliver();
+            for (Port port : ports) {
+                // Nodes that are blocked in a write don't cycle.
+                if (port.node != null && !port.writing)
+                    port.node.doCycle();
+            }
+        }
+    }
+
+    public void terminate() {
+        for (Port port : ports) {
+            if (port.node != null) {
+                port.node.terminate();
+                port.node = null;
+            }
+        }
+    }
+
+    private void transmit(Port port, byte[] octets) {
+        long start = Math.max(clock.nanos, port.transmitEnd);
+        Transmission tx = new Transmission(port, start, octets);
+        port.transmitEnd = tx.end();
+
+        for (Transmission other : transmissions) {
+            if (other.port == port)
+                continue;
+            long from = Math.max(start, other.start);
+            long to = Math.min(tx.end(), other.end());
+            if (from < to) {
+                collisions++;
+                tx.garble(from, to);
+                other.garble(from, to);
+            }
+        }
+
+        transmissions.add(tx);
+        framesTransmitted++;
+        octetsTransmitted += octets.length;
+        if (frameListener != null)
+            frameListener.transmitted(port, start, octets);
+
+        if (blockingWrites) {
+            port.writing = true;
+            try {
+                runUntil(tx.end());
+            } finally {
+                port.writing = false;
+            }
+        }
+    }
+
+    private void deliver() {
+        Iterator<Transmission> iter = transmissions.iterator();
+        while (iter.hasNext()) {
+            Transmission tx = iter.next();
+            while (tx.delivered < tx.octets.length && tx.octetEnd(tx.delivered) <= clock.nanos) {
+                byte b = tx.octets[tx.delivered++];
+                if (octetErrorRate > 0 && random.nextDouble() < octetErrorRate) {
+                    b ^= (byte) (1 << random.nextInt(8));
+                    corruptedOctets++;
+                }
+                for (Port port : ports) {
+                    if (port != tx.port && port.open)
+                        port.input.push(b);
+                }
+            }
+            if (tx.delivered == tx.octets.length)
+                iter.remove();
+        }
+    }
+
+    private class Transmission {
+        final Port port;
+        final long start;
+        final byte[] octets;
+        int delivered;
+
+        Transmission(Port port, long start, byte[] octets) {
+            this.port = port;
+            this.start = start;
+            this.octets = octets;
+        }
+
+        long octetEnd(int index) {
+            return start + (index + 1) * octetNanos;
+        }
+
+        long end() {
+            return octetEnd(octets.length - 1);
+        }
+
+        /**
+         * Replaces the undelivered octets that are on the wire at any time within the given interval with noise.
+         */
+        void garble(long from, long to) {
+            for (int i = delivered; i < octets.length; i++) {
+                long octetStart = start + i * octetNanos;
+                if (octetStart >= to)
+                    break;
+                if (octetEnd(i) > from) {
+                    octets[i] = (byte) random.nextInt(256);
+                    corruptedOctets++;
+                }
+            }
+        }
+    }
+
+    public class Port extends SerialPortWrapper {
+        private final String id;
+        private final ByteQueue input = new ByteQueue();
+        private long transmitEnd;
+        private boolean open;
+        private MstpNode node;
+        private boolean writing;
+
+        private final InputStream in = new InputStream() {
+            @Override
+            public int available() {
+                return input.size();
+            }
+
+            @Override
+            public int read() {
+                return input.size() == 0 ? -1 : input.pop() & 0xff;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                if (len == 0)
+                    return 0;
+                if (input.size() == 0)
+                    return -1;
+                return input.pop(b, off, len);
+            }
+        };
+
+        private final OutputStream out = new OutputStream() {
+            @Override
+            public void write(int b) {
+                transmit(Port.this, new byte[] {(byte) b});
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                if (len > 0) {
+                    byte[] octets = new byte[len];
+                    System.arraycopy(b, off, octets, 0, len);
+                    transmit(Port.this, octets);
+                }
+            }
+        };
+
+        Port(String id) {
+            this.id = id;
+        }
+
+        @Override
+        public void open() {
+            open = true;
+        }
+
+        @Override
+        public void close() {
+            open = false;
+            input.clear();
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return in;
+        }
+
+        @Override
+        public OutputStream getOutputStream() {
+            return out;
+        }
+
+        @Override
+        public String getCommPortId() {
+            return id;
+        }
+    }
+
+    private static class SimulationClock extends Clock {
+        // An arbitrary fixed start, so that runs are reproducible.
+        private static final long EPOCH_MILLIS = 1_700_000_000_000L;
+
+        long nanos;
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long millis() {
+            return EPOCH_MILLIS + nanos / 1_000_000;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(EPOCH_MILLIS).plusNanos(nanos);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2025 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+
+package com.serotonin.bacnet4j.npdu.mstp;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.Test;
+
+import com.serotonin.bacnet4j.npdu.mstp.SimulatedRs485Bus.Port;
+
+public class SimulatedRs485BusTest {
+    @Test
+    public void octetsTakeTenBitTimes() throws Exception {
+        SimulatedRs485Bus bus = new SimulatedRs485Bus(9600, 0).withTickNanos(10_000).withBlockingWrites(false);
+        Port a = bus.createPort("a");
+        Port b = bus.createPort("b");
+        a.open();
+        b.open();
+
+        a.getOutputStream().write(new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10});
+        InputStream in = b.getInputStream();
+
+        // 10 octets at 9600 baud take 10.4ms.
+        bus.run(1_000_000);
+        assertEquals(0, in.available());
+        bus.run(9_000_000);
+        assertEquals(9, in.available());
+        bus.run(500_000);
+        assertEquals(10, in.available());
+        assertEquals(0, a.getInputStream().available());
+
+        byte[] buf = new byte[10];
+        assertEquals(10, in.read(buf));
+        assertArrayEquals(new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10}, buf);
+        assertEquals(0, bus.getCollisions());
+    }
+
+    @Test
+    public void overlappingTransmissionsCollide() throws Exception {
+        SimulatedRs485Bus bus = new SimulatedRs485Bus(9600, 0).withTickNanos(10_000).withBlockingWrites(false);
+        Port a = bus.createPort("a");
+        Port b = bus.createPort("b");
+        Port c = bus.createPort("c");
+        a.open();
+        b.open();
+        c.open();
+
+        byte[] data = new byte[20];
+        a.getOutputStream().write(data);
+        bus.run(5_000_000);
+        b.getOutputStream().write(data);
+        bus.run(50_000_000);
+
+        assertEquals(1, bus.getCollisions());
+        // Octets of a from its 5th on overlap b, and all of b overlaps a until a is done.
+        assertTrue(bus.getCorruptedOctets() > 0);
+        assertEquals(40, c.getInputStream().available());
+    }
+
+    @Test
+    public void blockingWritesReturnWhenTransmitted() throws Exception {
+        SimulatedRs485Bus bus = new SimulatedRs485Bus(9600, 0).withTickNanos(10_000);
+        Port a = bus.createPort("a");
+        Port b = bus.createPort("b");
+        a.open();
+        b.open();
+
+        a.getOutputStream().write(new byte[10]);
+        assertTrue(bus.getNanos() >= 10 * bus.getOctetNanos());
+        assertEquals(10, b.getInputStream().available());
+    }
+
+    @Test
+    public void tokenRingAndTestRequest() throws Exception {
+        SimulatedRs485Bus bus = new SimulatedRs485Bus(38400, 0);
+        RecordingManagerNode m0 = bus.attach(new RecordingManagerNode(bus.createPort("m0"), (byte) 0));
+        RecordingManagerNode m1 = bus.attach(new RecordingManagerNode(bus.createPort("m1"), (byte) 1));
+        RecordingManagerNode m2 = bus.attach(new RecordingManagerNode(bus.createPort("m2"), (byte) 2));
+        bus.attach(new SubordinateNode(bus.createPort("s10"), (byte) 10));
+        try {
+            bus.run(2_000_000_000L);
+            assertTrue(m0.hasReceivedToken());
+            assertTrue(m1.hasReceivedToken());
+            assertTrue(m2.hasReceivedToken());
+
+            byte[] data = {1, 2, 3};
+            m0.queueFrame(FrameType.testRequest, (byte) 10, data);
+            bus.run(200_000_000L);
+
+            assertEquals(1, m0.received.size());
+            assertEquals(FrameType.testResponse, m0.received.get(0).getFrameType());
+            assertArrayEquals(data, m0.received.get(0).getData());
+            assertEquals(0, bus.getCollisions());
+        } finally {
+            bus.terminate();
+        }
+    }
+
+    @Test
+    public void runsAreReproducible() throws Exception {
+        long[] first = simulateNoisyRing();
+        long[] second = simulateNoisyRing();
+        assertArrayEquals(first, second);
+        assertFalse(first[2] == 0);
+    }
+
+    private static long[] simulateNoisyRing() throws Exception {
+        SimulatedRs485Bus bus = new SimulatedRs485Bus(19200, 42).withBitErrorRate(1e-4);
+        for (int i = 0; i < 4; i++)
+            bus.attach(new RecordingManagerNode(bus.createPort("m" + i), (byte) i));
+        bus.run(3_000_000_000L);
+        bus.terminate();
+        return new long[] {bus.getFramesTransmitted(), bus.getOctetsTransmitted(), bus.getCorruptedOctets(),
+                bus.getCollisions()};
+    }
+
+    static class RecordingManagerNode extends ManagerNode {
+        final List<Frame> received = new CopyOnWriteArrayList<>();
+
+        RecordingManagerNode(Port port, byte station) {
+            super(port, station, 1);
+            setMaxManager(3);
+        }
+
+        @Override
+        protected void receivedDataNoReply(Frame frame) {
+            received.add(frame.copy());
+        }
+    }
+}
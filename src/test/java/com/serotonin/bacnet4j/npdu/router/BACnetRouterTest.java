@@ -0,0 +1,173 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2025 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+package com.serotonin.bacnet4j.npdu.router;
+
+import static com.serotonin.bacnet4j.TestUtils.awaitTrue;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.serotonin.bacnet4j.LocalDevice;
+import com.serotonin.bacnet4j.RemoteDevice;
+import com.serotonin.bacnet4j.npdu.test.TestNetwork;
+import com.serotonin.bacnet4j.npdu.test.TestNetworkMap;
+import com.serotonin.bacnet4j.service.acknowledgement.ReadPropertyAck;
+import com.serotonin.bacnet4j.service.confirmed.ReadPropertyRequest;
+import com.serotonin.bacnet4j.service.unconfirmed.WhoIsRequest;
+import com.serotonin.bacnet4j.transport.DefaultTransport;
+import com.serotonin.bacnet4j.type.constructed.Address;
+import com.serotonin.bacnet4j.type.enumerated.ObjectType;
+import com.serotonin.bacnet4j.type.enumerated.PropertyIdentifier;
+import com.serotonin.bacnet4j.type.primitive.ObjectIdentifier;
+import com.serotonin.bacnet4j.type.primitive.OctetString;
+
+/**
+ * Two simulated networks, 10 and 20, joined by a router whose device is on network 10. Device 1 is on network 10 and
+ * device 2 on network 20, both at MAC 2.
+ */
+public class BACnetRouterTest {
+    private final TestNetworkMap map10 = new TestNetworkMap();
+    private final TestNetworkMap map20 = new TestNetworkMap();
+
+    private LocalDevice routerDevice;
+    private BACnetRouter router;
+    private LocalDevice d1;
+    private LocalDevice d2;
+
+    @Before
+    public void before() throws Exception {
+        d1 = new LocalDevice(1, new DefaultTransport(network(map10, 2, 10))).initialize();
+        d2 = new LocalDevice(2, new DefaultTransport(network(map20, 2, 20))).initialize();
+
+        routerDevice = new LocalDevice(100, new DefaultTransport(network(map10, 1, 10))).initialize();
+        router = new BACnetRouter(routerDevice);
+        router.addPort(network(map20, 1, 20));
+        router.initialize();
+    }
+
+    @After
+    public void after() {
+        router.terminate();
+        routerDevice.terminate();
+        d1.terminate();
+        d2.terminate();
+    }
+
+    private static TestNetwork network(TestNetworkMap map, int mac, int networkNumber) {
+        return new TestNetwork(map, new Address(new byte[] {(byte) mac}), 0, networkNumber);
+    }
+
+    private static OctetString mac(int mac) {
+        return new OctetString(new byte[] {(byte) mac});
+    }
+
+    @Test
+    public void routerAnnouncesItsNetworks() throws Exception {
+        awaitTrue(() -> mac(1).equals(d1.getNetwork().getTransport().getNetworkRouters().get(20)));
+        awaitTrue(() -> mac(1).equals(d2.getNetwork().getTransport().getNetworkRouters().get(10)));
+        assertTrue(router.getRoutingTable().get(10).isDirect());
+        assertTrue(router.getRoutingTable().get(20).isDirect());
+    }
+
+    @Test
+    public void remoteDeviceIsDiscoveredAndRead() throws Exception {
+        RemoteDevice rd = d1.getRemoteDeviceBlocking(2);
+        assertEquals(new Address(20, new byte[] {2}), rd.getAddress());
+
+        ReadPropertyAck ack = d1.send(rd, new ReadPropertyRequest(new ObjectIdentifier(ObjectType.device, 2),
+                PropertyIdentifier.objectName)).get();
+        assertEquals(d2.get(PropertyIdentifier.objectName), ack.getValue());
+
+        RouterPort port20 = router.getPort(20);
+        assertTrue(port20.getSentCount() >= 2);
+        assertTrue(port20.getBytesSent() > 0);
+        assertTrue(router.getPort(10).getReceivedCount() >= 2);
+        assertEquals(0, port20.getQueueSize());
+    }
+
+    @Test
+    public void routerDeviceIsReachableFromOtherPort() throws Exception {
+        awaitTrue(() -> d2.getNetwork().getTransport().getNetworkRouters().containsKey(10));
+        ReadPropertyAck ack = d2.send(new Address(10, new byte[] {1}),
+                new ReadPropertyRequest(new ObjectIdentifier(ObjectType.device, 100), PropertyIdentifier.objectName))
+                .get();
+        assertEquals(routerDevice.get(PropertyIdentifier.objectName), ack.getValue());
+    }
+
+    @Test
+    public void routerDeviceReachesOtherPort() throws Exception {
+        ReadPropertyAck ack = routerDevice.send(new Address(20, new byte[] {2}),
+                new ReadPropertyRequest(new ObjectIdentifier(ObjectType.device, 2), PropertyIdentifier.objectName))
+                .get();
+        assertEquals(d2.get(PropertyIdentifier.objectName), ack.getValue());
+    }
+
+    @Test
+    public void unknownNetworkIsRejected() throws Exception {
+        d1.getNetwork().getTransport().addNetworkRouter(99, mac(1));
+        d1.send(new Address(99, new byte[] {5}), new WhoIsRequest());
+
+        RouterPort port10 = router.getPort(10);
+        awaitTrue(() -> port10.getDroppedCount() == 1);
+        assertEquals(1, port10.getReceivedCount());
+        assertNull(router.getRoutingTable().get(99));
+    }
+
+    @Test
+    public void routesLearnedFromAnotherRouter() throws Exception {
+        // A second router, with its device on network 20, to network 30.
+        TestNetworkMap map30 = new TestNetworkMap();
+        LocalDevice d3 = new LocalDevice(3, new DefaultTransport(network(map30, 2, 30))).initialize();
+        LocalDevice router2Device = new LocalDevice(200, new DefaultTransport(network(map20, 3, 20))).initialize();
+        BACnetRouter router2 = new BACnetRouter(router2Device);
+        router2.addPort(network(map30, 1, 30));
+        router2.initialize();
+        try {
+            awaitTrue(() -> router.getRoutingTable().get(30) != null);
+            assertEquals(router.getPort(20), router.getRoutingTable().get(30).port());
+            assertEquals(mac(3), router.getRoutingTable().get(30).nextHop());
+            awaitTrue(() -> mac(1).equals(d1.getNetwork().getTransport().getNetworkRouters().get(30)));
+            // The second router asked for the networks of the first when it started.
+            awaitTrue(() -> router2.getRoutingTable().get(10) != null);
+            assertEquals(mac(1), router2.getRoutingTable().get(10).nextHop());
+
+            ReadPropertyAck ack = d1.send(new Address(30, new byte[] {2}),
+                    new ReadPropertyRequest(new ObjectIdentifier(ObjectType.device, 3),
+                            PropertyIdentifier.objectName)).get();
+            assertEquals(d3.get(PropertyIdentifier.objectName), ack.getValue());
+        } finally {
+            router2.terminate();
+            router2Device.terminate();
+            d3.terminate();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2025 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+package com.serotonin.bacnet4j.npdu.sc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.java_websocket.WebSocket;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SCAcceptedConnectionTest {
+    private SCAcceptor acceptor;
+    private WebSocket socket;
+    private final List<Runnable> scheduled = new ArrayList<>();
+    private int backlog;
+    private SCAcceptedConnection connection;
+
+    @Before
+    public void before() {
+        acceptor = mock(SCAcceptor.class);
+        socket = mock(WebSocket.class);
+        when(acceptor.getOutboundQueueCapacity()).thenReturn(2);
+        when(acceptor.getWireQueueLimit()).thenReturn(4);
+        when(acceptor.schedule(any(Runnable.class), anyLong(), any(TimeUnit.class))).thenAnswer(inv -> {
+            scheduled.add(inv.getArgument(0));
+            return null;
+        });
+        connection = new SCAcceptedConnection(acceptor, socket) {
+            @Override
+            int getWireBacklog() {
+                return backlog;
+            }
+        };
+    }
+
+    @Test
+    public void writesImmediatelyWhenTheWireHasRoom() {
+        assertTrue(connection.send(new byte[] {1}));
+        assertTrue(connection.send(new byte[] {2}));
+        assertTrue(connection.send(new byte[] {3}));
+
+        var order = inOrder(socket);
+        order.verify(socket).send(new byte[] {1});
+        order.verify(socket).send(new byte[] {2});
+        order.verify(socket).send(new byte[] {3});
+        assertEquals(0, connection.getQueuedCount());
+        assertEquals(3, connection.getSentCount());
+    }
+
+    /**
+     * While the websocket is backed up, messages wait in the bounded queue; beyond its capacity they are dropped, and
+     * the waiting ones are written in order once the backlog clears.
+     */
+    @Test
+    public void backpressure() {
+        backlog = 4;
+        assertTrue(connection.send(new byte[] {1}));
+        assertTrue(connection.send(new byte[] {2}));
+        assertFalse(connection.send(new byte[] {3}));
+
+        verify(socket, never()).send(any(byte[].class));
+        assertEquals(2, connection.getQueuedCount());
+        assertEquals(1, connection.getDroppedCount());
+        verify(acceptor).messageDropped();
+        // Only one retry is scheduled however many messages wait.
+        assertEquals(1, scheduled.size());
+
+        backlog = 0;
+        scheduled.remove(0).run();
+        var order = inOrder(socket);
+        order.verify(socket).send(new byte[] {1});
+        order.verify(socket).send(new byte[] {2});
+        assertEquals(0, connection.getQueuedCount());
+        assertTrue(scheduled.isEmpty());
+    }
+
+    @Test
+    public void closedConnectionDiscardsMessages() {
+        backlog = 4;
+        connection.send(new byte[] {1});
+        connection.closed();
+
+        assertEquals(0, connection.getQueuedCount());
+        assertFalse(connection.send(new byte[] {2}));
+    }
+}
@@ -50,6 +50,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.net.URI;
+import java.nio.ByteBuffer;
 import java.time.Clock;
 import java.util.ArrayList;
 import java.util.List;
@@ -65,6 +66,7 @@ import org.mockito.InOrder;
 
 import com.serotonin.bacnet4j.LocalDevice;
 import com.serotonin.bacnet4j.npdu.sc.msg.SCBVLC;
+import com.serotonin.bacnet4j.npdu.sc.msg.SCPayloadAddressResolutionAck;
 import com.serotonin.bacnet4j.npdu.sc.msg.SCPayloadAdvertisement;
 import com.serotonin.bacnet4j.npdu.sc.msg.SCPayloadBVLCResult;
 import com.serotonin.bacnet4j.npdu.sc.msg.SCPayloadConnectAccept;
@@ -256,6 +258,12 @@ public class SCConnectionTest {
             this.mockClient = client;
         }
 
+        TestConnection(SCConnectionOwner owner, String name, SCNetwork network, URI uri, ScWebSocketClient client,
+                boolean direct) {
+            super(owner, name, network, uri, direct);
+            this.mockClient = client;
+        }
+
         @Override
         protected ScWebSocketClient createClient() {
             return mockClient;
@@ -292,7 +300,7 @@ public class SCConnectionTest {
     }
 
     private void feedMessage(SCBVLC message) {
-        connection.onWebsocketMessage(new ByteQueue(message.write()));
+        connection.onWebsocketMessage(ByteBuffer.wrap(message.write()));
     }
 
     /** Drives the SM IDLE -> AWAITING_WEBSOCKET. */
@@ -992,6 +1000,84 @@ public class SCConnectionTest {
         assertEquals(ErrorCode.optionalFunctionalityNotSupported, result.getErrorCode());
     }
 
+    @Test
+    public void connected_addressResolution_acceptingNode_sendsAckWithUris() {
+        when(network.getDirectConnectAcceptUris()).thenReturn(List.of("wss://a.example:4443", "wss://b.example:4443"));
+        enterConnected();
+
+        feedMessage(addressResolution(57));
+
+        SCBVLC sent = lastSent();
+        assertEquals(SCBVLC.ADDRESS_RESOLUTION_ACK, sent.getFunction());
+        assertEquals(57, sent.getId());
+        assertEquals(PEER_ORIGIN, sent.getDestination());
+        assertEquals(List.of("wss://a.example:4443", "wss://b.example:4443"),
+                new SCPayloadAddressResolutionAck(sent.getPayload()).getUrls());
+    }
+
+    @Test
+    public void connected_addressResolutionAck_goesToOwner() {
+        enterConnected();
+
+        var ack = new SCBVLC(PEER_ORIGIN, null, SCBVLC.ADDRESS_RESOLUTION_ACK,
+                new SCPayloadAddressResolutionAck(List.of("wss://a.example:4443")).write(), 58);
+        feedMessage(ack);
+
+        verify(owner).onIncoming(bvlcWithFunction(SCBVLC.ADDRESS_RESOLUTION_ACK));
+    }
+
+    @Test
+    public void connected_peerVmacAndUuidFromConnectAccept() {
+        assertNull(connection.getPeerVmac());
+        enterConnected();
+
+        assertEquals(new SCVmac(PEER_VMAC), connection.getPeerVmac());
+        assertEquals(new SCUuid(PEER_UUID), connection.getPeerUuid());
+    }
+
+    @Test
+    public void direct_npduWithoutAddresses_goesToOwner() {
+        var directOwner = mock(SCConnectionOwner.class);
+        connection = new TestConnection(directOwner, "direct", network, WSS_URI, client, true);
+        connection.configure(transport);
+        enterConnected();
+
+        feedMessage(new SCBVLC(null, null, SCBVLC.ENCAPSULATED_NPDU, new byte[] {0x01, 0x02}, 60));
+
+        verify(directOwner).onIncoming(bvlcWithFunction(SCBVLC.ENCAPSULATED_NPDU));
+        verify(directOwner).onConnectionEstablished(connection);
+    }
+
+    @Test
+    public void direct_npduWithOriginating_isNakedAndDropped() {
+        // AB.4.1: there are no VMACs in the messages of a direct connection.
+        var directOwner = mock(SCConnectionOwner.class);
+        connection = new TestConnection(directOwner, "direct", network, WSS_URI, client, true);
+        connection.configure(transport);
+        enterConnected();
+
+        feedMessage(encapsulatedNpdu(61));
+
+        verify(directOwner, never()).onIncoming(any());
+        SCBVLC sent = lastSent();
+        assertEquals(SCBVLC.BVLC_RESULT, sent.getFunction());
+        assertEquals(ErrorCode.headerEncodingError, new SCPayloadBVLCResult(sent.getPayload()).getErrorCode());
+    }
+
+    @Test
+    public void direct_duplicateVmacNak_failsWithoutRestart() {
+        var directOwner = mock(SCConnectionOwner.class);
+        connection = new TestConnection(directOwner, "direct", network, WSS_URI, client, true);
+        connection.configure(transport);
+        int connectId = enterAwaitingAccept();
+
+        feedMessage(bvlcResultNak(connectId, ErrorCode.nodeDuplicateVmac));
+
+        verify(directOwner, never()).restartWithNewVMAC();
+        verify(directOwner).onConnectionIdle(connection, false);
+        assertConnectionError(SCConnectionState.failedToConnect, ErrorCode.nodeDuplicateVmac, null);
+    }
+
     @Test
     public void connected_advertisement_isIgnored() {
         enterConnected();
@@ -1232,7 +1318,7 @@ public class SCConnectionTest {
         enterConnected();
         clearInvocations(owner);
 
-        connection.onWebsocketMessage(new ByteQueue(new byte[1501]));
+        connection.onWebsocketMessage(ByteBuffer.wrap(new byte[1501]));
 
         assertEquals(SCConnection.State.CONNECTED, connection.getState());
         verify(owner, never()).onIncoming(any());
@@ -1687,7 +1773,7 @@ public class SCConnectionTest {
         enterConnected();
         clearInvocations(client);
 
-        connection.onWebsocketMessage(new ByteQueue(new byte[] {SCBVLC.ENCAPSULATED_NPDU, 0x00, 0x00}));
+        connection.onWebsocketMessage(ByteBuffer.wrap(new byte[] {SCBVLC.ENCAPSULATED_NPDU, 0x00, 0x00}));
 
         assertEquals(SCConnection.State.CONNECTED, connection.getState());
         verify(client, never()).send(any(byte[].class));
@@ -0,0 +1,168 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2025 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+package com.serotonin.bacnet4j.npdu.sc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.serotonin.bacnet4j.LocalDevice;
+import com.serotonin.bacnet4j.TestUtils;
+import com.serotonin.bacnet4j.service.acknowledgement.ReadPropertyAck;
+import com.serotonin.bacnet4j.service.confirmed.ReadPropertyRequest;
+import com.serotonin.bacnet4j.transport.DefaultTransport;
+import com.serotonin.bacnet4j.type.constructed.Address;
+import com.serotonin.bacnet4j.type.enumerated.ObjectType;
+import com.serotonin.bacnet4j.type.enumerated.PropertyIdentifier;
+import com.serotonin.bacnet4j.type.enumerated.SCConnectionState;
+import com.serotonin.bacnet4j.type.primitive.CharacterString;
+import com.serotonin.bacnet4j.type.primitive.ObjectIdentifier;
+
+/**
+ * Runs real SC networks through an embedded hub, with direct connections between the nodes.
+ */
+public class SCDirectConnectorTest {
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private SCTestCertificates certificates;
+    private SCHub hub;
+    private final List<LocalDevice> nodes = new ArrayList<>();
+
+    @Before
+    public void before() throws Exception {
+        certificates = new SCTestCertificates(tempFolder.getRoot());
+        var uuid = UUID.randomUUID();
+        var uuidBytes = new byte[16];
+        for (int i = 0; i < 8; i++) {
+            uuidBytes[i] = (byte) (uuid.getMostSignificantBits() >>> (56 - 8 * i));
+            uuidBytes[i + 8] = (byte) (uuid.getLeastSignificantBits() >>> (56 - 8 * i));
+        }
+        hub = new SCHub(new InetSocketAddress("localhost", 0), certificates.createSslContext(),
+                SCVmac.makeRandom(), new SCUuid(uuidBytes));
+        hub.start();
+    }
+
+    @After
+    public void after() {
+        nodes.forEach(LocalDevice::terminate);
+        hub.stop();
+    }
+
+    /**
+     * The first request resolves the peer and connects to it directly; once connected, requests bypass the hub.
+     */
+    @Test
+    public void directConnection() throws Exception {
+        var a = createNode(1, true, true);
+        var b = createNode(2, true, true);
+        awaitHubConnected(a, b);
+        var network = (SCNetwork) a.getNetwork();
+
+        assertEquals("node2", readName(a, b));
+        TestUtils.awaitTrue(() -> network.getDirectConnectionStatus().stream().anyMatch(
+                s -> s.getConnectionState().equals(SCConnectionState.connected)
+                        && s.getPeerVmac().equals(((SCNetwork) b.getNetwork()).getVmac())), 10000);
+        // The accepting side lists the connection too. It may also have made its own connection: its first reply
+        // could have gone through the hub before the connection was accepted.
+        TestUtils.awaitTrue(() -> !((SCNetwork) b.getNetwork()).getDirectConnectionStatus().isEmpty(), 5000);
+
+        long forwarded = hub.getForwardedCount();
+        for (int i = 0; i < 10; i++) {
+            assertEquals("node2", readName(a, b));
+            // The accepting side replies over the connection that was made to it.
+            assertEquals("node1", readName(b, a));
+        }
+        assertEquals(forwarded, hub.getForwardedCount());
+    }
+
+    /**
+     * A peer that does not accept direct connections answers the address resolution with a NAK, and requests keep
+     * going through the hub.
+     */
+    @Test
+    public void acceptDisabled() throws Exception {
+        var a = createNode(1, true, true);
+        var b = createNode(2, false, false);
+        awaitHubConnected(a, b);
+
+        assertEquals("node2", readName(a, b));
+        // Give the address resolution time to complete.
+        Thread.sleep(500);
+
+        long forwarded = hub.getForwardedCount();
+        for (int i = 0; i < 5; i++) {
+            assertEquals("node2", readName(a, b));
+        }
+        assertTrue(((SCNetwork) a.getNetwork()).getDirectConnectionStatus().isEmpty());
+        // Each request and its ack, and no further address resolution. The hub counts a message after sending it, so
+        // the count of the last ack may lag its arrival.
+        TestUtils.awaitEquals((int) forwarded + 10, () -> (int) hub.getForwardedCount(), 1000);
+        TestUtils.quiesce();
+        assertEquals(forwarded + 10, hub.getForwardedCount());
+    }
+
+    private LocalDevice createNode(int instanceNumber, boolean initiate, boolean accept) throws Exception {
+        var builder = certificates.networkBuilder()
+                .primaryHubUri(hub.getUri().toString())
+                .heartbeatTimeout(30)
+                .directConnectInitiateEnable(initiate)
+                .directConnectAcceptEnable(accept)
+                .directConnectBinding("localhost:0");
+        var localDevice = new LocalDevice(instanceNumber, new DefaultTransport(builder.build()));
+        localDevice.writePropertyInternal(PropertyIdentifier.objectName, new CharacterString("node" + instanceNumber));
+        certificates.addFileObjects(localDevice);
+        nodes.add(localDevice);
+        localDevice.initialize();
+        return localDevice;
+    }
+
+    private static void awaitHubConnected(LocalDevice... localDevices) throws Exception {
+        for (LocalDevice localDevice : localDevices) {
+            ((SCNetwork) localDevice.getNetwork()).whenHubConnected().get(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private static String readName(LocalDevice from, LocalDevice to) throws Exception {
+        ReadPropertyAck ack = from.send(new Address(((SCNetwork) to.getNetwork()).getVmac()),
+                new ReadPropertyRequest(new ObjectIdentifier(ObjectType.device, to.getInstanceNumber()),
+                        PropertyIdentifier.objectName)).get();
+        return ack.getValue().toString();
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2025 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+package com.serotonin.bacnet4j.npdu.sc;
+
+import java.io.File;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.serotonin.bacnet4j.LocalDevice;
+import com.serotonin.bacnet4j.ResponseConsumer;
+import com.serotonin.bacnet4j.TestUtils;
+import com.serotonin.bacnet4j.apdu.AckAPDU;
+import com.serotonin.bacnet4j.exception.BACnetException;
+import com.serotonin.bacnet4j.service.acknowledgement.AcknowledgementService;
+import com.serotonin.bacnet4j.service.confirmed.ReadPropertyRequest;
+import com.serotonin.bacnet4j.transport.DefaultTransport;
+import com.serotonin.bacnet4j.type.constructed.Address;
+import com.serotonin.bacnet4j.type.enumerated.ObjectType;
+import com.serotonin.bacnet4j.type.enumerated.PropertyIdentifier;
+import com.serotonin.bacnet4j.type.enumerated.SCConnectionState;
+import com.serotonin.bacnet4j.type.enumerated.SCHubConnectorState;
+import com.serotonin.bacnet4j.type.primitive.ObjectIdentifier;
+
+/**
+ * Measures request loss and latency while SC nodes fail over from the primary to the failover hub. Two nodes are
+ * connected through a pair of embedded hubs; one sends a stream of confirmed requests to the other at a fixed rate,
+ * and the primary hub is stopped half way through. Every request that is not answered within the transport's timeout
+ * and retries counts as lost. Compares failing over by connecting to the failover hub when the primary is lost with
+ * a failover connection kept in hot standby. Run as a Java application.
+ */
+public class SCFailoverBenchmark {
+    private static final int REQUESTS = 300;
+    private static final long INTERVAL_MILLIS = 10;
+    private static final int TIMEOUT_MILLIS = 2000;
+
+    public static void main(String[] args) throws Exception {
+        Path directory = Files.createTempDirectory("sc-failover");
+        try {
+            var certificates = new SCTestCertificates(directory.toFile());
+            System.out.println("mode      retries  requests  lost  latency avg/p99/max (ms)  switch (ms)");
+            for (int retries : new int[] {0, 1}) {
+                print(run(certificates, false, retries));
+                print(run(certificates, true, retries));
+            }
+        } finally {
+            try (var paths = Files.walk(directory)) {
+                paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+            }
+        }
+    }
+
+    private static void print(Result result) {
+        System.out.printf("%-9s %-8d %-9d %-5d %6.1f / %6.1f / %-9.1f %.1f%n", result.hotStandby ? "standby" : "cold",
+                result.retries, REQUESTS, result.lost(), result.averageMillis(), result.percentileMillis(99),
+                result.percentileMillis(100), result.switchNanos / 1e6);
+    }
+
+    /**
+     * Runs the scenario once with new hubs and nodes.
+     *
+     * @param retries the number of times the client retries an unanswered request.
+     */
+    static Result run(SCTestCertificates certificates, boolean hotStandby, int retries) throws Exception {
+        SCHub primary = createHub(certificates);
+        SCHub failover = createHub(certificates);
+        List<LocalDevice> nodes = new ArrayList<>();
+        try {
+            LocalDevice client = createNode(certificates, 1, primary, failover, hotStandby, retries, nodes);
+            LocalDevice server = createNode(certificates, 2, primary, failover, hotStandby, retries, nodes);
+            for (LocalDevice node : nodes) {
+                SCNetwork network = (SCNetwork) node.getNetwork();
+                network.whenHubConnected().get(10, TimeUnit.SECONDS);
+                if (hotStandby) {
+                    TestUtils.awaitTrue(() -> network.getFailoverHubConnectionStatus().getConnectionState()
+                            .equals(SCConnectionState.connected), 10000);
+                }
+            }
+
+            AtomicLong switchedAt = new AtomicLong();
+            ((SCNetwork) client.getNetwork()).addHubConnectionListener((oldState, newState) -> {
+                if (newState == SCHubConnectorState.connectedToFailover) {
+                    switchedAt.compareAndSet(0, System.nanoTime());
+                }
+            });
+            AtomicLong stoppedAt = new AtomicLong();
+            // Stopping the hub waits for its connections to close, so it cannot hold up the stream.
+            Thread stopper = new Thread(() -> {
+                stoppedAt.set(System.nanoTime());
+                primary.stop();
+            }, "primary-hub-stopper");
+
+            Address address = new Address(((SCNetwork) server.getNetwork()).getVmac());
+            Queue<Long> latencies = new ConcurrentLinkedQueue<>();
+            CountDownLatch done = new CountDownLatch(REQUESTS);
+            for (int i = 0; i < REQUESTS; i++) {
+                if (i == REQUESTS / 2) {
+                    stopper.start();
+                }
+                long start = System.nanoTime();
+                client.send(address, new ReadPropertyRequest(
+                        new ObjectIdentifier(ObjectType.device, server.getInstanceNumber()),
+                        PropertyIdentifier.objectName), new ResponseConsumer() {
+                    @Override
+                    public void success(AcknowledgementService ack) {
+                        latencies.add(System.nanoTime() - start);
+                        done.countDown();
+                    }
+
+                    @Override
+                    public void fail(AckAPDU ack) {
+                        done.countDown();
+                    }
+
+                    @Override
+                    public void ex(BACnetException e) {
+                        done.countDown();
+                    }
+                });
+                Thread.sleep(INTERVAL_MILLIS);
+            }
+            done.await((long) TIMEOUT_MILLIS * (retries + 1) + 5000, TimeUnit.MILLISECONDS);
+            stopper.join();
+
+            long switchNanos = switchedAt.get() == 0 ? -1 : switchedAt.get() - stoppedAt.get();
+            return new Result(hotStandby, retries, latencies.stream().mapToLong(Long::longValue).sorted().toArray(),
+                    switchNanos);
+        } finally {
+            nodes.forEach(LocalDevice::terminate);
+            primary.stop();
+            failover.stop();
+        }
+    }
+
+    private static SCHub createHub(SCTestCertificates certificates) throws Exception {
+        var uuid = UUID.randomUUID();
+        var uuidBytes = new byte[16];
+        for (int i = 0; i < 8; i++) {
+            uuidBytes[i] = (byte) (uuid.getMostSignificantBits() >>> (56 - 8 * i));
+            uuidBytes[i + 8] = (byte) (uuid.getLeastSignificantBits() >>> (56 - 8 * i));
+        }
+        var hub = new SCHub(new InetSocketAddress("localhost", 0), certificates.createSslContext(),
+                SCVmac.makeRandom(), new SCUuid(uuidBytes));
+        hub.start();
+        return hub;
+    }
+
+    private static LocalDevice createNode(SCTestCertificates certificates, int instanceNumber, SCHub primary,
+            SCHub failover, boolean hotStandby, int retries, List<LocalDevice> nodes) throws Exception {
+        var network = certificates.networkBuilder()
+                .primaryHubUri(primary.getUri().toString())
+                .failoverHubUri(failover.getUri().toString())
+                .heartbeatTimeout(30)
+                .failoverHotStandby(hotStandby)
+                .build();
+        var transport = new DefaultTransport(network);
+        transport.setTimeout(TIMEOUT_MILLIS);
+        transport.setRetries(retries);
+        var localDevice = new LocalDevice(instanceNumber, transport);
+        certificates.addFileObjects(localDevice);
+        nodes.add(localDevice);
+        localDevice.initialize();
+        return localDevice;
+    }
+
+    /**
+     * @param latencyNanos the round trip times of the answered requests, in ascending order.
+     * @param switchNanos  the time from stopping the primary hub until the client was connected to the failover hub,
+     *                     or -1 if it never was.
+     */
+    record Result(boolean hotStandby, int retries, long[] latencyNanos, long switchNanos) {
+        int lost() {
+            return REQUESTS - latencyNanos.length;
+        }
+
+        double averageMillis() {
+            return Arrays.stream(latencyNanos).average().orElse(0) / 1e6;
+        }
+
+        double percentileMillis(int percentile) {
+            if (latencyNanos.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(latencyNanos.length * percentile / 100.0) - 1;
+            return latencyNanos[Math.max(0, index)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2025 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+package com.serotonin.bacnet4j.npdu.sc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Forced failovers between embedded hubs; see {@link SCFailoverBenchmark}.
+ */
+public class SCFailoverTest {
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    /**
+     * With the failover connection in hot standby, the nodes switch as soon as the primary connection closes, and
+     * requests that are lost in the stopping hub are recovered by a single retry.
+     */
+    @Test
+    public void hotStandby() throws Exception {
+        var result = SCFailoverBenchmark.run(new SCTestCertificates(tempFolder.getRoot()), true, 1);
+
+        assertEquals(0, result.lost());
+        assertTrue("switch took " + result.switchNanos() / 1_000_000 + " ms",
+                result.switchNanos() >= 0 && result.switchNanos() < 1_000_000_000L);
+    }
+}
@@ -57,6 +57,7 @@ import com.serotonin.bacnet4j.npdu.sc.msg.SCBVLC;
 import com.serotonin.bacnet4j.npdu.sc.msg.SCPayloadAdvertisement;
 import com.serotonin.bacnet4j.transport.Transport;
 import com.serotonin.bacnet4j.type.enumerated.SCHubConnectorState;
+import com.serotonin.bacnet4j.type.primitive.UnsignedInteger;
 
 /**
  * State machine coverage for SCHubConnector. Mirrors the SCConnectionTest structure: an inline
@@ -1235,4 +1236,164 @@ public class SCHubConnectorTest {
         assertEquals(SCHubConnector.State.IDLE, noConnections.getState());
         verify(node).onConnectorIdle();
     }
+
+    // ======================================================================================
+    // Hot standby: the failover connection is kept established while connected to the primary,
+    // and messages that cannot be sent are queued until a connection is usable.
+    // ======================================================================================
+
+    private void useHotStandby() {
+        when(network.isFailoverHotStandby()).thenReturn(true);
+        when(network.getConnectWaitTimeout()).thenReturn(new UnsignedInteger(10));
+        connector = new TestHubConnector(node, network, primaryConn, failoverConn);
+        connector.configure(transport);
+    }
+
+    private void enterConnectedPrimaryWithStandby() {
+        enterConnectedPrimary();
+        connector.onConnectionEstablished(failoverConn);
+        when(failoverConn.getState()).thenReturn(SCConnection.State.CONNECTED);
+        assertEquals(SCHubConnector.State.CONNECTED_PRIMARY, connector.getState());
+    }
+
+    @Test
+    public void hotStandby_connectedPrimary_initiatesFailover() {
+        useHotStandby();
+
+        enterConnectedPrimary();
+
+        verify(failoverConn).initialize();
+        assertHubConnectorState(SCHubConnectorState.connectedToPrimary);
+    }
+
+    @Test
+    public void hotStandby_primaryClosed_switchesToStandbyWithoutDisconnect() {
+        useHotStandby();
+        enterConnectedPrimaryWithStandby();
+
+        connector.onConnectionIdle(primaryConn, true);
+
+        assertEquals(SCHubConnector.State.CONNECTED_FAILOVER, connector.getState());
+        verify(node, never()).onDisconnected();
+        verify(failoverConn, times(1)).initialize();
+        verify(failoverConn, never()).hardTerminate();
+        // The primary is retried as usual.
+        assertScheduledFor(lastTask(), RECONNECT_SECS);
+        verify(network).fireHubConnectionStateChanged(SCHubConnectorState.connectedToPrimary,
+                SCHubConnectorState.connectedToFailover);
+    }
+
+    @Test
+    public void hotStandby_primaryClosedBeforeStandbyReady_reconnectsInSequence() {
+        useHotStandby();
+        enterConnectedPrimary();
+
+        connector.onConnectionIdle(primaryConn, true);
+
+        assertEquals(SCHubConnector.State.WAIT_PRIMARY, connector.getState());
+        verify(failoverConn).hardTerminate();
+        verify(node).onDisconnected();
+    }
+
+    @Test
+    public void hotStandby_standbyLost_retriedAfterReconnectWait() {
+        useHotStandby();
+        enterConnectedPrimaryWithStandby();
+        when(failoverConn.getState()).thenReturn(SCConnection.State.IDLE);
+
+        connector.onConnectionIdle(failoverConn, true);
+
+        assertEquals(SCHubConnector.State.CONNECTED_PRIMARY, connector.getState());
+        assertScheduledFor(lastTask(), RECONNECT_SECS);
+        lastTask().runnable.run();
+        verify(failoverConn, times(2)).initialize();
+        assertEquals(SCHubConnector.State.CONNECTED_PRIMARY, connector.getState());
+    }
+
+    @Test
+    public void hotStandby_primaryRecovered_keepsFailoverAsStandby() {
+        useHotStandby();
+        enterRewaitPrimary();
+
+        connector.onConnectionEstablished(primaryConn);
+
+        assertEquals(SCHubConnector.State.CONNECTED_PRIMARY, connector.getState());
+        verify(failoverConn, never()).terminate();
+    }
+
+    @Test
+    public void hotStandby_messagesDroppedDuringSwitch_areReplayedInOrder() {
+        useHotStandby();
+        enterConnectedPrimaryWithStandby();
+        SCBVLC msg1 = mock(SCBVLC.class);
+        SCBVLC msg2 = mock(SCBVLC.class);
+        when(primaryConn.sendMessage(any(SCBVLC.class))).thenReturn(false);
+        when(failoverConn.sendMessage(any(SCBVLC.class))).thenReturn(true);
+
+        // The primary websocket is closed but its close event has not been handled yet.
+        connector.sendMessage(msg1);
+        connector.sendMessage(msg2);
+        verify(primaryConn).sendMessage(msg1);
+        verify(primaryConn, never()).sendMessage(msg2);
+        verify(failoverConn, never()).sendMessage(any(SCBVLC.class));
+
+        connector.onConnectionIdle(primaryConn, true);
+
+        InOrder order = inOrder(failoverConn);
+        order.verify(failoverConn).sendMessage(msg1);
+        order.verify(failoverConn).sendMessage(msg2);
+
+        SCBVLC msg3 = mock(SCBVLC.class);
+        connector.sendMessage(msg3);
+        verify(failoverConn).sendMessage(msg3);
+    }
+
+    @Test
+    public void hotStandby_messagesWhileDisconnected_areSentOnConnect() {
+        useHotStandby();
+        enterWaitPrimary();
+        SCBVLC msg = mock(SCBVLC.class);
+        when(primaryConn.sendMessage(any(SCBVLC.class))).thenReturn(true);
+
+        connector.sendMessage(msg);
+        verify(primaryConn, never()).sendMessage(any(SCBVLC.class));
+
+        connector.onConnectionEstablished(primaryConn);
+
+        verify(primaryConn).sendMessage(msg);
+    }
+
+    @Test
+    public void hotStandby_pendingQueueFull_discardsOldest() {
+        useHotStandby();
+        enterWaitPrimary();
+        List<SCBVLC> messages = new ArrayList<>();
+        for (int i = 0; i <= SCHubConnector.MAX_PENDING_MESSAGES; i++) {
+            SCBVLC msg = mock(SCBVLC.class);
+            messages.add(msg);
+            connector.sendMessage(msg);
+        }
+        when(primaryConn.sendMessage(any(SCBVLC.class))).thenReturn(true);
+
+        connector.onConnectionEstablished(primaryConn);
+
+        verify(primaryConn, never()).sendMessage(messages.get(0));
+        verify(primaryConn, times(SCHubConnector.MAX_PENDING_MESSAGES)).sendMessage(any(SCBVLC.class));
+    }
+
+    @Test
+    public void hotStandby_stop_discardsPendingMessages() {
+        useHotStandby();
+        enterWaitPrimary();
+        connector.sendMessage(mock(SCBVLC.class));
+        connector.terminate();
+        connector.onConnectionIdle(primaryConn, false);
+        assertEquals(SCHubConnector.State.IDLE, connector.getState());
+        when(primaryConn.sendMessage(any(SCBVLC.class))).thenReturn(true);
+
+        connector.initialize();
+        connector.onConnectionEstablished(primaryConn);
+
+        verify(primaryConn, never()).sendMessage(any(SCBVLC.class));
+    }
 }
@@ -0,0 +1,204 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2025 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+package com.serotonin.bacnet4j.npdu.sc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.serotonin.bacnet4j.LocalDevice;
+import com.serotonin.bacnet4j.RemoteDevice;
+import com.serotonin.bacnet4j.ServiceFuture;
+import com.serotonin.bacnet4j.TestUtils;
+import com.serotonin.bacnet4j.event.DeviceEventAdapter;
+import com.serotonin.bacnet4j.service.acknowledgement.ReadPropertyAck;
+import com.serotonin.bacnet4j.service.confirmed.ReadPropertyRequest;
+import com.serotonin.bacnet4j.service.unconfirmed.WhoIsRequest;
+import com.serotonin.bacnet4j.transport.DefaultTransport;
+import com.serotonin.bacnet4j.type.constructed.Address;
+import com.serotonin.bacnet4j.type.enumerated.ObjectType;
+import com.serotonin.bacnet4j.type.enumerated.PropertyIdentifier;
+import com.serotonin.bacnet4j.type.primitive.CharacterString;
+import com.serotonin.bacnet4j.type.primitive.ObjectIdentifier;
+import com.serotonin.bacnet4j.type.primitive.OctetString;
+
+/**
+ * Runs real SC networks - TLS websockets and all - through an embedded hub.
+ */
+public class SCHubTest {
+    private static final int NODES = 40;
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private SCTestCertificates certificates;
+    private SCHub hub;
+    private final List<LocalDevice> nodes = new ArrayList<>();
+
+    @Before
+    public void before() throws Exception {
+        certificates = new SCTestCertificates(tempFolder.getRoot());
+        hub = new SCHub(new InetSocketAddress("localhost", 0), certificates.createSslContext(),
+                SCVmac.makeRandom(), new SCUuid(uuidBytes()));
+        hub.start();
+    }
+
+    @After
+    public void after() {
+        nodes.forEach(LocalDevice::terminate);
+        hub.stop();
+    }
+
+    /**
+     * Many nodes on one hub: a broadcast from one reaches all others, and every node reads from its neighbour at the
+     * same time.
+     */
+    @Test
+    public void manyNodes() throws Exception {
+        for (int i = 0; i < NODES; i++) {
+            createNode(i + 1);
+        }
+        TestUtils.awaitEquals(NODES, hub::getConnectionCount, 30000);
+        // The hub accepts a connection slightly before the node considers itself connected.
+        for (LocalDevice node : nodes) {
+            ((SCNetwork) node.getNetwork()).whenHubConnected().get(10, TimeUnit.SECONDS);
+        }
+
+        // Broadcast
+        Set<Integer> iAms = ConcurrentHashMap.newKeySet();
+        nodes.get(0).getEventHandler().addListener(new DeviceEventAdapter() {
+            @Override
+            public void iAmReceived(RemoteDevice d) {
+                iAms.add(d.getInstanceNumber());
+            }
+        });
+        nodes.get(0).sendLocalBroadcast(new WhoIsRequest());
+        TestUtils.awaitEquals(NODES - 1, iAms::size, 10000);
+
+        // Concurrent unicast requests around the ring.
+        for (int round = 0; round < 5; round++) {
+            List<ServiceFuture> futures = new ArrayList<>();
+            for (int i = 0; i < NODES; i++) {
+                var neighbour = nodes.get((i + 1) % NODES);
+                futures.add(nodes.get(i).send(addressOf(neighbour), new ReadPropertyRequest(
+                        new ObjectIdentifier(ObjectType.device, neighbour.getInstanceNumber()),
+                        PropertyIdentifier.objectName)));
+            }
+            for (int i = 0; i < NODES; i++) {
+                ReadPropertyAck ack = futures.get(i).get();
+                assertEquals(new CharacterString("node" + nodes.get((i + 1) % NODES).getInstanceNumber()),
+                        ack.getValue());
+            }
+        }
+
+        assertEquals(0, hub.getDroppedCount());
+        assertEquals(0, hub.getUndeliverableCount());
+        // The who-is and its i-ams, and each round's requests and acks.
+        assertTrue(hub.getForwardedCount() >= (NODES - 1) * 2L + 5L * NODES * 2);
+    }
+
+    /**
+     * A node that connects with the VMAC of another device is refused, picks a new VMAC, and connects with that.
+     */
+    @Test
+    public void duplicateVmac() throws Exception {
+        var first = createNode(1, "021122334455");
+        TestUtils.awaitEquals(1, hub::getConnectionCount, 10000);
+
+        var second = createNode(2, "021122334455");
+        TestUtils.awaitEquals(2, hub::getConnectionCount, 20000);
+
+        var firstVmac = ((SCNetwork) first.getNetwork()).getVmac();
+        var secondVmac = ((SCNetwork) second.getNetwork()).getVmac();
+        assertEquals(OctetString.fromHex("021122334455"), firstVmac);
+        assertNotEquals(firstVmac, secondVmac);
+        TestUtils.awaitTrue(((SCNetwork) second.getNetwork())::isHubConnected, 10000);
+    }
+
+    /**
+     * When the hub stops, its nodes lose their connections.
+     */
+    @Test
+    public void hubStop() throws Exception {
+        var node = createNode(1);
+        var network = (SCNetwork) node.getNetwork();
+        network.whenHubConnected().get(10, TimeUnit.SECONDS);
+
+        hub.stop();
+        TestUtils.awaitFalse(network::isHubConnected, 10000);
+        assertFalse(network.isHubConnected());
+    }
+
+    private LocalDevice createNode(int instanceNumber) throws Exception {
+        return createNode(instanceNumber, null);
+    }
+
+    private LocalDevice createNode(int instanceNumber, String vmac) throws Exception {
+        var builder = certificates.networkBuilder()
+                .primaryHubUri(hub.getUri().toString())
+                .heartbeatTimeout(30);
+        if (vmac != null) {
+            builder.vmac(vmac);
+        }
+        var localDevice = new LocalDevice(instanceNumber, new DefaultTransport(builder.build()));
+        localDevice.writePropertyInternal(PropertyIdentifier.objectName, new CharacterString("node" + instanceNumber));
+        certificates.addFileObjects(localDevice);
+        nodes.add(localDevice);
+        localDevice.initialize();
+        return localDevice;
+    }
+
+    private static Address addressOf(LocalDevice localDevice) {
+        return new Address(((SCNetwork) localDevice.getNetwork()).getVmac());
+    }
+
+    private static byte[] uuidBytes() {
+        var uuid = UUID.randomUUID();
+        var bytes = new byte[16];
+        for (int i = 0; i < 8; i++) {
+            bytes[i] = (byte) (uuid.getMostSignificantBits() >>> (56 - 8 * i));
+            bytes[i + 8] = (byte) (uuid.getLeastSignificantBits() >>> (56 - 8 * i));
+        }
+        return bytes;
+    }
+}
@@ -44,6 +44,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.net.URI;
+import java.nio.ByteBuffer;
 import java.time.Clock;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
@@ -313,7 +314,7 @@ public class SCNodeIntegrationTest {
     }
 
     private void feed(SCConnection connection, SCBVLC message) {
-        connection.onWebsocketMessage(new ByteQueue(message.write()));
+        connection.onWebsocketMessage(ByteBuffer.wrap(message.write()));
     }
 
     /** Fires the most recently scheduled Runnable (typically a heartbeat or ack-wait timeout). */
@@ -0,0 +1,141 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2025 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+package com.serotonin.bacnet4j.npdu.sc;
+
+import java.io.File;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.SecureRandom;
+import java.security.Security;
+import java.security.cert.X509Certificate;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Instant;
+import java.util.Date;
+import java.util.UUID;
+
+import javax.net.ssl.SSLContext;
+
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+
+import com.serotonin.bacnet4j.LocalDevice;
+import com.serotonin.bacnet4j.obj.FileObject;
+import com.serotonin.bacnet4j.obj.fileAccess.FileStreamAccess;
+
+/**
+ * A throwaway PKI for tests that run real BACnet/SC connections: an issuer, and one operational certificate signed
+ * by it that is shared by every node and hub. The certificates are written to files in the given directory so that
+ * local devices can reference them with file objects.
+ */
+public class SCTestCertificates {
+    public static final int OPERATIONAL_CERT = 1;
+    public static final int ISSUER_CERT_1 = 2;
+    public static final int ISSUER_CERT_2 = 3;
+    public static final int CSR_FILE = 4;
+
+    private final KeyPair deviceKey;
+    private final X509Certificate operationalCertificate;
+    private final X509Certificate issuerCertificate;
+    private final File operationalFile;
+    private final File issuerFile;
+    private final File emptyFile;
+
+    public SCTestCertificates(File directory) throws Exception {
+        if (Security.getProvider(BouncyCastleProvider.PROVIDER_NAME) == null) {
+            Security.addProvider(new BouncyCastleProvider());
+        }
+        var issuerKey = generateEcKeyPair();
+        deviceKey = generateEcKeyPair();
+        var now = Instant.now();
+        issuerCertificate = makeCert(issuerKey, issuerKey, "issuer", now);
+        operationalCertificate = makeCert(deviceKey, issuerKey, "device", now);
+
+        operationalFile = new File(directory, "operational.der");
+        issuerFile = new File(directory, "issuer.der");
+        emptyFile = new File(directory, "empty.der");
+        Files.write(operationalFile.toPath(), operationalCertificate.getEncoded());
+        Files.write(issuerFile.toPath(), issuerCertificate.getEncoded());
+        Files.write(emptyFile.toPath(), new byte[0]);
+    }
+
+    /**
+     * @return a TLS context with the shared operational certificate, e.g. for a hub.
+     */
+    public SSLContext createSslContext() throws Exception {
+        return new SCTLSManager(deviceKey.getPrivate(), operationalCertificate.getEncoded(),
+                issuerCertificate.getEncoded(), new byte[0]).getSSLContext();
+    }
+
+    /**
+     * @return a network builder with a random UUID and the key pair and certificate file ids set.
+     */
+    public SCNetworkBuilder networkBuilder() {
+        return new SCNetworkBuilder()
+                .uuid(UUID.randomUUID())
+                .keyPairHandler(new InMemoryKeyPairHandler(deviceKey))
+                .operationalCertificateFileId(OPERATIONAL_CERT)
+                .issuerCertificateFile1Id(ISSUER_CERT_1)
+                .issuerCertificateFile2Id(ISSUER_CERT_2)
+                .certificateSigningRequestFileId(CSR_FILE);
+    }
+
+    /**
+     * Adds the certificate file objects referenced by {@link #networkBuilder()} to the given local device. Must be
+     * called before the device is initialized.
+     */
+    public void addFileObjects(LocalDevice localDevice) throws Exception {
+        localDevice.addObject(new FileObject(localDevice, OPERATIONAL_CERT, "pem",
+                new FileStreamAccess(operationalFile)));
+        localDevice.addObject(new FileObject(localDevice, ISSUER_CERT_1, "pem", new FileStreamAccess(issuerFile)));
+        localDevice.addObject(new FileObject(localDevice, ISSUER_CERT_2, "pem", new FileStreamAccess(emptyFile)));
+    }
+
+    private static KeyPair generateEcKeyPair() throws Exception {
+        var kpg = KeyPairGenerator.getInstance("EC");
+        kpg.initialize(new ECGenParameterSpec("secp256r1"));
+        return kpg.generateKeyPair();
+    }
+
+    private static X509Certificate makeCert(KeyPair subject, KeyPair issuer, String cn, Instant now)
+            throws Exception {
+        var issuerName = new X500Name("CN=" + (issuer == subject ? cn : "issuer"));
+        var subjectName = new X500Name("CN=" + cn);
+        var serial = new BigInteger(64, new SecureRandom());
+        var signer = new JcaContentSignerBuilder("SHA256withECDSA").build(issuer.getPrivate());
+        var builder = new JcaX509v3CertificateBuilder(issuerName, serial, Date.from(now.minusSeconds(3600)),
+                Date.from(now.plusSeconds(24 * 3600L)), subjectName, subject.getPublic());
+        return new JcaX509CertificateConverter()
+                .setProvider(BouncyCastleProvider.PROVIDER_NAME)
+                .getCertificate(builder.build(signer));
+    }
+}
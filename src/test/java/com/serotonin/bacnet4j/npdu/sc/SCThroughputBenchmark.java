@@ -0,0 +1,253 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2025 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+package com.serotonin.bacnet4j.npdu.sc;
+
+import java.io.File;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.serotonin.bacnet4j.LocalDevice;
+import com.serotonin.bacnet4j.event.DeviceEventAdapter;
+import com.serotonin.bacnet4j.npdu.sc.msg.SCBVLC;
+import com.serotonin.bacnet4j.service.unconfirmed.UnconfirmedTextMessageRequest;
+import com.serotonin.bacnet4j.transport.DefaultTransport;
+import com.serotonin.bacnet4j.type.constructed.Address;
+import com.serotonin.bacnet4j.type.constructed.Choice;
+import com.serotonin.bacnet4j.type.enumerated.MessagePriority;
+import com.serotonin.bacnet4j.type.primitive.CharacterString;
+import com.serotonin.bacnet4j.type.primitive.ObjectIdentifier;
+import com.serotonin.bacnet4j.util.SerialExecutor;
+import com.serotonin.bacnet4j.util.sero.ByteQueue;
+
+/**
+ * Measures the throughput of the BACnet/SC data path:
+ * <ul>
+ * <li>the serial executor that runs the SC state machines, fed by several threads at once;</li>
+ * <li>the per-message BVLC work of a hub, which parses each message and re-encodes it with the originating VMAC,
+ * and of a node, which parses each message and hands the NPDU on;</li>
+ * <li>NPDUs per second over one SC connection end to end, from one node through an embedded hub to another, with a
+ * bounded number of messages in flight.</li>
+ * </ul>
+ * Run as a Java application.
+ */
+public class SCThroughputBenchmark {
+    private static final int EXECUTOR_PRODUCERS = 4;
+    private static final int EXECUTOR_TASKS = 2_000_000;
+    private static final int CODEC_MESSAGES = 5_000_000;
+    private static final int NPDUS = 50_000;
+    private static final int WINDOW = 64;
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("Serial executor, " + EXECUTOR_PRODUCERS + " producers");
+        for (int run = 0; run < 3; run++) {
+            System.out.printf("%,.0f tasks/s%n", executor());
+        }
+
+        System.out.println();
+        System.out.println("BVLC codec (messages/s)");
+        System.out.println("payload  hub forward  node receive");
+        for (int payloadLength : new int[] {50, 500, 1400}) {
+            hubForward(payloadLength); // Warm up
+            nodeReceive(payloadLength);
+            System.out.printf("%-8d %,-12.0f %,.0f%n", payloadLength, hubForward(payloadLength),
+                    nodeReceive(payloadLength));
+        }
+
+        System.out.println();
+        System.out.println("End to end through a hub");
+        System.out.println("text length  NPDUs/s   lost");
+        Path directory = Files.createTempDirectory("sc-throughput");
+        try {
+            var certificates = new SCTestCertificates(directory.toFile());
+            for (int textLength : new int[] {10, 400}) {
+                endToEnd(certificates, textLength); // Warm up
+                endToEnd(certificates, textLength);
+            }
+        } finally {
+            try (var paths = Files.walk(directory)) {
+                paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+            }
+        }
+    }
+
+    private static double executor() throws Exception {
+        ExecutorService pool = Executors.newCachedThreadPool();
+        try {
+            var executor = new SerialExecutor(pool);
+            var done = new CountDownLatch(1);
+            var remaining = new AtomicLong(EXECUTOR_TASKS);
+            Runnable task = () -> {
+                if (remaining.decrementAndGet() == 0) {
+                    done.countDown();
+                }
+            };
+            List<Thread> producers = new ArrayList<>();
+            for (int i = 0; i < EXECUTOR_PRODUCERS; i++) {
+                producers.add(new Thread(() -> {
+                    for (int j = 0; j < EXECUTOR_TASKS / EXECUTOR_PRODUCERS; j++) {
+                        executor.execute(task);
+                    }
+                }));
+            }
+            long start = System.nanoTime();
+            producers.forEach(Thread::start);
+            done.await();
+            return EXECUTOR_TASKS * 1e9 / (System.nanoTime() - start);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static byte[] frame(int payloadLength) {
+        return new SCBVLC(null, SCVmac.makeRandom(), SCBVLC.ENCAPSULATED_NPDU, new byte[payloadLength], 1).write();
+    }
+
+    private static double hubForward(int payloadLength) {
+        byte[] frame = frame(payloadLength);
+        SCVmac originating = SCVmac.makeRandom();
+        long bytes = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < CODEC_MESSAGES; i++) {
+            var message = new SCBVLC(ByteBuffer.wrap(frame));
+            bytes += message.withAddresses(originating, null).write().length;
+        }
+        long elapsed = System.nanoTime() - start;
+        if (bytes == 0) {
+            throw new IllegalStateException();
+        }
+        return CODEC_MESSAGES * 1e9 / elapsed;
+    }
+
+    private static double nodeReceive(int payloadLength) {
+        byte[] frame = frame(payloadLength);
+        long bytes = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < CODEC_MESSAGES; i++) {
+            var message = new SCBVLC(ByteBuffer.wrap(frame));
+            var npdu = new ByteQueue(message.getPayloadLength());
+            npdu.push(message.getPayloadBuffer());
+            bytes += npdu.size();
+        }
+        long elapsed = System.nanoTime() - start;
+        if (bytes == 0) {
+            throw new IllegalStateException();
+        }
+        return CODEC_MESSAGES * 1e9 / elapsed;
+    }
+
+    private static void endToEnd(SCTestCertificates certificates, int textLength) throws Exception {
+        var hub = createHub(certificates);
+        List<LocalDevice> nodes = new ArrayList<>();
+        try {
+            var sender = createNode(certificates, 1, hub, nodes);
+            var receiver = createNode(certificates, 2, hub, nodes);
+            var received = new AtomicLong();
+            receiver.getEventHandler().addListener(new DeviceEventAdapter() {
+                @Override
+                public void textMessageReceived(ObjectIdentifier textMessageSourceDevice, Choice messageClass,
+                        MessagePriority messagePriority, CharacterString message) {
+                    synchronized (received) {
+                        received.incrementAndGet();
+                        received.notifyAll();
+                    }
+                }
+            });
+
+            var address = new Address(((SCNetwork) receiver.getNetwork()).getVmac());
+            var request = new UnconfirmedTextMessageRequest(sender.getId(), MessagePriority.normal,
+                    new CharacterString("x".repeat(textLength)));
+            long start = System.nanoTime();
+            for (int i = 0; i < NPDUS; i++) {
+                synchronized (received) {
+                    while (i - received.get() >= WINDOW) {
+                        long before = received.get();
+                        received.wait(100);
+                        if (received.get() == before) {
+                            // Messages dropped along the way would otherwise stall the window.
+                            break;
+                        }
+                    }
+                }
+                sender.send(address, request);
+            }
+            synchronized (received) {
+                while (received.get() < NPDUS) {
+                    long before = received.get();
+                    received.wait(500);
+                    if (received.get() == before) {
+                        break;
+                    }
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("%-12d %,-9.0f %d%n", textLength, received.get() * 1e9 / elapsed,
+                    NPDUS - received.get());
+        } finally {
+            nodes.forEach(LocalDevice::terminate);
+            hub.stop();
+        }
+    }
+
+    private static SCHub createHub(SCTestCertificates certificates) throws Exception {
+        var uuid = UUID.randomUUID();
+        var uuidBytes = new byte[16];
+        for (int i = 0; i < 8; i++) {
+            uuidBytes[i] = (byte) (uuid.getMostSignificantBits() >>> (56 - 8 * i));
+            uuidBytes[i + 8] = (byte) (uuid.getLeastSignificantBits() >>> (56 - 8 * i));
+        }
+        var hub = new SCHub(new InetSocketAddress("localhost", 0), certificates.createSslContext(),
+                SCVmac.makeRandom(), new SCUuid(uuidBytes));
+        hub.start();
+        return hub;
+    }
+
+    private static LocalDevice createNode(SCTestCertificates certificates, int instanceNumber, SCHub hub,
+            List<LocalDevice> nodes) throws Exception {
+        var network = certificates.networkBuilder()
+                .primaryHubUri(hub.getUri().toString())
+                .heartbeatTimeout(30)
+                .build();
+        var localDevice = new LocalDevice(instanceNumber, new DefaultTransport(network));
+        certificates.addFileObjects(localDevice);
+        nodes.add(localDevice);
+        localDevice.initialize();
+        ((SCNetwork) localDevice.getNetwork()).whenHubConnected().get(10, TimeUnit.SECONDS);
+        return localDevice;
+    }
+}
@@ -125,14 +125,14 @@ public class ScWebSocketClientTest {
     }
 
     /**
-     * Binary WebSocket frames are forwarded to the connection as a ByteQueue for BVLC parsing.
+     * Binary WebSocket frames are forwarded to the connection as the received ByteBuffer for BVLC parsing.
      */
     @Test
-    public void onMessage_binaryFrame_forwardsToConnectionAsByteQueue() {
+    public void onMessage_binaryFrame_forwardsToConnectionAsByteBuffer() {
         SCConnection connection = mock(SCConnection.class);
         var payload = new byte[] {0x01, 0x02, 0x03};
         newClient(connection).onMessage(ByteBuffer.wrap(payload));
-        verify(connection).onWebsocketMessage(org.mockito.ArgumentMatchers.any());
+        verify(connection).onWebsocketMessage(ByteBuffer.wrap(payload));
     }
 
     /**
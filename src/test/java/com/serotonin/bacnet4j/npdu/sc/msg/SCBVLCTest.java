@@ -27,8 +27,13 @@
 
 package com.serotonin.bacnet4j.npdu.sc.msg;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.List;
 
 import org.junit.Test;
@@ -94,4 +99,52 @@ public class SCBVLCTest {
         assertEquals("0008b5ec927bf71a96a201013f00070117",
                 StreamUtils.toHex(msg.write()));
     }
+
+    @Test
+    public void parseFromBufferKeepsPayloadInPlace() {
+        var frame = StreamUtils.fromHex("0107b5ec927bf71a96a2bf0007022bbac5ecc0993f00030309390101040000010c0c000000051955");
+        var buffer = ByteBuffer.wrap(frame);
+        var msg = new SCBVLC(buffer);
+
+        assertFalse(msg.isParseError());
+        assertEquals(buffer.limit(), buffer.position());
+        assertEquals(0xB5EC, msg.getId());
+        assertEquals(new SCVmac(StreamUtils.fromHex("927bf71a96a2")), msg.getDestination());
+        assertEquals(2, msg.getDestOptions().size());
+        assertEquals(1, msg.getDataOptions().size());
+        assertEquals(13, msg.getPayloadLength());
+        assertArrayEquals(StreamUtils.fromHex("0104000001" + "0c0c000000051955"), msg.getPayload());
+
+        // Writing the parsed message reproduces the frame.
+        assertEquals(frame.length, msg.getLength());
+        assertArrayEquals(frame, msg.write());
+    }
+
+    @Test
+    public void withAddressesSharesPayload() {
+        var payload = new byte[] {1, 2, 3, 4, 5};
+        var orig = new SCVmac(StreamUtils.fromHex("010203040506"));
+        var msg = new SCBVLC(ByteBuffer.wrap(new SCBVLC(null, null, SCBVLC.ENCAPSULATED_NPDU, payload, 7).write()));
+        var forwarded = msg.withAddresses(orig, null);
+
+        assertEquals(orig, forwarded.getOriginating());
+        assertEquals(null, forwarded.getDestination());
+        assertEquals(7, forwarded.getId());
+        assertArrayEquals(payload, forwarded.getPayload());
+        assertEquals(null, msg.getOriginating());
+
+        var reparsed = new SCBVLC(ByteBuffer.wrap(forwarded.write()));
+        assertEquals(orig, reparsed.getOriginating());
+        assertArrayEquals(payload, reparsed.getPayload());
+    }
+
+    @Test
+    public void truncatedBufferIsIncomplete() {
+        var frame = new SCBVLC(new SCVmac(StreamUtils.fromHex("010203040506")), null, SCBVLC.ENCAPSULATED_NPDU,
+                new byte[] {1, 2, 3}, 7).write();
+        var msg = new SCBVLC(ByteBuffer.wrap(Arrays.copyOf(frame, 6)));
+
+        assertTrue(msg.isParseError());
+        assertEquals(ErrorCode.messageIncomplete, msg.getParseErrorCode());
+    }
 }
@@ -0,0 +1,207 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2025 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+package com.serotonin.bacnet4j.npdu.virtual;
+
+import static com.serotonin.bacnet4j.TestUtils.awaitEquals;
+import static com.serotonin.bacnet4j.TestUtils.awaitTrue;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.serotonin.bacnet4j.LocalDevice;
+import com.serotonin.bacnet4j.RemoteDevice;
+import com.serotonin.bacnet4j.event.DeviceEventAdapter;
+import com.serotonin.bacnet4j.exception.BACnetTimeoutException;
+import com.serotonin.bacnet4j.npdu.router.BACnetRouter;
+import com.serotonin.bacnet4j.npdu.test.TestNetwork;
+import com.serotonin.bacnet4j.npdu.test.TestNetworkMap;
+import com.serotonin.bacnet4j.service.acknowledgement.ReadPropertyAck;
+import com.serotonin.bacnet4j.service.confirmed.ReadPropertyRequest;
+import com.serotonin.bacnet4j.service.unconfirmed.WhoIsRequest;
+import com.serotonin.bacnet4j.transport.DefaultTransport;
+import com.serotonin.bacnet4j.type.constructed.Address;
+import com.serotonin.bacnet4j.type.enumerated.ObjectType;
+import com.serotonin.bacnet4j.type.enumerated.PropertyIdentifier;
+import com.serotonin.bacnet4j.type.primitive.ObjectIdentifier;
+import com.serotonin.bacnet4j.util.BACnetUtils;
+
+/**
+ * A gateway whose device is on simulated network 10, at MAC 1, routes to virtual network 1000, on which it hosts
+ * devices 1001 to 1000 + DEVICES. A client device is on network 10 at MAC 2.
+ */
+public class VirtualNetworkTest {
+    static final int DEVICES = 50;
+
+    private final TestNetworkMap map = new TestNetworkMap();
+
+    private LocalDevice client;
+    private LocalDevice host;
+    private BACnetRouter router;
+    private VirtualNetwork virtualNetwork;
+    private final List<LocalDevice> devices = new ArrayList<>();
+
+    @Before
+    public void before() throws Exception {
+        client = new LocalDevice(2, new DefaultTransport(network(2))).initialize();
+
+        host = new LocalDevice(1, new DefaultTransport(network(1))).initialize();
+        router = new BACnetRouter(host);
+        virtualNetwork = new VirtualNetwork(1000);
+        router.addPort(virtualNetwork);
+        router.initialize();
+
+        for (int i = 1; i <= DEVICES; i++)
+            devices.add(virtualNetwork.createDevice(1000 + i).initialize());
+    }
+
+    @After
+    public void after() {
+        router.terminate();
+        host.terminate();
+        client.terminate();
+    }
+
+    private TestNetwork network(int mac) {
+        return new TestNetwork(map, new Address(new byte[] {(byte) mac}), 0, 10);
+    }
+
+    private static ReadPropertyRequest readName(int instanceNumber) {
+        return new ReadPropertyRequest(new ObjectIdentifier(ObjectType.device, instanceNumber),
+                PropertyIdentifier.objectName);
+    }
+
+    @Test
+    public void devicesAreAttached() {
+        assertEquals(DEVICES, virtualNetwork.getDeviceCount());
+        assertEquals(DEVICES, virtualNetwork.getTransportGroup().size());
+    }
+
+    @Test
+    public void whoIsFindsEveryDevice() throws Exception {
+        Map<Integer, Address> found = new ConcurrentHashMap<>();
+        client.getEventHandler().addListener(new DeviceEventAdapter() {
+            @Override
+            public void iAmReceived(RemoteDevice d) {
+                found.put(d.getInstanceNumber(), d.getAddress());
+            }
+        });
+        client.sendGlobalBroadcast(new WhoIsRequest());
+        // The host answers too.
+        awaitEquals(DEVICES + 1, found::size);
+        assertEquals(new Address(1000, BACnetUtils.toVirtualAddressBytes(1007)), found.get(1007));
+    }
+
+    @Test
+    public void deviceIsRead() throws Exception {
+        RemoteDevice rd = client.getRemoteDeviceBlocking(1033);
+        ReadPropertyAck ack = client.send(rd, readName(1033)).get();
+        assertEquals(devices.get(32).get(PropertyIdentifier.objectName), ack.getValue());
+    }
+
+    @Test
+    public void deviceReadsPhysicalNetwork() throws Exception {
+        awaitTrue(() -> devices.get(0).getNetwork().getTransport().getNetworkRouters().containsKey(10));
+        ReadPropertyAck ack = devices.get(0).send(new Address(10, new byte[] {2}), readName(2)).get();
+        assertEquals(client.get(PropertyIdentifier.objectName), ack.getValue());
+    }
+
+    @Test
+    public void devicesReachEachOther() throws Exception {
+        LocalDevice from = devices.get(4);
+        ReadPropertyAck ack = from.send(new Address(BACnetUtils.toVirtualAddressBytes(1020)), readName(1020)).get();
+        assertEquals(devices.get(19).get(PropertyIdentifier.objectName), ack.getValue());
+    }
+
+    @Test
+    public void devicesLearnRoutesWhenTheyStart() {
+        for (LocalDevice device : devices)
+            assertEquals(VirtualNetwork.ROUTER_MAC, device.getNetwork().getTransport().getNetworkRouters().get(10));
+    }
+
+    @Test
+    public void peerBroadcasts() throws Exception {
+        AtomicInteger heard = new AtomicInteger();
+        devices.get(1).getEventHandler().addListener(new DeviceEventAdapter() {
+            @Override
+            public void iAmReceived(RemoteDevice d) {
+                heard.incrementAndGet();
+            }
+        });
+
+        // Only the router hears the broadcasts of the devices by default.
+        devices.get(0).sendLocalBroadcast(devices.get(0).getIAm());
+        Thread.sleep(200);
+        assertEquals(0, heard.get());
+
+        virtualNetwork.setPeerBroadcasts(true);
+        devices.get(0).sendLocalBroadcast(devices.get(0).getIAm());
+        awaitTrue(() -> heard.get() == 1);
+    }
+
+    @Test
+    public void requestTimesOut() {
+        // Timeouts are found by the sweep of the transport group.
+        LocalDevice from = devices.get(0);
+        from.getNetwork().getTransport().setTimeout(200);
+        from.getNetwork().getTransport().setRetries(1);
+        assertThrows(BACnetTimeoutException.class,
+                () -> from.send(new Address(BACnetUtils.toVirtualAddressBytes(999)), readName(999)).get());
+    }
+
+    @Test
+    public void devicesHaveNoThreadsOfTheirOwn() {
+        for (Thread thread : Thread.getAllStackTraces().keySet())
+            assertFalse(thread.getName(), thread.getName().startsWith("BACnet4J transport for device 10"));
+        assertTrue(virtualNetwork.getTransportGroup().getThreadCount() <= Runtime.getRuntime().availableProcessors());
+    }
+
+    @Test
+    public void devicesAreTerminatedWithTheRouter() {
+        LocalDevice device = devices.get(0);
+        device.terminate();
+        assertEquals(DEVICES - 1, virtualNetwork.getDeviceCount());
+
+        router.terminate();
+        assertEquals(0, virtualNetwork.getDeviceCount());
+        assertFalse(devices.get(1).isInitialized());
+        // The host's executor is still running.
+        assertTrue(host.isInitialized());
+        host.submit(() -> {});
+    }
+}
@@ -36,11 +36,19 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.fail;
 
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.junit.Test;
 
 import com.serotonin.bacnet4j.AbstractTest;
+import com.serotonin.bacnet4j.event.DeviceEventAdapter;
+import com.serotonin.bacnet4j.exception.BACnetServiceException;
 import com.serotonin.bacnet4j.exception.ErrorAPDUException;
+import com.serotonin.bacnet4j.service.Service;
+import com.serotonin.bacnet4j.service.confirmed.ConfirmedCovNotificationMultipleRequest;
+import com.serotonin.bacnet4j.service.confirmed.SubscribeCOVPropertyMultipleRequest;
+import com.serotonin.bacnet4j.service.confirmed.SubscribeCOVPropertyMultipleRequest.CovSubscriptionSpecification;
+import com.serotonin.bacnet4j.service.confirmed.SubscribeCOVPropertyMultipleRequest.CovSubscriptionSpecification.CovReference;
 import com.serotonin.bacnet4j.service.confirmed.SubscribeCOVPropertyRequest;
 import com.serotonin.bacnet4j.service.confirmed.SubscribeCOVRequest;
 import com.serotonin.bacnet4j.type.constructed.Address;
@@ -62,10 +70,12 @@ import com.serotonin.bacnet4j.type.enumerated.ErrorCode;
 import com.serotonin.bacnet4j.type.enumerated.ObjectType;
 import com.serotonin.bacnet4j.type.enumerated.PropertyIdentifier;
 import com.serotonin.bacnet4j.type.enumerated.Reliability;
+import com.serotonin.bacnet4j.type.error.SubscribeCovPropertyMultipleError;
 import com.serotonin.bacnet4j.type.primitive.Boolean;
 import com.serotonin.bacnet4j.type.primitive.CharacterString;
 import com.serotonin.bacnet4j.type.primitive.ObjectIdentifier;
 import com.serotonin.bacnet4j.type.primitive.Real;
+import com.serotonin.bacnet4j.type.primitive.Unsigned32;
 import com.serotonin.bacnet4j.type.primitive.UnsignedInteger;
 import com.serotonin.bacnet4j.util.sero.Utils;
 
@@ -220,6 +230,73 @@ public class ChangeOfValueTest extends AbstractTest {
         assertEquals(0, listener.getNotifCount());
     }
 
+    @Test
+    public void objectCovBatch() throws Exception {
+        AnalogValueObject av0 = d1.addObject(new AnalogValueObject(
+                d1, 0, "av0", 10, EngineeringUnits.amperes, false));
+        av0.supportCovReporting(4);
+        AnalogValueObject av1 = d1.addObject(new AnalogValueObject(
+                d1, 1, "av1", 10, EngineeringUnits.amperes, false));
+        av1.supportCovReporting(4);
+        AnalogValueObject av2 = d1.addObject(new AnalogValueObject(
+                d1, 2, "av2", 10, EngineeringUnits.amperes, false));
+        av2.supportCovReporting(4);
+
+        CovNotifListener listener = new CovNotifListener();
+        d2.getEventHandler().addListener(listener);
+
+        for (AnalogValueObject av : List.of(av0, av1, av2))
+            d2.send(rd1, new SubscribeCOVRequest(new UnsignedInteger(4), av.getId(), Boolean.FALSE, //
+                    new UnsignedInteger(60))).get();
+        awaitEquals(3, listener::getNotifCount);
+        listener.clearNotifs();
+
+        // Several changes to av0 give a single notification with the final values. The change to av2 is below the
+        // increment.
+        d1.applyUpdates(List.of( //
+                PropertyUpdate.presentValue(av0.getId(), new Real(20)), //
+                PropertyUpdate.presentValue(av1.getId(), new Real(30)), //
+                new PropertyUpdate(av0.getId(), PropertyIdentifier.outOfService, Boolean.TRUE), //
+                PropertyUpdate.presentValue(av0.getId(), new Real(25)), //
+                PropertyUpdate.presentValue(av2.getId(), new Real(11))));
+        awaitEquals(2, listener::getNotifCount);
+        quiesce();
+        assertEquals(2, listener.getNotifCount());
+
+        // The notifications may arrive in either order.
+        CovNotifListener.Notif notif0 = listener.removeNotif();
+        CovNotifListener.Notif notif1 = listener.removeNotif();
+        if (notif0.monitoredObjectIdentifier().equals(av1.getId())) {
+            CovNotifListener.Notif n = notif0;
+            notif0 = notif1;
+            notif1 = n;
+        }
+        assertEquals(av0.getId(), notif0.monitoredObjectIdentifier());
+        assertEquals(new SequenceOf<>( //
+                        new PropertyValue(PropertyIdentifier.presentValue, new Real(25)), //
+                        new PropertyValue(PropertyIdentifier.statusFlags, new StatusFlags(false, false, false, true))),
+                notif0.listOfValues());
+        assertEquals(av1.getId(), notif1.monitoredObjectIdentifier());
+        assertEquals(new SequenceOf<>( //
+                        new PropertyValue(PropertyIdentifier.presentValue, new Real(30)), //
+                        new PropertyValue(PropertyIdentifier.statusFlags, new StatusFlags(false, false, false, false))),
+                notif1.listOfValues());
+        assertEquals(new Real(11), av2.get(PropertyIdentifier.presentValue));
+
+        // A batch with an unknown object is not applied at all.
+        try {
+            d1.applyUpdates(List.of( //
+                    PropertyUpdate.presentValue(av1.getId(), new Real(40)), //
+                    PropertyUpdate.presentValue(new ObjectIdentifier(ObjectType.analogValue, 3), new Real(40))));
+            fail("Should have thrown an exception");
+        } catch (BACnetServiceException e) {
+            assertEquals(ErrorCode.unknownObject, e.getErrorCode());
+        }
+        assertEquals(new Real(30), av1.get(PropertyIdentifier.presentValue));
+        quiesce();
+        assertEquals(0, listener.getNotifCount());
+    }
+
     /**
      * Per addendum 135-2016bu-3 Clause 13.1.2 case 1: a subscription-driven
      * UnconfirmedCOVNotification shall be unicast to the subscriber. A non-subscribing device on
@@ -254,6 +331,132 @@ public class ChangeOfValueTest extends AbstractTest {
         assertEquals(0, bystanderListener.getNotifCount());
     }
 
+    @Test
+    public void propertyMultipleCov() throws Exception {
+        AnalogValueObject av0 = d1.addObject(new AnalogValueObject(
+                d1, 0, "av0", 10, EngineeringUnits.amperes, false));
+        av0.supportCovReporting(4);
+        AnalogValueObject av1 = d1.addObject(new AnalogValueObject(
+                d1, 1, "av1", 10, EngineeringUnits.amperes, false));
+        av1.supportCovReporting(4);
+
+        CovNotifListener listener = new CovNotifListener();
+        d2.getEventHandler().addListener(listener);
+        List<Service> messages = new CopyOnWriteArrayList<>();
+        d2.getEventHandler().addListener(new DeviceEventAdapter() {
+            @Override
+            public void requestReceived(Address from, Service service) {
+                if (service instanceof ConfirmedCovNotificationMultipleRequest)
+                    messages.add(service);
+            }
+        });
+
+        // Subscribe to the present values with a maximum notification delay of 2 seconds.
+        d2.send(rd1, new SubscribeCOVPropertyMultipleRequest(new Unsigned32(4), Boolean.TRUE, new UnsignedInteger(60),
+                new UnsignedInteger(2), new SequenceOf<>( //
+                new CovSubscriptionSpecification(av0.getId(), new SequenceOf<>(new CovReference(
+                        new PropertyReference(PropertyIdentifier.presentValue), null, Boolean.FALSE))), //
+                new CovSubscriptionSpecification(av1.getId(), new SequenceOf<>(new CovReference(
+                        new PropertyReference(PropertyIdentifier.presentValue), null, Boolean.FALSE)))))).get();
+
+        // The initial notifications are sent together after the delay.
+        quiesce();
+        assertEquals(0, listener.getNotifCount());
+        clock.plusSeconds(2);
+        awaitEquals(2, listener::getNotifCount);
+        assertEquals(1, messages.size());
+        // The notifications of a message may be delivered in either order.
+        CovNotifListener.Notif notif0 = listener.removeNotif();
+        CovNotifListener.Notif notif1 = listener.removeNotif();
+        if (notif0.monitoredObjectIdentifier().equals(av1.getId())) {
+            CovNotifListener.Notif n = notif0;
+            notif0 = notif1;
+            notif1 = n;
+        }
+        assertEquals(av0.getId(), notif0.monitoredObjectIdentifier());
+        assertEquals(new SequenceOf<>(new PropertyValue(PropertyIdentifier.presentValue, null, new Real(10), null)),
+                notif0.listOfValues());
+        assertEquals(av1.getId(), notif1.monitoredObjectIdentifier());
+
+        // Changes to both objects within the delay are sent in one message, with the latest values.
+        av0.writePropertyInternal(PropertyIdentifier.presentValue, new Real(20));
+        av1.writePropertyInternal(PropertyIdentifier.presentValue, new Real(30));
+        av0.writePropertyInternal(PropertyIdentifier.presentValue, new Real(25));
+        quiesce();
+        assertEquals(0, listener.getNotifCount());
+        clock.plusSeconds(2);
+        awaitEquals(2, listener::getNotifCount);
+        assertEquals(2, messages.size());
+        notif0 = listener.removeNotif();
+        notif1 = listener.removeNotif();
+        if (notif0.monitoredObjectIdentifier().equals(av1.getId())) {
+            CovNotifListener.Notif n = notif0;
+            notif0 = notif1;
+            notif1 = n;
+        }
+        assertEquals(new SequenceOf<>(new PropertyValue(PropertyIdentifier.presentValue, null, new Real(25), null)),
+                notif0.listOfValues());
+        assertEquals(new SequenceOf<>(new PropertyValue(PropertyIdentifier.presentValue, null, new Real(30), null)),
+                notif1.listOfValues());
+
+        // Cancel the subscription to av1 within the delay of a change, which is then not sent, nor are later ones.
+        av1.writePropertyInternal(PropertyIdentifier.presentValue, new Real(35));
+        quiesce();
+        d2.send(rd1, new SubscribeCOVPropertyMultipleRequest(new Unsigned32(4), null, null, null, new SequenceOf<>(
+                new CovSubscriptionSpecification(av1.getId(), new SequenceOf<>(new CovReference(
+                        new PropertyReference(PropertyIdentifier.presentValue), null, Boolean.FALSE)))))).get();
+        av1.writePropertyInternal(PropertyIdentifier.presentValue, new Real(40));
+        clock.plusSeconds(2);
+        quiesce();
+        assertEquals(0, listener.getNotifCount());
+    }
+
+    @Test
+    public void propertyMultipleCovErrors() throws Exception {
+        AnalogValueObject av0 = d1.addObject(new AnalogValueObject(
+                d1, 0, "av0", 10, EngineeringUnits.amperes, false));
+        av0.supportCovReporting(4);
+
+        try {
+            d2.send(rd1, new SubscribeCOVPropertyMultipleRequest(new Unsigned32(4), Boolean.FALSE,
+                    new UnsignedInteger(60), new UnsignedInteger(1), new SequenceOf<>( //
+                    new CovSubscriptionSpecification(av0.getId(), new SequenceOf<>(new CovReference(
+                            new PropertyReference(PropertyIdentifier.presentValue), null, Boolean.TRUE))), //
+                    new CovSubscriptionSpecification(new ObjectIdentifier(ObjectType.analogValue, 1),
+                            new SequenceOf<>(new CovReference(new PropertyReference(PropertyIdentifier.presentValue),
+                                    null, Boolean.TRUE)))))).get();
+            fail("Should have thrown an exception");
+        } catch (ErrorAPDUException e) {
+            SubscribeCovPropertyMultipleError error = (SubscribeCovPropertyMultipleError) e.getApdu().getError();
+            assertEquals(new ObjectIdentifier(ObjectType.analogValue, 1),
+                    error.getFirstFailedSubscription().getMonitoredObjectIdentifier());
+            assertEquals(ErrorCode.unknownObject, error.getErrorClassAndCode().getErrorCode());
+        }
+
+        // The subscription before the failed one was made, with unconfirmed and timestamped notifications.
+        CovNotifListener listener = new CovNotifListener();
+        d2.getEventHandler().addListener(listener);
+        av0.writePropertyInternal(PropertyIdentifier.presentValue, new Real(20));
+        clock.plusSeconds(1);
+        awaitEquals(1, listener::getNotifCount);
+        PropertyValue value = listener.removeNotif().listOfValues().getBase1(1);
+        assertEquals(new Real(20), value.getValue());
+
+        // A cancellation for an unknown object fails in the same way.
+        try {
+            d2.send(rd1, new SubscribeCOVPropertyMultipleRequest(new Unsigned32(4), null, null, null,
+                    new SequenceOf<>(new CovSubscriptionSpecification(new ObjectIdentifier(ObjectType.analogValue, 1),
+                            new SequenceOf<>(new CovReference(new PropertyReference(PropertyIdentifier.presentValue),
+                                    null, Boolean.TRUE)))))).get();
+            fail("Should have thrown an exception");
+        } catch (ErrorAPDUException e) {
+            SubscribeCovPropertyMultipleError error = (SubscribeCovPropertyMultipleError) e.getApdu().getError();
+            assertEquals(new ObjectIdentifier(ObjectType.analogValue, 1),
+                    error.getFirstFailedSubscription().getMonitoredObjectIdentifier());
+            assertEquals(ErrorCode.unknownObject, error.getErrorClassAndCode().getErrorCode());
+        }
+    }
+
     @Test
     public void unsubscribe() throws Exception {
         AnalogValueObject av = d1.addObject(new AnalogValueObject(
@@ -0,0 +1,119 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2025 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+package com.serotonin.bacnet4j.obj;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.serotonin.bacnet4j.LocalDevice;
+import com.serotonin.bacnet4j.npdu.test.TestNetwork;
+import com.serotonin.bacnet4j.npdu.test.TestNetworkMap;
+import com.serotonin.bacnet4j.transport.DefaultTransport;
+import com.serotonin.bacnet4j.type.Encodable;
+import com.serotonin.bacnet4j.type.constructed.StatusFlags;
+import com.serotonin.bacnet4j.type.enumerated.BinaryPV;
+import com.serotonin.bacnet4j.type.enumerated.EngineeringUnits;
+import com.serotonin.bacnet4j.type.enumerated.ObjectType;
+import com.serotonin.bacnet4j.type.enumerated.PropertyIdentifier;
+import com.serotonin.bacnet4j.type.primitive.CharacterString;
+import com.serotonin.bacnet4j.type.primitive.Real;
+import com.serotonin.bacnet4j.type.primitive.UnsignedInteger;
+
+public class CompactPropertyMapTest {
+    @Test
+    public void behavesLikeAMap() {
+        CompactPropertyMap map = new CompactPropertyMap(ObjectType.analogValue);
+        Map<PropertyIdentifier, Encodable> expected = new HashMap<>();
+
+        put(map, expected, PropertyIdentifier.presentValue, new Real(0));
+        put(map, expected, PropertyIdentifier.statusFlags, new StatusFlags(true, false, true, false));
+        put(map, expected, PropertyIdentifier.units, EngineeringUnits.degreesCelsius);
+        put(map, expected, PropertyIdentifier.description, new CharacterString("d"));
+        // Not a property of the type.
+        put(map, expected, PropertyIdentifier.activeText, new CharacterString("on"));
+        // Beyond the slot index.
+        put(map, expected, PropertyIdentifier.scConnectWaitTimeout, new UnsignedInteger(10));
+        assertEquals(expected, map);
+        assertEquals(expected, new HashMap<>(map));
+
+        // A present value of another type replaces the packed one, and back.
+        put(map, expected, PropertyIdentifier.presentValue, new UnsignedInteger(7));
+        assertEquals(new UnsignedInteger(7), map.get(PropertyIdentifier.presentValue));
+        put(map, expected, PropertyIdentifier.presentValue, BinaryPV.active);
+        assertEquals(BinaryPV.active, map.get(PropertyIdentifier.presentValue));
+        put(map, expected, PropertyIdentifier.presentValue, new Real(-1.5F));
+        assertEquals(new Real(-1.5F), map.get(PropertyIdentifier.presentValue));
+        assertEquals(expected, map);
+
+        assertEquals(EngineeringUnits.degreesCelsius, map.remove(PropertyIdentifier.units));
+        expected.remove(PropertyIdentifier.units);
+        assertEquals(new CharacterString("on"), map.remove(PropertyIdentifier.activeText));
+        expected.remove(PropertyIdentifier.activeText);
+        assertNull(map.remove(PropertyIdentifier.units));
+        assertFalse(map.containsKey(PropertyIdentifier.units));
+        assertEquals(expected, map);
+
+        map.keySet().removeIf(PropertyIdentifier.statusFlags::equals);
+        expected.remove(PropertyIdentifier.statusFlags);
+        assertEquals(expected, map);
+
+        assertThrows(NullPointerException.class, () -> map.put(PropertyIdentifier.units, null));
+        map.clear();
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void storesObjectProperties() throws Exception {
+        LocalDevice d = new LocalDevice(1, new DefaultTransport(new TestNetwork(new TestNetworkMap(), 1, 0)))
+                .withCompactPropertyStorage(true);
+        AnalogValueObject av = new AnalogValueObject(d, 0, "av", 12.5F, EngineeringUnits.noUnits, false);
+        assertTrue(av.properties instanceof CompactPropertyMap);
+        assertEquals(new Real(12.5F), av.readProperty(PropertyIdentifier.presentValue));
+
+        av.writePropertyInternal(PropertyIdentifier.presentValue, new Real(3));
+        assertEquals(new Real(3), av.get(PropertyIdentifier.presentValue));
+        av.setOverridden(true);
+        assertEquals(new StatusFlags(false, false, true, false), av.get(PropertyIdentifier.statusFlags));
+        assertTrue(av.getPropertyIds().contains(PropertyIdentifier.units));
+    }
+
+    private static void put(Map<PropertyIdentifier, Encodable> map, Map<PropertyIdentifier, Encodable> expected,
+            PropertyIdentifier pid, Encodable value) {
+        assertEquals(expected.put(pid, value), map.put(pid, value));
+        assertEquals(value, map.get(pid));
+        assertEquals(expected.size(), map.size());
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2025 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+package com.serotonin.bacnet4j.obj;
+
+import com.serotonin.bacnet4j.LocalDevice;
+import com.serotonin.bacnet4j.npdu.test.TestNetwork;
+import com.serotonin.bacnet4j.npdu.test.TestNetworkMap;
+import com.serotonin.bacnet4j.transport.DefaultTransport;
+import com.serotonin.bacnet4j.type.constructed.EventTransitionBits;
+import com.serotonin.bacnet4j.type.constructed.LimitEnable;
+import com.serotonin.bacnet4j.type.enumerated.EngineeringUnits;
+import com.serotonin.bacnet4j.type.enumerated.NotifyType;
+import com.serotonin.bacnet4j.type.enumerated.PropertyIdentifier;
+import com.serotonin.bacnet4j.type.primitive.CharacterString;
+import com.serotonin.bacnet4j.type.primitive.Real;
+
+/**
+ * Measures the rate of property updates and reads of an analog output with the commandable, COV, intrinsic reporting,
+ * out of service and status flags mixins. Run as a Java application.
+ */
+public class MixinDispatchBenchmark {
+    private static final int UPDATES = 5_000_000;
+
+    public static void main(String[] args) throws Exception {
+        LocalDevice localDevice = new LocalDevice(1, new DefaultTransport(new TestNetwork(new TestNetworkMap(), 1, 0)))
+                .initialize();
+        try {
+            AnalogOutputObject ao = localDevice.addObject(
+                    new AnalogOutputObject(localDevice, 0, "ao", 50, EngineeringUnits.noUnits, false, 0));
+            ao.supportCovReporting(1000);
+            ao.supportIntrinsicReporting(0, 17, 1000, -1000, 1, new LimitEnable(true, true),
+                    new EventTransitionBits(true, true, true), NotifyType.alarm, 0);
+
+            Real[] values = new Real[256];
+            for (int i = 0; i < values.length; i++)
+                values[i] = new Real(i);
+            CharacterString[] descriptions = new CharacterString[256];
+            for (int i = 0; i < descriptions.length; i++)
+                descriptions[i] = new CharacterString("d" + i);
+
+            for (int round = 0; round < 5; round++) {
+                long start = System.nanoTime();
+                for (int i = 0; i < UPDATES; i++)
+                    ao.writePropertyInternal(PropertyIdentifier.presentValue, values[i & 0xff]);
+                long presentValue = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                for (int i = 0; i < UPDATES; i++)
+                    ao.writePropertyInternal(PropertyIdentifier.description, descriptions[i & 0xff]);
+                long description = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                for (int i = 0; i < UPDATES; i++)
+                    ao.readProperty(PropertyIdentifier.presentValue);
+                long read = System.nanoTime() - start;
+
+                System.out.printf("present value: %,d updates/s, description: %,d updates/s, reads: %,d/s%n",
+                        rate(presentValue), rate(description), rate(read));
+            }
+        } finally {
+            localDevice.terminate();
+        }
+    }
+
+    private static long rate(long nanos) {
+        return UPDATES * 1_000_000_000L / nanos;
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2025 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+package com.serotonin.bacnet4j.obj;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.serotonin.bacnet4j.LocalDevice;
+import com.serotonin.bacnet4j.npdu.test.TestNetwork;
+import com.serotonin.bacnet4j.npdu.test.TestNetworkMap;
+import com.serotonin.bacnet4j.transport.DefaultTransport;
+import com.serotonin.bacnet4j.type.Encodable;
+import com.serotonin.bacnet4j.type.enumerated.ObjectType;
+import com.serotonin.bacnet4j.type.enumerated.PropertyIdentifier;
+import com.serotonin.bacnet4j.type.primitive.CharacterString;
+import com.serotonin.bacnet4j.type.primitive.Real;
+
+public class MixinDispatchTest {
+    private final List<String> calls = new ArrayList<>();
+
+    @Test
+    public void dispatch() throws Exception {
+        LocalDevice d = new LocalDevice(1, new DefaultTransport(new TestNetwork(new TestNetworkMap(), 1, 0)));
+        BACnetObject bo = new BACnetObject(d, ObjectType.analogValue, 0);
+        Recorder all = bo.addMixin(new Recorder(bo, "all", null));
+        Recorder pv = bo.addMixin(new Recorder(bo, "pv", PropertyIdentifier.presentValue));
+        // Overrides the methods of a mixin that declares its properties without declaring its own.
+        bo.addMixin(new Recorder(bo, "sub", PropertyIdentifier.presentValue) {
+            @Override
+            protected void afterWriteProperty(PropertyIdentifier pid, Encodable oldValue, Encodable newValue) {
+                calls.add("sub write " + pid);
+            }
+        });
+        // Does not override the notification methods.
+        bo.addMixin(new AbstractMixin(bo));
+
+        bo.writePropertyInternal(PropertyIdentifier.presentValue, new Real(1));
+        assertCalls("all write present-value", "pv write present-value", "sub write present-value");
+        bo.writePropertyInternal(PropertyIdentifier.description, new CharacterString("d"));
+        assertCalls("all write description", "sub write description");
+        bo.readProperty(PropertyIdentifier.presentValue);
+        assertCalls("all read present-value", "pv read present-value", "sub read present-value");
+        bo.readProperty(PropertyIdentifier.description);
+        assertCalls("all read description");
+
+        // Changes to the declarations are picked up.
+        pv.observed = PropertyIdentifier.description;
+        pv.observedPropertiesChanged();
+        all.observed = PropertyIdentifier.units;
+        all.observedPropertiesChanged();
+        bo.writePropertyInternal(PropertyIdentifier.description, new CharacterString("e"));
+        assertCalls("pv write description", "sub write description");
+    }
+
+    @Test
+    public void positionalAndManyMixins() throws Exception {
+        LocalDevice d = new LocalDevice(1, new DefaultTransport(new TestNetwork(new TestNetworkMap(), 1, 0)));
+        BACnetObject bo = new BACnetObject(d, ObjectType.analogValue, 0);
+        bo.addMixin(new Recorder(bo, "a", PropertyIdentifier.presentValue));
+        bo.writePropertyInternal(PropertyIdentifier.presentValue, new Real(1));
+        assertCalls("a write present-value");
+
+        // A mixin inserted before the others shifts their indexes.
+        bo.addMixin(0, new Recorder(bo, "b", PropertyIdentifier.description));
+        bo.writePropertyInternal(PropertyIdentifier.presentValue, new Real(2));
+        assertCalls("a write present-value");
+        bo.writePropertyInternal(PropertyIdentifier.description, new CharacterString("d"));
+        assertCalls("b write description");
+
+        // Mixins beyond the size of the mask are notified too. All mixins are then notified of every property.
+        List<String> expected = new ArrayList<>();
+        expected.add("b write present-value");
+        expected.add("a write present-value");
+        for (int i = 0; i < Long.SIZE; i++) {
+            bo.addMixin(new Recorder(bo, "m" + i, PropertyIdentifier.presentValue));
+            expected.add("m" + i + " write present-value");
+        }
+        bo.writePropertyInternal(PropertyIdentifier.presentValue, new Real(3));
+        assertEquals(expected, calls);
+    }
+
+    private void assertCalls(String... expected) {
+        assertEquals(List.of(expected), calls);
+        calls.clear();
+    }
+
+    class Recorder extends AbstractMixin {
+        private final String name;
+        PropertyIdentifier observed;
+
+        Recorder(BACnetObject bo, String name, PropertyIdentifier observed) {
+            super(bo);
+            this.name = name;
+            this.observed = observed;
+        }
+
+        @Override
+        protected PropertyIdentifier[] getObservedReads() {
+            return observed == null ? null : new PropertyIdentifier[] {observed};
+        }
+
+        @Override
+        protected void beforeReadProperty(PropertyIdentifier pid) {
+            calls.add(name + " read " + pid);
+        }
+
+        @Override
+        protected PropertyIdentifier[] getObservedWrites() {
+            return observed == null ? null : new PropertyIdentifier[] {observed};
+        }
+
+        @Override
+        protected void afterWriteProperty(PropertyIdentifier pid, Encodable oldValue, Encodable newValue) {
+            calls.add(name + " write " + pid);
+        }
+    }
+}
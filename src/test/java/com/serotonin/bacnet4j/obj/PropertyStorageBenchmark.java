@@ -0,0 +1,90 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2025 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+package com.serotonin.bacnet4j.obj;
+
+import com.serotonin.bacnet4j.LocalDevice;
+import com.serotonin.bacnet4j.npdu.test.TestNetwork;
+import com.serotonin.bacnet4j.npdu.test.TestNetworkMap;
+import com.serotonin.bacnet4j.transport.DefaultTransport;
+import com.serotonin.bacnet4j.type.enumerated.EngineeringUnits;
+import com.serotonin.bacnet4j.type.enumerated.PropertyIdentifier;
+import com.serotonin.bacnet4j.type.primitive.Real;
+
+/**
+ * Compares the heap used by analog value objects, and the time to read their present values, with the properties in
+ * a ConcurrentHashMap and in a CompactPropertyMap. Run as a Java application, preferably with a fixed heap size such
+ * as -Xms1g -Xmx1g so that the measurements are not disturbed by heap resizing.
+ */
+public class PropertyStorageBenchmark {
+    private static final int OBJECTS = 10_000;
+    private static final int READS = 20_000_000;
+
+    public static void main(String[] args) {
+        for (int round = 0; round < 3; round++) {
+            measure(false);
+            measure(true);
+        }
+    }
+
+    private static void measure(boolean compact) {
+        LocalDevice localDevice = new LocalDevice(1, new DefaultTransport(new TestNetwork(new TestNetworkMap(), 1, 0)))
+                .withCompactPropertyStorage(compact);
+
+        long before = usedHeap();
+        AnalogValueObject[] objects = new AnalogValueObject[OBJECTS];
+        for (int i = 0; i < OBJECTS; i++) {
+            objects[i] = new AnalogValueObject(localDevice, i, "av" + i, i, EngineeringUnits.noUnits, false);
+            objects[i].writePropertyInternal(PropertyIdentifier.presentValue, new Real(i * 0.5F));
+        }
+        long used = usedHeap() - before;
+
+        double sum = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < READS; i++) {
+            Real value = objects[i % OBJECTS].get(PropertyIdentifier.presentValue);
+            sum += value.floatValue();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        System.out.printf("%-10s %,6d bytes per object, %,4d ns per present value read (%s)%n",
+                compact ? "compact:" : "hash map:", used / OBJECTS, elapsed / READS, sum > 0 ? "ok" : "?");
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
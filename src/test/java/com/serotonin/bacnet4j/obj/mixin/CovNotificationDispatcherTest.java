@@ -0,0 +1,142 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2026 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+package com.serotonin.bacnet4j.obj.mixin;
+
+import static com.serotonin.bacnet4j.TestUtils.awaitEquals;
+import static com.serotonin.bacnet4j.TestUtils.quiesce;
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.serotonin.bacnet4j.AbstractTest;
+import com.serotonin.bacnet4j.obj.AnalogValueObject;
+import com.serotonin.bacnet4j.obj.CovNotifListener;
+import com.serotonin.bacnet4j.service.confirmed.SubscribeCOVRequest;
+import com.serotonin.bacnet4j.type.constructed.PropertyValue;
+import com.serotonin.bacnet4j.type.constructed.SequenceOf;
+import com.serotonin.bacnet4j.type.constructed.StatusFlags;
+import com.serotonin.bacnet4j.type.enumerated.EngineeringUnits;
+import com.serotonin.bacnet4j.type.enumerated.PropertyIdentifier;
+import com.serotonin.bacnet4j.type.primitive.Boolean;
+import com.serotonin.bacnet4j.type.primitive.Real;
+import com.serotonin.bacnet4j.type.primitive.UnsignedInteger;
+
+public class CovNotificationDispatcherTest extends AbstractTest {
+    @Test
+    public void coalescesWithinMinimumInterval() throws Exception {
+        d1.getCovNotificationDispatcher().withMinimumInterval(10, TimeUnit.SECONDS);
+        AnalogValueObject av = d1.addObject(new AnalogValueObject(d1, 0, "av0", 10, EngineeringUnits.amperes, false));
+        av.supportCovReporting(4);
+
+        CovNotifListener listener = new CovNotifListener();
+        d2.getEventHandler().addListener(listener);
+        d2.send(rd1, new SubscribeCOVRequest(new UnsignedInteger(4), av.getId(), Boolean.TRUE, //
+                new UnsignedInteger(600))).get();
+        awaitEquals(1, listener::getNotifCount);
+        listener.clearNotifs();
+
+        // Changes within the interval of the initial notification wait, each replacing the last.
+        av.writePropertyInternal(PropertyIdentifier.presentValue, new Real(20));
+        av.writePropertyInternal(PropertyIdentifier.presentValue, new Real(30));
+        av.writePropertyInternal(PropertyIdentifier.presentValue, new Real(40));
+        quiesce();
+        assertEquals(0, listener.getNotifCount());
+        assertEquals(1, d1.getCovNotificationDispatcher().getQueueSize());
+
+        clock.plusSeconds(10);
+        awaitEquals(1, listener::getNotifCount);
+        assertEquals(new SequenceOf<>( //
+                        new PropertyValue(PropertyIdentifier.presentValue, new Real(40)), //
+                        new PropertyValue(PropertyIdentifier.statusFlags, new StatusFlags(false, false, false, false))),
+                listener.removeNotif().listOfValues());
+        assertEquals(0, d1.getCovNotificationDispatcher().getQueueSize());
+
+        // The next change waits for the rest of the interval.
+        clock.plusSeconds(5);
+        av.writePropertyInternal(PropertyIdentifier.presentValue, new Real(50));
+        quiesce();
+        assertEquals(0, listener.getNotifCount());
+        clock.plusSeconds(5);
+        awaitEquals(1, listener::getNotifCount);
+    }
+
+    @Test
+    public void cancelDiscardsWaitingNotification() throws Exception {
+        d1.getCovNotificationDispatcher().withMinimumInterval(10, TimeUnit.SECONDS);
+        AnalogValueObject av = d1.addObject(new AnalogValueObject(d1, 0, "av0", 10, EngineeringUnits.amperes, false));
+        av.supportCovReporting(4);
+
+        CovNotifListener listener = new CovNotifListener();
+        d2.getEventHandler().addListener(listener);
+        d2.send(rd1, new SubscribeCOVRequest(new UnsignedInteger(4), av.getId(), Boolean.TRUE, //
+                new UnsignedInteger(600))).get();
+        awaitEquals(1, listener::getNotifCount);
+        listener.clearNotifs();
+
+        // A change waits for the interval, and the subscription is cancelled in the meantime.
+        av.writePropertyInternal(PropertyIdentifier.presentValue, new Real(20));
+        quiesce();
+        assertEquals(1, d1.getCovNotificationDispatcher().getQueueSize());
+        d2.send(rd1, new SubscribeCOVRequest(new UnsignedInteger(4), av.getId(), null, null)).get();
+        assertEquals(0, d1.getCovNotificationDispatcher().getQueueSize());
+
+        clock.plusSeconds(10);
+        quiesce();
+        assertEquals(0, listener.getNotifCount());
+    }
+
+    @Test
+    public void sendsImmediatelyWhenQueueIsFull() throws Exception {
+        d1.getCovNotificationDispatcher().withMinimumInterval(10, TimeUnit.SECONDS).withQueueCapacity(1);
+        AnalogValueObject av0 = d1.addObject(new AnalogValueObject(d1, 0, "av0", 10, EngineeringUnits.amperes, false));
+        av0.supportCovReporting(4);
+        AnalogValueObject av1 = d1.addObject(new AnalogValueObject(d1, 1, "av1", 10, EngineeringUnits.amperes, false));
+        av1.supportCovReporting(4);
+
+        CovNotifListener listener = new CovNotifListener();
+        d2.getEventHandler().addListener(listener);
+        d2.send(rd1, new SubscribeCOVRequest(new UnsignedInteger(4), av0.getId(), Boolean.FALSE, //
+                new UnsignedInteger(600))).get();
+        d2.send(rd1, new SubscribeCOVRequest(new UnsignedInteger(4), av1.getId(), Boolean.FALSE, //
+                new UnsignedInteger(600))).get();
+        awaitEquals(2, listener::getNotifCount);
+        listener.clearNotifs();
+
+        // The change to av0 takes the one place in the queue, so that of av1 is sent right away.
+        av0.writePropertyInternal(PropertyIdentifier.presentValue, new Real(20));
+        av1.writePropertyInternal(PropertyIdentifier.presentValue, new Real(20));
+        awaitEquals(1, listener::getNotifCount);
+        assertEquals(av1.getId(), listener.removeNotif().monitoredObjectIdentifier());
+
+        clock.plusSeconds(10);
+        awaitEquals(1, listener::getNotifCount);
+        assertEquals(av0.getId(), listener.removeNotif().monitoredObjectIdentifier());
+    }
+}
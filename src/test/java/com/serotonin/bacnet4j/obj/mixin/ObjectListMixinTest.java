@@ -0,0 +1,109 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2025 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+package com.serotonin.bacnet4j.obj.mixin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.serotonin.bacnet4j.LocalDevice;
+import com.serotonin.bacnet4j.TestUtils;
+import com.serotonin.bacnet4j.npdu.test.TestNetwork;
+import com.serotonin.bacnet4j.npdu.test.TestNetworkMap;
+import com.serotonin.bacnet4j.obj.AnalogValueObject;
+import com.serotonin.bacnet4j.obj.DeviceObject;
+import com.serotonin.bacnet4j.transport.DefaultTransport;
+import com.serotonin.bacnet4j.type.Encodable;
+import com.serotonin.bacnet4j.type.constructed.BACnetArray;
+import com.serotonin.bacnet4j.type.enumerated.EngineeringUnits;
+import com.serotonin.bacnet4j.type.enumerated.ErrorClass;
+import com.serotonin.bacnet4j.type.enumerated.ErrorCode;
+import com.serotonin.bacnet4j.type.enumerated.PropertyIdentifier;
+import com.serotonin.bacnet4j.type.primitive.ObjectIdentifier;
+import com.serotonin.bacnet4j.type.primitive.UnsignedInteger;
+
+public class ObjectListMixinTest {
+    private final TestNetworkMap map = new TestNetworkMap();
+    private LocalDevice d1;
+    private DeviceObject device;
+
+    @Before
+    public void before() throws Exception {
+        d1 = new LocalDevice(1, new DefaultTransport(new TestNetwork(map, 1, 0))).initialize();
+        device = d1.getDeviceObject();
+    }
+
+    @After
+    public void after() {
+        d1.terminate();
+    }
+
+    @Test
+    public void followsObjects() throws Exception {
+        List<PropertyIdentifier> changes = new ArrayList<>();
+        device.addListener((pid, oldValue, newValue) -> changes.add(pid));
+
+        AnalogValueObject av0 = d1.addObject(
+                new AnalogValueObject(d1, 0, "av0", 0, EngineeringUnits.noUnits, false));
+        AnalogValueObject av1 = d1.addObject(
+                new AnalogValueObject(d1, 1, "av1", 0, EngineeringUnits.noUnits, false));
+        assertEquals(List.of(device.getId(), av0.getId(), av1.getId()), objectList().getValues());
+
+        // Indexed reads are served from the same array.
+        BACnetArray<ObjectIdentifier> list = objectList();
+        assertEquals(new UnsignedInteger(3), device.readProperty(PropertyIdentifier.objectList, UnsignedInteger.ZERO));
+        assertEquals(av1.getId(), device.readProperty(PropertyIdentifier.objectList, new UnsignedInteger(3)));
+        assertSame(list, objectList());
+
+        d1.removeObject(av0.getId());
+        assertEquals(List.of(device.getId(), av1.getId()), objectList().getValues());
+        TestUtils.assertBACnetServiceException(
+                () -> device.readProperty(PropertyIdentifier.objectList, new UnsignedInteger(3)), ErrorClass.property,
+                ErrorCode.invalidArrayIndex);
+
+        // Reading the list does not write it.
+        assertTrue(changes.isEmpty());
+    }
+
+    @Test
+    public void notWritable() {
+        TestUtils.assertBACnetServiceException(() -> device.writeProperty(null, PropertyIdentifier.objectList,
+                new BACnetArray<Encodable>()), ErrorClass.property, ErrorCode.writeAccessDenied);
+    }
+
+    private BACnetArray<ObjectIdentifier> objectList() throws Exception {
+        return device.readProperty(PropertyIdentifier.objectList);
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2025 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+package com.serotonin.bacnet4j.obj.mixin;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.serotonin.bacnet4j.LocalDevice;
+import com.serotonin.bacnet4j.npdu.test.TestNetwork;
+import com.serotonin.bacnet4j.npdu.test.TestNetworkMap;
+import com.serotonin.bacnet4j.obj.AnalogValueObject;
+import com.serotonin.bacnet4j.transport.DefaultTransport;
+import com.serotonin.bacnet4j.type.constructed.BACnetArray;
+import com.serotonin.bacnet4j.type.enumerated.EngineeringUnits;
+import com.serotonin.bacnet4j.type.enumerated.PropertyIdentifier;
+import com.serotonin.bacnet4j.type.primitive.CharacterString;
+
+public class PropertyListMixinTest {
+    private final TestNetworkMap map = new TestNetworkMap();
+    private LocalDevice d1;
+
+    @Before
+    public void before() throws Exception {
+        d1 = new LocalDevice(1, new DefaultTransport(new TestNetwork(map, 1, 0))).initialize();
+    }
+
+    @After
+    public void after() {
+        d1.terminate();
+    }
+
+    @Test
+    public void followsProperties() throws Exception {
+        AnalogValueObject av = d1.addObject(new AnalogValueObject(d1, 0, "av", 0, EngineeringUnits.noUnits, false));
+        List<PropertyIdentifier> changes = new ArrayList<>();
+        av.addListener((pid, oldValue, newValue) -> changes.add(pid));
+
+        BACnetArray<PropertyIdentifier> list = av.readProperty(PropertyIdentifier.propertyList);
+        assertTrue(list.contains(PropertyIdentifier.presentValue));
+        assertFalse(list.contains(PropertyIdentifier.propertyList));
+        assertFalse(list.contains(PropertyIdentifier.description));
+
+        // Unchanged until a property is added.
+        assertSame(list, av.readProperty(PropertyIdentifier.propertyList));
+        av.writePropertyInternal(PropertyIdentifier.description, new CharacterString("desc"));
+        list = av.readProperty(PropertyIdentifier.propertyList);
+        assertTrue(list.contains(PropertyIdentifier.description));
+        assertSame(list, av.readProperty(PropertyIdentifier.propertyList));
+
+        // Reading the list does not write it.
+        assertTrue(changes.stream().noneMatch(PropertyIdentifier.propertyList::equals));
+    }
+}
@@ -33,20 +33,28 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.AdditionalMatchers.aryEq;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doCallRealMethod;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -65,6 +73,7 @@ import com.serotonin.bacnet4j.apdu.ComplexACK;
 import com.serotonin.bacnet4j.apdu.ConfirmedRequest;
 import com.serotonin.bacnet4j.apdu.SegmentACK;
 import com.serotonin.bacnet4j.apdu.Segmentable;
+import com.serotonin.bacnet4j.apdu.UnconfirmedRequest;
 import com.serotonin.bacnet4j.enums.MaxApduLength;
 import com.serotonin.bacnet4j.event.DeviceEventHandler;
 import com.serotonin.bacnet4j.exception.BACnetException;
@@ -76,6 +85,7 @@ import com.serotonin.bacnet4j.service.acknowledgement.ReadPropertyMultipleAck;
 import com.serotonin.bacnet4j.service.confirmed.ConfirmedRequestService;
 import com.serotonin.bacnet4j.service.confirmed.DeviceCommunicationControlRequest.EnableDisable;
 import com.serotonin.bacnet4j.service.confirmed.ReadPropertyMultipleRequest;
+import com.serotonin.bacnet4j.service.unconfirmed.WhoIsRequest;
 import com.serotonin.bacnet4j.type.constructed.Address;
 import com.serotonin.bacnet4j.type.constructed.PropertyReference;
 import com.serotonin.bacnet4j.type.constructed.ReadAccessResult;
@@ -88,6 +98,7 @@ import com.serotonin.bacnet4j.type.enumerated.PropertyIdentifier;
 import com.serotonin.bacnet4j.type.enumerated.Segmentation;
 import com.serotonin.bacnet4j.type.primitive.CharacterString;
 import com.serotonin.bacnet4j.type.primitive.ObjectIdentifier;
+import com.serotonin.bacnet4j.type.primitive.OctetString;
 import com.serotonin.bacnet4j.util.sero.ByteQueue;
 import com.serotonin.bacnet4j.util.sero.ThreadUtils;
 
@@ -547,6 +558,166 @@ public class DefaultTransportTest {
         assertEquals(SegmentSequence.MIN_WINDOW_SIZE, transport.getSegWindow());
     }
 
+    /**
+     * A bounded incoming queue discards the arriving NPDU when full under DROP_NEWEST, and the queued NPDU at the head
+     * under DROP_OLDEST. Either way the queue never exceeds its capacity and every discard is counted.
+     */
+    @Test
+    public void incomingQueueLimit() {
+        final DefaultTransport transport = new DefaultTransport(mock(Network.class));
+        final Address from = getSourceAddress();
+
+        transport.setIncomingQueueLimit(3, DefaultTransport.IncomingDropPolicy.DROP_NEWEST);
+        for (int i = 0; i < 5; i++)
+            transport.incoming(new NPDU(from, null, new ByteQueue()));
+        assertEquals(3, transport.getIncomingCount());
+        assertEquals(2, transport.getIncomingDroppedCount());
+
+        transport.setIncomingQueueLimit(3, DefaultTransport.IncomingDropPolicy.DROP_OLDEST);
+        for (int i = 0; i < 4; i++)
+            transport.incoming(new NPDU(from, null, new ByteQueue()));
+        assertEquals(3, transport.getIncomingCount());
+        assertEquals(6, transport.getIncomingDroppedCount());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> transport.setIncomingQueueLimit(-1, DefaultTransport.IncomingDropPolicy.DROP_NEWEST));
+    }
+
+    /**
+     * The capacity holds when several network threads deliver at once.
+     */
+    @Test(timeout = 10_000)
+    public void incomingQueueLimitWithConcurrentDelivery() throws Exception {
+        for (DefaultTransport.IncomingDropPolicy policy : DefaultTransport.IncomingDropPolicy.values()) {
+            final DefaultTransport transport = new DefaultTransport(mock(Network.class));
+            final Address from = getSourceAddress();
+            transport.setIncomingQueueLimit(10, policy);
+
+            final CyclicBarrier start = new CyclicBarrier(4);
+            final List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                Thread thread = new Thread(() -> {
+                    try {
+                        start.await();
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                    for (int i = 0; i < 1000; i++)
+                        transport.incoming(new NPDU(from, null, new ByteQueue()));
+                });
+                thread.start();
+                threads.add(thread);
+            }
+            for (Thread thread : threads)
+                thread.join();
+
+            assertEquals(10, transport.getIncomingCount());
+            assertEquals(3990, transport.getIncomingDroppedCount());
+        }
+    }
+
+    /**
+     * A message to a network with no known router is held while the router is discovered, and sent through the router
+     * once it answers with I-Am-Router-To-Network.
+     */
+    @Test(timeout = 10_000)
+    public void messageIsHeldUntilRouterIsFound() throws Exception {
+        final Network network = mock(Network.class);
+        final LocalDevice localDevice = mock(LocalDevice.class);
+        when(localDevice.getClock()).thenReturn(Clock.systemUTC());
+        when(localDevice.getServicesSupported()).thenReturn(new ServicesSupported());
+        when(localDevice.getCommunicationControlState()).thenReturn(EnableDisable.enable);
+
+        final DefaultTransport transport = new DefaultTransport(network);
+        transport.setLocalDevice(localDevice);
+        transport.initialize();
+
+        final Address to = new Address(5, new byte[] {9});
+        transport.send(to, new WhoIsRequest());
+        transport.send(to, new WhoIsRequest());
+        awaitEquals(2, transport::getPendingRouteCount, 1000);
+
+        // One Who-Is-Router-To-Network for network 5, no matter how many messages are waiting.
+        verify(network, timeout(1000).times(1)).sendNetworkMessage(any(), any(), eq(0), aryEq(new byte[] {0, 5}),
+                eq(true), eq(false));
+
+        // The router answers.
+        final OctetString router = new OctetString(new byte[] {7});
+        final NPDU iAmRouter = mock(NPDU.class);
+        when(iAmRouter.isNetworkMessage()).thenReturn(true);
+        when(iAmRouter.getNetworkMessageType()).thenReturn(0x1);
+        when(iAmRouter.getNetworkMessageData()).thenReturn(new ByteQueue(new byte[] {0, 5}));
+        when(iAmRouter.getFrom()).thenReturn(new Address(router));
+        transport.incoming(iAmRouter);
+
+        awaitEquals(0, transport::getPendingRouteCount, 1000);
+        verify(network, timeout(1000).times(2)).sendAPDU(eq(to), eq(router), any(UnconfirmedRequest.class),
+                eq(false));
+        assertEquals(router, transport.getNetworkRouters().get(5));
+
+        transport.terminate();
+    }
+
+    @Test(timeout = 10_000)
+    public void heldMessageFailsWhenNoRouterIsFound() throws Exception {
+        final Network network = mock(Network.class);
+        final LocalDevice localDevice = mock(LocalDevice.class);
+        when(localDevice.getClock()).thenReturn(Clock.systemUTC());
+        when(localDevice.getServicesSupported()).thenReturn(new ServicesSupported());
+        when(localDevice.getCommunicationControlState()).thenReturn(EnableDisable.enable);
+
+        final DefaultTransport transport = new DefaultTransport(network);
+        transport.setLocalDevice(localDevice);
+        transport.setRouterDiscovery(300, 50, 10);
+        transport.initialize();
+
+        final ConfirmedRequestService service = mock(ConfirmedRequestService.class);
+        ServiceFuture future = transport.send(new Address(6, new byte[] {1}), 1476, Segmentation.noSegmentation,
+                service);
+
+        BACnetException e = assertThrows(BACnetException.class, future::get);
+        assertTrue(e.getMessage().contains("Unable to find router to network 6"));
+        assertEquals(0, transport.getPendingRouteCount());
+
+        // The Who-Is-Router-To-Network was repeated while waiting.
+        verify(network, atLeast(2)).sendNetworkMessage(any(), any(), eq(0), aryEq(new byte[] {0, 6}),
+                eq(true), eq(false));
+
+        transport.terminate();
+    }
+
+    @Test
+    public void learnedRoutersAge() throws Exception {
+        final Network network = mock(Network.class);
+        final LocalDevice localDevice = mock(LocalDevice.class);
+        final AtomicReference<Clock> clock = new AtomicReference<>(Clock.fixed(Instant.EPOCH, ZoneOffset.UTC));
+        when(localDevice.getClock()).thenAnswer(inv -> clock.get());
+        when(localDevice.getServicesSupported()).thenReturn(new ServicesSupported());
+
+        final DefaultTransport transport = new DefaultTransport(network);
+        transport.setLocalDevice(localDevice);
+        transport.setRouterMaxAge(60_000);
+        transport.addNetworkRouter(1, new OctetString(new byte[] {1}));
+        transport.networkRouterSeen(2, new OctetString(new byte[] {2}));
+        transport.initialize();
+
+        // An I-Am-Router-To-Network neither replaces nor ages the configured router.
+        final NPDU iAmRouter = mock(NPDU.class);
+        when(iAmRouter.isNetworkMessage()).thenReturn(true);
+        when(iAmRouter.getNetworkMessageType()).thenReturn(0x1);
+        when(iAmRouter.getNetworkMessageData()).thenReturn(new ByteQueue(new byte[] {0, 1, 0, 3}));
+        when(iAmRouter.getFrom()).thenReturn(new Address(new OctetString(new byte[] {9})));
+        transport.incoming(iAmRouter);
+        awaitEquals(3, () -> transport.getNetworkRouters().size(), 1000);
+        assertEquals(new OctetString(new byte[] {1}), transport.getNetworkRouters().get(1));
+
+        clock.set(Clock.offset(clock.get(), Duration.ofMinutes(2)));
+        awaitEquals(1, () -> transport.getNetworkRouters().size(), 1000);
+        assertEquals(new OctetString(new byte[] {1}), transport.getNetworkRouters().get(1));
+
+        transport.terminate();
+    }
+
     /**
      * Clause 5.4 defines no transition for a segment acknowledgement whose 'actual-window-size' is out of range, and
      * a value of zero would stall the transmission until it timed out, so it is clamped to one instead.
@@ -0,0 +1,133 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2025 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+
+package com.serotonin.bacnet4j.util;
+
+import static com.serotonin.bacnet4j.TestUtils.awaitEquals;
+import static com.serotonin.bacnet4j.TestUtils.quiesce;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.serotonin.bacnet4j.LocalDevice;
+import com.serotonin.bacnet4j.RemoteDevice;
+import com.serotonin.bacnet4j.event.DeviceEventAdapter;
+import com.serotonin.bacnet4j.npdu.test.TestNetwork;
+import com.serotonin.bacnet4j.npdu.test.TestNetworkMap;
+import com.serotonin.bacnet4j.service.unconfirmed.WhoIsRequest;
+import com.serotonin.bacnet4j.transport.DefaultTransport;
+import com.serotonin.bacnet4j.type.enumerated.PropertyIdentifier;
+import com.serotonin.bacnet4j.type.enumerated.Segmentation;
+
+import lohbihler.warp.WarpClock;
+
+public class IAmIngesterTest {
+    private final TestNetworkMap map = new TestNetworkMap();
+    private final WarpClock clock = new WarpClock();
+    private final List<LocalDevice> devices = new CopyOnWriteArrayList<>();
+
+    @After
+    public void after() {
+        for (LocalDevice d : devices)
+            d.terminate();
+    }
+
+    @Test
+    public void iAmsAreIngestedOncePerInterval() throws Exception {
+        IAmIngester ingester = new IAmIngester(500, 100);
+        LocalDevice d1 = createDevice(1).withIAmIngester(ingester);
+        d1.initialize();
+        for (int i = 2; i <= 4; i++)
+            createDevice(i).initialize();
+
+        List<List<RemoteDevice>> batches = new CopyOnWriteArrayList<>();
+        AtomicInteger singles = new AtomicInteger();
+        d1.getEventHandler().addListener(new DeviceEventAdapter() {
+            @Override
+            public void iAmsReceived(List<RemoteDevice> devices) {
+                batches.add(devices);
+            }
+        });
+        d1.getEventHandler().addListener(new DeviceEventAdapter() {
+            @Override
+            public void iAmReceived(RemoteDevice d) {
+                singles.incrementAndGet();
+            }
+        });
+
+        // Ask twice, so that every device answers twice.
+        d1.sendGlobalBroadcast(new WhoIsRequest());
+        d1.sendGlobalBroadcast(new WhoIsRequest());
+        awaitEquals(6, () -> (int) ingester.getReceivedCount());
+
+        // Nothing is delivered or cached until the interval has passed.
+        quiesce();
+        assertEquals(0, batches.size());
+        assertNull(d1.getCachedRemoteDevice(2));
+
+        clock.plusMillis(500);
+        awaitEquals(1, batches::size);
+        assertEquals(3, batches.get(0).size());
+        awaitEquals(3, singles::get);
+        assertEquals(1, ingester.getBatchCount());
+
+        RemoteDevice rd = d1.getCachedRemoteDevice(3);
+        assertNotNull(rd);
+        assertEquals(Segmentation.segmentedBoth, rd.getDeviceProperty(PropertyIdentifier.segmentationSupported));
+    }
+
+    @Test
+    public void fullBatchIsIngestedEarly() throws Exception {
+        IAmIngester ingester = new IAmIngester(60_000, 2);
+        LocalDevice d1 = createDevice(1).withIAmIngester(ingester);
+        d1.initialize();
+        for (int i = 2; i <= 5; i++)
+            createDevice(i).initialize();
+
+        d1.sendGlobalBroadcast(new WhoIsRequest(2, 3));
+        awaitEquals(1, () -> (int) ingester.getBatchCount());
+        assertEquals(2, d1.getRemoteDevices().size());
+
+        d1.sendGlobalBroadcast(new WhoIsRequest(4, 5));
+        awaitEquals(2, () -> (int) ingester.getBatchCount());
+        assertEquals(4, d1.getRemoteDevices().size());
+    }
+
+    private LocalDevice createDevice(int id) {
+        LocalDevice d = new LocalDevice(id, new DefaultTransport(new TestNetwork(map, id, 0))).withClock(clock);
+        devices.add(d);
+        return d;
+    }
+}
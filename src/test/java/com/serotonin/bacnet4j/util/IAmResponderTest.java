@@ -0,0 +1,153 @@
+/*
+ * ============================================================================
+ * GNU General Public License
+ * ============================================================================
+ *
+ * Copyright (C) 2025 Radix IoT LLC. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * When signing a commercial license with Radix IoT LLC,
+ * the following extension to GPL is made. A special exception to the GPL is
+ * included to allow you to distribute a combined work that includes BAcnet4J
+ * without being obliged to provide the source code for any proprietary components.
+ *
+ * See www.radixiot.com for commercial license options.
+ */
+
+
+package com.serotonin.bacnet4j.util;
+
+import static com.serotonin.bacnet4j.TestUtils.awaitEquals;
+import static com.serotonin.bacnet4j.TestUtils.quiesce;
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.serotonin.bacnet4j.LocalDevice;
+import com.serotonin.bacnet4j.RemoteDevice;
+import com.serotonin.bacnet4j.event.DeviceEventAdapter;
+import com.serotonin.bacnet4j.npdu.test.TestNetwork;
+import com.serotonin.bacnet4j.npdu.test.TestNetworkMap;
+import com.serotonin.bacnet4j.service.unconfirmed.WhoIsRequest;
+import com.serotonin.bacnet4j.transport.DefaultTransport;
+import com.serotonin.bacnet4j.type.constructed.Address;
+
+import lohbihler.warp.WarpClock;
+
+public class IAmResponderTest {
+    private final TestNetworkMap map = new TestNetworkMap();
+    private final WarpClock clock = new WarpClock();
+    private final IAmResponder responder = new IAmResponder(1000, 0);
+    private final LocalDevice d1 = new LocalDevice(1, new DefaultTransport(new TestNetwork(map, 1, 0)))
+            .withClock(clock).withIAmResponder(responder);
+    private final LocalDevice d2 = new LocalDevice(2, new DefaultTransport(new TestNetwork(map, 2, 0)))
+            .withClock(clock);
+    private final LocalDevice d3 = new LocalDevice(3, new DefaultTransport(new TestNetwork(map, 3, 0)))
+            .withClock(clock);
+
+    private final AtomicInteger d2IAms = new AtomicInteger();
+    private final AtomicInteger d3IAms = new AtomicInteger();
+
+    @Before
+    public void before() throws Exception {
+        d1.initialize();
+        d2.initialize();
+        d3.initialize();
+        d2.getEventHandler().addListener(new IAmCounter(d2IAms));
+        d3.getEventHandler().addListener(new IAmCounter(d3IAms));
+    }
+
+    @After
+    public void after() {
+        d1.terminate();
+        d2.terminate();
+        d3.terminate();
+    }
+
+    @Test
+    public void broadcastsAreCoalesced() throws Exception {
+        // The first response is sent right away.
+        d2.sendGlobalBroadcast(new WhoIsRequest());
+        awaitEquals(1, d2IAms::get);
+        awaitEquals(1, d3IAms::get);
+
+        // Further requests in the window are answered together at the end of the window.
+        for (int i = 0; i < 5; i++) {
+            d2.sendGlobalBroadcast(new WhoIsRequest());
+            d3.sendGlobalBroadcast(new WhoIsRequest());
+        }
+        awaitEquals(11, () -> (int) responder.getRequestCount());
+        quiesce();
+        assertEquals(1, d2IAms.get());
+
+        clock.plusMillis(1000);
+        awaitEquals(2, d2IAms::get);
+        awaitEquals(2, d3IAms::get);
+        assertEquals(2, responder.getResponseCount());
+    }
+
+    @Test
+    public void directedRequestsAreAnsweredByUnicast() throws Exception {
+        Address d1Address = d1.getLoopbackAddress();
+
+        d2.send(d1Address, new WhoIsRequest());
+        awaitEquals(1, d2IAms::get);
+
+        // Requests out of range are not merged into the response.
+        d3.send(d1Address, new WhoIsRequest(5, 10));
+        d2.send(d1Address, new WhoIsRequest(1, 1));
+        awaitEquals(2, () -> (int) responder.getRequestCount());
+        clock.plusMillis(1000);
+        awaitEquals(2, d2IAms::get);
+
+        quiesce();
+        assertEquals(0, d3IAms.get());
+        assertEquals(2, responder.getResponseCount());
+    }
+
+    @Test
+    public void broadcastSupersedesUnicasts() throws Exception {
+        d2.sendGlobalBroadcast(new WhoIsRequest());
+        awaitEquals(1, d3IAms::get);
+
+        d2.send(d1.getLoopbackAddress(), new WhoIsRequest());
+        d3.sendGlobalBroadcast(new WhoIsRequest());
+        awaitEquals(3, () -> (int) responder.getRequestCount());
+        clock.plusMillis(1000);
+
+        awaitEquals(2, d2IAms::get);
+        awaitEquals(2, d3IAms::get);
+        quiesce();
+        assertEquals(2, d2IAms.get());
+        assertEquals(2, responder.getResponseCount());
+    }
+
+    static class IAmCounter extends DeviceEventAdapter {
+        private final AtomicInteger count;
+
+        IAmCounter(AtomicInteger count) {
+            this.count = count;
+        }
+
+        @Override
+        public void iAmReceived(RemoteDevice d) {
+            if (d.getInstanceNumber() == 1)
+                count.incrementAndGet();
+        }
+    }
+}
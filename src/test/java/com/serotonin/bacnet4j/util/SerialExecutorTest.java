@@ -25,7 +25,7 @@
  * See www.radixiot.com for commercial license options.
  */
 
-package com.serotonin.bacnet4j.npdu.sc;
+package com.serotonin.bacnet4j.util;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -128,6 +128,36 @@ public class SerialExecutorTest {
         assertEquals(List.of("first"), order);
     }
 
+    /**
+     * A drain runs at most a batch of tasks, then hands the rest to the delegate as a new drain, so a busy
+     * executor does not hold a pool thread indefinitely.
+     */
+    @Test
+    public void drainRunsInBatches() {
+        List<Runnable> held = new ArrayList<>();
+        var executor = new SerialExecutor(held::add);
+        AtomicInteger ran = new AtomicInteger();
+
+        int taskCount = SerialExecutor.BATCH_SIZE + 10;
+        for (int i = 0; i < taskCount; i++) {
+            executor.execute(ran::incrementAndGet);
+        }
+        // Only the first submission handed a drain to the delegate.
+        assertEquals(1, held.size());
+
+        held.remove(0).run();
+        assertEquals(SerialExecutor.BATCH_SIZE, ran.get());
+        assertEquals(1, held.size());
+
+        held.remove(0).run();
+        assertEquals(taskCount, ran.get());
+        assertTrue(held.isEmpty());
+
+        // Once drained, the next submission hands off a new drain.
+        executor.execute(ran::incrementAndGet);
+        assertEquals(1, held.size());
+    }
+
     /**
      * With a multi-threaded delegate — the production case, where the local device's executor is a cached
      * thread pool — tasks still run one at a time and in submission order.